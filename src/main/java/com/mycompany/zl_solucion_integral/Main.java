@@ -1,9 +1,17 @@
 package com.mycompany.zl_solucion_integral;
 
+import com.mycompany.zl_solucion_integral.config.BandejaCorreo;
+import com.mycompany.zl_solucion_integral.config.CacheProductos;
+import com.mycompany.zl_solucion_integral.config.ColaEscritura;
 import com.mycompany.zl_solucion_integral.config.ConexionDB;
 import com.mycompany.zl_solucion_integral.config.DatabaseInitializer;
+import com.mycompany.zl_solucion_integral.config.PerfilSQLite;
+import com.mycompany.zl_solucion_integral.config.PoolConexiones;
+import com.mycompany.zl_solucion_integral.controllers.VentasController;
 import com.mycompany.zl_solucion_integral.vistas.FormLogIn;
 import com.mycompany.zl_solucion_integral.vistas.FormRegistroUsuarios;
+import java.sql.SQLException;
+import java.util.concurrent.CompletionException;
 import javax.swing.JOptionPane;
 
 /**
@@ -18,6 +26,11 @@ import javax.swing.JOptionPane;
  */
 public class Main {
 
+    /**
+     * Argumento que recalcula el resumen diario de ventas sin abrir la interfaz.
+     */
+    public static final String RECONSTRUIR_RESUMEN_VENTAS = "--reconstruir-resumen-ventas";
+
     /**
      * Método principal que se ejecuta al iniciar la aplicación.
      *
@@ -26,20 +39,44 @@ public class Main {
      * sesión. Si la inicialización de la base de datos falla, muestra un
      * mensaje de error.
      *
-     * @param args Argumentos de línea de comandos (no utilizados en esta
-     * aplicación).
+     * Con el argumento `--reconstruir-resumen-ventas` no abre la interfaz:
+     * vuelve a calcular el resumen diario de ventas y termina.
+     *
+     * @param args Argumentos de línea de comandos.
      */
     public static void main(String[] args) {
         if (inicializarBaseDatos()) {
-            iniciarAplicacion();
+            if (args.length > 0 && args[0].equals(RECONSTRUIR_RESUMEN_VENTAS)) {
+                reconstruirResumenVentas();
+            } else {
+                iniciarAplicacion();
+            }
+        }
+    }
+
+    /**
+     * Recalcula la tabla `ventas_diarias` a partir de todas las ventas y
+     * termina la aplicación.
+     */
+    private static void reconstruirResumenVentas() {
+        int estado = 0;
+        try {
+            int filas = VentasController.reconstruirResumenDiario().join();
+            System.out.println("Resumen diario de ventas reconstruido: " + filas + " filas.");
+        } catch (CompletionException e) {
+            e.getCause().printStackTrace();
+            estado = 1;
         }
+        System.exit(estado);
     }
 
     /**
      * Método para inicializar la base de datos.
      *
-     * Este método crea una instancia de `ConexionDB` y `DatabaseInitializer`
-     * para inicializar las tablas necesarias en la base de datos. Si ocurre un
+     * Este método configura el pool de conexiones (con el perfil SQLite del
+     * archivo de configuración) y crea una instancia de
+     * `ConexionDB` y `DatabaseInitializer` para inicializar las tablas
+     * necesarias en la base de datos. Si ocurre un
      * error durante la inicialización, se muestra un mensaje de error al
      * usuario.
      *
@@ -47,10 +84,24 @@ public class Main {
      * en caso contrario.
      */
     private static boolean inicializarBaseDatos() {
-        ConexionDB conexion = new ConexionDB();
         try {
+            // Configurar una sola vez el pool de conexiones compartido
+            PoolConexiones.inicializar(ConexionDB.CADENA, ConexionDB.numeroLectores(),
+                    ConexionDB.tiempoEsperaMs(), PerfilSQLite.desdeConfiguracion());
+            Runtime.getRuntime().addShutdownHook(new Thread(Main::cerrarBaseDatos));
+
+            ConexionDB conexion = new ConexionDB();
             DatabaseInitializer dbInit = new DatabaseInitializer(conexion);
             dbInit.inicializarTablas();
+
+            // Cargar el inventario en memoria para las búsquedas de productos
+            CacheProductos.getInstancia().cargar();
+
+            // Retomar en segundo plano los correos que quedaron en la bandeja de salida;
+            // sin cuenta de correo configurada, la bandeja se crea al primer envío y falla ahí
+            if (BandejaCorreo.estaConfigurada()) {
+                BandejaCorreo.getInstancia();
+            }
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -60,6 +111,21 @@ public class Main {
         }
     }
 
+    /**
+     * Cierra las conexiones del pool al terminar la aplicación.
+     */
+    private static void cerrarBaseDatos() {
+        // El remitente de correo guarda sus estados en la cola de escritura
+        BandejaCorreo.cerrar(5000);
+        // Confirmar las escrituras encoladas antes de cerrar las conexiones
+        ColaEscritura.cerrar(5000);
+        try {
+            PoolConexiones.getInstancia().cerrar();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Método para iniciar la aplicación.
      *
@@ -0,0 +1,306 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recorre una sola vez los detalles de venta de un rango de días y acumula lo
+ * que necesitan los informes de productos, categorías y tamaño de cesta.
+ *
+ * La consulta lee `(venta_id, codigo, cantidad, precio)` con el índice de
+ * días de `ventas` y el índice de cobertura de `detalles_venta`, así que no
+ * toca las filas de las tablas. Cada código de producto recibe una posición y
+ * las unidades y el total se suman en arreglos primitivos; los detalles llegan
+ * agrupados por venta, lo que permite contar las unidades de cada cesta sin
+ * otra estructura.
+ *
+ * Para historiales largos, {@link #acumularEnParalelo(Long, Long)} reparte el
+ * rango en tramos de días con un número parecido de ventas (según
+ * `ventas_diarias`), lee cada tramo con su propia conexión de lectura en un
+ * `ForkJoinPool` y combina los acumulados de dos en dos. Una venta pertenece a
+ * un solo día, así que ninguna cesta queda partida entre tramos. El número de
+ * tramos es `analisis.hilos` (por defecto, los núcleos del equipo sin pasar
+ * del número de lectores del pool); con uno solo se hace la pasada normal.
+ *
+ * @author Dazac
+ */
+public final class AnalisisVentas {
+
+    /**
+     * Cestas de esta cantidad de unidades o más se cuentan juntas.
+     */
+    public static final int CESTA_MAXIMA = 20;
+
+    // Tramos por defecto: núcleos del equipo, sin pasar del número de lectores del pool
+    private static final int HILOS_MAXIMOS = Math.max(1, Math.min(
+            Runtime.getRuntime().availableProcessors(), ConexionDB.numeroLectores()));
+
+    private static final String SQL_DETALLES = "SELECT d.venta_id, d.codigo, d.cantidad, d.precio "
+            + "FROM ventas v JOIN detalles_venta d ON v.id = d.venta_id "
+            + "WHERE v.fecha_dia BETWEEN ? AND ?";
+
+    /**
+     * Acumulados por producto y por tamaño de cesta de un rango de días.
+     */
+    public static final class Acumulado {
+
+        private final Map<String, Integer> posiciones = new HashMap<>();
+        private String[] codigos = new String[256];
+        private long[] unidades = new long[256];
+        private double[] totales = new double[256];
+        private final long[] cestas = new long[CESTA_MAXIMA + 1];
+        private long ventas;
+
+        // Suma una línea de venta al producto
+        void sumar(String codigo, int cantidad, double precio) {
+            Integer posicion = posiciones.get(codigo);
+            if (posicion == null) {
+                posicion = posiciones.size();
+                if (posicion == codigos.length) {
+                    codigos = Arrays.copyOf(codigos, posicion * 2);
+                    unidades = Arrays.copyOf(unidades, posicion * 2);
+                    totales = Arrays.copyOf(totales, posicion * 2);
+                }
+                posiciones.put(codigo, posicion);
+                codigos[posicion] = codigo;
+            }
+            unidades[posicion] += cantidad;
+            totales[posicion] += precio * cantidad;
+        }
+
+        // Cuenta una venta completa con sus unidades
+        void cerrarCesta(long unidadesCesta) {
+            cestas[(int) Math.min(unidadesCesta, CESTA_MAXIMA)]++;
+            ventas++;
+        }
+
+        /**
+         * @return Número de productos distintos vendidos.
+         */
+        public int getProductos() {
+            return posiciones.size();
+        }
+
+        public String getCodigo(int posicion) {
+            return codigos[posicion];
+        }
+
+        public long getUnidades(int posicion) {
+            return unidades[posicion];
+        }
+
+        public double getTotal(int posicion) {
+            return totales[posicion];
+        }
+
+        /**
+         * @param unidadesCesta Unidades de la cesta, de 0 a
+         * {@link #CESTA_MAXIMA} (que agrupa las mayores).
+         * @return Número de ventas con esa cantidad de unidades.
+         */
+        public long getCestas(int unidadesCesta) {
+            return cestas[unidadesCesta];
+        }
+
+        public long getVentas() {
+            return ventas;
+        }
+
+        // Suma a este acumulado los de otro tramo
+        void combinar(Acumulado otro) {
+            for (int i = 0; i < otro.getProductos(); i++) {
+                String codigo = otro.codigos[i];
+                Integer posicion = posiciones.get(codigo);
+                if (posicion == null) {
+                    sumar(codigo, 0, 0);
+                    posicion = posiciones.get(codigo);
+                }
+                unidades[posicion] += otro.unidades[i];
+                totales[posicion] += otro.totales[i];
+            }
+            for (int i = 0; i < cestas.length; i++) {
+                cestas[i] += otro.cestas[i];
+            }
+            ventas += otro.ventas;
+        }
+    }
+
+    /**
+     * Lee un grupo de tramos: divide el grupo en dos mientras tenga más de un
+     * tramo y combina los resultados.
+     */
+    private static final class TareaTramos extends RecursiveTask<Acumulado> {
+
+        private final List<long[]> tramos;
+
+        TareaTramos(List<long[]> tramos) {
+            this.tramos = tramos;
+        }
+
+        @Override
+        protected Acumulado compute() {
+            if (tramos.size() == 1) {
+                long[] tramo = tramos.get(0);
+                try (Connection conn = PoolConexiones.getInstancia().obtenerLector()) {
+                    return acumular(conn, tramo[0], tramo[1]);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }
+            int mitad = tramos.size() / 2;
+            TareaTramos izquierda = new TareaTramos(tramos.subList(0, mitad));
+            izquierda.fork();
+            Acumulado derecha = new TareaTramos(tramos.subList(mitad, tramos.size())).compute();
+            Acumulado resultado = izquierda.join();
+            resultado.combinar(derecha);
+            return resultado;
+        }
+    }
+
+    private static ForkJoinPool grupoHilos;
+
+    private AnalisisVentas() {
+    }
+
+    /**
+     * Recorre los detalles de venta del rango.
+     *
+     * @param conn Conexión de lectura.
+     * @param desde Primer día (epoch day) incluido, o `null` para no limitar.
+     * @param hasta Último día (epoch day) incluido, o `null` para no limitar.
+     * @return Acumulados del rango.
+     * @throws SQLException Si falla la consulta.
+     */
+    public static Acumulado acumular(Connection conn, Long desde, Long hasta) throws SQLException {
+        Acumulado acumulado = new Acumulado();
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_DETALLES)) {
+            pstmt.setLong(1, desde != null ? desde : Long.MIN_VALUE);
+            pstmt.setLong(2, hasta != null ? hasta : Long.MAX_VALUE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int ventaActual = 0;
+                long unidadesCesta = 0;
+                boolean hayVenta = false;
+                while (rs.next()) {
+                    int ventaId = rs.getInt(1);
+                    int cantidad = rs.getInt(3);
+                    if (!hayVenta || ventaId != ventaActual) {
+                        if (hayVenta) {
+                            acumulado.cerrarCesta(unidadesCesta);
+                        }
+                        ventaActual = ventaId;
+                        unidadesCesta = 0;
+                        hayVenta = true;
+                    }
+                    unidadesCesta += cantidad;
+                    acumulado.sumar(rs.getString(2), cantidad, rs.getDouble(4));
+                }
+                if (hayVenta) {
+                    acumulado.cerrarCesta(unidadesCesta);
+                }
+            }
+        }
+        return acumulado;
+    }
+
+    /**
+     * Igual que {@link #acumular(Connection, Long, Long)} pero leyendo el
+     * rango por tramos en paralelo, cada uno con una conexión de lectura del
+     * pool. No se debe llamar teniendo ya una conexión de lectura, porque los
+     * tramos la necesitan.
+     *
+     * @param desde Primer día (epoch day) incluido, o `null` para no limitar.
+     * @param hasta Último día (epoch day) incluido, o `null` para no limitar.
+     * @return Acumulados del rango.
+     * @throws SQLException Si falla alguna consulta.
+     */
+    public static Acumulado acumularEnParalelo(Long desde, Long hasta) throws SQLException {
+        return acumularEnParalelo(desde, hasta, hilos());
+    }
+
+    /**
+     * Igual que {@link #acumularEnParalelo(Long, Long)} con un número de tramos
+     * dado.
+     *
+     * @param desde Primer día (epoch day) incluido, o `null` para no limitar.
+     * @param hasta Último día (epoch day) incluido, o `null` para no limitar.
+     * @param particiones Número máximo de tramos.
+     * @return Acumulados del rango.
+     * @throws SQLException Si falla alguna consulta.
+     */
+    public static Acumulado acumularEnParalelo(Long desde, Long hasta, int particiones) throws SQLException {
+        List<long[]> tramos;
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector()) {
+            if (particiones <= 1) {
+                return acumular(conn, desde, hasta);
+            }
+            tramos = dividir(conn, desde, hasta, particiones);
+        }
+        if (tramos.isEmpty()) {
+            return new Acumulado();
+        }
+        try {
+            return grupoHilos().invoke(new TareaTramos(tramos));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return Tramos que usa {@link #acumularEnParalelo(Long, Long)}.
+     */
+    public static int hilos() {
+        return Math.max(1, Configuracion.getInt("analisis.hilos", HILOS_MAXIMOS));
+    }
+
+    // Divide el rango en tramos de días consecutivos con un número de ventas parecido
+    private static List<long[]> dividir(Connection conn, Long desde, Long hasta, int particiones)
+            throws SQLException {
+        List<long[]> dias = new ArrayList<>();
+        long ventasRango = 0;
+        String sql = "SELECT dia, SUM(ventas) FROM ventas_diarias WHERE dia BETWEEN ? AND ? GROUP BY dia ORDER BY dia";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, desde != null ? desde : Long.MIN_VALUE);
+            pstmt.setLong(2, hasta != null ? hasta : Long.MAX_VALUE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    dias.add(new long[]{rs.getLong(1), rs.getLong(2)});
+                    ventasRango += rs.getLong(2);
+                }
+            }
+        }
+
+        List<long[]> tramos = new ArrayList<>();
+        long porTramo = Math.max(1, (ventasRango + particiones - 1) / particiones);
+        long acumuladas = 0;
+        int inicio = 0;
+        for (int i = 0; i < dias.size(); i++) {
+            acumuladas += dias.get(i)[1];
+            if (acumuladas >= porTramo || i == dias.size() - 1) {
+                tramos.add(new long[]{dias.get(inicio)[0], dias.get(i)[0]});
+                acumuladas = 0;
+                inicio = i + 1;
+            }
+        }
+        return tramos;
+    }
+
+    private static synchronized ForkJoinPool grupoHilos() {
+        if (grupoHilos == null) {
+            grupoHilos = new ForkJoinPool(hilos());
+        }
+        return grupoHilos;
+    }
+}
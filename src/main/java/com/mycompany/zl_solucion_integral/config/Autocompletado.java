@@ -0,0 +1,200 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Autocompletado para campos de texto.
+ *
+ * Mientras el usuario escribe, espera una breve pausa (para no buscar en cada
+ * tecla) y muestra bajo el campo una lista con las sugerencias del proveedor.
+ * Las flechas mueven la selección, Enter o doble clic eligen la sugerencia y
+ * Escape cierra la lista.
+ *
+ * @param <T> Tipo de las sugerencias.
+ * @author Dazac
+ */
+public class Autocompletado<T> {
+
+    // Pausa en milisegundos antes de buscar
+    public static final int PAUSA_POR_DEFECTO_MS = 150;
+
+    private final JTextField campo;
+    private final Function<String, List<T>> proveedor;
+    private final Function<T, String> texto;
+    private final Consumer<T> alElegir;
+
+    private final DefaultListModel<String> modelo = new DefaultListModel<>();
+    private final JList<String> lista = new JList<>(modelo);
+    private final JPopupMenu popup = new JPopupMenu();
+    private final Timer temporizador;
+    private List<T> sugerencias = List.of();
+
+    // Evita buscar cuando el texto cambia al elegir una sugerencia
+    private boolean ajustando = false;
+
+    private Autocompletado(JTextField campo, int pausaMs, Function<String, List<T>> proveedor,
+            Function<T, String> texto, Consumer<T> alElegir) {
+        this.campo = campo;
+        this.proveedor = proveedor;
+        this.texto = texto;
+        this.alElegir = alElegir;
+
+        temporizador = new Timer(pausaMs, e -> buscar());
+        temporizador.setRepeats(false);
+
+        lista.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        lista.setFocusable(false);
+        popup.setFocusable(false);
+        popup.add(new JScrollPane(lista));
+
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                programarBusqueda();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                programarBusqueda();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        campo.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                teclaPresionada(e);
+            }
+        });
+        lista.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    elegir(lista.getSelectedIndex());
+                }
+            }
+        });
+    }
+
+    /**
+     * Instala el autocompletado en un campo de texto.
+     *
+     * @param <T> Tipo de las sugerencias.
+     * @param campo Campo donde escribe el usuario.
+     * @param proveedor Devuelve las sugerencias para el texto escrito. Se
+     * llama en el hilo de eventos, así que debe ser rápido.
+     * @param texto Convierte una sugerencia en el texto que se muestra.
+     * @param alElegir Acción al elegir una sugerencia.
+     * @return El autocompletado instalado.
+     */
+    public static <T> Autocompletado<T> instalar(JTextField campo, Function<String, List<T>> proveedor,
+            Function<T, String> texto, Consumer<T> alElegir) {
+        return new Autocompletado<>(campo, PAUSA_POR_DEFECTO_MS, proveedor, texto, alElegir);
+    }
+
+    /**
+     * Cambia el texto del campo sin disparar una búsqueda.
+     *
+     * @param valor Nuevo texto.
+     */
+    public void establecerTexto(String valor) {
+        ajustando = true;
+        try {
+            campo.setText(valor);
+        } finally {
+            ajustando = false;
+        }
+    }
+
+    private void programarBusqueda() {
+        if (!ajustando) {
+            temporizador.restart();
+        }
+    }
+
+    private void buscar() {
+        String escrito = campo.getText().trim();
+        if (escrito.isEmpty() || !campo.isShowing()) {
+            popup.setVisible(false);
+            return;
+        }
+        sugerencias = proveedor.apply(escrito);
+        modelo.clear();
+        for (T sugerencia : sugerencias) {
+            modelo.addElement(texto.apply(sugerencia));
+        }
+        if (modelo.isEmpty()) {
+            popup.setVisible(false);
+            return;
+        }
+        lista.setVisibleRowCount(Math.min(modelo.size(), 8));
+        lista.setSelectedIndex(0);
+        popup.pack();
+        popup.setPopupSize(Math.max(campo.getWidth(), popup.getPreferredSize().width),
+                popup.getPreferredSize().height);
+        if (!popup.isVisible()) {
+            popup.show(campo, 0, campo.getHeight());
+        }
+    }
+
+    private void teclaPresionada(KeyEvent e) {
+        if (!popup.isVisible()) {
+            return;
+        }
+        int seleccion = lista.getSelectedIndex();
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_DOWN:
+                lista.setSelectedIndex(Math.min(seleccion + 1, modelo.size() - 1));
+                lista.ensureIndexIsVisible(lista.getSelectedIndex());
+                e.consume();
+                break;
+            case KeyEvent.VK_UP:
+                lista.setSelectedIndex(Math.max(seleccion - 1, 0));
+                lista.ensureIndexIsVisible(lista.getSelectedIndex());
+                e.consume();
+                break;
+            case KeyEvent.VK_ENTER:
+                elegir(seleccion);
+                e.consume();
+                break;
+            case KeyEvent.VK_ESCAPE:
+                popup.setVisible(false);
+                e.consume();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void elegir(int indice) {
+        popup.setVisible(false);
+        temporizador.stop();
+        if (indice < 0 || indice >= sugerencias.size()) {
+            return;
+        }
+        T elegido = sugerencias.get(indice);
+        ajustando = true;
+        try {
+            alElegir.accept(elegido);
+        } finally {
+            ajustando = false;
+        }
+    }
+}
@@ -0,0 +1,656 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.activation.DataHandler;
+import javax.mail.Authenticator;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.PasswordAuthentication;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import javax.mail.util.ByteArrayDataSource;
+
+/**
+ * Bandeja de salida de correos con un hilo remitente en segundo plano.
+ *
+ * Los correos se guardan en la tabla `correos_salientes` (con el adjunto) y
+ * {@link #encolar(String, String, String, Path)} vuelve en cuanto la fila está
+ * confirmada: quien cotiza no espera a la red. El hilo remitente toma los
+ * correos vencidos por lotes y los envía por una sola conexión SMTP, que se
+ * mantiene abierta entre mensajes y se cierra tras `correo.inactividad_ms` sin
+ * uso. Si el servidor cerró la conexión mientras estaba inactiva, se reconecta
+ * una vez antes de contar el intento.
+ *
+ * Un correo que el servidor no acepta se reintenta con espera exponencial
+ * (`correo.reintentos.espera_ms`, el doble en cada intento, hasta 15 minutos)
+ * hasta `correo.reintentos` intentos; si el servidor rechaza la dirección, se
+ * marca como fallido sin reintentar. Si no se puede conectar con el servidor,
+ * el lote se pospone con la misma espera exponencial pero sin contar
+ * intentos, de modo que una caída de la red no hace fallar las cotizaciones.
+ *
+ * Los correos se reservan con un `UPDATE ... RETURNING` que los pasa a
+ * `ENVIANDO` por un tiempo limitado, de modo que dos equipos que comparten la
+ * base de datos no envían el mismo correo, y uno que se cierre a mitad de un
+ * lote no deja correos bloqueados: al vencer la reserva vuelven a tomarse.
+ *
+ * La conexión SMTP se configura con las claves `correo.*`; la cuenta
+ * (`correo.usuario` y `correo.clave`) no tiene valor por defecto. Para pruebas,
+ * {@link #inicializar(Session, String)} acepta cualquier sesión (por ejemplo,
+ * contra un servidor SMTP local).
+ *
+ * @author Dazac
+ */
+public class BandejaCorreo {
+
+    private static final Logger logger = Logger.getLogger(BandejaCorreo.class.getName());
+
+    // Valores por defecto de la configuración
+    public static final String SERVIDOR_POR_DEFECTO = "smtp.gmail.com";
+    public static final int PUERTO_POR_DEFECTO = 587;
+    public static final int REINTENTOS_POR_DEFECTO = 5;
+    public static final long ESPERA_REINTENTO_POR_DEFECTO_MS = 5_000;
+    public static final long INACTIVIDAD_POR_DEFECTO_MS = 60_000;
+
+    // Espera máxima entre reintentos
+    private static final long ESPERA_MAXIMA_MS = 15 * 60_000;
+    // Tiempo que un correo reservado queda en ENVIANDO antes de volver a tomarse
+    private static final long RESERVA_MS = 10 * 60_000;
+    // Cada cuánto se revisa la tabla aunque no haya avisos (correos de otros equipos)
+    private static final long REVISION_MS = 30_000;
+    // Correos que se reservan de una vez
+    private static final int LOTE = 20;
+
+    /**
+     * Estado de un correo en la bandeja de salida.
+     */
+    public enum EstadoCorreo {
+        PENDIENTE, ENVIANDO, ENVIADO, FALLIDO
+    }
+
+    // Correo reservado para enviar
+    private static final class Correo {
+
+        long id;
+        String destinatario;
+        String asunto;
+        String cuerpo;
+        String adjuntoNombre;
+        byte[] adjunto;
+        int intentos;
+    }
+
+    private static BandejaCorreo instancia;
+
+    private final Session sesion;
+    private final String remitente;
+    private final int reintentosMax;
+    private final long esperaReintentoMs;
+    private final long inactividadMs;
+    private final Thread hilo;
+    private volatile boolean detenida = false;
+
+    // Aviso de correos nuevos al hilo remitente
+    private final Object aviso = new Object();
+    private boolean hayNovedades = true;
+
+    // Futuros de los correos encolados en esta sesión, por id
+    private final Map<Long, CompletableFuture<EstadoCorreo>> esperando = new ConcurrentHashMap<>();
+
+    // Conexión SMTP reutilizada; solo la usa el hilo remitente
+    private Transport transporte;
+    private int mensajesConexion;
+    private long ultimoUso;
+    // Intentos de conexión fallidos seguidos
+    private int fallosConexion;
+
+    // Métricas
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong reintentos = new AtomicLong();
+    private final AtomicLong conexiones = new AtomicLong();
+
+    private BandejaCorreo(Session sesion, String remitente, int reintentosMax, long esperaReintentoMs,
+            long inactividadMs) {
+        this.sesion = sesion;
+        this.remitente = remitente;
+        this.reintentosMax = Math.max(1, reintentosMax);
+        this.esperaReintentoMs = Math.max(1, esperaReintentoMs);
+        this.inactividadMs = Math.max(0, inactividadMs);
+        this.hilo = new Thread(this::procesar, "remitente-correo");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Indica si el archivo de configuración tiene la cuenta de envío.
+     *
+     * @return `true` si están definidos `correo.usuario` y `correo.clave`.
+     */
+    public static boolean estaConfigurada() {
+        return Configuracion.get("correo.usuario", null) != null && Configuracion.get("correo.clave", null) != null;
+    }
+
+    /**
+     * Obtiene la bandeja compartida, creándola con la configuración SMTP del
+     * archivo de configuración la primera vez. Al crearla se retoman los
+     * correos que quedaron pendientes.
+     *
+     * @return La bandeja de salida.
+     * @throws IllegalStateException Si no está configurada la cuenta de envío
+     * (ver {@link #estaConfigurada()}).
+     */
+    public static synchronized BandejaCorreo getInstancia() {
+        if (instancia == null || instancia.detenida) {
+            String usuario = Configuracion.get("correo.usuario", null);
+            String clave = Configuracion.get("correo.clave", null);
+            if (usuario == null || clave == null) {
+                throw new IllegalStateException("No está configurada la cuenta de correo: defina correo.usuario y "
+                        + "correo.clave en " + Configuracion.ARCHIVO);
+            }
+            Properties propiedades = new Properties();
+            propiedades.put("mail.smtp.host", Configuracion.get("correo.smtp.servidor", SERVIDOR_POR_DEFECTO));
+            propiedades.put("mail.smtp.port", String.valueOf(Configuracion.getInt("correo.smtp.puerto", PUERTO_POR_DEFECTO)));
+            propiedades.put("mail.smtp.auth", "true");
+            propiedades.put("mail.smtp.starttls.enable", Configuracion.get("correo.smtp.starttls", "true"));
+            propiedades.put("mail.smtp.connectiontimeout", "15000");
+            propiedades.put("mail.smtp.timeout", "30000");
+            Session sesion = Session.getInstance(propiedades, new Authenticator() {
+                @Override
+                protected PasswordAuthentication getPasswordAuthentication() {
+                    return new PasswordAuthentication(usuario, clave);
+                }
+            });
+            instancia = crear(sesion, Configuracion.get("correo.remitente", usuario));
+        }
+        return instancia;
+    }
+
+    /**
+     * Reemplaza la bandeja compartida por una que envía con la sesión dada. Si
+     * ya existía una, se detiene primero.
+     *
+     * @param sesion Sesión de JavaMail con el servidor SMTP y la autenticación.
+     * @param remitente Dirección del remitente.
+     */
+    public static synchronized void inicializar(Session sesion, String remitente) {
+        if (instancia != null) {
+            instancia.detener(5000);
+        }
+        instancia = crear(sesion, remitente);
+    }
+
+    /**
+     * Detiene la bandeja compartida, si se llegó a crear. Los correos que no
+     * se alcanzaron a enviar quedan en la tabla para la próxima sesión.
+     *
+     * @param esperaMs Tiempo máximo a esperar al hilo remitente.
+     */
+    public static synchronized void cerrar(long esperaMs) {
+        if (instancia != null) {
+            instancia.detener(esperaMs);
+            instancia = null;
+        }
+    }
+
+    private static BandejaCorreo crear(Session sesion, String remitente) {
+        return new BandejaCorreo(sesion, remitente,
+                Configuracion.getInt("correo.reintentos", REINTENTOS_POR_DEFECTO),
+                Configuracion.getLong("correo.reintentos.espera_ms", ESPERA_REINTENTO_POR_DEFECTO_MS),
+                Configuracion.getLong("correo.inactividad_ms", INACTIVIDAD_POR_DEFECTO_MS));
+    }
+
+    /**
+     * Guarda un correo en la bandeja de salida para enviarlo en segundo plano.
+     *
+     * @param destinatario Dirección (o direcciones separadas por comas) del
+     * destinatario.
+     * @param asunto Asunto del correo.
+     * @param cuerpo Texto del correo.
+     * @param adjunto Archivo a adjuntar, o `null`. Se lee al encolar.
+     * @return Futuro que se completa con {@link EstadoCorreo#ENVIADO} o
+     * {@link EstadoCorreo#FALLIDO} cuando el envío termina, o con el error si
+     * el correo no se pudo guardar.
+     */
+    public CompletableFuture<EstadoCorreo> encolar(String destinatario, String asunto, String cuerpo, Path adjunto) {
+        String nombreAdjunto = adjunto != null ? adjunto.getFileName().toString() : null;
+        byte[] datos;
+        try {
+            InternetAddress.parse(destinatario, true);
+            datos = adjunto != null ? Files.readAllBytes(adjunto) : null;
+        } catch (MessagingException | IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<EstadoCorreo> resultado = new CompletableFuture<>();
+        // Id registrado en `esperando`; si el grupo se deshace hay que quitarlo de ahí
+        AtomicLong idRegistrado = new AtomicLong(-1);
+        String sql = "INSERT INTO correos_salientes (destinatario, asunto, cuerpo, adjunto_nombre, adjunto, "
+                + "estado, proximo_intento, creado) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        ColaEscritura.getInstancia().enviar("correo a " + destinatario, conn -> {
+            long ahora = System.currentTimeMillis();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, destinatario);
+                pstmt.setString(2, asunto);
+                pstmt.setString(3, cuerpo);
+                pstmt.setString(4, nombreAdjunto);
+                pstmt.setBytes(5, datos);
+                pstmt.setString(6, EstadoCorreo.PENDIENTE.name());
+                pstmt.setLong(7, ahora);
+                pstmt.setLong(8, ahora);
+                pstmt.executeUpdate();
+                try (ResultSet claves = pstmt.getGeneratedKeys()) {
+                    claves.next();
+                    // Se registra antes de confirmar para que el remitente no pueda terminarlo sin avisar
+                    long id = claves.getLong(1);
+                    esperando.put(id, resultado);
+                    idRegistrado.set(id);
+                    return id;
+                }
+            }
+        }).whenComplete((id, error) -> {
+            if (error != null) {
+                // Con error `id` siempre es null; el id de una fila deshecha se puede
+                // volver a asignar, así que solo se quita si sigue siendo este correo
+                long registrado = idRegistrado.get();
+                if (registrado >= 0) {
+                    esperando.remove(registrado, resultado);
+                }
+                resultado.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            } else {
+                avisar();
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Cuenta los correos de la bandeja por estado.
+     *
+     * @return Número de correos por estado.
+     * @throws SQLException Si falla la consulta.
+     */
+    public Map<EstadoCorreo, Integer> contarPorEstado() throws SQLException {
+        Map<EstadoCorreo, Integer> conteo = new EnumMap<>(EstadoCorreo.class);
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector();
+                PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT estado, COUNT(*) FROM correos_salientes GROUP BY estado");
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                conteo.put(EstadoCorreo.valueOf(rs.getString(1)), rs.getInt(2));
+            }
+        }
+        return conteo;
+    }
+
+    /**
+     * Devuelve un resumen de las métricas de la bandeja.
+     *
+     * @return Enviados, fallidos, reintentos y conexiones SMTP abiertas.
+     */
+    public String obtenerMetricas() {
+        long c = conexiones.get();
+        long e = enviados.get();
+        return String.format(Locale.ROOT,
+                "BandejaCorreo{enviados=%d, fallidos=%d, reintentos=%d, conexiones=%d, correosPorConexion=%.1f}",
+                e, fallidos.get(), reintentos.get(), c, c == 0 ? 0.0 : (double) e / c);
+    }
+
+    /**
+     * Detiene el hilo remitente después del correo en curso.
+     *
+     * @param esperaMs Tiempo máximo a esperar en milisegundos.
+     */
+    public void detener(long esperaMs) {
+        detenida = true;
+        avisar();
+        try {
+            hilo.join(esperaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.log(Level.INFO, "Bandeja de correo detenida: {0}", obtenerMetricas());
+    }
+
+    private void avisar() {
+        synchronized (aviso) {
+            hayNovedades = true;
+            aviso.notifyAll();
+        }
+    }
+
+    // Bucle del hilo remitente
+    private void procesar() {
+        while (!detenida) {
+            try {
+                List<Correo> lote = reservar();
+                if (lote.isEmpty()) {
+                    esperar();
+                    continue;
+                }
+                for (int i = 0; i < lote.size(); i++) {
+                    if (detenida) {
+                        posponer(lote.subList(i, lote.size()), System.currentTimeMillis(), null);
+                        break;
+                    }
+                    if (transporte == null) {
+                        try {
+                            conectar();
+                        } catch (MessagingException e) {
+                            // Sin conexión: el lote espera sin gastar intentos
+                            fallosConexion++;
+                            logger.log(Level.WARNING, "No se pudo conectar con el servidor SMTP", e);
+                            posponer(lote.subList(i, lote.size()), proximoIntento(fallosConexion), e.getMessage());
+                            break;
+                        }
+                    }
+                    enviar(lote.get(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException | SQLException e) {
+                logger.log(Level.SEVERE, "Error en el hilo remitente de correo", e);
+                try {
+                    Thread.sleep(esperaReintentoMs);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        cerrarTransporte();
+    }
+
+    // Espera un aviso, el próximo reintento o el cierre de la conexión inactiva
+    private void esperar() throws SQLException, InterruptedException {
+        long ahora = System.currentTimeMillis();
+        long hasta = ahora + REVISION_MS;
+        Long proximo = proximoVencimiento();
+        if (proximo != null) {
+            hasta = Math.min(hasta, proximo);
+        }
+        if (transporte != null) {
+            hasta = Math.min(hasta, ultimoUso + inactividadMs);
+        }
+        synchronized (aviso) {
+            long resta;
+            while (!hayNovedades && !detenida && (resta = hasta - System.currentTimeMillis()) > 0) {
+                aviso.wait(resta);
+            }
+            hayNovedades = false;
+        }
+        if (transporte != null && System.currentTimeMillis() - ultimoUso >= inactividadMs) {
+            cerrarTransporte();
+        }
+    }
+
+    // Momento del próximo correo por enviar, o null si no hay
+    private Long proximoVencimiento() throws SQLException {
+        String sql = "SELECT MIN(proximo_intento) FROM correos_salientes WHERE estado IN (?, ?)";
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, EstadoCorreo.PENDIENTE.name());
+            pstmt.setString(2, EstadoCorreo.ENVIANDO.name());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                long proximo = rs.next() ? rs.getLong(1) : 0;
+                return rs.wasNull() ? null : proximo;
+            }
+        }
+    }
+
+    // Pasa a ENVIANDO los correos vencidos y los devuelve en orden de llegada
+    private List<Correo> reservar() throws SQLException {
+        String sql = "UPDATE correos_salientes SET estado = ?, proximo_intento = ? WHERE id IN ("
+                + "SELECT id FROM correos_salientes WHERE estado IN (?, ?) AND proximo_intento <= ? "
+                + "ORDER BY proximo_intento, id LIMIT ?) "
+                + "RETURNING id, destinatario, asunto, cuerpo, adjunto_nombre, adjunto, intentos";
+        List<Correo> lote = unir(ColaEscritura.getInstancia().enviar("reservar correos", conn -> {
+            long ahora = System.currentTimeMillis();
+            List<Correo> reservados = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, EstadoCorreo.ENVIANDO.name());
+                pstmt.setLong(2, ahora + RESERVA_MS);
+                pstmt.setString(3, EstadoCorreo.PENDIENTE.name());
+                pstmt.setString(4, EstadoCorreo.ENVIANDO.name());
+                pstmt.setLong(5, ahora);
+                pstmt.setInt(6, LOTE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Correo correo = new Correo();
+                        correo.id = rs.getLong(1);
+                        correo.destinatario = rs.getString(2);
+                        correo.asunto = rs.getString(3);
+                        correo.cuerpo = rs.getString(4);
+                        correo.adjuntoNombre = rs.getString(5);
+                        correo.adjunto = rs.getBytes(6);
+                        correo.intentos = rs.getInt(7);
+                        reservados.add(correo);
+                    }
+                }
+            }
+            return reservados;
+        }));
+        lote.sort(Comparator.comparingLong(correo -> correo.id));
+        return lote;
+    }
+
+    // Envía un correo por la conexión abierta y guarda el resultado
+    private void enviar(Correo correo) {
+        try {
+            MimeMessage mensaje = construirMensaje(correo);
+            enviarMensaje(mensaje);
+            enviados.incrementAndGet();
+            actualizar(correo.id, EstadoCorreo.ENVIADO, correo.intentos + 1, 0, null);
+        } catch (SendFailedException e) {
+            if (e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0) {
+                // El servidor rechazó la dirección: reintentar no sirve
+                fallidos.incrementAndGet();
+                actualizar(correo.id, EstadoCorreo.FALLIDO, correo.intentos + 1, 0, e.getMessage());
+            } else {
+                reintentar(correo, e);
+            }
+        } catch (MessagingException e) {
+            cerrarTransporte();
+            reintentar(correo, e);
+        }
+    }
+
+    private MimeMessage construirMensaje(Correo correo) throws MessagingException {
+        MimeMessage mensaje = new MimeMessage(sesion);
+        mensaje.setFrom(new InternetAddress(remitente));
+        mensaje.setRecipients(Message.RecipientType.TO, InternetAddress.parse(correo.destinatario));
+        mensaje.setSubject(correo.asunto, "UTF-8");
+        mensaje.setSentDate(new Date());
+
+        MimeBodyPart texto = new MimeBodyPart();
+        texto.setText(correo.cuerpo, "UTF-8");
+        Multipart multipart = new MimeMultipart();
+        multipart.addBodyPart(texto);
+        if (correo.adjunto != null) {
+            MimeBodyPart adjunto = new MimeBodyPart();
+            adjunto.setDataHandler(new DataHandler(new ByteArrayDataSource(correo.adjunto, tipoAdjunto(correo.adjuntoNombre))));
+            adjunto.setFileName(correo.adjuntoNombre);
+            multipart.addBodyPart(adjunto);
+        }
+        mensaje.setContent(multipart);
+        return mensaje;
+    }
+
+    // Envía por la conexión abierta; si ya se había usado y el servidor la
+    // cerró, reconecta una vez
+    private void enviarMensaje(MimeMessage mensaje) throws MessagingException {
+        boolean reutilizada = mensajesConexion > 0;
+        try {
+            transporte.sendMessage(mensaje, mensaje.getAllRecipients());
+        } catch (SendFailedException e) {
+            throw e;
+        } catch (MessagingException e) {
+            if (!reutilizada) {
+                throw e;
+            }
+            logger.log(Level.FINE, "Conexión SMTP perdida, se reconecta", e);
+            cerrarTransporte();
+            conectar();
+            transporte.sendMessage(mensaje, mensaje.getAllRecipients());
+        }
+        mensajesConexion++;
+        ultimoUso = System.currentTimeMillis();
+    }
+
+    private void conectar() throws MessagingException {
+        Transport nuevo = sesion.getTransport("smtp");
+        nuevo.connect();
+        transporte = nuevo;
+        mensajesConexion = 0;
+        fallosConexion = 0;
+        ultimoUso = System.currentTimeMillis();
+        conexiones.incrementAndGet();
+    }
+
+    private void cerrarTransporte() {
+        if (transporte == null) {
+            return;
+        }
+        try {
+            transporte.close();
+        } catch (MessagingException e) {
+            logger.log(Level.FINE, "Error al cerrar la conexión SMTP", e);
+        }
+        transporte = null;
+    }
+
+    // Programa otro intento o marca el correo como fallido al agotar los intentos
+    private void reintentar(Correo correo, MessagingException error) {
+        int intentos = correo.intentos + 1;
+        logger.log(Level.WARNING, "No se pudo enviar el correo " + correo.id + " (intento " + intentos + ")", error);
+        if (intentos >= reintentosMax) {
+            fallidos.incrementAndGet();
+            actualizar(correo.id, EstadoCorreo.FALLIDO, intentos, 0, error.getMessage());
+        } else {
+            reintentos.incrementAndGet();
+            actualizar(correo.id, EstadoCorreo.PENDIENTE, intentos, proximoIntento(intentos), error.getMessage());
+        }
+    }
+
+    // Momento del siguiente intento: espera base por 2^(intentos-1), con un 20 % de variación
+    private long proximoIntento(int intentos) {
+        long espera = Math.min(ESPERA_MAXIMA_MS, esperaReintentoMs << Math.min(intentos - 1, 20));
+        espera += (long) (espera * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + espera;
+    }
+
+    // Devuelve correos reservados a PENDIENTE sin contar intento
+    private void posponer(List<Correo> correos, long proximo, String error) {
+        if (correos.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Correo correo : correos) {
+            ids.add(correo.id);
+        }
+        ColaEscritura.getInstancia().enviar("posponer correos", conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE correos_salientes SET estado = ?, proximo_intento = ?, "
+                    + "ultimo_error = COALESCE(?, ultimo_error) WHERE id = ?")) {
+                for (long id : ids) {
+                    pstmt.setString(1, EstadoCorreo.PENDIENTE.name());
+                    pstmt.setLong(2, proximo);
+                    pstmt.setString(3, error);
+                    pstmt.setLong(4, id);
+                    pstmt.executeUpdate();
+                }
+            }
+            return null;
+        }).exceptionally(e -> {
+            logger.log(Level.SEVERE, "No se pudieron posponer los correos " + ids, e);
+            return null;
+        });
+    }
+
+    // Guarda el nuevo estado y avisa a quien encoló el correo cuando termina
+    private void actualizar(long id, EstadoCorreo estado, int intentos, long proximo, String error) {
+        String sql = "UPDATE correos_salientes SET estado = ?, intentos = ?, proximo_intento = ?, ultimo_error = ?, "
+                + "enviado = ?, adjunto = CASE WHEN ? THEN NULL ELSE adjunto END WHERE id = ?";
+        boolean terminado = estado == EstadoCorreo.ENVIADO || estado == EstadoCorreo.FALLIDO;
+        // El estado se guarda en la cola sin esperar, para no frenar el envío del lote
+        ColaEscritura.getInstancia().enviar("estado del correo " + id, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, estado.name());
+                pstmt.setInt(2, intentos);
+                pstmt.setLong(3, proximo);
+                pstmt.setString(4, error);
+                if (estado == EstadoCorreo.ENVIADO) {
+                    pstmt.setLong(5, System.currentTimeMillis());
+                } else {
+                    pstmt.setNull(5, Types.INTEGER);
+                }
+                // Un correo enviado ya no necesita el adjunto
+                pstmt.setBoolean(6, estado == EstadoCorreo.ENVIADO);
+                pstmt.setLong(7, id);
+                return pstmt.executeUpdate();
+            }
+        }).whenComplete((filas, falla) -> {
+            if (falla != null) {
+                logger.log(Level.SEVERE, "No se pudo guardar el estado del correo " + id, falla);
+            }
+            if (terminado) {
+                CompletableFuture<EstadoCorreo> futuro = esperando.remove(id);
+                if (futuro != null) {
+                    futuro.complete(estado);
+                }
+            }
+        });
+    }
+
+    // Espera una operación de la cola de escritura y devuelve su error como SQLException
+    private static <T> T unir(CompletableFuture<T> futuro) throws SQLException {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static String tipoAdjunto(String nombre) {
+        String minusculas = nombre != null ? nombre.toLowerCase(Locale.ROOT) : "";
+        if (minusculas.endsWith(".xlsx")) {
+            return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+        }
+        if (minusculas.endsWith(".pdf")) {
+            return "application/pdf";
+        }
+        return "application/octet-stream";
+    }
+}
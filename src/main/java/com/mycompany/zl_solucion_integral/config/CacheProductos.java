@@ -0,0 +1,555 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import com.mycompany.zl_solucion_integral.models.Producto;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Caché en memoria del inventario de productos.
+ *
+ * Mantiene todos los productos indexados por código y por nombre normalizado
+ * (sin tildes, en minúsculas y con los espacios simplificados), de modo que
+ * las búsquedas del carrito de ventas y los listados de productos no consultan
+ * la base de datos.
+ *
+ * La caché se carga una vez al iniciar la aplicación y se mantiene coherente
+ * por escritura directa: cada método que modifica la tabla `productos` llama a
+ * {@link #recargarCodigo(Connection, String)},
+ * {@link #recargarId(Connection, int)} o {@link #quitarId(int)} después de
+ * confirmar el cambio. Las búsquedas devuelven siempre copias, así que quien
+ * las recibe puede modificarlas sin alterar la caché.
+ *
+ * Además mantiene un {@link IndiceBusquedaProductos} para las búsquedas
+ * parciales mientras se escribe ({@link #sugerir(String, int)}).
+ *
+ * Una carga completa llena mapas e índice nuevos y los publica de una vez, así
+ * que las consultas de otros hilos ven el inventario anterior o el nuevo, nunca
+ * uno a medio llenar. Tras una invalidación la carga se hace en el ejecutor de
+ * fondo de {@link CargadorTabla}; mientras tanto {@link #estaCargada()}
+ * devuelve `false` y los llamadores consultan la base de datos.
+ *
+ * @author Dazac
+ */
+public class CacheProductos {
+
+    private static final Logger logger = Logger.getLogger(CacheProductos.class.getName());
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private static final String SQL_SELECT = "SELECT id, producto, precio, cantidad, codigo, categoria FROM productos";
+
+    private static final CacheProductos instancia = new CacheProductos();
+
+    /**
+     * Mapas e índice de una carga completa. Los cambios de un producto se
+     * aplican sobre los actuales; una carga nueva los reemplaza enteros.
+     */
+    private static final class Datos {
+
+        // Productos por código (la tabla tiene índice único sobre `codigo`)
+        final Map<String, Producto> porCodigo = new ConcurrentHashMap<>();
+        // Código del producto por ID y por nombre normalizado
+        final Map<Integer, String> codigoPorId = new ConcurrentHashMap<>();
+        final Map<String, String> codigoPorNombre = new ConcurrentHashMap<>();
+        // Índice para búsquedas por subcadena y prefijo
+        final IndiceBusquedaProductos indice = new IndiceBusquedaProductos();
+    }
+
+    private volatile Datos datos = new Datos();
+
+    // Indica si la caché contiene todo el inventario
+    private volatile boolean cargada = false;
+    // Hay una carga en el ejecutor de fondo que aún no termina
+    private final AtomicBoolean cargaProgramada = new AtomicBoolean();
+
+    // Aumenta con cada cambio que la caché no pudo aplicar por no estar
+    // cargada; una carga durante la cual cambia se repite
+    private final AtomicLong generacion = new AtomicLong();
+    // Algún cambio llegó sin caché cargada y su grupo aún no se confirma
+    private volatile boolean cambiosSinCargar = false;
+
+    // Intentos de carga completa antes de dejarla para la próxima consulta
+    private static final int INTENTOS_CARGA = 3;
+
+    // Estadísticas
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder recargas = new LongAdder();
+
+    private CacheProductos() {
+    }
+
+    public static CacheProductos getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Carga todo el inventario desde la base de datos en mapas nuevos y los
+     * publica en lugar de los actuales. No hace nada si la caché ya está
+     * cargada. Si mientras se lee llega un cambio que la caché no pudo
+     * aplicar, la lectura pudo tomar los datos anteriores y se repite.
+     */
+    public synchronized void cargar() {
+        for (int intento = 1; intento <= INTENTOS_CARGA && !cargada; intento++) {
+            long generacionInicial = generacion.get();
+            long inicio = System.nanoTime();
+            Datos nuevos = new Datos();
+            try (Connection conn = new ConexionDB().establecerConexionLectura();
+                    Statement st = conn.createStatement();
+                    ResultSet rs = st.executeQuery(SQL_SELECT)) {
+                while (rs.next()) {
+                    poner(nuevos, leer(rs));
+                }
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Error al cargar la caché de productos", e);
+                return;
+            }
+            datos = nuevos;
+            // Se marca antes de comparar: un cambio posterior a la comparación
+            // ve la caché cargada y la invalida (ver grupoConfirmado)
+            cargada = true;
+            if (generacion.get() == generacionInicial) {
+                logger.log(Level.INFO, "Caché de productos cargada: {0} productos en {1} ms",
+                        new Object[]{nuevos.porCodigo.size(), (System.nanoTime() - inicio) / 1_000_000});
+                return;
+            }
+            cargada = false;
+            logger.log(Level.FINE, "Productos modificados durante la carga de la caché; intento {0}", intento);
+        }
+        if (!cargada) {
+            logger.log(Level.WARNING, "La caché de productos cambió en cada intento de carga; se cargará en la próxima consulta");
+        }
+    }
+
+    // Pide una carga completa en el ejecutor de fondo, si no hay otra pendiente
+    private void programarCarga() {
+        if (!cargada && cargaProgramada.compareAndSet(false, true)) {
+            CargadorTabla.ejecutar(() -> {
+                try {
+                    cargar();
+                } finally {
+                    cargaProgramada.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Indica si la caché contiene todo el inventario. No consulta la base de
+     * datos: si la caché no está cargada, pide la carga en segundo plano y
+     * devuelve `false`, y el llamador debe consultar la base de datos
+     * directamente hasta que termine.
+     *
+     * @return `true` si la caché está completa.
+     */
+    public boolean estaCargada() {
+        if (!cargada) {
+            programarCarga();
+        }
+        return cargada;
+    }
+
+    /**
+     * Busca un producto por su código.
+     *
+     * @param codigo Código del producto.
+     * @return Una copia del producto, o `null` si no existe.
+     */
+    public Producto buscarPorCodigo(String codigo) {
+        Producto producto = codigo == null ? null : datos.porCodigo.get(codigo);
+        return registrar(producto);
+    }
+
+    /**
+     * Busca un producto por su nombre, sin distinguir mayúsculas, tildes ni
+     * espacios repetidos.
+     *
+     * @param nombre Nombre del producto.
+     * @return Una copia del producto, o `null` si no existe.
+     */
+    public Producto buscarPorNombre(String nombre) {
+        Datos actuales = datos;
+        String codigo = nombre == null ? null : actuales.codigoPorNombre.get(normalizar(nombre));
+        return registrar(codigo == null ? null : actuales.porCodigo.get(codigo));
+    }
+
+    /**
+     * Busca un producto por su ID.
+     *
+     * @param id ID del producto.
+     * @return Una copia del producto, o `null` si no existe.
+     */
+    public Producto buscarPorId(int id) {
+        Datos actuales = datos;
+        String codigo = actuales.codigoPorId.get(id);
+        return registrar(codigo == null ? null : actuales.porCodigo.get(codigo));
+    }
+
+    /**
+     * Busca productos cuyo nombre o código contiene el texto escrito, para
+     * autocompletar.
+     *
+     * @param texto Texto parcial (una o varias palabras).
+     * @param limite Número máximo de resultados.
+     * @return Copias de los productos, del más al menos relevante.
+     */
+    public List<Producto> sugerir(String texto, int limite) {
+        Datos actuales = datos;
+        List<Producto> resultado = new ArrayList<>();
+        for (String codigo : actuales.indice.buscar(texto, limite)) {
+            Producto p = actuales.porCodigo.get(codigo);
+            if (p != null) {
+                resultado.add(copiar(p));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Devuelve copias de los productos ordenados por ID, opcionalmente
+     * filtrados por categoría.
+     *
+     * @param categoria Categoría a filtrar, o `null`/"Todas" para no filtrar.
+     * @return Lista de productos.
+     */
+    public List<Producto> listar(String categoria) {
+        Map<String, Producto> porCodigo = datos.porCodigo;
+        boolean todas = categoria == null || categoria.equals("Todas");
+        List<Producto> lista = new ArrayList<>(porCodigo.size());
+        for (Producto p : porCodigo.values()) {
+            if (todas || categoria.equals(p.getCategoria())) {
+                lista.add(copiar(p));
+            }
+        }
+        lista.sort(Comparator.comparingInt(Producto::getId));
+        return lista;
+    }
+
+    /**
+     * Cuenta los productos, opcionalmente filtrados por categoría.
+     *
+     * @param categoria Categoría a filtrar, o `null`/"Todas" para no filtrar.
+     * @return Número de productos.
+     */
+    public int contar(String categoria) {
+        Map<String, Producto> porCodigo = datos.porCodigo;
+        if (categoria == null || categoria.equals("Todas")) {
+            return porCodigo.size();
+        }
+        int total = 0;
+        for (Producto p : porCodigo.values()) {
+            if (categoria.equals(p.getCategoria())) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Vuelve a leer un producto por código usando la conexión dada, que puede
+     * ser la misma que acaba de modificarlo. Si ya no existe, se quita.
+     *
+     * @param conn Conexión a usar.
+     * @param codigo Código del producto modificado.
+     */
+    public void recargarCodigo(Connection conn, String codigo) {
+        recargar(conn, " WHERE codigo = ?", codigo, codigo);
+    }
+
+    /**
+     * Vuelve a leer varios productos por código.
+     *
+     * @param conn Conexión a usar.
+     * @param codigos Códigos de los productos modificados.
+     */
+    public void recargarCodigos(Connection conn, Collection<String> codigos) {
+        for (String codigo : codigos) {
+            recargarCodigo(conn, codigo);
+        }
+    }
+
+    /**
+     * Vuelve a leer un producto por ID usando la conexión dada. Si el código
+     * cambió, se actualizan los índices.
+     *
+     * @param conn Conexión a usar.
+     * @param id ID del producto modificado.
+     */
+    public void recargarId(Connection conn, int id) {
+        recargar(conn, " WHERE id = ?", id, datos.codigoPorId.get(id));
+    }
+
+    /**
+     * Quita de la caché el producto con el ID dado (por ejemplo, al
+     * eliminarlo).
+     *
+     * @param id ID del producto eliminado.
+     */
+    public synchronized void quitarId(int id) {
+        Datos actuales = datos;
+        String codigo = actuales.codigoPorId.get(id);
+        if (codigo != null) {
+            quitar(actuales, codigo, true);
+        }
+    }
+
+    /**
+     * Marca la caché como desactualizada y pide una carga completa en segundo
+     * plano. Se usa después de cambios masivos, como una importación.
+     */
+    public void invalidar() {
+        // Antes del bloqueo, para que una carga en curso lo note y se repita
+        generacion.incrementAndGet();
+        synchronized (this) {
+            if (cargada) {
+                desalojos.add(datos.porCodigo.size());
+            }
+            cargada = false;
+        }
+        programarCarga();
+    }
+
+    /**
+     * Avisa que la cola de escritura confirmó un grupo. Si alguna operación
+     * del grupo cambió productos sin caché cargada, una carga hecha antes de
+     * la confirmación pudo leer los datos anteriores, así que se descarta.
+     * No espera a una carga en curso: esa carga verá el cambio de generación
+     * y se repetirá.
+     */
+    public void grupoConfirmado() {
+        if (cambiosSinCargar) {
+            cambiosSinCargar = false;
+            generacion.incrementAndGet();
+            cargada = false;
+            programarCarga();
+        }
+    }
+
+    // Lee una fila y actualiza la caché; `codigoAnterior` se quita si la fila cambió de código
+    private void recargar(Connection conn, String condicion, Object valor, String codigoAnterior) {
+        // Sin caché cargada no se espera a la carga en curso: solo se anota el cambio
+        if (!cargada) {
+            cambioSinCargar();
+            return;
+        }
+        synchronized (this) {
+            if (!cargada) {
+                cambioSinCargar();
+                return;
+            }
+            recargarFila(conn, condicion, valor, codigoAnterior);
+        }
+    }
+
+    // Anota un cambio que se verá en la próxima carga completa
+    private void cambioSinCargar() {
+        cambiosSinCargar = true;
+        generacion.incrementAndGet();
+    }
+
+    private void recargarFila(Connection conn, String condicion, Object valor, String codigoAnterior) {
+        Datos actuales = datos;
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT + condicion)) {
+            pstmt.setObject(1, valor);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Producto nuevo = rs.next() ? leer(rs) : null;
+                Producto actual = nuevo == null ? null : actuales.porCodigo.get(nuevo.getCodigo());
+                if (actual != null && nuevo.getCodigo().equals(codigoAnterior) && actual.getId() == nuevo.getId()
+                        && Objects.equals(actual.getProducto(), nuevo.getProducto())) {
+                    // Solo cambiaron stock, precio o categoría: reemplazar sin quitar, para que
+                    // las búsquedas de otros hilos nunca vean el producto ausente
+                    actuales.porCodigo.put(nuevo.getCodigo(), nuevo);
+                } else {
+                    if (codigoAnterior != null) {
+                        quitar(actuales, codigoAnterior, nuevo == null);
+                    }
+                    if (nuevo != null) {
+                        // Se quita la versión anterior para limpiar el índice por nombre
+                        quitar(actuales, nuevo.getCodigo(), false);
+                        poner(actuales, nuevo);
+                    }
+                }
+                recargas.increment();
+            }
+        } catch (SQLException e) {
+            // Ante la duda, se recarga todo en la próxima consulta
+            logger.log(Level.WARNING, "Error al recargar producto en caché; se invalidará", e);
+            invalidar();
+        }
+    }
+
+    // Agrega un producto a los índices
+    private static void poner(Datos d, Producto p) {
+        d.porCodigo.put(p.getCodigo(), p);
+        d.indice.agregar(p.getId(), p.getCodigo(), p.getProducto());
+        d.codigoPorId.put(p.getId(), p.getCodigo());
+        // Si dos productos tienen el mismo nombre, gana el de menor ID (igual que la consulta SQL)
+        d.codigoPorNombre.merge(normalizar(p.getProducto()), p.getCodigo(), (actual, nuevo) -> {
+            Producto existente = d.porCodigo.get(actual);
+            return existente != null && existente.getId() < p.getId() ? actual : nuevo;
+        });
+    }
+
+    // Quita un producto de los índices; `desalojo` indica si el producto dejó de existir
+    private void quitar(Datos d, String codigo, boolean desalojo) {
+        Producto p = d.porCodigo.remove(codigo);
+        if (p == null) {
+            return;
+        }
+        if (desalojo) {
+            desalojos.increment();
+        }
+        d.indice.quitar(codigo);
+        d.codigoPorId.remove(p.getId(), codigo);
+        String nombre = normalizar(p.getProducto());
+        if (d.codigoPorNombre.remove(nombre, codigo)) {
+            // Otro producto con el mismo nombre pasa a ocupar la entrada
+            for (Producto otro : d.porCodigo.values()) {
+                if (nombre.equals(normalizar(otro.getProducto()))) {
+                    poner(d, otro);
+                }
+            }
+        }
+    }
+
+    // Cuenta el acierto o fallo y devuelve una copia
+    private Producto registrar(Producto producto) {
+        if (producto == null) {
+            fallos.increment();
+            return null;
+        }
+        aciertos.increment();
+        return copiar(producto);
+    }
+
+    private static Producto leer(ResultSet rs) throws SQLException {
+        double precio = rs.getDouble("precio");
+        int cantidad = rs.getInt("cantidad");
+        return new Producto(rs.getInt("id"), rs.getString("producto"), precio, cantidad,
+                rs.getString("codigo"), precio * cantidad, rs.getString("categoria"));
+    }
+
+    private static Producto copiar(Producto p) {
+        return new Producto(p.getId(), p.getProducto(), p.getPrecio(), p.getCantidad(),
+                p.getCodigo(), p.getTotal(), p.getCategoria());
+    }
+
+    /**
+     * Normaliza un nombre de producto para las búsquedas: sin tildes, en
+     * minúsculas y con un solo espacio entre palabras.
+     *
+     * @param nombre Nombre original.
+     * @return Nombre normalizado.
+     */
+    public static String normalizar(String nombre) {
+        if (nombre == null) {
+            return "";
+        }
+        // Solo se descompone el texto cuando tiene caracteres no ASCII (tildes, eñes)
+        String texto = nombre;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 127) {
+                texto = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        // Minúsculas y un solo espacio entre palabras, en una sola pasada
+        StringBuilder sb = new StringBuilder(texto.length());
+        boolean espacioPendiente = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (Character.isWhitespace(c)) {
+                espacioPendiente = sb.length() > 0;
+            } else {
+                if (espacioPendiente) {
+                    sb.append(' ');
+                    espacioPendiente = false;
+                }
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Devuelve las estadísticas de uso de la caché.
+     *
+     * @return Instantánea de aciertos, fallos, desalojos y recargas.
+     */
+    public EstadisticasCache obtenerEstadisticas() {
+        return new EstadisticasCache(datos.porCodigo.size(), aciertos.sum(), fallos.sum(),
+                desalojos.sum(), recargas.sum());
+    }
+
+    /**
+     * Instantánea inmutable de las estadísticas de la caché.
+     */
+    public static final class EstadisticasCache {
+
+        private final int productos;
+        private final long aciertos;
+        private final long fallos;
+        private final long desalojos;
+        private final long recargas;
+
+        EstadisticasCache(int productos, long aciertos, long fallos, long desalojos, long recargas) {
+            this.productos = productos;
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.desalojos = desalojos;
+            this.recargas = recargas;
+        }
+
+        public int getProductos() {
+            return productos;
+        }
+
+        public long getAciertos() {
+            return aciertos;
+        }
+
+        public long getFallos() {
+            return fallos;
+        }
+
+        public long getDesalojos() {
+            return desalojos;
+        }
+
+        public long getRecargas() {
+            return recargas;
+        }
+
+        // Porcentaje de búsquedas resueltas por la caché
+        public double getTasaAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0 : (double) aciertos / total;
+        }
+
+        @Override
+        public String toString() {
+            return "EstadisticasCache{" + "productos=" + productos + ", aciertos=" + aciertos
+                    + ", fallos=" + fallos + ", desalojos=" + desalojos + ", recargas=" + recargas
+                    + ", tasaAciertos=" + String.format(Locale.ROOT, "%.3f", getTasaAciertos()) + '}';
+        }
+    }
+}
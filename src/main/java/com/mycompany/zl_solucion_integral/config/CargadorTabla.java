@@ -0,0 +1,254 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+
+/**
+ * Carga el resultado de una consulta en una tabla sin bloquear la interfaz.
+ *
+ * La consulta se ejecuta en un hilo de fondo con una conexión de lectura del
+ * pool y las filas se agregan al modelo por bloques desde el hilo de eventos
+ * de Swing, con un solo evento de inserción por bloque. El primer bloque es
+ * pequeño para que la tabla muestre datos cuanto antes.
+ *
+ * Cada tabla tiene como máximo una carga vigente: al pedir una nueva, la
+ * anterior se marca como cancelada, deja de leer filas en cuanto lo nota y
+ * sus bloques pendientes ya no se publican. Así, si el usuario cambia el
+ * filtro varias veces seguidas, la tabla termina mostrando solo el último.
+ *
+ * En Java 21 o superior las consultas usan hilos virtuales; en versiones
+ * anteriores, un grupo de `carga.hilos` hilos. En ambos casos el número de
+ * consultas simultáneas lo limita el número de lectores del pool.
+ *
+ * @author Dazac
+ */
+public final class CargadorTabla {
+
+    private static final Logger logger = Logger.getLogger(CargadorTabla.class.getName());
+
+    // Filas del primer bloque y de los siguientes
+    public static final int FILAS_PRIMER_BLOQUE = 200;
+    public static final int FILAS_POR_BLOQUE = 2000;
+
+    public static final int HILOS_POR_DEFECTO = 2;
+
+    /**
+     * Prepara la consulta con sus parámetros.
+     */
+    @FunctionalInterface
+    public interface Consulta {
+
+        PreparedStatement preparar(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Convierte la fila actual del resultado en una fila de la tabla.
+     */
+    @FunctionalInterface
+    public interface ConvertidorFila {
+
+        Object[] convertir(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Carga en curso de una tabla.
+     */
+    private static final class Carga {
+
+        volatile boolean cancelada = false;
+    }
+
+    private static final ExecutorService EJECUTOR = crearEjecutor();
+
+    // Carga vigente por tabla; solo se usa desde el hilo de eventos
+    private static final Map<JTable, Carga> CARGAS = new WeakHashMap<>();
+
+    private CargadorTabla() {
+    }
+
+    /**
+     * Asigna el modelo a la tabla y lo llena en segundo plano con el resultado
+     * de la consulta. Se debe llamar desde el hilo de eventos de Swing.
+     *
+     * @param tabla Tabla que muestra los datos; cancela su carga anterior.
+     * @param modelo Modelo con las columnas ya definidas; se vacía antes de
+     * cargar.
+     * @param consulta Consulta a ejecutar con una conexión de lectura.
+     * @param convertidor Convierte cada fila del resultado.
+     * @param mensajeError Texto que se muestra al usuario si la consulta falla.
+     * @param alTerminar Acción que se ejecuta en el hilo de eventos cuando
+     * todas las filas están en el modelo, o `null`. No se ejecuta si la carga
+     * falla o se cancela.
+     */
+    public static void cargar(JTable tabla, DefaultTableModel modelo, Consulta consulta,
+            ConvertidorFila convertidor, String mensajeError, Runnable alTerminar) {
+        iniciar(tabla, modelo, () -> modelo.setRowCount(0), bloque -> agregarAlVector(modelo, bloque),
+                consulta, convertidor, mensajeError, alTerminar);
+    }
+
+    /**
+     * Igual que {@link #cargar(JTable, DefaultTableModel, Consulta, ConvertidorFila, String, Runnable)}
+     * pero con un modelo por columnas.
+     *
+     * @param tabla Tabla que muestra los datos; cancela su carga anterior.
+     * @param modelo Modelo a llenar; se vacía antes de cargar.
+     * @param consulta Consulta a ejecutar con una conexión de lectura.
+     * @param convertidor Convierte cada fila del resultado.
+     * @param mensajeError Texto que se muestra al usuario si la consulta falla.
+     * @param alTerminar Acción que se ejecuta en el hilo de eventos cuando
+     * todas las filas están en el modelo, o `null`.
+     */
+    public static void cargar(JTable tabla, ModeloTablaColumnar modelo, Consulta consulta,
+            ConvertidorFila convertidor, String mensajeError, Runnable alTerminar) {
+        iniciar(tabla, modelo, modelo::vaciar, modelo::agregarFilas, consulta, convertidor, mensajeError, alTerminar);
+    }
+
+    // Registra la carga como la vigente de la tabla, asigna el modelo y lanza la consulta
+    private static void iniciar(JTable tabla, TableModel modelo, Runnable vaciar, Consumer<List<Object[]>> agregar,
+            Consulta consulta, ConvertidorFila convertidor, String mensajeError, Runnable alTerminar) {
+        Carga carga = new Carga();
+        Carga anterior = CARGAS.put(tabla, carga);
+        if (anterior != null) {
+            anterior.cancelada = true;
+        }
+
+        vaciar.run();
+        if (tabla.getModel() != modelo) {
+            tabla.setModel(modelo);
+        }
+
+        EJECUTOR.execute(() -> leer(carga, agregar, consulta, convertidor, mensajeError, alTerminar));
+    }
+
+    /**
+     * Cancela la carga en curso de la tabla, si la hay. Se debe llamar desde el
+     * hilo de eventos de Swing.
+     *
+     * @param tabla Tabla cuya carga se cancela.
+     */
+    public static void cancelar(JTable tabla) {
+        Carga carga = CARGAS.remove(tabla);
+        if (carga != null) {
+            carga.cancelada = true;
+        }
+    }
+
+    /**
+     * Ejecuta una tarea en el mismo ejecutor de fondo que las cargas.
+     *
+     * @param tarea Tarea a ejecutar; no debe tocar componentes de Swing.
+     */
+    static void ejecutar(Runnable tarea) {
+        EJECUTOR.execute(tarea);
+    }
+
+    // Lee el resultado en el hilo de fondo y publica las filas por bloques
+    private static void leer(Carga carga, Consumer<List<Object[]>> agregar, Consulta consulta,
+            ConvertidorFila convertidor, String mensajeError, Runnable alTerminar) {
+        if (carga.cancelada) {
+            return;
+        }
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector();
+                PreparedStatement ps = consulta.preparar(conn);
+                ResultSet rs = ps.executeQuery()) {
+            List<Object[]> bloque = new ArrayList<>(FILAS_PRIMER_BLOQUE);
+            int tamanoBloque = FILAS_PRIMER_BLOQUE;
+            while (rs.next()) {
+                if (carga.cancelada) {
+                    return;
+                }
+                bloque.add(convertidor.convertir(rs));
+                if (bloque.size() >= tamanoBloque) {
+                    publicar(carga, agregar, bloque);
+                    bloque = new ArrayList<>(FILAS_POR_BLOQUE);
+                    tamanoBloque = FILAS_POR_BLOQUE;
+                }
+            }
+            publicar(carga, agregar, bloque);
+            if (alTerminar != null) {
+                SwingUtilities.invokeLater(() -> {
+                    if (!carga.cancelada) {
+                        alTerminar.run();
+                    }
+                });
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (carga.cancelada) {
+                return;
+            }
+            logger.log(Level.SEVERE, mensajeError, e);
+            SwingUtilities.invokeLater(() -> {
+                if (!carga.cancelada) {
+                    JOptionPane.showMessageDialog(null, mensajeError + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    // Agrega el bloque al modelo desde el hilo de eventos, salvo que la carga se haya cancelado
+    private static void publicar(Carga carga, Consumer<List<Object[]>> agregar, List<Object[]> bloque) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (!carga.cancelada) {
+                agregar.accept(bloque);
+            }
+        });
+    }
+
+    // Agrega un bloque de filas al modelo con un solo evento
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void agregarAlVector(DefaultTableModel modelo, List<Object[]> bloque) {
+        Vector datos = modelo.getDataVector();
+        int primera = datos.size();
+        int columnas = modelo.getColumnCount();
+        for (Object[] fila : bloque) {
+            Vector<Object> nueva = new Vector<>(columnas);
+            for (int col = 0; col < columnas; col++) {
+                nueva.add(col < fila.length ? fila[col] : null);
+            }
+            datos.add(nueva);
+        }
+        modelo.fireTableRowsInserted(primera, datos.size() - 1);
+    }
+
+    // Hilos virtuales si el JDK los tiene (21+); si no, un grupo acotado de hilos de fondo
+    private static ExecutorService crearEjecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int hilos = Math.max(1, Configuracion.getInt("carga.hilos", HILOS_POR_DEFECTO));
+            AtomicInteger numero = new AtomicInteger();
+            ThreadPoolExecutor ejecutor = new ThreadPoolExecutor(hilos, hilos, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread hilo = new Thread(r, "cargador-tabla-" + numero.incrementAndGet());
+                        hilo.setDaemon(true);
+                        return hilo;
+                    });
+            ejecutor.allowCoreThreadTimeOut(true);
+            return ejecutor;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cola de escritura con un único hilo escritor y confirmación agrupada.
+ *
+ * SQLite admite un solo escritor a la vez. En lugar de que cada ventana abra
+ * su transacción y compita por el bloqueo, las modificaciones (ventas,
+ * ajustes de stock, altas de productos, estado de pago) se envían a esta cola
+ * como operaciones. El hilo escritor toma la primera operación pendiente junto
+ * con las que se acumularon mientras confirmaba el grupo anterior (hasta
+ * `escritura.grupo.max`) y ejecuta todo el grupo en una sola transacción, de
+ * modo que la sincronización a disco se paga una vez por grupo. Con
+ * `escritura.grupo.espera_ms` mayor que 0 además espera, contando desde que se
+ * encoló la primera operación, a que lleguen más; solo conviene en discos con
+ * sincronización lenta.
+ *
+ * Cada operación corre dentro de su propio SAVEPOINT: si falla, solo se
+ * deshacen sus cambios y su {@link CompletableFuture} termina con el error;
+ * las demás operaciones del grupo se confirman normalmente. Los futuros
+ * exitosos se completan después del COMMIT, es decir, cuando los datos ya son
+ * durables.
+ *
+ * Las operaciones reciben la conexión de escritura ya dentro de la
+ * transacción y no deben llamar a `commit`, `rollback` ni `setAutoCommit`.
+ * Tampoco se debe esperar un futuro de la cola mientras se tiene prestada la
+ * conexión de escritura del pool, porque el hilo escritor la necesita.
+ *
+ * @author Dazac
+ */
+public class ColaEscritura {
+
+    private static final Logger logger = Logger.getLogger(ColaEscritura.class.getName());
+
+    // Valores por defecto del agrupamiento
+    public static final int GRUPO_MAX_POR_DEFECTO = 64;
+    public static final long ESPERA_POR_DEFECTO_MS = 0;
+    public static final int CAPACIDAD_POR_DEFECTO = 10_000;
+
+    /**
+     * Modificación que se ejecuta en el hilo escritor.
+     *
+     * @param <T> Tipo del resultado.
+     */
+    @FunctionalInterface
+    public interface OperacionEscritura<T> {
+
+        T ejecutar(Connection conn) throws SQLException;
+    }
+
+    // Operación encolada con su futuro y su resultado
+    private static final class Comando<T> {
+
+        final String descripcion;
+        final OperacionEscritura<T> operacion;
+        final CompletableFuture<T> futuro = new CompletableFuture<>();
+        final long encolado = System.nanoTime();
+        T resultado;
+        Throwable error;
+
+        Comando(String descripcion, OperacionEscritura<T> operacion) {
+            this.descripcion = descripcion;
+            this.operacion = operacion;
+        }
+
+        void ejecutar(Connection conn) throws SQLException {
+            resultado = operacion.ejecutar(conn);
+        }
+
+        void completar() {
+            if (error != null) {
+                futuro.completeExceptionally(error);
+            } else {
+                futuro.complete(resultado);
+            }
+        }
+    }
+
+    private static ColaEscritura instancia;
+    // La aplicación se está cerrando: la cola ya no se vuelve a crear
+    private static boolean cerrada = false;
+
+    private final BlockingQueue<Comando<?>> cola;
+    private final int grupoMax;
+    private final long esperaNs;
+    private final Thread hilo;
+    private volatile boolean detenida;
+
+    // Métricas
+    private final AtomicLong grupos = new AtomicLong();
+    private final AtomicLong operaciones = new AtomicLong();
+    private final AtomicLong fallidas = new AtomicLong();
+    private final AtomicLong latenciaTotalNs = new AtomicLong();
+    private volatile int grupoMayor = 0;
+
+    private ColaEscritura(int grupoMax, long esperaMs, int capacidad, boolean detenida) {
+        this.grupoMax = Math.max(1, grupoMax);
+        this.esperaNs = TimeUnit.MILLISECONDS.toNanos(Math.max(0, esperaMs));
+        this.cola = new LinkedBlockingQueue<>(capacidad);
+        this.detenida = detenida;
+        this.hilo = new Thread(this::procesar, "escritor-sqlite");
+        this.hilo.setDaemon(true);
+        if (!detenida) {
+            this.hilo.start();
+        }
+    }
+
+    /**
+     * Obtiene la cola compartida, creándola con los valores del archivo de
+     * configuración la primera vez. Después de {@link #cerrar(long)} devuelve
+     * siempre una cola detenida, que rechaza todo lo que se le envía: una
+     * escritura tardía no debe levantar otro hilo escritor contra un pool que
+     * se está cerrando.
+     *
+     * @return La instancia de la cola.
+     */
+    public static synchronized ColaEscritura getInstancia() {
+        if (instancia == null || (instancia.detenida && !cerrada)) {
+            instancia = new ColaEscritura(
+                    Configuracion.getInt("escritura.grupo.max", GRUPO_MAX_POR_DEFECTO),
+                    Configuracion.getLong("escritura.grupo.espera_ms", ESPERA_POR_DEFECTO_MS),
+                    Configuracion.getInt("escritura.cola.capacidad", CAPACIDAD_POR_DEFECTO),
+                    cerrada);
+        }
+        return instancia;
+    }
+
+    /**
+     * Detiene la cola compartida, si se llegó a crear, esperando a que se
+     * confirmen las operaciones pendientes. Desde entonces la cola rechaza
+     * las operaciones nuevas.
+     *
+     * @param esperaMs Tiempo máximo a esperar en milisegundos.
+     */
+    public static synchronized void cerrar(long esperaMs) {
+        cerrada = true;
+        if (instancia != null) {
+            instancia.detener(esperaMs);
+        }
+    }
+
+    /**
+     * Encola una modificación.
+     *
+     * @param <T> Tipo del resultado.
+     * @param descripcion Descripción corta para los registros.
+     * @param operacion Cambios a ejecutar con la conexión de escritura.
+     * @return Futuro que se completa tras confirmar el grupo, o con el error de
+     * la operación.
+     */
+    public <T> CompletableFuture<T> enviar(String descripcion, OperacionEscritura<T> operacion) {
+        Comando<T> comando = new Comando<>(descripcion, operacion);
+        if (detenida || !cola.offer(comando)) {
+            rechazar(comando);
+        } else if (detenida && cola.remove(comando)) {
+            // Se detuvo entre la comprobación y el offer y el hilo pudo no verla
+            rechazar(comando);
+        }
+        return comando.futuro;
+    }
+
+    /**
+     * Detiene el hilo escritor después de procesar las operaciones pendientes.
+     *
+     * @param esperaMs Tiempo máximo a esperar en milisegundos.
+     */
+    public void detener(long esperaMs) {
+        detenida = true;
+        try {
+            hilo.join(esperaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (hilo.isAlive()) {
+            logger.log(Level.WARNING, "El hilo escritor no terminó en {0} ms; se rechazan las operaciones en cola",
+                    esperaMs);
+            rechazarPendientes();
+        }
+        logger.log(Level.INFO, "Cola de escritura detenida: {0}", obtenerMetricas());
+    }
+
+    // Completa con error las operaciones que ya no se van a ejecutar
+    private void rechazarPendientes() {
+        Comando<?> comando;
+        while ((comando = cola.poll()) != null) {
+            rechazar(comando);
+        }
+    }
+
+    private static void rechazar(Comando<?> comando) {
+        comando.futuro.completeExceptionally(
+                new RejectedExecutionException("La cola de escritura no acepta más operaciones"));
+    }
+
+    // Bucle del hilo escritor
+    private void procesar() {
+        List<Comando<?>> grupo = new ArrayList<>(grupoMax);
+        while (!detenida || !cola.isEmpty()) {
+            try {
+                Comando<?> primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                grupo.add(primero);
+
+                // Esperar más operaciones sin pasar el presupuesto de latencia de la primera
+                long limite = primero.encolado + esperaNs;
+                while (grupo.size() < grupoMax) {
+                    Comando<?> siguiente = cola.poll();
+                    if (siguiente == null) {
+                        long resta = limite - System.nanoTime();
+                        if (resta <= 0 || detenida) {
+                            break;
+                        }
+                        siguiente = cola.poll(resta, TimeUnit.NANOSECONDS);
+                        if (siguiente == null) {
+                            break;
+                        }
+                    }
+                    grupo.add(siguiente);
+                }
+                ejecutarGrupo(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Error inesperado en el hilo escritor", e);
+                for (Comando<?> comando : grupo) {
+                    comando.futuro.completeExceptionally(e);
+                }
+            } finally {
+                grupo.clear();
+            }
+        }
+        rechazarPendientes();
+    }
+
+    // Ejecuta un grupo en una transacción, con un SAVEPOINT por operación
+    private void ejecutarGrupo(List<Comando<?>> grupo) {
+        try (Connection conn = PoolConexiones.getInstancia().obtenerEscritor()) {
+            conn.setAutoCommit(false);
+            try (Statement st = conn.createStatement()) {
+                for (Comando<?> comando : grupo) {
+                    st.execute("SAVEPOINT operacion");
+                    try {
+                        comando.ejecutar(conn);
+                        st.execute("RELEASE operacion");
+                    } catch (Exception e) {
+                        st.execute("ROLLBACK TO operacion");
+                        st.execute("RELEASE operacion");
+                        comando.error = e;
+                        fallidas.incrementAndGet();
+                        logger.log(Level.FINE, "Operación fallida: " + comando.descripcion, e);
+                    }
+                }
+                conn.commit();
+                CacheProductos.getInstancia().grupoConfirmado();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            // Falló la transacción completa: nada del grupo quedó guardado
+            logger.log(Level.SEVERE, "Error al confirmar un grupo de escritura", e);
+            CacheProductos.getInstancia().invalidar();
+            for (Comando<?> comando : grupo) {
+                if (comando.error == null) {
+                    comando.error = e;
+                }
+            }
+        }
+
+        long ahora = System.nanoTime();
+        for (Comando<?> comando : grupo) {
+            latenciaTotalNs.addAndGet(ahora - comando.encolado);
+        }
+        grupos.incrementAndGet();
+        operaciones.addAndGet(grupo.size());
+        if (grupo.size() > grupoMayor) {
+            grupoMayor = grupo.size();
+        }
+        for (Comando<?> comando : grupo) {
+            comando.completar();
+        }
+    }
+
+    /**
+     * Devuelve un resumen de las métricas de la cola.
+     *
+     * @return Grupos confirmados, operaciones, tamaño medio de grupo y latencia
+     * media.
+     */
+    public String obtenerMetricas() {
+        long g = grupos.get();
+        long o = operaciones.get();
+        return String.format(java.util.Locale.ROOT,
+                "ColaEscritura{grupos=%d, operaciones=%d, fallidas=%d, grupoMedio=%.1f, grupoMayor=%d, latenciaMediaMs=%.2f, pendientes=%d}",
+                g, o, fallidas.get(), g == 0 ? 0.0 : (double) o / g, grupoMayor,
+                o == 0 ? 0.0 : latenciaTotalNs.get() / 1e6 / o, cola.size());
+    }
+}
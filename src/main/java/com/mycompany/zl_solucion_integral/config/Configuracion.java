@@ -0,0 +1,105 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Acceso a la configuración de la aplicación.
+ *
+ * Los valores se leen primero del recurso `simplifybiz.properties` incluido en
+ * el JAR y luego, si existe, del archivo `simplifybiz.properties` ubicado en el
+ * directorio de trabajo, cuyos valores tienen prioridad. Así cada instalación
+ * puede ajustar su configuración sin recompilar.
+ *
+ * @author Dazac
+ */
+public class Configuracion {
+
+    private static final Logger logger = Logger.getLogger(Configuracion.class.getName());
+
+    // Nombre del archivo de configuración
+    public static final String ARCHIVO = "simplifybiz.properties";
+
+    private static Properties propiedades;
+
+    private Configuracion() {
+    }
+
+    // Carga las propiedades la primera vez que se necesitan
+    private static synchronized Properties propiedades() {
+        if (propiedades == null) {
+            Properties props = new Properties();
+            try (InputStream in = Configuracion.class.getResourceAsStream("/" + ARCHIVO)) {
+                if (in != null) {
+                    props.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "No se pudo leer la configuración incluida", e);
+            }
+
+            File externo = new File(System.getProperty("user.dir"), ARCHIVO);
+            if (externo.isFile()) {
+                try (InputStream in = new FileInputStream(externo)) {
+                    props.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                    logger.log(Level.INFO, "Configuración cargada desde {0}", externo.getAbsolutePath());
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "No se pudo leer " + externo.getAbsolutePath(), e);
+                }
+            }
+            propiedades = props;
+        }
+        return propiedades;
+    }
+
+    /**
+     * Obtiene un valor de texto.
+     *
+     * @param clave Clave de la propiedad.
+     * @param porDefecto Valor a usar si la clave no está definida.
+     * @return El valor configurado o el valor por defecto.
+     */
+    public static String get(String clave, String porDefecto) {
+        String valor = propiedades().getProperty(clave);
+        return valor == null || valor.trim().isEmpty() ? porDefecto : valor.trim();
+    }
+
+    /**
+     * Obtiene un valor entero. Si el valor no es un número válido se usa el
+     * valor por defecto.
+     *
+     * @param clave Clave de la propiedad.
+     * @param porDefecto Valor a usar si la clave no está definida.
+     * @return El valor configurado o el valor por defecto.
+     */
+    public static int getInt(String clave, int porDefecto) {
+        return (int) getLong(clave, porDefecto);
+    }
+
+    /**
+     * Obtiene un valor entero largo. Si el valor no es un número válido se usa
+     * el valor por defecto.
+     *
+     * @param clave Clave de la propiedad.
+     * @param porDefecto Valor a usar si la clave no está definida.
+     * @return El valor configurado o el valor por defecto.
+     */
+    public static long getLong(String clave, long porDefecto) {
+        String valor = get(clave, null);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "Valor no numérico para {0}: {1}", new Object[]{clave, valor});
+            return porDefecto;
+        }
+    }
+}
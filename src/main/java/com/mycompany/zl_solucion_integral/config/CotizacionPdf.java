@@ -0,0 +1,512 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.Normalizer;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Genera la cotización directamente en PDF, sin plantilla ni libro de POI.
+ *
+ * Recibe los mismos campos que {@link PlantillaCotizacion} (`fecha`,
+ * `numero`, `cliente`, `nit`, `direccion`, `telefono`, `metodoPago`, `total`
+ * y, por producto, `cantidad`, `producto`, `codigo`, `precio` y `total`) y
+ * escribe el PDF a medida que llena cada página: las páginas terminadas se
+ * comprimen y se escriben de inmediato, así que en memoria solo está la
+ * página actual. Usa las fuentes estándar Helvetica y Helvetica-Bold con
+ * codificación WinAnsi, que todos los lectores de PDF traen, por lo que no
+ * se incrustan fuentes y el archivo ocupa unos pocos KB. Los caracteres que
+ * WinAnsi no tiene se escriben como `?`.
+ *
+ * El nombre de la empresa del encabezado se toma de `cotizacion.empresa` en
+ * `simplifybiz.properties`.
+ *
+ * @author Dazac
+ */
+public final class CotizacionPdf {
+
+    private static final String EMPRESA_POR_DEFECTO = "ZL Solución Integral";
+
+    // Página A4 en puntos
+    private static final float ANCHO = 595.28f;
+    private static final float ALTO = 841.89f;
+    private static final float MARGEN = 40;
+    private static final float PIE = 30;
+
+    // Anchos de las columnas de la tabla
+    private static final float ANCHO_CANTIDAD = 45;
+    private static final float ANCHO_CODIGO = 80;
+    private static final float ANCHO_PRECIO = 90;
+    private static final float ANCHO_TOTAL = 95;
+    private static final float ANCHO_PRODUCTO = ANCHO - 2 * MARGEN - ANCHO_CANTIDAD - ANCHO_CODIGO - ANCHO_PRECIO - ANCHO_TOTAL;
+    private static final float RELLENO = 4;
+
+    private static final float TAMANO_TABLA = 9;
+    private static final float INTERLINEA_TABLA = 11;
+
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    // Anchos de Helvetica y Helvetica-Bold (milésimas de em) para los códigos 32 a 126
+    private static final short[] ANCHOS_NORMAL = {
+        278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+        556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+        1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+        667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+        333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+        556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584
+    };
+    private static final short[] ANCHOS_NEGRITA = {
+        278, 333, 474, 556, 556, 889, 722, 238, 333, 333, 389, 584, 278, 333, 278, 278,
+        556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 333, 333, 584, 584, 584, 611,
+        975, 722, 722, 722, 722, 667, 611, 778, 722, 278, 556, 722, 611, 833, 722, 778,
+        667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 333, 278, 333, 584, 556,
+        333, 556, 611, 556, 611, 556, 333, 611, 611, 278, 278, 556, 278, 889, 611, 611,
+        611, 611, 389, 556, 333, 611, 556, 778, 556, 556, 500, 389, 280, 389, 584
+    };
+
+    private CotizacionPdf() {
+    }
+
+    /**
+     * Genera la cotización en un archivo.
+     *
+     * @param campos Valores generales, por nombre.
+     * @param productos Valores de cada producto, por nombre.
+     * @param destino Archivo .pdf que se crea o reemplaza.
+     * @throws IOException Si el archivo no se puede escribir.
+     */
+    public static void generar(Map<String, ?> campos, List<? extends Map<String, ?>> productos, Path destino)
+            throws IOException {
+        try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(destino))) {
+            generar(campos, productos, salida);
+        }
+    }
+
+    /**
+     * Genera la cotización. El flujo no se cierra.
+     *
+     * @param campos Valores generales, por nombre.
+     * @param productos Valores de cada producto, por nombre.
+     * @param salida Flujo donde se escribe el PDF.
+     * @throws IOException Si falla la escritura.
+     */
+    public static void generar(Map<String, ?> campos, List<? extends Map<String, ?>> productos, OutputStream salida)
+            throws IOException {
+        new Documento(salida, campos).escribir(productos);
+    }
+
+    /**
+     * Una cotización en curso: escribe los objetos del PDF en orden y guarda
+     * sus posiciones para la tabla de referencias.
+     */
+    private static final class Documento {
+
+        // Objetos fijos: catálogo, árbol de páginas y fuentes
+        private static final int CATALOGO = 1;
+        private static final int PAGINAS = 2;
+        private static final int FUENTE_NORMAL = 3;
+        private static final int FUENTE_NEGRITA = 4;
+
+        private final OutputStream salida;
+        private final Map<String, ?> campos;
+        private final String empresa;
+        private final DecimalFormat formatoMoneda;
+        private final DecimalFormat formatoMonedaCentavos;
+        private final DecimalFormat formatoCantidad;
+        private final CharsetEncoder codificador = WIN_ANSI.newEncoder();
+        private final List<Long> posiciones = new ArrayList<>();
+        private final List<Integer> paginas = new ArrayList<>();
+        private long escritos;
+
+        // Página en curso
+        private StringBuilder contenido;
+        private float y;
+
+        Documento(OutputStream salida, Map<String, ?> campos) {
+            this.salida = salida;
+            this.campos = campos;
+            this.empresa = Configuracion.get("cotizacion.empresa", EMPRESA_POR_DEFECTO);
+            DecimalFormatSymbols simbolos = DecimalFormatSymbols.getInstance(Locale.forLanguageTag("es-CO"));
+            this.formatoMoneda = new DecimalFormat("$ #,##0", simbolos);
+            this.formatoMonedaCentavos = new DecimalFormat("$ #,##0.00", simbolos);
+            this.formatoCantidad = new DecimalFormat("#,##0.##", simbolos);
+            for (int i = 0; i < FUENTE_NEGRITA; i++) {
+                posiciones.add(-1L);
+            }
+        }
+
+        void escribir(List<? extends Map<String, ?>> productos) throws IOException {
+            escribir("%PDF-1.4\n%âãÏÓ\n");
+            objeto(FUENTE_NORMAL, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+            objeto(FUENTE_NEGRITA, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+
+            nuevaPagina();
+            encabezado();
+            encabezadoTabla();
+            for (Map<String, ?> producto : productos) {
+                fila(producto);
+            }
+            totales();
+            terminarPagina();
+
+            StringBuilder hijos = new StringBuilder();
+            for (int pagina : paginas) {
+                hijos.append(pagina).append(" 0 R ");
+            }
+            objeto(PAGINAS, "<< /Type /Pages /Count " + paginas.size() + " /Kids [" + hijos + "] >>");
+            objeto(CATALOGO, "<< /Type /Catalog /Pages " + PAGINAS + " 0 R >>");
+            int info = reservar();
+            objeto(info, "<< /Title " + literal("Cotización " + texto("numero"))
+                    + " /Author " + literal(empresa)
+                    + " /CreationDate (D:" + ZonedDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + ") >>");
+            terminar(info);
+        }
+
+        // --- Contenido ---
+        private void encabezado() {
+            float arriba = ALTO - MARGEN;
+            texto(recortar(empresa, ANCHO - 2 * MARGEN - 130, 16, true), MARGEN, arriba - 16, 16, true);
+            textoDerecha("COTIZACIÓN", ANCHO - MARGEN, arriba - 14, 14, true);
+            textoDerecha("N° " + texto("numero"), ANCHO - MARGEN, arriba - 30, 11, true);
+            textoDerecha("Fecha: " + texto("fecha"), ANCHO - MARGEN, arriba - 44, 10, false);
+            y = arriba - 56;
+            linea(MARGEN, y, ANCHO - MARGEN, y, 1f, 0);
+
+            float mitad = MARGEN + (ANCHO - 2 * MARGEN) / 2;
+            y -= 18;
+            etiqueta("Cliente:", texto("cliente"), MARGEN, y, mitad - MARGEN - 10);
+            etiqueta("NIT:", texto("nit"), mitad, y, ANCHO - MARGEN - mitad);
+            y -= 15;
+            etiqueta("Dirección:", texto("direccion"), MARGEN, y, mitad - MARGEN - 10);
+            etiqueta("Teléfono:", texto("telefono"), mitad, y, ANCHO - MARGEN - mitad);
+            y -= 15;
+            etiqueta("Método de pago:", texto("metodoPago"), MARGEN, y, mitad - MARGEN - 10);
+            y -= 22;
+        }
+
+        private void etiqueta(String etiqueta, String valor, float x, float base, float ancho) {
+            texto(etiqueta, x, base, 10, true);
+            float desde = ancho(etiqueta, 10, true) + 4;
+            texto(recortar(valor, ancho - desde, 10, false), x + desde, base, 10, false);
+        }
+
+        private void encabezadoTabla() {
+            float alto = INTERLINEA_TABLA + 2 * RELLENO;
+            rectangulo(MARGEN, y - alto, ANCHO - 2 * MARGEN, alto, 0.88f);
+            float base = y - RELLENO - TAMANO_TABLA + 1;
+            float x = MARGEN;
+            textoDerecha("Cant.", x + ANCHO_CANTIDAD - RELLENO, base, TAMANO_TABLA, true);
+            x += ANCHO_CANTIDAD;
+            texto("Código", x + RELLENO, base, TAMANO_TABLA, true);
+            x += ANCHO_CODIGO;
+            texto("Descripción", x + RELLENO, base, TAMANO_TABLA, true);
+            x += ANCHO_PRODUCTO;
+            textoDerecha("V. unitario", x + ANCHO_PRECIO - RELLENO, base, TAMANO_TABLA, true);
+            x += ANCHO_PRECIO;
+            textoDerecha("V. total", x + ANCHO_TOTAL - RELLENO, base, TAMANO_TABLA, true);
+            y -= alto;
+        }
+
+        private void fila(Map<String, ?> producto) throws IOException {
+            List<String> lineas = dividir(valor(producto.get("producto")), ANCHO_PRODUCTO - 2 * RELLENO, TAMANO_TABLA);
+            float alto = lineas.size() * INTERLINEA_TABLA + 2 * RELLENO;
+            if (y - alto < MARGEN + PIE) {
+                terminarPagina();
+                nuevaPagina();
+                texto("Cotización N° " + texto("numero") + " (continuación)", MARGEN, ALTO - MARGEN - 10, 10, true);
+                y = ALTO - MARGEN - 22;
+                encabezadoTabla();
+            }
+            float base = y - RELLENO - TAMANO_TABLA + 1;
+            float x = MARGEN;
+            textoDerecha(cantidad(producto.get("cantidad")), x + ANCHO_CANTIDAD - RELLENO, base, TAMANO_TABLA, false);
+            x += ANCHO_CANTIDAD;
+            texto(recortar(valor(producto.get("codigo")), ANCHO_CODIGO - 2 * RELLENO, TAMANO_TABLA, false),
+                    x + RELLENO, base, TAMANO_TABLA, false);
+            x += ANCHO_CODIGO;
+            for (int i = 0; i < lineas.size(); i++) {
+                texto(lineas.get(i), x + RELLENO, base - i * INTERLINEA_TABLA, TAMANO_TABLA, false);
+            }
+            x += ANCHO_PRODUCTO;
+            textoDerecha(moneda(producto.get("precio")), x + ANCHO_PRECIO - RELLENO, base, TAMANO_TABLA, false);
+            x += ANCHO_PRECIO;
+            textoDerecha(moneda(producto.get("total")), x + ANCHO_TOTAL - RELLENO, base, TAMANO_TABLA, false);
+            y -= alto;
+            linea(MARGEN, y, ANCHO - MARGEN, y, 0.5f, 0.75f);
+        }
+
+        private void totales() throws IOException {
+            if (y - 30 < MARGEN + PIE) {
+                terminarPagina();
+                nuevaPagina();
+                y = ALTO - MARGEN;
+            }
+            y -= 18;
+            float derecha = ANCHO - MARGEN - RELLENO;
+            textoDerecha(moneda(campos.get("total")), derecha, y, 11, true);
+            textoDerecha("TOTAL", derecha - ANCHO_TOTAL, y, 11, true);
+        }
+
+        // --- Páginas ---
+        private void nuevaPagina() {
+            contenido = new StringBuilder(8192);
+            y = ALTO - MARGEN;
+        }
+
+        // Escribe la página con su pie y libera su contenido
+        private void terminarPagina() throws IOException {
+            int numero = paginas.size() + 1;
+            texto(empresa, MARGEN, PIE - 10, 8, false);
+            textoDerecha("Página " + numero, ANCHO - MARGEN, PIE - 10, 8, false);
+
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(contenido.length() / 3 + 64);
+            try (DeflaterOutputStream flujo = new DeflaterOutputStream(comprimido, new Deflater(Deflater.BEST_SPEED))) {
+                flujo.write(contenido.toString().getBytes(StandardCharsets.ISO_8859_1));
+            }
+            contenido = null;
+            int flujo = reservar();
+            abrir(flujo);
+            escribir("<< /Length " + comprimido.size() + " /Filter /FlateDecode >>\nstream\n");
+            comprimido.writeTo(salida);
+            escritos += comprimido.size();
+            escribir("\nendstream\nendobj\n");
+
+            int pagina = reservar();
+            objeto(pagina, "<< /Type /Page /Parent " + PAGINAS + " 0 R /MediaBox [0 0 " + ANCHO + " " + ALTO + "]"
+                    + " /Resources << /Font << /F1 " + FUENTE_NORMAL + " 0 R /F2 " + FUENTE_NEGRITA + " 0 R >> >>"
+                    + " /Contents " + flujo + " 0 R >>");
+            paginas.add(pagina);
+        }
+
+        // --- Operadores de dibujo ---
+        private void texto(String texto, float x, float base, float tamano, boolean negrita) {
+            if (texto.isEmpty()) {
+                return;
+            }
+            contenido.append("BT /").append(negrita ? "F2 " : "F1 ").append(numero(tamano)).append(" Tf ")
+                    .append(numero(x)).append(' ').append(numero(base)).append(" Td ");
+            cadena(contenido, texto);
+            contenido.append(" Tj ET\n");
+        }
+
+        private void textoDerecha(String texto, float derecha, float base, float tamano, boolean negrita) {
+            texto(texto, derecha - ancho(texto, tamano, negrita), base, tamano, negrita);
+        }
+
+        private void linea(float x1, float y1, float x2, float y2, float grosor, float gris) {
+            contenido.append(numero(gris)).append(" G ").append(numero(grosor)).append(" w ")
+                    .append(numero(x1)).append(' ').append(numero(y1)).append(" m ")
+                    .append(numero(x2)).append(' ').append(numero(y2)).append(" l S\n");
+        }
+
+        private void rectangulo(float x, float base, float ancho, float alto, float gris) {
+            contenido.append(numero(gris)).append(" g ").append(numero(x)).append(' ').append(numero(base)).append(' ')
+                    .append(numero(ancho)).append(' ').append(numero(alto)).append(" re f 0 g\n");
+        }
+
+        // Cadena literal de PDF con los bytes WinAnsi del texto
+        private void cadena(StringBuilder destino, String texto) {
+            destino.append('(');
+            for (byte b : codificar(texto)) {
+                char c = (char) (b & 0xFF);
+                if (c == '(' || c == ')' || c == '\\') {
+                    destino.append('\\');
+                }
+                if (c >= ' ') {
+                    destino.append(c);
+                }
+            }
+            destino.append(')');
+        }
+
+        private String literal(String texto) {
+            StringBuilder sb = new StringBuilder();
+            cadena(sb, texto);
+            return sb.toString();
+        }
+
+        private byte[] codificar(String texto) {
+            byte[] bytes = new byte[texto.length()];
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c < 0x80) {
+                    bytes[i] = (byte) c;
+                } else if (codificador.canEncode(c)) {
+                    bytes[i] = String.valueOf(c).getBytes(WIN_ANSI)[0];
+                } else {
+                    bytes[i] = '?';
+                }
+            }
+            return bytes;
+        }
+
+        // --- Medidas ---
+        private float ancho(String texto, float tamano, boolean negrita) {
+            int total = 0;
+            for (byte b : codificar(texto)) {
+                total += anchoCaracter(b & 0xFF, negrita);
+            }
+            return total * tamano / 1000f;
+        }
+
+        // Recorta el texto con "..." si no cabe
+        private String recortar(String texto, float ancho, float tamano, boolean negrita) {
+            if (ancho(texto, tamano, negrita) <= ancho) {
+                return texto;
+            }
+            float disponible = ancho - ancho("...", tamano, negrita);
+            int fin = texto.length();
+            while (fin > 0 && ancho(texto.substring(0, fin), tamano, negrita) > disponible) {
+                fin--;
+            }
+            return texto.substring(0, fin).trim() + "...";
+        }
+
+        // Divide el texto en líneas que caben en el ancho, por palabras
+        private List<String> dividir(String texto, float ancho, float tamano) {
+            List<String> lineas = new ArrayList<>(2);
+            StringBuilder actual = new StringBuilder();
+            for (String palabra : texto.trim().split("\\s+")) {
+                String candidata = actual.length() == 0 ? palabra : actual + " " + palabra;
+                if (ancho(candidata, tamano, false) <= ancho) {
+                    actual.setLength(0);
+                    actual.append(candidata);
+                    continue;
+                }
+                if (actual.length() > 0) {
+                    lineas.add(actual.toString());
+                    actual.setLength(0);
+                }
+                // Palabra más ancha que la columna: se parte
+                while (ancho(palabra, tamano, false) > ancho) {
+                    int corte = palabra.length() - 1;
+                    while (corte > 1 && ancho(palabra.substring(0, corte), tamano, false) > ancho) {
+                        corte--;
+                    }
+                    lineas.add(palabra.substring(0, corte));
+                    palabra = palabra.substring(corte);
+                }
+                actual.append(palabra);
+            }
+            if (actual.length() > 0 || lineas.isEmpty()) {
+                lineas.add(actual.toString());
+            }
+            return lineas;
+        }
+
+        // --- Valores ---
+        private String texto(String campo) {
+            return valor(campos.get(campo));
+        }
+
+        private static String valor(Object valor) {
+            return valor == null ? "" : valor.toString();
+        }
+
+        // Los centavos solo se muestran si el valor los tiene
+        private String moneda(Object valor) {
+            if (!(valor instanceof Number)) {
+                return valor(valor);
+            }
+            double d = ((Number) valor).doubleValue();
+            return (Math.abs(d - Math.rint(d)) < 0.005 ? formatoMoneda : formatoMonedaCentavos).format(d);
+        }
+
+        private String cantidad(Object valor) {
+            return valor instanceof Number ? formatoCantidad.format(((Number) valor).doubleValue()) : valor(valor);
+        }
+
+        private static String numero(float valor) {
+            if (valor == (int) valor) {
+                return Integer.toString((int) valor);
+            }
+            return String.format(Locale.ROOT, "%.2f", valor);
+        }
+
+        // --- Estructura del archivo ---
+        private int reservar() {
+            posiciones.add(-1L);
+            return posiciones.size();
+        }
+
+        private void abrir(int objeto) throws IOException {
+            posiciones.set(objeto - 1, escritos);
+            escribir(objeto + " 0 obj\n");
+        }
+
+        private void objeto(int objeto, String diccionario) throws IOException {
+            abrir(objeto);
+            escribir(diccionario);
+            escribir("\nendobj\n");
+        }
+
+        private void terminar(int info) throws IOException {
+            long inicioReferencias = escritos;
+            StringBuilder xref = new StringBuilder(32 + posiciones.size() * 20);
+            xref.append("xref\n0 ").append(posiciones.size() + 1).append("\n0000000000 65535 f \n");
+            for (long posicion : posiciones) {
+                xref.append(String.format("%010d 00000 n \n", posicion));
+            }
+            xref.append("trailer\n<< /Size ").append(posiciones.size() + 1)
+                    .append(" /Root ").append(CATALOGO).append(" 0 R /Info ").append(info).append(" 0 R >>\n")
+                    .append("startxref\n").append(inicioReferencias).append("\n%%EOF\n");
+            escribir(xref.toString());
+            salida.flush();
+        }
+
+        private void escribir(String texto) throws IOException {
+            byte[] bytes = texto.getBytes(StandardCharsets.ISO_8859_1);
+            salida.write(bytes);
+            escritos += bytes.length;
+        }
+    }
+
+    // Ancho de un carácter WinAnsi; los acentuados miden lo mismo que su letra base
+    private static int anchoCaracter(int codigo, boolean negrita) {
+        short[] anchos = negrita ? ANCHOS_NEGRITA : ANCHOS_NORMAL;
+        if (codigo >= 32 && codigo <= 126) {
+            return anchos[codigo - 32];
+        }
+        switch (codigo) {
+            case 0xA0:
+                return 278;
+            case 0xA1:
+                return 333;
+            case 0xB0:
+                return 400;
+            case 0xBF:
+                return 611;
+            case 0x85:
+                return 1000;
+            case 0xEC:
+            case 0xED:
+            case 0xEE:
+            case 0xEF:
+                return 278;
+            default:
+                break;
+        }
+        String caracter = new String(new byte[]{(byte) codigo}, WIN_ANSI);
+        char base = Normalizer.normalize(caracter, Normalizer.Form.NFD).charAt(0);
+        if (base >= 32 && base <= 126) {
+            return anchos[base - 32];
+        }
+        return 556;
+    }
+}
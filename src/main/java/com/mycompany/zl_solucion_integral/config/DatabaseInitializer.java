@@ -1,5 +1,8 @@
 package com.mycompany.zl_solucion_integral.config;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+
 // @author Dazac
 public class DatabaseInitializer {
 
@@ -11,12 +14,13 @@ public class DatabaseInitializer {
         this.conexion = conexion;
     }
 
-    // Metodo que crea todas las tablas necesarias
-    public void inicializarTablas() {
-        conexion.crearTablaUsuariosSiNoExiste();
-        conexion.crearTablaVentasSiNoExiste();
-        conexion.crearTablaProductosSiNoExiste();
-        conexion.crearTablaDetallesVentaSiNoExiste();
-        conexion.crearTablaConfiguracionSiNoExiste();
+    // Metodo que crea las tablas e índices aplicando las migraciones pendientes
+    public void inicializarTablas() throws SQLException {
+        try (Connection conn = conexion.establecerConexion()) {
+            if (conn == null) {
+                throw new SQLException("No se pudo obtener la conexión de escritura");
+            }
+            new MigradorEsquema().migrar(conn);
+        }
     }
 }
@@ -1,18 +1,27 @@
 package com.mycompany.zl_solucion_integral.config;
 
-import javax.mail.*;
-import javax.mail.internet.*;
 import javax.swing.*;
-import java.util.Properties;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.awt.Desktop;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Clase encargada de gestionar el envío de cotizaciones por WhatsApp y correo electrónico.
  */
 public class EnvioCotizacion {
 
+    // Asunto y cuerpo del correo de la cotización
+    private static final String ASUNTO_CORREO = "Cotización Generada";
+    private static final String CUERPO_CORREO = "¡Hola! \n\n"
+            + "Adjuntamos la cotización que solicitaste. En ella encontrarás todos los detalles de los productos y servicios que necesitas. "
+            + "Si tienes alguna pregunta, deseas realizar algún ajuste, o necesitas más información, "
+            + "no dudes en ponerte en contacto con nosotros."
+            + "\n\n¡Gracias por elegir ZL Solución Integral!"
+            + "\n\nSaludos cordiales,"
+            + "\nEl equipo de ZL Solución Integral.";
+
     /**
      * Enviar una cotización a través de WhatsApp Web.
      *
@@ -43,67 +52,39 @@ public class EnvioCotizacion {
     }
 
     /**
-     * Enviar una cotización por correo electrónico utilizando el servicio SMTP de Gmail.
+     * Enviar una cotización por correo electrónico. El correo se guarda en la
+     * {@link BandejaCorreo} y se envía en segundo plano, así que este método no
+     * espera a la red; el resultado del envío se notifica al usuario en el hilo
+     * de la interfaz cuando termina.
      *
      * @param correo      Dirección de correo electrónico del destinatario.
      * @param rutaArchivo Ruta del archivo generado que contiene la cotización.
+     * @return Futuro con el estado final del envío.
      */
-    public void enviarPorCorreo(String correo, String rutaArchivo) {
+    public CompletableFuture<BandejaCorreo.EstadoCorreo> enviarPorCorreo(String correo, String rutaArchivo) {
+        CompletableFuture<BandejaCorreo.EstadoCorreo> envio;
         try {
-            // Configuración de las propiedades del servidor SMTP.
-            Properties propiedades = new Properties();
-            propiedades.put("mail.smtp.host", "smtp.gmail.com");  // Servidor SMTP de Gmail.
-            propiedades.put("mail.smtp.port", "587");  // Puerto para conexión segura (TLS).
-            propiedades.put("mail.smtp.auth", "true");  // Habilita la autenticación.
-            propiedades.put("mail.smtp.starttls.enable", "true");  // Habilita STARTTLS (cifrado).
-
-            // Autenticación con las credenciales del remitente.
-            Session session = Session.getInstance(propiedades, new javax.mail.Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication("zlsolucionintegral@gmail.com", "dcnj xudk hocn szty"); // Cambia por tus credenciales reales.
-                }
-            });
-
-            // Crear el mensaje de correo.
-            MimeMessage mensajeCorreo = new MimeMessage(session);
-            mensajeCorreo.setFrom(new InternetAddress("zlsolucionintegral@gmail.com")); // Dirección del remitente.
-            mensajeCorreo.setRecipients(Message.RecipientType.TO, InternetAddress.parse(correo)); // Destinatario.
-            mensajeCorreo.setSubject("Cotización Generada"); // Asunto del correo.
-
-            // Cuerpo del mensaje en texto.
-            MimeBodyPart texto = new MimeBodyPart();
-            texto.setText("¡Hola! \n\n"
-                    + "Adjuntamos la cotización que solicitaste. En ella encontrarás todos los detalles de los productos y servicios que necesitas. "
-                    + "Si tienes alguna pregunta, deseas realizar algún ajuste, o necesitas más información, "
-                    + "no dudes en ponerte en contacto con nosotros."
-                    + "\n\n¡Gracias por elegir ZL Solución Integral!"
-                    + "\n\nSaludos cordiales,"
-                    + "\nEl equipo de ZL Solución Integral.");
-
-            // Archivo adjunto.
-            MimeBodyPart adjunto = new MimeBodyPart();
-            adjunto.attachFile(rutaArchivo);
-
-            // Crear el contenido del mensaje con texto y archivo adjunto.
-            Multipart multipart = new MimeMultipart();
-            multipart.addBodyPart(texto);
-            multipart.addBodyPart(adjunto);
-
-            // Asignar el contenido al mensaje de correo.
-            mensajeCorreo.setContent(multipart);
-
-            // Enviar el correo.
-            Transport.send(mensajeCorreo);
-
-            // Notificar al usuario que el correo fue enviado exitosamente.
-            JOptionPane.showMessageDialog(null, "Cotización enviada por correo con éxito.\nArchivo adjunto: " + rutaArchivo,
-                    "Correo", JOptionPane.INFORMATION_MESSAGE);
-        } catch (Exception e) {
-            // Manejo de errores durante el envío del correo.
-            JOptionPane.showMessageDialog(null, "Error al enviar el correo: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            envio = BandejaCorreo.getInstancia()
+                    .encolar(correo, ASUNTO_CORREO, CUERPO_CORREO, Paths.get(rutaArchivo));
+        } catch (IllegalStateException e) {
+            // Sin cuenta de correo configurada; se avisa igual que un error al preparar el correo
+            envio = CompletableFuture.failedFuture(e);
         }
+
+        // Notificar al usuario en el hilo de la interfaz, sin bloquear a quien llama.
+        envio.whenComplete((estado, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(null, "Error al preparar el correo: " + error.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (estado == BandejaCorreo.EstadoCorreo.ENVIADO) {
+                JOptionPane.showMessageDialog(null, "Cotización enviada por correo con éxito a " + correo
+                        + ".\nArchivo adjunto: " + rutaArchivo, "Correo", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, "No se pudo enviar la cotización por correo a " + correo
+                        + " después de varios intentos.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }));
+        return envio;
     }
 
     /**
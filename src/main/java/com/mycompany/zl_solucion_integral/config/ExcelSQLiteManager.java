@@ -1,17 +1,16 @@
 package com.mycompany.zl_solucion_integral.config;
 
 import com.mycompany.zl_solucion_integral.config.ConexionDB;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * La clase ExcelSQLiteManager proporciona métodos para importar datos de un
@@ -22,158 +21,226 @@ public class ExcelSQLiteManager {
     // Se declara 'conexion' como estático para acceder desde un método estático
     private static ConexionDB conexion = new ConexionDB();
 
+    // Filas por transacción de la importación
+    public static final int LOTE_POR_DEFECTO = 1000;
+
     public static void importarExcel(String rutaExcel, String nombreTabla) {
-        Connection conn = null;
+        try {
+            importarExcel(rutaExcel, nombreTabla, ReporteProgreso.NINGUNO);
+        } catch (SQLException | IOException e) {
+            System.err.println("Error general: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Importa los productos de un archivo Excel leyéndolo fila por fila, sin
+     * cargar el libro completo en memoria.
+     *
+     * La primera fila de cada hoja es el encabezado. Si el código ya existe se
+     * suma la cantidad y se actualizan la categoría y el precio; si no, se
+     * inserta el producto.
+     *
+     * Las filas se guardan en lotes de `importacion.lote` filas; cada lote es
+     * una operación de la {@link ColaEscritura} y se confirma o se revierte
+     * completo. Mientras se guarda un lote se lee el siguiente. Si un lote
+     * falla, la importación se detiene: los lotes anteriores quedan guardados y
+     * el error indica las filas del lote revertido.
+     *
+     * @param rutaExcel Ruta del archivo .xlsx.
+     * @param nombreTabla Tabla de productos; debe tener un índice único sobre
+     * `codigo`.
+     * @param progreso Recibe el avance y las filas por segundo.
+     * @throws SQLException Si falla el guardado de un lote.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    public static void importarExcel(String rutaExcel, String nombreTabla, ReporteProgreso progreso)
+            throws SQLException, IOException {
+        int tamanoLote = Math.max(1, Configuracion.getInt("importacion.lote", LOTE_POR_DEFECTO));
+        ImportacionPorLotes importacion = new ImportacionPorLotes(nombreTabla, tamanoLote);
         try {
-            conn = conexion.establecerConexion();
-            if (conn != null) {
-                System.out.println("Conexión a SQLite establecida.");
-
-                try (FileInputStream fis = new FileInputStream(rutaExcel); Workbook workbook = new XSSFWorkbook(fis)) {
-                    // Recorrer todas las hojas del archivo Excel
-                    for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
-                        Sheet sheet = workbook.getSheetAt(sheetIndex);
-                        System.out.println("Procesando hoja: " + sheet.getSheetName());
-
-                        // Crear la tabla si no existe
-                        if (sheetIndex == 0) { // Solo se genera la tabla una vez
-                            String createTableSQL = generarSQLCreacionTabla(sheet, nombreTabla);
-                            try (PreparedStatement stmt = conn.prepareStatement(createTableSQL)) {
-                                stmt.executeUpdate();
-                                System.out.println("Tabla verificada/creada correctamente: " + nombreTabla);
-                            }
-                        }
+            long filas = LectorExcel.leer(rutaExcel, importacion, progreso);
+            importacion.terminar();
+            System.out.println("Datos importados correctamente (" + filas + " filas leídas, "
+                    + importacion.lotes + " lotes).");
+        } finally {
+            importacion.esperarSinErrores();
+            // La importación puede modificar muchos productos: la caché se recarga completa
+            CacheProductos.getInstancia().invalidar();
+        }
+    }
+
+    /**
+     * Agrupa las filas leídas en lotes y los envía a la cola de escritura, con
+     * a lo sumo un lote guardándose mientras se lee el siguiente.
+     */
+    private static final class ImportacionPorLotes implements LectorExcel.ManejadorFilas {
 
-                        // Importar los datos de la hoja
-                        for (int i = 1; i <= sheet.getLastRowNum(); i++) { // Empezar en la segunda fila (i = 1)
-                            Row row = sheet.getRow(i);
-
-                            if (row == null) {
-                                continue; // Si la fila está vacía, saltar a la siguiente
-                            }
-
-                            // Leer los datos de las columnas
-                            String nombreProducto = obtenerValorCelda(row.getCell(0)); // Asumimos que la segunda columna es el nombre del producto
-                            double precio = obtenerValorNumerico(row.getCell(1)); // Asumimos que la tercera columna es el precio
-                            double cantidad = obtenerValorNumerico(row.getCell(2)); // Asumimos que la cuarta columna es la cantidad
-                            String codigoProducto = obtenerValorCelda(row.getCell(3)); // Asumimos que la primera columna es el código
-                            String categoria = obtenerValorCelda(row.getCell(4)); // Asumimos que la quinta columna es la categoría
-
-                            // Verificar si el producto ya existe
-                            String selectSQL = "SELECT cantidad FROM " + nombreTabla + " WHERE codigo = ?";
-                            try (PreparedStatement selectStmt = conn.prepareStatement(selectSQL)) {
-                                selectStmt.setString(1, codigoProducto);
-                                ResultSet rs = selectStmt.executeQuery();
-
-                                if (rs.next()) {
-                                    // Actualizar el producto si ya existe
-                                    double cantidadExistente = rs.getDouble("cantidad");
-                                    String updateSQL = "UPDATE " + nombreTabla + " SET cantidad = ?, categoria = ?, precio = ? WHERE codigo = ?";
-                                    try (PreparedStatement updateStmt = conn.prepareStatement(updateSQL)) {
-                                        updateStmt.setDouble(1, cantidadExistente + cantidad);
-                                        updateStmt.setString(2, categoria);
-                                        updateStmt.setDouble(3, precio);
-                                        updateStmt.setString(4, codigoProducto);
-                                        updateStmt.executeUpdate();
-                                    }
-                                } else {
-                                    // Insertar el producto si no existe
-                                    String insertSQL = "INSERT INTO " + nombreTabla + " (producto, precio, cantidad, codigo, categoria) VALUES (?, ?, ?, ?, ?)";
-                                    try (PreparedStatement insertStmt = conn.prepareStatement(insertSQL)) {
-                                        insertStmt.setString(1, nombreProducto);
-                                        insertStmt.setDouble(2, precio);
-                                        insertStmt.setDouble(3, cantidad);
-                                        insertStmt.setString(4, codigoProducto);
-                                        insertStmt.setString(5, categoria);
-                                        insertStmt.executeUpdate();
-                                    }
-                                }
-                            }
+        private final String nombreTabla;
+        private final String updateSQL;
+        private final String insertSQL;
+        private final int tamanoLote;
+        private List<Object[]> lote;
+        private String desde;
+        private String hasta;
+        private CompletableFuture<Void> pendiente;
+        private int lotes;
+
+        ImportacionPorLotes(String nombreTabla, int tamanoLote) {
+            this.nombreTabla = nombreTabla;
+            this.tamanoLote = tamanoLote;
+            this.lote = new ArrayList<>(tamanoLote);
+            // Un producto existente suma la cantidad y toma la categoría y el precio del archivo.
+            // No se usa INSERT ... ON CONFLICT DO UPDATE porque con AUTOINCREMENT cada
+            // conflicto consume un id y reimportar un catálogo dejaría huecos de su tamaño
+            this.updateSQL = "UPDATE " + nombreTabla + " SET cantidad = cantidad + ?, categoria = ?, precio = ? WHERE codigo = ?";
+            this.insertSQL = "INSERT INTO " + nombreTabla + " (producto, precio, cantidad, codigo, categoria) VALUES (?, ?, ?, ?, ?)";
+        }
+
+        @Override
+        public void fila(int hoja, int fila, Object[] valores) throws SQLException {
+            if (fila == 0) {
+                // Crear la tabla si no existe; solo se genera una vez
+                if (hoja == 0) {
+                    String createTableSQL = generarSQLCreacionTabla(valores, nombreTabla);
+                    esperar(ColaEscritura.getInstancia().enviar("crear tabla " + nombreTabla, conn -> {
+                        try (PreparedStatement stmt = conn.prepareStatement(createTableSQL)) {
+                            stmt.executeUpdate();
                         }
-                    }
-                    System.out.println("Datos importados correctamente.");
+                        return null;
+                    }));
+                    System.out.println("Tabla verificada/creada correctamente: " + nombreTabla);
                 }
-            } else {
-                System.out.println("Error al establecer la conexión a la base de datos.");
+                System.out.println("Procesando hoja: " + (hoja + 1));
+                return;
             }
-        } catch (SQLException | IOException e) {
-            System.err.println("Error general: " + e.getMessage());
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.close();
+            String posicion = "hoja " + (hoja + 1) + ", fila " + (fila + 1);
+            if (lote.isEmpty()) {
+                desde = posicion;
+            }
+            hasta = posicion;
+            lote.add(valores);
+            if (lote.size() >= tamanoLote) {
+                enviarLote();
+            }
+        }
+
+        // Envía el lote actual después de que el anterior quedó guardado
+        private void enviarLote() throws SQLException {
+            if (lote.isEmpty()) {
+                return;
+            }
+            List<Object[]> filas = lote;
+            String rango = "de " + desde + " a " + hasta;
+            lote = new ArrayList<>(tamanoLote);
+            esperar(pendiente);
+            pendiente = ColaEscritura.getInstancia().enviar("importación " + rango, conn -> {
+                // Las sentencias se preparan una vez por lote y se reutilizan en cada fila
+                try (PreparedStatement updateStmt = conn.prepareStatement(updateSQL);
+                        PreparedStatement insertStmt = conn.prepareStatement(insertSQL)) {
+                    for (Object[] valores : filas) {
+                        String nombreProducto = obtenerValorCelda(valores, 0); // Primera columna: nombre del producto
+                        double precio = obtenerValorNumerico(valores, 1); // Segunda columna: precio
+                        double cantidad = obtenerValorNumerico(valores, 2); // Tercera columna: cantidad
+                        String codigoProducto = obtenerValorCelda(valores, 3); // Cuarta columna: código
+                        String categoria = obtenerValorCelda(valores, 4); // Quinta columna: categoría
+
+                        // Actualizar el producto si ya existe
+                        updateStmt.setDouble(1, cantidad);
+                        updateStmt.setString(2, categoria);
+                        updateStmt.setDouble(3, precio);
+                        updateStmt.setString(4, codigoProducto);
+                        if (updateStmt.executeUpdate() == 0) {
+                            // Insertar el producto si no existe
+                            insertStmt.setString(1, nombreProducto);
+                            insertStmt.setDouble(2, precio);
+                            insertStmt.setDouble(3, cantidad);
+                            insertStmt.setString(4, codigoProducto);
+                            insertStmt.setString(5, categoria);
+                            insertStmt.executeUpdate();
+                        }
+                    }
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar la conexión: " + e.getMessage());
+                    throw new SQLException("Se revirtió el lote " + rango + ": " + e.getMessage(), e);
                 }
+                return null;
+            });
+            lotes++;
+        }
+
+        // Guarda las filas restantes y espera el último lote
+        void terminar() throws SQLException {
+            enviarLote();
+            esperar(pendiente);
+            pendiente = null;
+        }
+
+        // Espera el lote en curso tras un error, para no invalidar la caché antes de tiempo
+        void esperarSinErrores() {
+            if (pendiente != null) {
+                pendiente.exceptionally(e -> null).join();
+            }
+        }
+
+        private static void esperar(CompletableFuture<?> futuro) throws SQLException {
+            if (futuro == null) {
+                return;
+            }
+            try {
+                futuro.join();
+            } catch (CompletionException e) {
+                Throwable causa = e.getCause();
+                throw causa instanceof SQLException ? (SQLException) causa : new SQLException(causa);
             }
         }
     }
 
     // Método para exportar datos desde una tabla SQLite a un archivo Excel
     public static void exportarDatosAExcel(String nombreTabla, String rutaExcel) {
-        Connection conn = null;
-        FileOutputStream fos = null;
-
         try {
-            conn = conexion.establecerConexion();
-            if (conn != null) {
-                System.out.println("Conexión a SQLite establecida.");
-
-                // Crear un libro de trabajo y una hoja de Excel
-                Workbook workbook = new XSSFWorkbook();
-                Sheet sheet = workbook.createSheet(nombreTabla);
+            exportarDatosAExcel(nombreTabla, rutaExcel, ReporteProgreso.NINGUNO);
+        } catch (SQLException | IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
 
-                // Ejecutar una consulta para obtener los datos de la tabla sin la columna id
-                String query = "SELECT producto, precio, cantidad, codigo, categoria FROM " + nombreTabla; // Omitir 'id'
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(query);
+    /**
+     * Exporta los productos a un archivo Excel leyendo la consulta fila por
+     * fila, sin armar el libro completo en memoria.
+     *
+     * El precio y la cantidad se escriben como números, así que el archivo
+     * exportado se puede volver a importar con {@link #importarExcel}.
+     *
+     * @param nombreTabla Tabla de productos.
+     * @param rutaExcel Ruta del archivo a crear.
+     * @param progreso Recibe el avance y las filas por segundo.
+     * @throws SQLException Si falla la consulta.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static void exportarDatosAExcel(String nombreTabla, String rutaExcel, ReporteProgreso progreso)
+            throws SQLException, IOException {
+        // Ejecutar una consulta para obtener los datos de la tabla sin la columna id
+        String query = "SELECT producto, precio, cantidad, codigo, categoria FROM " + nombreTabla; // Omitir 'id'
 
-                // Obtener los metadatos de las columnas
+        try (Connection conn = conexion.establecerConexionLectura(); Statement stmt = conn.createStatement()) {
+            long total;
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + nombreTabla)) {
+                total = rs.next() ? rs.getLong(1) : 0;
+            }
+            try (ResultSet rs = stmt.executeQuery(query)) {
+                // Los encabezados son los nombres de las columnas
                 int columnCount = rs.getMetaData().getColumnCount();
-
-                // Crear la fila de encabezado en la primera fila del Excel
-                Row headerRow = sheet.createRow(0);
+                String[] encabezados = new String[columnCount];
                 for (int i = 1; i <= columnCount; i++) {
-                    Cell cell = headerRow.createCell(i - 1);
-                    cell.setCellValue(rs.getMetaData().getColumnName(i));
+                    encabezados[i - 1] = rs.getMetaData().getColumnName(i);
                 }
 
-                // Escribir los datos en las filas siguientes
-                int rowIndex = 1;
-                while (rs.next()) {
-                    Row row = sheet.createRow(rowIndex++);
+                // getObject conserva el tipo guardado: números como números y el código como texto
+                long filas = ExportadorExcel.exportar(rs, nombreTabla, encabezados, (fila, valores) -> {
                     for (int i = 1; i <= columnCount; i++) {
-                        Cell cell = row.createCell(i - 1);
-                        cell.setCellValue(rs.getString(i));
+                        valores[i - 1] = fila.getObject(i);
                     }
-                }
-
-                // Escribir el libro de Excel en el archivo
-                fos = new FileOutputStream(rutaExcel);
-                workbook.write(fos);
-
-                System.out.println("Datos exportados correctamente a " + rutaExcel);
-
-                // Cerrar recursos
-                rs.close();
-                stmt.close();
-                workbook.close();
-            } else {
-                System.out.println("Error al establecer la conexión a la base de datos.");
-            }
-        } catch (SQLException | IOException e) {
-            System.out.println("Error: " + e.getMessage());
-        } finally {
-            try {
-                if (conn != null) {
-                    conn.close();
-                }
-                if (fos != null) {
-                    fos.close();
-                }
-            } catch (SQLException | IOException e) {
-                System.out.println("Error al cerrar la conexión o el archivo: " + e.getMessage());
+                }, total, rutaExcel, progreso);
+                System.out.println("Datos exportados correctamente a " + rutaExcel + " (" + filas + " filas).");
             }
         }
     }
@@ -182,44 +249,44 @@ public class ExcelSQLiteManager {
      * Genera la sentencia SQL para crear una tabla en SQLite con el mismo
      * esquema que la primera fila de un archivo Excel.
      *
-     * @param sheet La hoja del archivo Excel que contiene los datos.
+     * @param encabezados Valores de la primera fila de la hoja; las celdas que
+     * no son texto se omiten.
      * @param nombreTabla Nombre de la tabla que se creará en SQLite.
      * @return La sentencia SQL para crear la tabla.
      */
-    private static String generarSQLCreacionTabla(Sheet sheet, String nombreTabla) {
-        Row headerRow = sheet.getRow(0);
+    private static String generarSQLCreacionTabla(Object[] encabezados, String nombreTabla) {
         StringBuilder sb = new StringBuilder("CREATE TABLE IF NOT EXISTS ");
         sb.append(nombreTabla).append(" (");
 
-        for (int j = 0; j < headerRow.getLastCellNum(); j++) {
-            String columnName = headerRow.getCell(j).getStringCellValue().trim();
+        boolean primera = true;
+        for (Object encabezado : encabezados) {
+            if (!(encabezado instanceof String) || ((String) encabezado).trim().isEmpty()) {
+                continue;
+            }
+            String columnName = ((String) encabezado).trim();
+            if (!primera) {
+                sb.append(", ");
+            }
+            primera = false;
             // Ajusta la columna de categoría para que acepte NULL o tenga un valor predeterminado
             if (columnName.equalsIgnoreCase("categoria")) {
                 sb.append(columnName).append(" TEXT DEFAULT 'Sin Categoría'"); // Establece valor por defecto
             } else {
                 sb.append(columnName).append(" TEXT");
             }
-
-            if (j < headerRow.getLastCellNum() - 1) {
-                sb.append(", ");
-            }
         }
         sb.append(");");
         return sb.toString();
     }
 
-    private static String obtenerValorCelda(Cell celda) {
-        if (celda == null) {
-            return "";
-        }
-        return celda.getCellType() == CellType.STRING ? celda.getStringCellValue().trim() : "";
+    private static String obtenerValorCelda(Object[] valores, int columna) {
+        Object valor = columna < valores.length ? valores[columna] : null;
+        return valor instanceof String ? ((String) valor).trim() : "";
     }
 
-    private static double obtenerValorNumerico(Cell celda) {
-        if (celda == null) {
-            return 0.0;
-        }
-        return celda.getCellType() == CellType.NUMERIC ? celda.getNumericCellValue() : 0.0;
+    private static double obtenerValorNumerico(Object[] valores, int columna) {
+        Object valor = columna < valores.length ? valores[columna] : null;
+        return valor instanceof Double ? (Double) valor : 0.0;
     }
 
 }
@@ -0,0 +1,128 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Escribe el resultado de una consulta en un archivo .xlsx sin guardar todas
+ * las filas en memoria.
+ *
+ * Usa `SXSSFWorkbook`: solo las últimas {@link #VENTANA_FILAS} filas quedan en
+ * memoria y las anteriores se pasan a un archivo temporal comprimido, así que
+ * el consumo de memoria no depende del número de filas. Los números se
+ * escriben como celdas numéricas, de modo que Excel puede sumarlos y el
+ * archivo se puede volver a importar.
+ *
+ * @author Dazac
+ */
+public final class ExportadorExcel {
+
+    // Filas que se mantienen en memoria antes de pasarlas al archivo temporal
+    public static final int VENTANA_FILAS = 100;
+
+    // Filas entre reportes de progreso
+    private static final int FILAS_POR_REPORTE = 1000;
+
+    /**
+     * Convierte la fila actual del `ResultSet` en los valores de una fila de
+     * Excel.
+     */
+    @FunctionalInterface
+    public interface ConvertidorFila {
+
+        /**
+         * Llena los valores de la fila actual.
+         *
+         * @param rs Resultado posicionado en la fila.
+         * @param valores Arreglo a llenar, uno por encabezado: `Number` se
+         * escribe como número, `null` como celda vacía y el resto como texto.
+         * @throws SQLException Si falla la lectura.
+         */
+        void convertir(ResultSet rs, Object[] valores) throws SQLException;
+    }
+
+    private ExportadorExcel() {
+    }
+
+    /**
+     * Recorre el resultado y lo escribe en una hoja nueva.
+     *
+     * @param rs Resultado de la consulta; no se cierra.
+     * @param nombreHoja Nombre de la hoja.
+     * @param encabezados Títulos de las columnas.
+     * @param convertidor Convierte cada fila.
+     * @param totalFilas Filas esperadas para calcular el porcentaje, o 0 si no
+     * se conocen.
+     * @param rutaExcel Ruta del archivo a crear.
+     * @param progreso Recibe el avance.
+     * @return Número de filas escritas sin contar el encabezado.
+     * @throws SQLException Si falla la lectura de la consulta.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static long exportar(ResultSet rs, String nombreHoja, String[] encabezados,
+            ConvertidorFila convertidor, long totalFilas, String rutaExcel, ReporteProgreso progreso)
+            throws SQLException, IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet(nombreHoja);
+
+            Row headerRow = sheet.createRow(0);
+            for (int col = 0; col < encabezados.length; col++) {
+                headerRow.createCell(col).setCellValue(encabezados[col]);
+            }
+
+            long inicio = System.nanoTime();
+            Object[] valores = new Object[encabezados.length];
+            int filas = 0;
+            while (rs.next()) {
+                convertidor.convertir(rs, valores);
+                Row row = sheet.createRow(filas + 1);
+                for (int col = 0; col < valores.length; col++) {
+                    escribirCelda(row, col, valores[col]);
+                }
+                filas++;
+                if (filas % FILAS_POR_REPORTE == 0) {
+                    progreso.actualizar(totalFilas > 0 ? (int) Math.min(99, filas * 100 / totalFilas) : 0,
+                            resumen(filas, inicio));
+                }
+            }
+
+            try (OutputStream salida = new FileOutputStream(rutaExcel)) {
+                workbook.write(salida);
+            }
+            progreso.actualizar(100, resumen(filas, inicio));
+            return filas;
+        } finally {
+            // Borra los archivos temporales de las filas ya escritas
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    // Escribe un valor en la celda con el tipo que le corresponde
+    private static void escribirCelda(Row row, int col, Object valor) {
+        if (valor == null) {
+            return;
+        }
+        Cell cell = row.createCell(col);
+        if (valor instanceof Number) {
+            cell.setCellValue(((Number) valor).doubleValue());
+        } else {
+            cell.setCellValue(valor.toString());
+        }
+    }
+
+    private static String resumen(long filas, long inicio) {
+        double segundos = Math.max(1e-9, (System.nanoTime() - inicio) / 1e9);
+        return String.format(Locale.ROOT, "Exportando: %,d filas (%,.0f filas/s)", filas, filas / segundos);
+    }
+}
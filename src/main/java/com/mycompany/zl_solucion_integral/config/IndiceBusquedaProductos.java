@@ -0,0 +1,427 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de búsqueda parcial sobre los nombres y códigos de los productos.
+ *
+ * Trabaja sobre el texto normalizado (ver
+ * {@link CacheProductos#normalizar(String)}) y combina dos estructuras:
+ * <ul>
+ * <li>Un índice de trigramas para términos de tres o más caracteres: los
+ * candidatos salen de la lista de trigramas más corta de todos los términos y
+ * luego se verifican y puntúan (código exacto, prefijo del código, prefijo del
+ * nombre, prefijo de una palabra y por último subcadena).</li>
+ * <li>Mapas ordenados de códigos, nombres y palabras, que resuelven como
+ * prefijos las consultas de una sola palabra recorriendo solo hasta completar
+ * los K resultados. Si no alcanzan (y siempre que la consulta tenga varias
+ * palabras) se usa el índice de trigramas.</li>
+ * </ul>
+ *
+ * Cada producto ocupa una posición numérica y las listas del índice guardan
+ * esas posiciones en arreglos de enteros, de modo que el índice de decenas de
+ * miles de productos ocupa pocos megabytes. El índice se actualiza producto a
+ * producto desde {@link CacheProductos}.
+ *
+ * @author Dazac
+ */
+public class IndiceBusquedaProductos {
+
+    // Datos indexados de un producto
+    private static final class Entrada {
+
+        final int id;
+        final String codigo;
+        final String nombre;
+        final String codigoNormalizado;
+        final String texto;
+
+        Entrada(int id, String codigo, String nombre) {
+            this.id = id;
+            this.codigo = codigo;
+            this.nombre = CacheProductos.normalizar(nombre);
+            this.codigoNormalizado = CacheProductos.normalizar(codigo);
+            this.texto = this.nombre + ' ' + this.codigoNormalizado;
+        }
+    }
+
+    // Lista creciente de posiciones de entradas
+    private static final class Posiciones {
+
+        int[] datos = new int[4];
+        int cantidad = 0;
+
+        void agregar(int posicion) {
+            if (cantidad == datos.length) {
+                datos = Arrays.copyOf(datos, cantidad * 2);
+            }
+            datos[cantidad++] = posicion;
+        }
+
+        void quitar(int posicion) {
+            for (int i = 0; i < cantidad; i++) {
+                if (datos[i] == posicion) {
+                    datos[i] = datos[--cantidad];
+                    return;
+                }
+            }
+        }
+    }
+
+    // Entrada con su puntaje para ordenar los resultados
+    private static final class Coincidencia {
+
+        final Entrada entrada;
+        final int puntaje;
+
+        Coincidencia(Entrada entrada, int puntaje) {
+            this.entrada = entrada;
+            this.puntaje = puntaje;
+        }
+    }
+
+    private final List<Entrada> entradas = new ArrayList<>();
+    private final List<Integer> posicionesLibres = new ArrayList<>();
+    private final Map<String, Integer> posicionPorCodigo = new HashMap<>();
+
+    private final Map<Long, Posiciones> trigramas = new HashMap<>();
+    private final NavigableMap<String, Posiciones> codigos = new TreeMap<>();
+    private final NavigableMap<String, Posiciones> nombres = new TreeMap<>();
+    private final NavigableMap<String, Posiciones> palabras = new TreeMap<>();
+
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+
+    /**
+     * Agrega o reemplaza un producto en el índice.
+     *
+     * @param id ID del producto.
+     * @param codigo Código del producto.
+     * @param nombre Nombre del producto.
+     */
+    public void agregar(int id, String codigo, String nombre) {
+        Entrada entrada = new Entrada(id, codigo, nombre);
+        candado.writeLock().lock();
+        try {
+            quitarSinCandado(codigo);
+            int posicion;
+            if (posicionesLibres.isEmpty()) {
+                posicion = entradas.size();
+                entradas.add(entrada);
+            } else {
+                posicion = posicionesLibres.remove(posicionesLibres.size() - 1);
+                entradas.set(posicion, entrada);
+            }
+            posicionPorCodigo.put(codigo, posicion);
+
+            for (long trigrama : trigramas(entrada.texto)) {
+                trigramas.computeIfAbsent(trigrama, k -> new Posiciones()).agregar(posicion);
+            }
+            codigos.computeIfAbsent(entrada.codigoNormalizado, k -> new Posiciones()).agregar(posicion);
+            nombres.computeIfAbsent(entrada.nombre, k -> new Posiciones()).agregar(posicion);
+            for (String palabra : palabras(entrada.nombre)) {
+                palabras.computeIfAbsent(palabra, k -> new Posiciones()).agregar(posicion);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un producto del índice.
+     *
+     * @param codigo Código del producto.
+     */
+    public void quitar(String codigo) {
+        candado.writeLock().lock();
+        try {
+            quitarSinCandado(codigo);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vacía el índice.
+     */
+    public void limpiar() {
+        candado.writeLock().lock();
+        try {
+            entradas.clear();
+            posicionesLibres.clear();
+            posicionPorCodigo.clear();
+            trigramas.clear();
+            codigos.clear();
+            nombres.clear();
+            palabras.clear();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void quitarSinCandado(String codigo) {
+        Integer posicion = posicionPorCodigo.remove(codigo);
+        if (posicion == null) {
+            return;
+        }
+        Entrada entrada = entradas.get(posicion);
+        for (long trigrama : trigramas(entrada.texto)) {
+            quitarDe(trigramas, trigrama, posicion);
+        }
+        quitarDe(codigos, entrada.codigoNormalizado, posicion);
+        quitarDe(nombres, entrada.nombre, posicion);
+        for (String palabra : palabras(entrada.nombre)) {
+            quitarDe(palabras, palabra, posicion);
+        }
+        entradas.set(posicion, null);
+        posicionesLibres.add(posicion);
+    }
+
+    private static <K> void quitarDe(Map<K, Posiciones> mapa, K clave, int posicion) {
+        Posiciones lista = mapa.get(clave);
+        if (lista != null) {
+            lista.quitar(posicion);
+            if (lista.cantidad == 0) {
+                mapa.remove(clave);
+            }
+        }
+    }
+
+    /**
+     * Busca los productos cuyo nombre o código contiene todas las palabras del
+     * texto.
+     *
+     * @param texto Texto escrito por el usuario.
+     * @param limite Número máximo de resultados.
+     * @return Códigos de los productos encontrados, del más al menos relevante.
+     */
+    public List<String> buscar(String texto, int limite) {
+        String consulta = CacheProductos.normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+        candado.readLock().lock();
+        try {
+            if (consulta.indexOf(' ') < 0) {
+                // Una sola palabra: los prefijos se resuelven sin recorrer candidatos y
+                // solo si no alcanzan se buscan subcadenas
+                List<String> porPrefijo = buscarPrefijo(consulta, limite);
+                if (porPrefijo.size() >= limite || consulta.length() < 3) {
+                    return porPrefijo;
+                }
+            }
+            return buscarSubcadena(consulta, limite);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Coincidencias exactas y luego prefijo del código, del nombre o de una palabra, en ese orden
+    private List<String> buscarPrefijo(String consulta, int limite) {
+        Set<Integer> encontradas = posicionesPorPrefijo(consulta, limite);
+        List<String> resultado = new ArrayList<>(encontradas.size());
+        for (int posicion : encontradas) {
+            resultado.add(entradas.get(posicion).codigo);
+        }
+        return resultado;
+    }
+
+    // Posiciones de las entradas que buscarPrefijo devuelve, en el mismo orden
+    private Set<Integer> posicionesPorPrefijo(String consulta, int limite) {
+        Set<Integer> encontradas = new LinkedHashSet<>();
+        for (NavigableMap<String, Posiciones> mapa : List.of(codigos, nombres)) {
+            Posiciones exactas = mapa.get(consulta);
+            for (int i = 0; exactas != null && i < exactas.cantidad && encontradas.size() < limite; i++) {
+                encontradas.add(exactas.datos[i]);
+            }
+        }
+        for (NavigableMap<String, Posiciones> mapa : List.of(codigos, nombres, palabras)) {
+            for (Posiciones lista : mapa.subMap(consulta, true, consulta + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < lista.cantidad && encontradas.size() < limite; i++) {
+                    encontradas.add(lista.datos[i]);
+                }
+                if (encontradas.size() >= limite) {
+                    break;
+                }
+            }
+            if (encontradas.size() >= limite) {
+                break;
+            }
+        }
+        return encontradas;
+    }
+
+    // Consultas de tres o más caracteres: trigramas, verificación y puntaje
+    private List<String> buscarSubcadena(String consulta, int limite) {
+        String[] terminos = consulta.split(" ");
+
+        // Los candidatos salen de la lista de trigramas más corta entre todos los términos
+        Posiciones candidatos = null;
+        for (String termino : terminos) {
+            for (long trigrama : trigramas(termino)) {
+                Posiciones lista = trigramas.get(trigrama);
+                if (lista == null) {
+                    return Collections.emptyList();
+                }
+                if (candidatos == null || lista.cantidad < candidatos.cantidad) {
+                    candidatos = lista;
+                }
+            }
+        }
+        if (candidatos == null) {
+            // Todos los términos son cortos (por ejemplo "x 5"): los candidatos salen del
+            // prefijo del primero y deben contener también los demás
+            List<String> resultado = new ArrayList<>();
+            for (int posicion : posicionesPorPrefijo(terminos[0], Integer.MAX_VALUE)) {
+                Entrada entrada = entradas.get(posicion);
+                if (contieneTodos(entrada, terminos)) {
+                    resultado.add(entrada.codigo);
+                    if (resultado.size() >= limite) {
+                        break;
+                    }
+                }
+            }
+            return resultado;
+        }
+
+        PriorityQueue<Coincidencia> mejores = new PriorityQueue<>(limite + 1, IndiceBusquedaProductos::comparar);
+        for (int i = 0; i < candidatos.cantidad; i++) {
+            Entrada entrada = entradas.get(candidatos.datos[i]);
+            if (!contieneTodos(entrada, terminos)) {
+                continue;
+            }
+            int puntaje = puntaje(entrada, consulta);
+            Coincidencia peor = mejores.peek();
+            if (mejores.size() < limite) {
+                mejores.add(new Coincidencia(entrada, puntaje));
+            } else if (comparar(new Coincidencia(entrada, puntaje), peor) > 0) {
+                mejores.poll();
+                mejores.add(new Coincidencia(entrada, puntaje));
+            }
+        }
+
+        List<String> resultado = new ArrayList<>(mejores.size());
+        while (!mejores.isEmpty()) {
+            resultado.add(mejores.poll().entrada.codigo);
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    // Verifica que la entrada contenga todos los términos; los cortos como prefijo de palabra
+    private static boolean contieneTodos(Entrada entrada, String[] terminos) {
+        for (String termino : terminos) {
+            boolean contiene = termino.length() < 3
+                    ? tienePrefijoDePalabra(entrada.texto, termino)
+                    : entrada.texto.contains(termino);
+            if (!contiene) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Relevancia de una entrada para la consulta completa
+    private static int puntaje(Entrada entrada, String consulta) {
+        if (entrada.codigoNormalizado.equals(consulta)) {
+            return 1000;
+        }
+        if (entrada.nombre.equals(consulta)) {
+            return 900;
+        }
+        if (entrada.codigoNormalizado.startsWith(consulta)) {
+            return 800;
+        }
+        if (entrada.nombre.startsWith(consulta)) {
+            return 700;
+        }
+        if (tienePrefijoDePalabra(entrada.nombre, consulta)) {
+            return 500;
+        }
+        if (entrada.nombre.contains(consulta)) {
+            return 300;
+        }
+        return 100;
+    }
+
+    // Orden ascendente de relevancia: el peor resultado queda en la cabeza de la cola
+    private static int comparar(Coincidencia a, Coincidencia b) {
+        if (a.puntaje != b.puntaje) {
+            return Integer.compare(a.puntaje, b.puntaje);
+        }
+        // A igual puntaje, primero los nombres más cortos y luego los más antiguos
+        if (a.entrada.nombre.length() != b.entrada.nombre.length()) {
+            return Integer.compare(b.entrada.nombre.length(), a.entrada.nombre.length());
+        }
+        return Integer.compare(b.entrada.id, a.entrada.id);
+    }
+
+    private static boolean tienePrefijoDePalabra(String texto, String prefijo) {
+        int desde = 0;
+        while (true) {
+            int i = texto.indexOf(prefijo, desde);
+            if (i < 0) {
+                return false;
+            }
+            if (i == 0 || texto.charAt(i - 1) == ' ') {
+                return true;
+            }
+            desde = i + 1;
+        }
+    }
+
+    // Trigramas distintos del texto, empaquetados en un long (16 bits por carácter)
+    private static long[] trigramas(String texto) {
+        if (texto.length() < 3) {
+            return new long[0];
+        }
+        long[] resultado = new long[texto.length() - 2];
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            resultado[i] = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+        }
+        Arrays.sort(resultado);
+        int distintos = 0;
+        for (int i = 0; i < resultado.length; i++) {
+            if (i == 0 || resultado[i] != resultado[i - 1]) {
+                resultado[distintos++] = resultado[i];
+            }
+        }
+        return Arrays.copyOf(resultado, distintos);
+    }
+
+    private static Set<String> palabras(String nombre) {
+        Set<String> resultado = new HashSet<>();
+        for (String palabra : nombre.split(" ")) {
+            if (!palabra.isEmpty()) {
+                resultado.add(palabra);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Número de productos indexados.
+     *
+     * @return Tamaño del índice.
+     */
+    public int contar() {
+        candado.readLock().lock();
+        try {
+            return posicionPorCodigo.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+}
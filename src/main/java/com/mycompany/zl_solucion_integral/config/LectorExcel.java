@@ -0,0 +1,298 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Lee archivos .xlsx fila por fila sin cargar el libro completo en memoria.
+ *
+ * `new XSSFWorkbook(...)` construye el árbol de todas las hojas, lo que con
+ * listas de cientos de miles de filas ocupa cientos de MB. Este lector recorre
+ * el XML de cada hoja con SAX y entrega cada fila al {@link ManejadorFilas}
+ * apenas se termina de leer; en memoria solo quedan la fila actual y la tabla
+ * de textos compartidos del libro (un valor por texto distinto).
+ *
+ * Los valores se entregan con los mismos tipos que reporta el modelo de POI:
+ * `String` para celdas de texto, `Double` para celdas numéricas y `null` para
+ * celdas vacías, fórmulas, booleanos y errores.
+ *
+ * @author Dazac
+ */
+public final class LectorExcel {
+
+    // Filas entre reportes de progreso
+    private static final int FILAS_POR_REPORTE = 1000;
+
+    /**
+     * Recibe las filas leídas.
+     */
+    @FunctionalInterface
+    public interface ManejadorFilas {
+
+        /**
+         * Procesa una fila.
+         *
+         * @param hoja Índice de la hoja, desde 0.
+         * @param fila Índice de la fila dentro de la hoja, desde 0 (la fila 0 es
+         * el encabezado).
+         * @param valores Valores por columna; `null` si la celda no tiene texto
+         * ni número.
+         * @throws SQLException Si falla el guardado de la fila; detiene la
+         * lectura.
+         */
+        void fila(int hoja, int fila, Object[] valores) throws SQLException;
+    }
+
+    private LectorExcel() {
+    }
+
+    /**
+     * Lee todas las hojas del archivo en orden.
+     *
+     * @param rutaExcel Ruta del archivo .xlsx.
+     * @param manejador Recibe cada fila.
+     * @param progreso Recibe el avance; el porcentaje se estima con la
+     * dimensión declarada en cada hoja.
+     * @return Número de filas leídas, incluidos los encabezados.
+     * @throws IOException Si el archivo no se puede leer o no es un .xlsx
+     * válido.
+     * @throws SQLException Si el manejador falla.
+     */
+    public static long leer(String rutaExcel, ManejadorFilas manejador, ReporteProgreso progreso)
+            throws IOException, SQLException {
+        try (OPCPackage paquete = OPCPackage.open(new File(rutaExcel), PackageAccess.READ)) {
+            XSSFReader lector = new XSSFReader(paquete);
+            ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(paquete, false);
+
+            int totalHojas = contarHojas(lector);
+            ManejadorHoja manejadorHoja = new ManejadorHoja(textos, manejador, progreso, totalHojas);
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(manejadorHoja);
+
+            Iterator<InputStream> hojas = lector.getSheetsData();
+            for (int hoja = 0; hojas.hasNext(); hoja++) {
+                manejadorHoja.iniciarHoja(hoja);
+                try (InputStream datos = hojas.next()) {
+                    parser.parse(new InputSource(datos));
+                }
+            }
+            progreso.actualizar(100, manejadorHoja.resumen());
+            return manejadorHoja.filasLeidas;
+        } catch (SAXException e) {
+            if (e.getException() instanceof SQLException) {
+                throw (SQLException) e.getException();
+            }
+            throw new IOException("El archivo Excel no tiene un formato válido: " + e.getMessage(), e);
+        } catch (OpenXML4JException | ParserConfigurationException e) {
+            throw new IOException("No se pudo abrir el archivo Excel: " + e.getMessage(), e);
+        }
+    }
+
+    // Cuenta las hojas para poder reportar "hoja i de n"
+    private static int contarHojas(XSSFReader lector) throws IOException, OpenXML4JException {
+        int total = 0;
+        Iterator<InputStream> hojas = lector.getSheetsData();
+        while (hojas.hasNext()) {
+            hojas.next().close();
+            total++;
+        }
+        return total;
+    }
+
+    // Índice de columna desde 0 a partir de una referencia como "AB12"
+    private static int columnaDeReferencia(String referencia) {
+        int columna = 0;
+        for (int i = 0; i < referencia.length(); i++) {
+            char c = referencia.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            columna = columna * 26 + (c - 'A' + 1);
+        }
+        return columna - 1;
+    }
+
+    // Número de la fila (desde 1) a partir de una referencia como "AB12"
+    private static int filaDeReferencia(String referencia) {
+        int i = 0;
+        while (i < referencia.length() && !Character.isDigit(referencia.charAt(i))) {
+            i++;
+        }
+        return i < referencia.length() ? Integer.parseInt(referencia.substring(i)) : 0;
+    }
+
+    /**
+     * Interpreta el XML de una hoja (`sheetN.xml`).
+     */
+    private static final class ManejadorHoja extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable textos;
+        private final ManejadorFilas manejador;
+        private final ReporteProgreso progreso;
+        private final int totalHojas;
+        private final long inicio = System.nanoTime();
+
+        private int hoja;
+        private int filasEstimadas;
+        private long filasLeidas;
+
+        // Estado de la fila y la celda actuales
+        private final List<Object> valores = new ArrayList<>();
+        private int fila;
+        private int siguienteFila;
+        private int columna;
+        private int siguienteColumna;
+        private String tipo;
+        private boolean tieneFormula;
+        private boolean tieneValor;
+        private boolean enValor;
+        private boolean enTextoEnLinea;
+        private boolean enFonetica;
+        private final StringBuilder texto = new StringBuilder();
+
+        ManejadorHoja(ReadOnlySharedStringsTable textos, ManejadorFilas manejador,
+                ReporteProgreso progreso, int totalHojas) {
+            this.textos = textos;
+            this.manejador = manejador;
+            this.progreso = progreso;
+            this.totalHojas = Math.max(1, totalHojas);
+        }
+
+        void iniciarHoja(int indice) {
+            hoja = indice;
+            filasEstimadas = 0;
+            siguienteFila = 0;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atributos) {
+            switch (localName) {
+                case "dimension":
+                    // Ej. "A1:E100001": la última fila sirve para estimar el avance
+                    String rango = atributos.getValue("ref");
+                    if (rango != null) {
+                        filasEstimadas = filaDeReferencia(rango.substring(rango.indexOf(':') + 1));
+                    }
+                    break;
+                case "row":
+                    String numero = atributos.getValue("r");
+                    fila = numero != null ? Integer.parseInt(numero) - 1 : siguienteFila;
+                    siguienteFila = fila + 1;
+                    siguienteColumna = 0;
+                    valores.clear();
+                    break;
+                case "c":
+                    String referencia = atributos.getValue("r");
+                    columna = referencia != null ? columnaDeReferencia(referencia) : siguienteColumna;
+                    siguienteColumna = columna + 1;
+                    tipo = atributos.getValue("t");
+                    tieneFormula = false;
+                    tieneValor = false;
+                    texto.setLength(0);
+                    break;
+                case "f":
+                    tieneFormula = true;
+                    break;
+                case "v":
+                    enValor = true;
+                    tieneValor = true;
+                    break;
+                case "is":
+                    enTextoEnLinea = true;
+                    tieneValor = true;
+                    break;
+                case "rPh":
+                    enFonetica = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (enValor || (enTextoEnLinea && !enFonetica)) {
+                texto.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                    enValor = false;
+                    break;
+                case "is":
+                    enTextoEnLinea = false;
+                    break;
+                case "rPh":
+                    enFonetica = false;
+                    break;
+                case "c":
+                    guardarCelda();
+                    break;
+                case "row":
+                    terminarFila();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // Convierte la celda al mismo tipo que daría el modelo de POI
+        private void guardarCelda() {
+            Object valor = null;
+            if (!tieneFormula && tieneValor) {
+                String contenido = texto.toString();
+                if (tipo == null || "n".equals(tipo)) {
+                    valor = contenido.isEmpty() ? null : Double.valueOf(contenido);
+                } else if ("s".equals(tipo)) {
+                    valor = textos.getItemAt(Integer.parseInt(contenido.trim())).getString();
+                } else if ("inlineStr".equals(tipo) || "str".equals(tipo)) {
+                    valor = contenido;
+                }
+            }
+            while (valores.size() <= columna) {
+                valores.add(null);
+            }
+            valores.set(columna, valor);
+        }
+
+        private void terminarFila() throws SAXException {
+            try {
+                manejador.fila(hoja, fila, valores.toArray());
+            } catch (SQLException e) {
+                throw new SAXException(e);
+            }
+            filasLeidas++;
+            if (filasLeidas % FILAS_POR_REPORTE == 0) {
+                int porcentajeHoja = filasEstimadas > 0 ? Math.min(100, (fila + 1) * 100 / filasEstimadas) : 0;
+                progreso.actualizar((hoja * 100 + porcentajeHoja) / totalHojas,
+                        String.format(Locale.ROOT, "Hoja %d de %d: %s", hoja + 1, totalHojas, resumen()));
+            }
+        }
+
+        String resumen() {
+            double segundos = Math.max(1e-9, (System.nanoTime() - inicio) / 1e9);
+            return String.format(Locale.ROOT, "%,d filas (%,.0f filas/s)", filasLeidas, filasLeidas / segundos);
+        }
+    }
+}
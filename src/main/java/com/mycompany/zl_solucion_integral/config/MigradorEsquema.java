@@ -0,0 +1,380 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Aplica las migraciones del esquema de la base de datos.
+ *
+ * Cada migración tiene un número de versión y se aplica una sola vez; las
+ * versiones aplicadas se registran en la tabla `schema_version` junto con la
+ * fecha y la duración. Al iniciar la aplicación se ejecutan, en orden, las
+ * migraciones cuya versión sea mayor que la última registrada. Cada migración
+ * corre en su propia transacción: si falla, se revierte y no se aplican las
+ * siguientes.
+ *
+ * Para cambiar el esquema se agrega una migración nueva al final de
+ * {@link #MigradorEsquema()}; nunca se modifica una que ya se haya publicado.
+ *
+ * @author Dazac
+ */
+public class MigradorEsquema {
+
+    private static final Logger logger = Logger.getLogger(MigradorEsquema.class.getName());
+
+    /**
+     * Cambio del esquema que se ejecuta dentro de la transacción de la
+     * migración.
+     */
+    @FunctionalInterface
+    public interface PasoMigracion {
+
+        void aplicar(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Migración con su versión, descripción y paso a ejecutar.
+     */
+    public static final class Migracion {
+
+        private final int version;
+        private final String descripcion;
+        private final PasoMigracion paso;
+
+        public Migracion(int version, String descripcion, PasoMigracion paso) {
+            this.version = version;
+            this.descripcion = descripcion;
+            this.paso = paso;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+    }
+
+    // Migraciones registradas, en orden de versión
+    private final List<Migracion> migraciones = new ArrayList<>();
+
+    /**
+     * Registra todas las migraciones conocidas del esquema.
+     */
+    public MigradorEsquema() {
+        registrar(1, "Tablas iniciales", conn -> ejecutar(conn,
+                "CREATE TABLE IF NOT EXISTS usuarios ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + "nombre TEXT NOT NULL,"
+                + "telefono TEXT NOT NULL,"
+                + "email TEXT NOT NULL,"
+                + "rol INTEGER NOT NULL,"
+                + "contraseña TEXT NOT NULL"
+                + ")",
+                "CREATE TABLE IF NOT EXISTS ventas ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + "cliente TEXT NOT NULL,"
+                + "cc_cliente TEXT NOT NULL,"
+                + "vendedor TEXT NOT NULL,"
+                + "fecha DATE NOT NULL,"
+                + "total REAL NOT NULL,"
+                + "metodo_pago TEXT NOT NULL,"
+                + "pago_confirmado TEXT"
+                + ")",
+                "CREATE TABLE IF NOT EXISTS productos ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + "producto TEXT NOT NULL,"
+                + "precio REAL NOT NULL,"
+                + "cantidad INTEGER NOT NULL,"
+                + "codigo TEXT NOT NULL,"
+                + "categoria TEXT"
+                + ")",
+                "CREATE TABLE IF NOT EXISTS detalles_venta ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + "venta_id INTEGER NOT NULL,"
+                + "producto TEXT NOT NULL,"
+                + "cantidad INTEGER NOT NULL,"
+                + "codigo TEXT NOT NULL,"
+                + "precio REAL NOT NULL,"
+                + "total REAL NOT NULL,"
+                + "FOREIGN KEY (venta_id) REFERENCES ventas(id)"
+                + ")",
+                "CREATE TABLE IF NOT EXISTS configuracion ("
+                + "id INTEGER PRIMARY KEY,"
+                + "ultimoNumeroCotizacion TEXT"
+                + ")",
+                "INSERT OR IGNORE INTO configuracion (id, ultimoNumeroCotizacion) VALUES (1, '20241212-000')"));
+
+        registrar(2, "Índices de búsqueda y de reportes por fecha", conn -> {
+            // Bases antiguas pueden tener códigos repetidos: se conserva el
+            // registro más antiguo con el stock sumado antes de exigir unicidad
+            ejecutar(conn,
+                    "UPDATE productos SET cantidad = ("
+                    + "SELECT SUM(p2.cantidad) FROM productos p2 WHERE p2.codigo = productos.codigo) "
+                    + "WHERE id IN (SELECT MIN(id) FROM productos GROUP BY codigo HAVING COUNT(*) > 1)",
+                    "DELETE FROM productos WHERE id NOT IN (SELECT MIN(id) FROM productos GROUP BY codigo)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS ux_productos_codigo ON productos(codigo)",
+                    "CREATE INDEX IF NOT EXISTS ix_productos_categoria ON productos(categoria)",
+                    "CREATE INDEX IF NOT EXISTS ix_productos_producto ON productos(producto)",
+                    // Filtros BETWEEN por fecha que luego se unen por id con los detalles
+                    "CREATE INDEX IF NOT EXISTS ix_ventas_fecha_id ON ventas(fecha, id)",
+                    "CREATE INDEX IF NOT EXISTS ix_detalles_venta_venta_id ON detalles_venta(venta_id, id)",
+                    "CREATE INDEX IF NOT EXISTS ix_usuarios_nombre_rol ON usuarios(nombre, rol)",
+                    "CREATE INDEX IF NOT EXISTS ix_usuarios_email ON usuarios(email)",
+                    "ANALYZE");
+        });
+
+        registrar(3, "Búsqueda de texto completo en productos (FTS5)", conn -> ejecutar(conn,
+                // Tabla de contenido externo: el texto se lee de `productos`, el índice vive aquí
+                "CREATE VIRTUAL TABLE IF NOT EXISTS productos_fts USING fts5("
+                + "producto, codigo, categoria,"
+                + "content='productos', content_rowid='id',"
+                + "tokenize='unicode61 remove_diacritics 2',"
+                + "prefix='2 3')",
+                "CREATE TRIGGER IF NOT EXISTS productos_fts_ai AFTER INSERT ON productos BEGIN "
+                + "INSERT INTO productos_fts(rowid, producto, codigo, categoria) "
+                + "VALUES (new.id, new.producto, new.codigo, new.categoria); END",
+                "CREATE TRIGGER IF NOT EXISTS productos_fts_ad AFTER DELETE ON productos BEGIN "
+                + "INSERT INTO productos_fts(productos_fts, rowid, producto, codigo, categoria) "
+                + "VALUES ('delete', old.id, old.producto, old.codigo, old.categoria); END",
+                // Solo cuando cambia el texto: las ventas actualizan `cantidad` constantemente
+                "CREATE TRIGGER IF NOT EXISTS productos_fts_au AFTER UPDATE OF producto, codigo, categoria ON productos BEGIN "
+                + "INSERT INTO productos_fts(productos_fts, rowid, producto, codigo, categoria) "
+                + "VALUES ('delete', old.id, old.producto, old.codigo, old.categoria); "
+                + "INSERT INTO productos_fts(rowid, producto, codigo, categoria) "
+                + "VALUES (new.id, new.producto, new.codigo, new.categoria); END",
+                "INSERT INTO productos_fts(productos_fts) VALUES ('rebuild')"));
+
+        registrar(4, "Reindexar texto completo solo si el texto cambia", conn -> ejecutar(conn,
+                // Las importaciones reescriben la categoría aunque sea la misma;
+                // sin la condición cada fila actualizada se reindexaba en FTS
+                "DROP TRIGGER IF EXISTS productos_fts_au",
+                "CREATE TRIGGER productos_fts_au AFTER UPDATE OF producto, codigo, categoria ON productos "
+                + "WHEN old.producto IS NOT new.producto OR old.codigo IS NOT new.codigo "
+                + "OR old.categoria IS NOT new.categoria BEGIN "
+                + "INSERT INTO productos_fts(productos_fts, rowid, producto, codigo, categoria) "
+                + "VALUES ('delete', old.id, old.producto, old.codigo, old.categoria); "
+                + "INSERT INTO productos_fts(rowid, producto, codigo, categoria) "
+                + "VALUES (new.id, new.producto, new.codigo, new.categoria); END"));
+
+        registrar(5, "Fecha de venta como día (epoch day) indexado", conn -> {
+            // `fecha` se guardaba como la medianoche local en milisegundos; el
+            // día se calcula con la zona del equipo, la misma que se usó al guardar
+            ejecutar(conn, "ALTER TABLE ventas ADD COLUMN fecha_dia INTEGER");
+            try (Statement st = conn.createStatement();
+                    ResultSet rs = st.executeQuery("SELECT id, fecha FROM ventas");
+                    PreparedStatement pstmt = conn.prepareStatement("UPDATE ventas SET fecha_dia = ? WHERE id = ?")) {
+                int pendientes = 0;
+                while (rs.next()) {
+                    pstmt.setLong(1, diaDeFecha(rs.getObject("fecha")));
+                    pstmt.setInt(2, rs.getInt("id"));
+                    pstmt.addBatch();
+                    if (++pendientes % 1000 == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+            ejecutar(conn,
+                    // Los filtros por fecha ahora usan el día; el índice por milisegundos ya no se usa
+                    "DROP INDEX IF EXISTS ix_ventas_fecha_id",
+                    "CREATE INDEX IF NOT EXISTS ix_ventas_fecha_dia_id ON ventas(fecha_dia, id)",
+                    "ANALYZE ventas");
+        });
+        registrar(6, "Resumen diario de ventas por vendedor y método de pago", conn -> {
+            ejecutar(conn, "CREATE TABLE IF NOT EXISTS ventas_diarias ("
+                    + "dia INTEGER NOT NULL,"
+                    + "vendedor TEXT NOT NULL,"
+                    + "metodo_pago TEXT NOT NULL,"
+                    + "ventas INTEGER NOT NULL,"
+                    + "unidades INTEGER NOT NULL,"
+                    + "total REAL NOT NULL,"
+                    + "PRIMARY KEY (dia, vendedor, metodo_pago)"
+                    + ") WITHOUT ROWID");
+            VentasDiarias.reconstruir(conn);
+        });
+        registrar(7, "Índice de cobertura de detalles de venta para informes", conn -> ejecutar(conn,
+                // AnalisisVentas lee estas columnas por venta sin ir a la tabla;
+                // ix_detalles_venta_venta_id se conserva para paginar por (venta_id, id)
+                "CREATE INDEX IF NOT EXISTS ix_detalles_venta_informes "
+                + "ON detalles_venta(venta_id, codigo, cantidad, precio)",
+                "ANALYZE detalles_venta"));
+        registrar(8, "Secuencia diaria de números de cotización", conn -> {
+            ejecutar(conn, "CREATE TABLE IF NOT EXISTS secuencias_cotizacion ("
+                    + "dia INTEGER PRIMARY KEY,"
+                    + "ultimo INTEGER NOT NULL"
+                    + ")");
+            // La secuencia continúa desde el último número guardado en configuracion
+            try (Statement st = conn.createStatement();
+                    ResultSet rs = st.executeQuery("SELECT ultimoNumeroCotizacion FROM configuracion WHERE id = 1")) {
+                if (rs.next()) {
+                    SecuenciaCotizaciones.continuarDesde(conn, rs.getString(1));
+                }
+            }
+        });
+        registrar(9, "Bandeja de salida de correos", conn -> ejecutar(conn,
+                // El adjunto se guarda en la fila para no depender de que el archivo siga en su lugar
+                "CREATE TABLE IF NOT EXISTS correos_salientes ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + "destinatario TEXT NOT NULL,"
+                + "asunto TEXT NOT NULL,"
+                + "cuerpo TEXT NOT NULL,"
+                + "adjunto_nombre TEXT,"
+                + "adjunto BLOB,"
+                + "estado TEXT NOT NULL,"
+                + "intentos INTEGER NOT NULL DEFAULT 0,"
+                + "proximo_intento INTEGER NOT NULL,"
+                + "ultimo_error TEXT,"
+                + "creado INTEGER NOT NULL,"
+                + "enviado INTEGER"
+                + ")",
+                "CREATE INDEX IF NOT EXISTS ix_correos_salientes_estado "
+                + "ON correos_salientes(estado, proximo_intento)"));
+    }
+
+    // Día (epoch day) de un valor de `ventas.fecha`: milisegundos o texto "yyyy-MM-dd..."
+    private static long diaDeFecha(Object fecha) throws SQLException {
+        if (fecha instanceof Number) {
+            return Instant.ofEpochMilli(((Number) fecha).longValue())
+                    .atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+        }
+        String texto = String.valueOf(fecha).trim();
+        try {
+            if (texto.matches("-?\\d+")) {
+                return diaDeFecha(Long.parseLong(texto));
+            }
+            return LocalDate.parse(texto.substring(0, Math.min(10, texto.length()))).toEpochDay();
+        } catch (RuntimeException e) {
+            throw new SQLException("Fecha de venta no reconocida: " + texto, e);
+        }
+    }
+
+    /**
+     * Agrega una migración al final de la lista.
+     *
+     * @param version Versión de la migración; debe ser mayor que la anterior.
+     * @param descripcion Descripción corta que se guarda en `schema_version`.
+     * @param paso Cambios a ejecutar.
+     */
+    private void registrar(int version, String descripcion, PasoMigracion paso) {
+        if (!migraciones.isEmpty() && migraciones.get(migraciones.size() - 1).version >= version) {
+            throw new IllegalArgumentException("Las migraciones deben registrarse en orden: " + version);
+        }
+        migraciones.add(new Migracion(version, descripcion, paso));
+    }
+
+    // Ejecuta varias sentencias SQL en orden
+    private static void ejecutar(Connection conn, String... sentencias) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String sql : sentencias) {
+                st.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Devuelve las migraciones registradas.
+     *
+     * @return Lista de solo lectura ordenada por versión.
+     */
+    public List<Migracion> getMigraciones() {
+        return Collections.unmodifiableList(migraciones);
+    }
+
+    /**
+     * Obtiene la última versión aplicada en la base de datos.
+     *
+     * @param conn Conexión de escritura.
+     * @return La versión actual, o 0 si no se ha aplicado ninguna.
+     * @throws SQLException Si ocurre un error al consultar.
+     */
+    public int versionActual(Connection conn) throws SQLException {
+        crearTablaVersiones(conn);
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Aplica las migraciones pendientes.
+     *
+     * @param conn Conexión de escritura; se deja en modo auto-commit al
+     * terminar.
+     * @return Número de migraciones aplicadas.
+     * @throws SQLException Si una migración falla. Las migraciones anteriores
+     * quedan aplicadas y la que falló se revierte.
+     */
+    public int migrar(Connection conn) throws SQLException {
+        int actual = versionActual(conn);
+        int aplicadas = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            for (Migracion migracion : migraciones) {
+                if (migracion.version <= actual) {
+                    continue;
+                }
+                aplicar(conn, migracion);
+                aplicadas++;
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        logger.log(Level.INFO, "Esquema en la versión {0} ({1} migraciones aplicadas)",
+                new Object[]{Math.max(actual, ultimaVersion()), aplicadas});
+        return aplicadas;
+    }
+
+    // Ejecuta una migración dentro de una transacción y registra su duración
+    private void aplicar(Connection conn, Migracion migracion) throws SQLException {
+        long inicio = System.nanoTime();
+        conn.setAutoCommit(false);
+        try {
+            migracion.paso.aplicar(conn);
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, descripcion, aplicada_en, duracion_ms) "
+                    + "VALUES (?, ?, datetime('now', 'localtime'), ?)")) {
+                pstmt.setInt(1, migracion.version);
+                pstmt.setString(2, migracion.descripcion);
+                pstmt.setLong(3, duracionMs);
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            logger.log(Level.INFO, "Migración {0} aplicada en {1} ms: {2}",
+                    new Object[]{migracion.version, duracionMs, migracion.descripcion});
+        } catch (SQLException e) {
+            conn.rollback();
+            logger.log(Level.SEVERE, "Error al aplicar la migración " + migracion.version, e);
+            throw new SQLException("Error al aplicar la migración " + migracion.version
+                    + " (" + migracion.descripcion + "): " + e.getMessage(), e);
+        }
+    }
+
+    // Última versión registrada en el código
+    private int ultimaVersion() {
+        return migraciones.isEmpty() ? 0 : migraciones.get(migraciones.size() - 1).version;
+    }
+
+    // Crea la tabla que registra las versiones aplicadas
+    private static void crearTablaVersiones(Connection conn) throws SQLException {
+        ejecutar(conn, "CREATE TABLE IF NOT EXISTS schema_version ("
+                + "version INTEGER PRIMARY KEY,"
+                + "descripcion TEXT NOT NULL,"
+                + "aplicada_en TEXT NOT NULL,"
+                + "duracion_ms INTEGER NOT NULL"
+                + ")");
+    }
+}
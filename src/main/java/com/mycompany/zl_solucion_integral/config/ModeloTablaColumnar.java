@@ -0,0 +1,445 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntPredicate;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de tabla que guarda los datos por columnas en arreglos primitivos.
+ *
+ * `DefaultTableModel` guarda cada fila en un `Vector` y cada número como un
+ * objeto (`Integer`, `Double`). Este modelo guarda cada columna en un solo
+ * arreglo: `int[]` para las enteras, `double[]` para las decimales y
+ * `String[]` para las de texto. En las columnas {@link TipoColumna#TEXTO_REPETIDO}
+ * (categoría, vendedor, método de pago, fecha...) los textos iguales se
+ * guardan una sola vez. Los valores solo se convierten en objetos al pintar
+ * las celdas visibles.
+ *
+ * El orden y el filtro no copian los datos: se calcula un arreglo con los
+ * índices de las filas visibles, comparando directamente los arreglos de cada
+ * columna. En las columnas de texto repetido el filtro compara referencias.
+ *
+ * Se debe usar desde el hilo de eventos de Swing una vez asignado a una tabla.
+ *
+ * @author Dazac
+ */
+public class ModeloTablaColumnar extends AbstractTableModel {
+
+    /**
+     * Forma en que se guarda una columna.
+     */
+    public enum TipoColumna {
+        /**
+         * Números enteros, en un `int[]`.
+         */
+        ENTERO,
+        /**
+         * Números decimales, en un `double[]`.
+         */
+        DECIMAL,
+        /**
+         * Textos casi siempre distintos, como nombres y códigos.
+         */
+        TEXTO,
+        /**
+         * Textos con pocos valores distintos; cada valor se guarda una vez.
+         */
+        TEXTO_REPETIDO
+    }
+
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    private final String[] columnas;
+    private final TipoColumna[] tipos;
+    private final int[][] enteros;
+    private final double[][] decimales;
+    private final String[][] textos;
+
+    // Valor único de cada texto repetido; se puede compartir entre modelos
+    private final ConcurrentMap<String, String> internados;
+
+    private int filas = 0;
+
+    // Índices de las filas visibles, o null si se ven todas en el orden de carga
+    private int[] vista;
+    private int filasVista;
+    private IntPredicate filtro;
+    private int columnaOrden = -1;
+    private boolean ascendente = true;
+
+    /**
+     * Crea un modelo vacío.
+     *
+     * @param columnas Títulos de las columnas.
+     * @param tipos Tipo de cada columna.
+     */
+    public ModeloTablaColumnar(String[] columnas, TipoColumna[] tipos) {
+        this(columnas, tipos, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Crea un modelo vacío que comparte los textos repetidos con otros
+     * modelos.
+     *
+     * @param columnas Títulos de las columnas.
+     * @param tipos Tipo de cada columna.
+     * @param internados Textos ya guardados.
+     */
+    public ModeloTablaColumnar(String[] columnas, TipoColumna[] tipos, ConcurrentMap<String, String> internados) {
+        if (columnas.length != tipos.length) {
+            throw new IllegalArgumentException("Cada columna debe tener un tipo");
+        }
+        this.columnas = columnas.clone();
+        this.tipos = tipos.clone();
+        this.internados = internados;
+        this.enteros = new int[tipos.length][];
+        this.decimales = new double[tipos.length][];
+        this.textos = new String[tipos.length][];
+        for (int col = 0; col < tipos.length; col++) {
+            switch (tipos[col]) {
+                case ENTERO:
+                    enteros[col] = new int[CAPACIDAD_INICIAL];
+                    break;
+                case DECIMAL:
+                    decimales[col] = new double[CAPACIDAD_INICIAL];
+                    break;
+                default:
+                    textos[col] = new String[CAPACIDAD_INICIAL];
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Agrega una fila al final sin notificar a la tabla. Sirve para llenar el
+     * modelo antes de asignarlo.
+     *
+     * @param valores Un valor por columna; en las columnas numéricas `null`
+     * se guarda como 0.
+     */
+    public void agregarFila(Object[] valores) {
+        asegurarCapacidad(filas + 1);
+        for (int col = 0; col < tipos.length; col++) {
+            Object valor = col < valores.length ? valores[col] : null;
+            switch (tipos[col]) {
+                case ENTERO:
+                    enteros[col][filas] = valor instanceof Number ? ((Number) valor).intValue() : 0;
+                    break;
+                case DECIMAL:
+                    decimales[col][filas] = valor instanceof Number ? ((Number) valor).doubleValue() : 0.0;
+                    break;
+                case TEXTO:
+                    textos[col][filas] = valor != null ? valor.toString() : null;
+                    break;
+                default:
+                    textos[col][filas] = internar(valor != null ? valor.toString() : null);
+                    break;
+            }
+        }
+        filas++;
+    }
+
+    /**
+     * Agrega un bloque de filas al final y notifica a la tabla.
+     *
+     * @param bloque Filas a agregar.
+     */
+    public void agregarFilas(List<Object[]> bloque) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        int primera = filas;
+        for (Object[] fila : bloque) {
+            agregarFila(fila);
+        }
+        if (vista == null) {
+            fireTableRowsInserted(primera, filas - 1);
+        } else if (columnaOrden >= 0) {
+            aplicarVista();
+            fireTableDataChanged();
+        } else {
+            // Solo filtro: las filas nuevas que cumplen van al final
+            int visiblesAntes = filasVista;
+            for (int fila = primera; fila < filas; fila++) {
+                if (filtro.test(fila)) {
+                    if (filasVista == vista.length) {
+                        vista = Arrays.copyOf(vista, Math.max(CAPACIDAD_INICIAL, vista.length * 2));
+                    }
+                    vista[filasVista++] = fila;
+                }
+            }
+            if (filasVista > visiblesAntes) {
+                fireTableRowsInserted(visiblesAntes, filasVista - 1);
+            }
+        }
+    }
+
+    /**
+     * Borra todas las filas y notifica a la tabla.
+     */
+    public void vaciar() {
+        filas = 0;
+        for (int col = 0; col < tipos.length; col++) {
+            if (textos[col] != null) {
+                Arrays.fill(textos[col], null);
+            }
+        }
+        if (vista != null) {
+            aplicarVista();
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Muestra solo las filas que cumplen la condición.
+     *
+     * @param condicion Recibe el índice de la fila en el orden de carga; se
+     * puede evaluar con {@link #getEntero}, {@link #getDecimal} y
+     * {@link #getTexto}.
+     */
+    public void filtrar(IntPredicate condicion) {
+        filtro = condicion;
+        aplicarVista();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Muestra solo las filas cuyo texto en la columna es igual al valor.
+     *
+     * @param columna Columna de texto.
+     * @param valor Valor buscado.
+     */
+    public void filtrarTexto(int columna, String valor) {
+        if (tipos[columna] == TipoColumna.TEXTO_REPETIDO) {
+            // Los textos repetidos están internados: basta comparar referencias
+            String buscado = valor != null ? internados.get(valor) : null;
+            String[] datos = textos[columna];
+            filtrar(buscado == null ? fila -> false : fila -> datos[fila] == buscado);
+        } else {
+            filtrar(fila -> valor != null && valor.equals(textos[columna][fila]));
+        }
+    }
+
+    /**
+     * Vuelve a mostrar todas las filas, manteniendo el orden.
+     */
+    public void quitarFiltro() {
+        filtrar(null);
+    }
+
+    /**
+     * Ordena las filas visibles por una columna. El orden se mantiene al
+     * agregar filas.
+     *
+     * @param columna Columna por la que se ordena.
+     * @param ascendente `true` para orden ascendente.
+     */
+    public void ordenar(int columna, boolean ascendente) {
+        this.columnaOrden = columna;
+        this.ascendente = ascendente;
+        aplicarVista();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Hace que un clic en el encabezado de la tabla ordene por esa columna; un
+     * segundo clic invierte el orden. Funciona con cualquier
+     * `ModeloTablaColumnar` que se asigne luego a la tabla.
+     *
+     * @param tabla Tabla cuyo encabezado se escucha.
+     */
+    public static void ordenarAlHacerClic(JTable tabla) {
+        tabla.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent evt) {
+                if (!(tabla.getModel() instanceof ModeloTablaColumnar)) {
+                    return;
+                }
+                int columna = tabla.convertColumnIndexToModel(tabla.columnAtPoint(evt.getPoint()));
+                if (columna < 0) {
+                    return;
+                }
+                ModeloTablaColumnar modelo = (ModeloTablaColumnar) tabla.getModel();
+                modelo.ordenar(columna, modelo.columnaOrden != columna || !modelo.ascendente);
+            }
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return vista == null ? filas : filasVista;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return columnas[columna];
+    }
+
+    @Override
+    public boolean isCellEditable(int fila, int columna) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        int indice = vista == null ? fila : vista[fila];
+        switch (tipos[columna]) {
+            case ENTERO:
+                return enteros[columna][indice];
+            case DECIMAL:
+                return decimales[columna][indice];
+            default:
+                return textos[columna][indice];
+        }
+    }
+
+    /**
+     * Valor de una columna entera, por índice de carga.
+     *
+     * @param fila Índice de la fila en el orden de carga.
+     * @param columna Columna de tipo {@link TipoColumna#ENTERO}.
+     * @return El valor.
+     */
+    public int getEntero(int fila, int columna) {
+        return enteros[columna][fila];
+    }
+
+    /**
+     * Valor de una columna decimal, por índice de carga.
+     *
+     * @param fila Índice de la fila en el orden de carga.
+     * @param columna Columna de tipo {@link TipoColumna#DECIMAL}.
+     * @return El valor.
+     */
+    public double getDecimal(int fila, int columna) {
+        return decimales[columna][fila];
+    }
+
+    /**
+     * Valor de una columna de texto, por índice de carga.
+     *
+     * @param fila Índice de la fila en el orden de carga.
+     * @param columna Columna de texto.
+     * @return El valor.
+     */
+    public String getTexto(int fila, int columna) {
+        return textos[columna][fila];
+    }
+
+    private String internar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String existente = internados.putIfAbsent(texto, texto);
+        return existente != null ? existente : texto;
+    }
+
+    private void asegurarCapacidad(int minimo) {
+        int capacidad = capacidad();
+        if (minimo <= capacidad) {
+            return;
+        }
+        int nueva = Math.max(minimo, capacidad * 2);
+        for (int col = 0; col < tipos.length; col++) {
+            if (enteros[col] != null) {
+                enteros[col] = Arrays.copyOf(enteros[col], nueva);
+            } else if (decimales[col] != null) {
+                decimales[col] = Arrays.copyOf(decimales[col], nueva);
+            } else {
+                textos[col] = Arrays.copyOf(textos[col], nueva);
+            }
+        }
+    }
+
+    private int capacidad() {
+        if (tipos.length == 0) {
+            return Integer.MAX_VALUE;
+        }
+        if (enteros[0] != null) {
+            return enteros[0].length;
+        }
+        return decimales[0] != null ? decimales[0].length : textos[0].length;
+    }
+
+    // Recalcula los índices visibles según el filtro y el orden
+    private void aplicarVista() {
+        if (filtro == null && columnaOrden < 0) {
+            vista = null;
+            filasVista = 0;
+            return;
+        }
+        int[] indices = new int[filas];
+        int visibles = 0;
+        for (int fila = 0; fila < filas; fila++) {
+            if (filtro == null || filtro.test(fila)) {
+                indices[visibles++] = fila;
+            }
+        }
+        if (columnaOrden >= 0) {
+            ordenarIndices(indices, visibles);
+        }
+        vista = indices;
+        filasVista = visibles;
+    }
+
+    // Ordenamiento por mezcla (estable) de los índices, comparando los arreglos de la columna
+    private void ordenarIndices(int[] indices, int cantidad) {
+        int[] auxiliar = new int[cantidad];
+        for (int ancho = 1; ancho < cantidad; ancho *= 2) {
+            for (int inicio = 0; inicio < cantidad - ancho; inicio += 2 * ancho) {
+                int medio = inicio + ancho;
+                int fin = Math.min(inicio + 2 * ancho, cantidad);
+                if (comparar(indices[medio - 1], indices[medio]) <= 0) {
+                    continue; // Las dos mitades ya están en orden
+                }
+                System.arraycopy(indices, inicio, auxiliar, inicio, fin - inicio);
+                int i = inicio;
+                int j = medio;
+                for (int k = inicio; k < fin; k++) {
+                    if (i < medio && (j >= fin || comparar(auxiliar[i], auxiliar[j]) <= 0)) {
+                        indices[k] = auxiliar[i++];
+                    } else {
+                        indices[k] = auxiliar[j++];
+                    }
+                }
+            }
+        }
+    }
+
+    private int comparar(int a, int b) {
+        int resultado;
+        switch (tipos[columnaOrden]) {
+            case ENTERO:
+                resultado = Integer.compare(enteros[columnaOrden][a], enteros[columnaOrden][b]);
+                break;
+            case DECIMAL:
+                resultado = Double.compare(decimales[columnaOrden][a], decimales[columnaOrden][b]);
+                break;
+            default:
+                String x = textos[columnaOrden][a];
+                String y = textos[columnaOrden][b];
+                if (x == y) {
+                    resultado = 0;
+                } else if (x == null) {
+                    resultado = -1;
+                } else if (y == null) {
+                    resultado = 1;
+                } else {
+                    resultado = String.CASE_INSENSITIVE_ORDER.compare(x, y);
+                }
+                break;
+        }
+        return ascendente ? resultado : -resultado;
+    }
+}
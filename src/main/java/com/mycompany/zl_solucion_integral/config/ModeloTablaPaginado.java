@@ -0,0 +1,424 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de tabla que lee las filas por páginas a medida que se muestran.
+ *
+ * Al asignarlo a una tabla solo se consulta el número de filas (y los
+ * agregados pedidos con {@link #resumir}); cada página de
+ * `tabla.pagina.filas` filas se lee en segundo plano la primera vez que la
+ * tabla pide una de sus celdas, y mientras tanto la celda se ve vacía. Se
+ * conservan en memoria las últimas `tabla.pagina.cache` páginas usadas, así
+ * que el tiempo y la memoria al abrir la tabla dependen de las filas visibles
+ * y no del total.
+ *
+ * Las páginas se leen por clave (`WHERE (clave1, clave2) > (?, ?) ORDER BY
+ * clave1, clave2 LIMIT n`) a partir de la última clave de la página anterior,
+ * de modo que bajar por la tabla no recorre las filas ya vistas. Si se salta a
+ * una página lejana, se parte de la página conocida más cercana y se omiten
+ * las páginas intermedias con `OFFSET`.
+ *
+ * Cada página se guarda en un {@link ModeloTablaColumnar}, con los números en
+ * arreglos primitivos y los textos repetidos de la página compartidos. Los
+ * textos no se comparten entre páginas: así la memoria depende solo de las
+ * páginas en caché, aunque se recorra todo el historial.
+ *
+ * Todos los métodos se deben llamar desde el hilo de eventos de Swing, que
+ * nunca consulta la base de datos.
+ *
+ * @author Dazac
+ */
+public class ModeloTablaPaginado extends AbstractTableModel {
+
+    private static final Logger logger = Logger.getLogger(ModeloTablaPaginado.class.getName());
+
+    // Valores por defecto de la paginación
+    public static final int FILAS_POR_PAGINA_POR_DEFECTO = 200;
+    public static final int PAGINAS_EN_CACHE_POR_DEFECTO = 20;
+
+    // Espera antes de volver a pedir una página cuya lectura falló
+    private static final int ESPERA_REINTENTO_MS = 3000;
+
+    private final String[] columnas;
+    private final ModeloTablaColumnar.TipoColumna[] tipos;
+    private final String campos;
+    private final String origen;
+    private final String clave1;
+    private final String clave2;
+    private final CargadorTabla.ConvertidorFila convertidor;
+    private final int filasPorPagina;
+
+    private String filtro;
+    private Object[] parametros = new Object[0];
+    private String[] agregados = new String[0];
+
+    private int filas = 0;
+    private Map<String, Object> resumen = Collections.emptyMap();
+    private volatile boolean cerrado = false;
+
+    // Páginas leídas, guardadas por columnas, de la menos a la más usada recientemente
+    private final LinkedHashMap<Integer, ModeloTablaColumnar> paginas;
+
+    // Última clave (clave1, clave2) de cada página leída, para seguir desde ahí
+    private final TreeMap<Integer, long[]> ultimasClaves = new TreeMap<>();
+
+    // Páginas pedidas que aún no llegan
+    private final Set<Integer> pendientes = new HashSet<>();
+
+    // Lecturas de página fallidas seguidas; solo la primera se avisa al usuario
+    private int fallosSeguidos = 0;
+
+    /**
+     * Crea el modelo. Las columnas `clave1` y `clave2` deben identificar cada
+     * fila y tener un índice que las cubra en ese orden.
+     *
+     * @param columnas Títulos de las columnas.
+     * @param tipos Cómo se guarda cada columna en las páginas.
+     * @param campos Lista de campos del SELECT.
+     * @param origen Cláusula FROM, con sus JOIN.
+     * @param clave1 Primera columna del orden, entera.
+     * @param clave2 Segunda columna del orden, entera; desempata `clave1`.
+     * @param convertidor Convierte cada fila del resultado en los valores de
+     * las columnas.
+     */
+    public ModeloTablaPaginado(String[] columnas, ModeloTablaColumnar.TipoColumna[] tipos, String campos,
+            String origen, String clave1, String clave2, CargadorTabla.ConvertidorFila convertidor) {
+        this.columnas = columnas.clone();
+        this.tipos = tipos.clone();
+        this.campos = campos;
+        this.origen = origen;
+        this.clave1 = clave1;
+        this.clave2 = clave2;
+        this.convertidor = convertidor;
+        this.filasPorPagina = Math.max(1, Configuracion.getInt("tabla.pagina.filas", FILAS_POR_PAGINA_POR_DEFECTO));
+        int maxPaginas = Math.max(2, Configuracion.getInt("tabla.pagina.cache", PAGINAS_EN_CACHE_POR_DEFECTO));
+        this.paginas = new LinkedHashMap<Integer, ModeloTablaColumnar>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ModeloTablaColumnar> mayor) {
+                return size() > maxPaginas;
+            }
+        };
+    }
+
+    /**
+     * Limita las filas con una condición.
+     *
+     * @param condicion Condición del WHERE, con `?` para los parámetros.
+     * @param valores Valores de los parámetros, en orden.
+     * @return Este modelo.
+     */
+    public ModeloTablaPaginado filtrar(String condicion, Object... valores) {
+        this.filtro = condicion;
+        this.parametros = valores.clone();
+        return this;
+    }
+
+    /**
+     * Calcula agregados sobre todas las filas junto con el conteo, por
+     * ejemplo `SUM(d.precio * d.cantidad) AS total`. Se consultan con
+     * {@link #getResumen(String)}.
+     *
+     * @param expresiones Expresiones con alias.
+     * @return Este modelo.
+     */
+    public ModeloTablaPaginado resumir(String... expresiones) {
+        this.agregados = expresiones.clone();
+        return this;
+    }
+
+    /**
+     * Asigna el modelo a la tabla y consulta en segundo plano el número de
+     * filas y los agregados. Cierra el modelo paginado que tuviera la tabla.
+     *
+     * @param tabla Tabla que mostrará las filas.
+     * @param mensajeError Texto que se muestra al usuario si la consulta falla.
+     * @param alTerminar Acción a ejecutar en el hilo de eventos cuando se
+     * conozcan el número de filas y el resumen, o `null`.
+     */
+    public void cargar(JTable tabla, String mensajeError, Runnable alTerminar) {
+        cargar(tabla, mensajeError, null, alTerminar != null ? valor -> alTerminar.run() : null);
+    }
+
+    /**
+     * Igual que {@link #cargar(JTable, String, Runnable)}, pero además
+     * calcula un valor en el mismo hilo de fondo, después de contar las filas,
+     * y se lo pasa a `alTerminar`. Sirve para consultas propias de la vista,
+     * como los totales de un informe, que no deben hacerse en el hilo de
+     * eventos.
+     *
+     * @param <T> Tipo del valor.
+     * @param tabla Tabla que mostrará las filas.
+     * @param mensajeError Texto que se muestra al usuario si la consulta falla.
+     * @param calcular Cálculo a hacer en segundo plano, o `null`.
+     * @param alTerminar Acción a ejecutar en el hilo de eventos con el valor
+     * calculado, o `null`.
+     */
+    public <T> void cargar(JTable tabla, String mensajeError, Supplier<T> calcular, Consumer<T> alTerminar) {
+        CargadorTabla.cancelar(tabla);
+        if (tabla.getModel() instanceof ModeloTablaPaginado) {
+            ((ModeloTablaPaginado) tabla.getModel()).cerrar();
+        }
+        tabla.setModel(this);
+
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*)");
+        for (String agregado : agregados) {
+            sql.append(", ").append(agregado);
+        }
+        sql.append(" FROM ").append(origen);
+        if (filtro != null) {
+            sql.append(" WHERE ").append(filtro);
+        }
+
+        CargadorTabla.ejecutar(() -> {
+            if (cerrado) {
+                return;
+            }
+            try {
+                int total;
+                Map<String, Object> valores = new HashMap<>();
+                try (Connection conn = PoolConexiones.getInstancia().obtenerLector();
+                        PreparedStatement ps = preparar(conn, sql.toString(), null, 0);
+                        ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    total = rs.getInt(1);
+                    ResultSetMetaData meta = rs.getMetaData();
+                    for (int i = 2; i <= meta.getColumnCount(); i++) {
+                        valores.put(meta.getColumnLabel(i), rs.getObject(i));
+                    }
+                }
+                // Con el lector ya devuelto, por si el cálculo pide otro
+                T valor = calcular != null ? calcular.get() : null;
+                SwingUtilities.invokeLater(() -> {
+                    if (cerrado) {
+                        return;
+                    }
+                    filas = total;
+                    resumen = valores;
+                    fireTableDataChanged();
+                    if (alTerminar != null) {
+                        alTerminar.accept(valor);
+                    }
+                });
+            } catch (SQLException | RuntimeException e) {
+                informarError(mensajeError, e);
+            }
+        });
+    }
+
+    /**
+     * Deja de leer páginas; las consultas en curso se descartan.
+     */
+    public void cerrar() {
+        cerrado = true;
+        paginas.clear();
+        pendientes.clear();
+    }
+
+    /**
+     * Devuelve un agregado calculado al cargar el modelo.
+     *
+     * @param alias Alias del agregado en {@link #resumir}.
+     * @return Su valor, o `null` si aún no se conoce.
+     */
+    public Object getResumen(String alias) {
+        return resumen.get(alias);
+    }
+
+    /**
+     * Número de páginas que se tienen en memoria.
+     *
+     * @return Páginas en la caché.
+     */
+    public int getPaginasEnMemoria() {
+        return paginas.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return columnas[columna];
+    }
+
+    @Override
+    public boolean isCellEditable(int fila, int columna) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        int numero = fila / filasPorPagina;
+        ModeloTablaColumnar pagina = paginas.get(numero);
+        if (pagina == null) {
+            solicitar(numero);
+            return null;
+        }
+        int posicion = fila % filasPorPagina;
+        return posicion < pagina.getRowCount() ? pagina.getValueAt(posicion, columna) : null;
+    }
+
+    // Programa la lectura de una página si no está ya pedida
+    private void solicitar(int numero) {
+        if (cerrado || !pendientes.add(numero)) {
+            return;
+        }
+
+        // Partir de la última clave conocida antes de la página
+        Map.Entry<Integer, long[]> anterior = ultimasClaves.lowerEntry(numero);
+        long[] desde = anterior != null ? anterior.getValue() : null;
+        int omitir = (numero - (anterior != null ? anterior.getKey() + 1 : 0)) * filasPorPagina;
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(campos)
+                .append(", ").append(clave1).append(", ").append(clave2)
+                .append(" FROM ").append(origen);
+        if (filtro != null || desde != null) {
+            sql.append(" WHERE ");
+            if (filtro != null) {
+                sql.append('(').append(filtro).append(')');
+            }
+            if (desde != null) {
+                sql.append(filtro != null ? " AND " : "")
+                        .append('(').append(clave1).append(", ").append(clave2).append(") > (?, ?)");
+            }
+        }
+        sql.append(" ORDER BY ").append(clave1).append(", ").append(clave2)
+                .append(" LIMIT ").append(filasPorPagina);
+        if (omitir > 0) {
+            sql.append(" OFFSET ").append(omitir);
+        }
+
+        CargadorTabla.ejecutar(() -> leerPagina(numero, sql.toString(), desde));
+    }
+
+    // Lee una página en el hilo de fondo y la publica en el hilo de eventos
+    private void leerPagina(int numero, String sql, long[] desde) {
+        if (cerrado) {
+            return;
+        }
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector();
+                PreparedStatement ps = preparar(conn, sql, desde, parametros.length);
+                ResultSet rs = ps.executeQuery()) {
+            int columnaClave = rs.getMetaData().getColumnCount() - 1;
+            // Cada página comparte sus textos repetidos solo consigo misma, para que al
+            // desalojarla se libere todo lo que guardaba
+            ModeloTablaColumnar pagina = new ModeloTablaColumnar(columnas, tipos);
+            long[] ultima = null;
+            while (rs.next()) {
+                pagina.agregarFila(convertidor.convertir(rs));
+                ultima = new long[]{rs.getLong(columnaClave), rs.getLong(columnaClave + 1)};
+            }
+            long[] ultimaClave = ultima;
+            SwingUtilities.invokeLater(() -> {
+                pendientes.remove(numero);
+                if (cerrado) {
+                    return;
+                }
+                fallosSeguidos = 0;
+                paginas.put(numero, pagina);
+                if (ultimaClave != null) {
+                    ultimasClaves.put(numero, ultimaClave);
+                }
+                repintarPagina(numero);
+            });
+        } catch (SQLException | RuntimeException e) {
+            reintentarPagina(numero, e);
+        }
+    }
+
+    // La página sigue pendiente durante la espera, para no repetir la consulta
+    // fallida en cada repintado; después se quita y se vuelve a pedir al repintar
+    private void reintentarPagina(int numero, Exception e) {
+        if (cerrado) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (cerrado) {
+                return;
+            }
+            if (++fallosSeguidos == 1) {
+                logger.log(Level.SEVERE, "Error al leer las filas de la tabla", e);
+                JOptionPane.showMessageDialog(null, "Error al leer las filas de la tabla: " + e.getMessage());
+            } else {
+                logger.log(Level.WARNING, "Falló otra vez la lectura de la página {0}: {1}",
+                        new Object[]{numero, e.getMessage()});
+            }
+            Timer reintento = new Timer(ESPERA_REINTENTO_MS, evento -> {
+                pendientes.remove(numero);
+                if (!cerrado) {
+                    repintarPagina(numero);
+                }
+            });
+            reintento.setRepeats(false);
+            reintento.start();
+        });
+    }
+
+    // Avisa a la tabla que cambiaron las filas de una página
+    private void repintarPagina(int numero) {
+        int primera = numero * filasPorPagina;
+        int ultimaFila = Math.min(filas, primera + filasPorPagina) - 1;
+        if (ultimaFila >= primera) {
+            fireTableRowsUpdated(primera, ultimaFila);
+        }
+    }
+
+    // Prepara la consulta con los parámetros del filtro y, si hay, la clave de inicio
+    private PreparedStatement preparar(Connection conn, String sql, long[] desde, int posicionClave)
+            throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        try {
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setObject(i + 1, parametros[i]);
+            }
+            if (desde != null) {
+                ps.setLong(posicionClave + 1, desde[0]);
+                ps.setLong(posicionClave + 2, desde[1]);
+            }
+            return ps;
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+    }
+
+    private void informarError(String mensaje, Exception e) {
+        if (cerrado) {
+            return;
+        }
+        logger.log(Level.SEVERE, mensaje, e);
+        SwingUtilities.invokeLater(() -> {
+            if (!cerrado) {
+                JOptionPane.showMessageDialog(null, mensaje + ": " + e.getMessage());
+            }
+        });
+    }
+}
@@ -7,7 +7,7 @@ import java.awt.*;
  * Clase que gestiona una pantalla de carga con una barra de progreso y un mensaje.
  * Se utiliza para mostrar al usuario el estado de una tarea en segundo plano.
  */
-public class PantallaCarga {
+public class PantallaCarga implements ReporteProgreso {
     // Diálogo modal que contendrá la pantalla de carga.
     private final JDialog dialogo;
     // Barra de progreso para indicar el avance de la tarea.
@@ -22,7 +22,7 @@ public class PantallaCarga {
     public PantallaCarga(JFrame padre) {
         // Inicialización del diálogo modal.
         dialogo = new JDialog(padre, "Cargando...", true); // Modal para bloquear la ventana principal mientras se muestra.
-        dialogo.setSize(300, 100); // Tamaño del diálogo.
+        dialogo.setSize(360, 100); // Tamaño del diálogo.
         dialogo.setLocationRelativeTo(padre); // Ubica el diálogo en el centro de la ventana principal.
         dialogo.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE); // Impide cerrar el diálogo manualmente.
 
@@ -59,6 +59,19 @@ public class PantallaCarga {
         SwingUtilities.invokeLater(() -> barraProgreso.setValue(progreso)); // Actualiza el progreso de forma segura en el hilo de la interfaz.
     }
 
+    /**
+     * Actualiza la barra de progreso y el mensaje en un solo paso.
+     * @param progreso El porcentaje de progreso (0-100).
+     * @param texto El nuevo mensaje que se debe mostrar.
+     */
+    @Override
+    public void actualizar(int progreso, String texto) {
+        SwingUtilities.invokeLater(() -> {
+            barraProgreso.setValue(progreso);
+            mensaje.setText(texto);
+        });
+    }
+
     /**
      * Muestra el diálogo de la pantalla de carga.
      */
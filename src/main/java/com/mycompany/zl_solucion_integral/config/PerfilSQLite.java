@@ -0,0 +1,148 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Perfil de configuración (PRAGMA) que se aplica a cada conexión SQLite al
+ * abrirla.
+ *
+ * Se elige con la clave `db.perfil` del archivo de configuración
+ * ({@link Configuracion}) y cada valor puede sobrescribirse individualmente:
+ * <ul>
+ * <li>`rendimiento` (por defecto): WAL, synchronous=NORMAL, caché y mmap
+ * grandes. Los lectores no bloquean al escritor ni viceversa.</li>
+ * <li>`seguro`: WAL con synchronous=FULL, para equipos con cortes de energía
+ * frecuentes.</li>
+ * <li>`compatibilidad`: los valores por defecto de SQLite (journal de
+ * reversión).</li>
+ * </ul>
+ *
+ * Con WAL, los checkpoints automáticos se desactivan
+ * (`wal_autocheckpoint=0`) para que ninguna venta pague el costo de un
+ * checkpoint al confirmar; en su lugar, {@link PoolConexiones} los ejecuta
+ * periódicamente en una conexión propia.
+ *
+ * @author Dazac
+ */
+public class PerfilSQLite {
+
+    private final String nombre;
+    private final String journalMode;
+    private final String synchronous;
+    private final int cacheSize;
+    private final long mmapSize;
+    private final String tempStore;
+    private final int busyTimeoutMs;
+    private final int intervaloCheckpointSeg;
+
+    public PerfilSQLite(String nombre, String journalMode, String synchronous, int cacheSize,
+            long mmapSize, String tempStore, int busyTimeoutMs, int intervaloCheckpointSeg) {
+        this.nombre = nombre;
+        this.journalMode = journalMode.toUpperCase(Locale.ROOT);
+        this.synchronous = synchronous.toUpperCase(Locale.ROOT);
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.tempStore = tempStore.toUpperCase(Locale.ROOT);
+        this.busyTimeoutMs = busyTimeoutMs;
+        this.intervaloCheckpointSeg = intervaloCheckpointSeg;
+
+        // Los valores se concatenan en los PRAGMA, así que solo se aceptan palabras
+        for (String valor : new String[]{this.journalMode, this.synchronous, this.tempStore}) {
+            if (!valor.matches("[A-Z]+")) {
+                throw new IllegalArgumentException("Valor de PRAGMA no válido: " + valor);
+            }
+        }
+    }
+
+    /**
+     * Devuelve uno de los perfiles predefinidos.
+     *
+     * @param nombre `rendimiento`, `seguro` o `compatibilidad`.
+     * @return El perfil correspondiente; `rendimiento` si el nombre no se
+     * reconoce.
+     */
+    public static PerfilSQLite predefinido(String nombre) {
+        switch (nombre.toLowerCase(Locale.ROOT)) {
+            case "seguro":
+                return new PerfilSQLite("seguro", "WAL", "FULL", -8000, 0, "DEFAULT", 10000, 60);
+            case "compatibilidad":
+                return new PerfilSQLite("compatibilidad", "DELETE", "FULL", -2000, 0, "DEFAULT", 3000, 0);
+            default:
+                return new PerfilSQLite("rendimiento", "WAL", "NORMAL", -16000, 268435456L, "MEMORY", 5000, 30);
+        }
+    }
+
+    /**
+     * Construye el perfil a partir del archivo de configuración.
+     *
+     * @return El perfil elegido en `db.perfil` con los valores sobrescritos.
+     */
+    public static PerfilSQLite desdeConfiguracion() {
+        PerfilSQLite base = predefinido(Configuracion.get("db.perfil", "rendimiento"));
+        return new PerfilSQLite(
+                base.nombre,
+                Configuracion.get("db.journal_mode", base.journalMode),
+                Configuracion.get("db.synchronous", base.synchronous),
+                Configuracion.getInt("db.cache_size", base.cacheSize),
+                Configuracion.getLong("db.mmap_size", base.mmapSize),
+                Configuracion.get("db.temp_store", base.tempStore),
+                Configuracion.getInt("db.busy_timeout", base.busyTimeoutMs),
+                Configuracion.getInt("db.checkpoint.intervalo_segundos", base.intervaloCheckpointSeg));
+    }
+
+    /**
+     * Aplica el perfil a una conexión recién abierta.
+     *
+     * El modo de journal y `synchronous` solo se fijan en conexiones de
+     * escritura; las de solo lectura no pueden cambiar el modo de journal.
+     *
+     * @param conn Conexión a configurar.
+     * @param soloLectura `true` si la conexión es de solo lectura.
+     * @throws SQLException Si algún PRAGMA falla.
+     */
+    public void aplicar(Connection conn, boolean soloLectura) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA busy_timeout = " + busyTimeoutMs);
+            if (!soloLectura) {
+                st.execute("PRAGMA journal_mode = " + journalMode);
+                st.execute("PRAGMA synchronous = " + synchronous);
+                if (usaWal()) {
+                    st.execute("PRAGMA wal_autocheckpoint = " + (checkpointManual() ? 0 : 1000));
+                }
+            }
+            st.execute("PRAGMA cache_size = " + cacheSize);
+            st.execute("PRAGMA mmap_size = " + mmapSize);
+            st.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    // Indica si el perfil usa Write-Ahead Logging
+    public boolean usaWal() {
+        return "WAL".equals(journalMode);
+    }
+
+    // Indica si los checkpoints los ejecuta la aplicación en lugar de SQLite
+    public boolean checkpointManual() {
+        return usaWal() && intervaloCheckpointSeg > 0;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getIntervaloCheckpointSeg() {
+        return intervaloCheckpointSeg;
+    }
+
+    @Override
+    public String toString() {
+        return "PerfilSQLite{" + "nombre=" + nombre + ", journal_mode=" + journalMode
+                + ", synchronous=" + synchronous + ", cache_size=" + cacheSize
+                + ", mmap_size=" + mmapSize + ", temp_store=" + tempStore
+                + ", busy_timeout=" + busyTimeoutMs
+                + ", checkpoint=" + (checkpointManual() ? intervaloCheckpointSeg + "s" : "automático") + '}';
+    }
+}
@@ -0,0 +1,592 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Plantilla de cotización .xlsx cargada una vez y reutilizada.
+ *
+ * Abrir la plantilla con `new XSSFWorkbook(...)` en cada cotización vuelve a
+ * descomprimir y analizar estilos, textos compartidos, dibujos y hojas. Esta
+ * clase lo hace una sola vez por archivo: valida la plantilla con POI, la
+ * normaliza y guarda una imagen inmutable con las partes del paquete tal como
+ * quedan y la primera hoja dividida en filas y celdas con campos. Cada
+ * cotización copia esas partes sin volver a analizarlas y solo reconstruye el
+ * XML de la hoja con los valores, así que el costo es el de llenar y
+ * comprimir el archivo. La plantilla se vuelve a cargar cuando cambian la
+ * fecha de modificación o el tamaño del archivo.
+ *
+ * Los campos se escriben en las celdas de texto de la primera hoja como
+ * `${nombre}`, solos o dentro de un texto (`FECHA: ${fecha}`). Los campos
+ * `${item.nombre}` deben estar en una sola fila, la fila de productos, que se
+ * repite una vez por producto con los estilos y las celdas combinadas de la
+ * fila modelo. Las filas repetidas ocupan las filas siguientes de la hoja y
+ * las reemplazan, como hacía la generación anterior. Una celda que solo tiene
+ * un campo y recibe un número se escribe como número. La fila de productos no
+ * admite fórmulas.
+ *
+ * Una plantilla sin campos se llena con la disposición fija que usaba la
+ * aplicación (fecha en A7, número en D7, cliente en A8, productos desde la
+ * fila 12, etc.), así que las plantillas existentes siguen sirviendo.
+ *
+ * @author Dazac
+ */
+public final class PlantillaCotizacion {
+
+    private static final Logger logger = Logger.getLogger(PlantillaCotizacion.class.getName());
+
+    /**
+     * Prefijo de los campos de la fila de productos.
+     */
+    public static final String PREFIJO_PRODUCTO = "item.";
+
+    private static final Pattern CAMPO = Pattern.compile("\\$\\{([A-Za-z][A-Za-z0-9_.]*)\\}");
+    private static final Pattern FILA = Pattern.compile("<row\\b[^>]*?(?:/>|>.*?</row>)", Pattern.DOTALL);
+    private static final Pattern CELDA = Pattern.compile("<c\\b[^>]*?(?:/>|>.*?</c>)", Pattern.DOTALL);
+    private static final Pattern ATRIBUTO_R = Pattern.compile("\\br=\"([A-Z]*)(\\d+)\"");
+    private static final Pattern ATRIBUTO_S = Pattern.compile("\\bs=\"\\d+\"");
+    private static final Pattern COMBINADAS = Pattern.compile("<mergeCells\\b[^>]*?(?:/>|>.*?</mergeCells>)", Pattern.DOTALL);
+
+    // Disposición de las plantillas sin campos
+    private static final String[][] CAMPOS_POR_DEFECTO = {
+        {"A7", "FECHA: ${fecha}"},
+        {"D7", "COTIZACION N°: ${numero}"},
+        {"F8", "${metodoPago}"},
+        {"A8", "CLIENTE: ${cliente}"},
+        {"A9", "NIT: ${nit}"},
+        {"C9", "DIR: ${direccion}"},
+        {"F9", "TELEFONO: ${telefono}"}
+    };
+    private static final int FILA_PRODUCTOS_POR_DEFECTO = 11;
+    private static final String[][] PRODUCTOS_POR_DEFECTO = {
+        {"A", "${item.cantidad}"},
+        {"B", "${item.producto}"},
+        {"E", "${item.precio}"},
+        {"F", "${item.total}"}
+    };
+
+    // Plantillas cargadas, por ruta absoluta
+    private static final Map<Path, PlantillaCotizacion> plantillas = new ConcurrentHashMap<>();
+
+    private final FileTime modificada;
+    private final long tamano;
+    // Partes del paquete en su orden; la de la hoja se reemplaza al generar
+    private final Map<String, byte[]> partes;
+    private final String parteHoja;
+    // XML de la hoja hasta <sheetData> incluido y desde </sheetData>
+    private final String inicioHoja;
+    private final String finHoja;
+    // Posición de <mergeCells> en finHoja, o -1 si la hoja no tiene
+    private final int posicionCombinadas;
+    private final List<CellRangeAddress> combinadas;
+    // Filas de la plantilla en orden, sin la de productos
+    private final List<Fila> filas;
+    // Fila de productos (número desde 1), o null si la plantilla no tiene
+    private final Fila filaProductos;
+
+    private PlantillaCotizacion(FileTime modificada, long tamano, Map<String, byte[]> partes, String parteHoja,
+            String inicioHoja, String finHoja, int posicionCombinadas, List<CellRangeAddress> combinadas,
+            List<Fila> filas, Fila filaProductos) {
+        this.modificada = modificada;
+        this.tamano = tamano;
+        this.partes = partes;
+        this.parteHoja = parteHoja;
+        this.inicioHoja = inicioHoja;
+        this.finHoja = finHoja;
+        this.posicionCombinadas = posicionCombinadas;
+        this.combinadas = combinadas;
+        this.filas = filas;
+        this.filaProductos = filaProductos;
+    }
+
+    /**
+     * Devuelve la plantilla del archivo, cargándola solo si no se ha cargado o
+     * si el archivo cambió desde la última carga.
+     *
+     * @param ruta Ruta del archivo .xlsx.
+     * @return Plantilla lista para generar cotizaciones.
+     * @throws IOException Si el archivo no se puede leer o no es una
+     * plantilla válida.
+     */
+    public static PlantillaCotizacion obtener(Path ruta) throws IOException {
+        Path clave = ruta.toAbsolutePath().normalize();
+        BasicFileAttributes atributos = Files.readAttributes(clave, BasicFileAttributes.class);
+        PlantillaCotizacion actual = plantillas.get(clave);
+        if (actual != null && actual.vigente(atributos)) {
+            return actual;
+        }
+        synchronized (plantillas) {
+            actual = plantillas.get(clave);
+            if (actual != null && actual.vigente(atributos)) {
+                return actual;
+            }
+            long inicio = System.nanoTime();
+            PlantillaCotizacion nueva = cargar(clave, atributos);
+            plantillas.put(clave, nueva);
+            logger.info(String.format("Plantilla de cotización cargada en %.1f ms: %s",
+                    (System.nanoTime() - inicio) / 1e6, clave));
+            return nueva;
+        }
+    }
+
+    private boolean vigente(BasicFileAttributes atributos) {
+        return modificada.equals(atributos.lastModifiedTime()) && tamano == atributos.size();
+    }
+
+    /**
+     * Genera una cotización en un archivo.
+     *
+     * @param campos Valores de los campos generales, por nombre.
+     * @param productos Valores de la fila de productos, uno por producto, por
+     * nombre sin el prefijo `item.`.
+     * @param destino Archivo .xlsx que se crea o reemplaza.
+     * @throws IOException Si el archivo no se puede escribir.
+     */
+    public void generar(Map<String, ?> campos, List<? extends Map<String, ?>> productos, Path destino)
+            throws IOException {
+        try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(destino))) {
+            generar(campos, productos, salida);
+        }
+    }
+
+    /**
+     * Genera una cotización. El flujo no se cierra.
+     *
+     * @param campos Valores de los campos generales, por nombre. Los campos
+     * sin valor quedan vacíos.
+     * @param productos Valores de la fila de productos, uno por producto, por
+     * nombre sin el prefijo `item.`.
+     * @param salida Flujo donde se escribe el .xlsx.
+     * @throws IOException Si falla la escritura.
+     */
+    public void generar(Map<String, ?> campos, List<? extends Map<String, ?>> productos, OutputStream salida)
+            throws IOException {
+        int cantidad = filaProductos == null ? 0 : productos.size();
+        int primera = filaProductos == null ? Integer.MAX_VALUE : filaProductos.numero;
+        int ultima = primera + cantidad - 1;
+
+        StringBuilder xml = new StringBuilder(inicioHoja.length() + finHoja.length() + 4096 + cantidad * 512);
+        xml.append(inicioHoja);
+        boolean productosEscritos = filaProductos == null;
+        for (Fila fila : filas) {
+            if (!productosEscritos && fila.numero > primera) {
+                escribirProductos(xml, productos);
+                productosEscritos = true;
+            }
+            // Las filas que ocupan los productos se reemplazan
+            if (fila.numero < primera || fila.numero > ultima) {
+                fila.escribir(xml, fila.numero, campos);
+            }
+        }
+        if (!productosEscritos) {
+            escribirProductos(xml, productos);
+        }
+        if (posicionCombinadas < 0) {
+            xml.append(finHoja);
+        } else {
+            xml.append(finHoja, 0, posicionCombinadas);
+            escribirCombinadas(xml, primera, cantidad);
+            xml.append(finHoja, posicionCombinadas, finHoja.length());
+        }
+        byte[] hoja = xml.toString().getBytes(StandardCharsets.UTF_8);
+
+        ZipOutputStream zip = new ZipOutputStream(salida);
+        for (Map.Entry<String, byte[]> parte : partes.entrySet()) {
+            zip.putNextEntry(new ZipEntry(parte.getKey()));
+            zip.write(parte.getKey().equals(parteHoja) ? hoja : parte.getValue());
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private void escribirProductos(StringBuilder xml, List<? extends Map<String, ?>> productos) {
+        for (int i = 0; i < productos.size(); i++) {
+            filaProductos.escribir(xml, filaProductos.numero + i, productos.get(i));
+        }
+    }
+
+    // Las combinadas de la fila de productos se repiten por producto y las
+    // de las filas que reemplazan los productos se descartan
+    private void escribirCombinadas(StringBuilder xml, int primera, int cantidad) {
+        int filaModelo = primera - 1;
+        int ultima = filaModelo + cantidad - 1;
+        List<String> referencias = new ArrayList<>(combinadas.size() + cantidad);
+        for (CellRangeAddress rango : combinadas) {
+            if (rango.getFirstRow() == filaModelo && rango.getLastRow() == filaModelo) {
+                for (int i = 0; i < Math.max(cantidad, 1); i++) {
+                    referencias.add(new CellRangeAddress(filaModelo + i, filaModelo + i,
+                            rango.getFirstColumn(), rango.getLastColumn()).formatAsString());
+                }
+            } else if (rango.getLastRow() < filaModelo || rango.getFirstRow() > ultima) {
+                referencias.add(rango.formatAsString());
+            }
+        }
+        if (referencias.isEmpty()) {
+            return;
+        }
+        xml.append("<mergeCells count=\"").append(referencias.size()).append("\">");
+        for (String referencia : referencias) {
+            xml.append("<mergeCell ref=\"").append(referencia).append("\"/>");
+        }
+        xml.append("</mergeCells>");
+    }
+
+    // Valida y normaliza la plantilla y la divide en partes
+    private static PlantillaCotizacion cargar(Path ruta, BasicFileAttributes atributos) throws IOException {
+        ByteArrayOutputStream normalizada = new ByteArrayOutputStream((int) Math.min(atributos.size() * 2, 1 << 24));
+        Map<String, String> textos = new HashMap<>();
+        int filaProductos;
+        String parteHoja;
+        List<CellRangeAddress> combinadas;
+        try (InputStream entrada = Files.newInputStream(ruta); XSSFWorkbook libro = new XSSFWorkbook(entrada)) {
+            if (libro.getNumberOfSheets() == 0) {
+                throw new IOException("La plantilla no tiene hojas.");
+            }
+            XSSFSheet hoja = libro.getSheetAt(0);
+            if (!tieneCampos(hoja)) {
+                aplicarDisposicionPorDefecto(hoja);
+            }
+            filaProductos = buscarCampos(hoja, textos);
+            combinadas = hoja.getMergedRegions();
+            parteHoja = hoja.getPackagePart().getPartName().getName().substring(1);
+            libro.write(normalizada);
+        } catch (POIXMLException | NotOfficeXmlFileException e) {
+            throw new IOException("La plantilla no es un archivo .xlsx válido: " + e.getMessage(), e);
+        }
+
+        Map<String, byte[]> partes = leerPartes(normalizada.toByteArray());
+        quitarCadenaCalculo(partes);
+        byte[] bytesHoja = partes.get(parteHoja);
+        if (bytesHoja == null) {
+            throw new IOException("No se encontró la hoja " + parteHoja + " en la plantilla.");
+        }
+        String xml = new String(bytesHoja, StandardCharsets.UTF_8);
+        int inicioDatos = xml.indexOf("<sheetData");
+        int finApertura = inicioDatos < 0 ? -1 : xml.indexOf('>', inicioDatos);
+        if (finApertura < 0 || xml.charAt(finApertura - 1) == '/') {
+            throw new IOException("La primera hoja de la plantilla está vacía.");
+        }
+        int finDatos = xml.indexOf("</sheetData>", finApertura);
+        String inicioHoja = xml.substring(0, finApertura + 1);
+        String finHoja = xml.substring(finDatos);
+
+        int posicionCombinadas = -1;
+        Matcher mc = COMBINADAS.matcher(finHoja);
+        if (mc.find()) {
+            posicionCombinadas = mc.start();
+            finHoja = finHoja.substring(0, mc.start()) + finHoja.substring(mc.end());
+        }
+
+        List<Fila> filas = new ArrayList<>();
+        Fila modelo = null;
+        Matcher mf = FILA.matcher(xml).region(finApertura + 1, finDatos);
+        while (mf.find()) {
+            Fila fila = Fila.analizar(mf.group(), textos, filaProductos + 1);
+            if (fila.numero == filaProductos + 1) {
+                modelo = fila;
+            } else {
+                filas.add(fila);
+            }
+        }
+        return new PlantillaCotizacion(atributos.lastModifiedTime(), atributos.size(), partes, parteHoja,
+                inicioHoja, finHoja, posicionCombinadas, List.copyOf(combinadas), List.copyOf(filas), modelo);
+    }
+
+    private static boolean tieneCampos(XSSFSheet hoja) {
+        for (Row fila : hoja) {
+            for (Cell celda : fila) {
+                if (celda.getCellType() == CellType.STRING && CAMPO.matcher(celda.getStringCellValue()).find()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Escribe los campos en las celdas que llenaba la generación anterior
+    private static void aplicarDisposicionPorDefecto(XSSFSheet hoja) {
+        for (String[] campo : CAMPOS_POR_DEFECTO) {
+            CellReference referencia = new CellReference(campo[0]);
+            Row fila = hoja.getRow(referencia.getRow());
+            if (fila == null) {
+                fila = hoja.createRow(referencia.getRow());
+            }
+            Cell celda = fila.getCell(referencia.getCol());
+            if (celda == null) {
+                celda = fila.createCell(referencia.getCol());
+            }
+            celda.setCellValue(campo[1]);
+        }
+        // La fila se reemplaza, como hacía createRow en la generación anterior
+        Row productos = hoja.createRow(FILA_PRODUCTOS_POR_DEFECTO);
+        for (String[] campo : PRODUCTOS_POR_DEFECTO) {
+            productos.createCell(CellReference.convertColStringToIndex(campo[0])).setCellValue(campo[1]);
+        }
+    }
+
+    // Guarda el texto de las celdas con campos por referencia y devuelve el
+    // índice de la fila de productos, o -2 si no hay
+    private static int buscarCampos(XSSFSheet hoja, Map<String, String> textos) throws IOException {
+        int filaProductos = -2;
+        for (Row fila : hoja) {
+            for (Cell celda : fila) {
+                if (celda.getCellType() != CellType.STRING) {
+                    continue;
+                }
+                String texto = celda.getStringCellValue();
+                Matcher m = CAMPO.matcher(texto);
+                boolean tieneCampo = false;
+                while (m.find()) {
+                    tieneCampo = true;
+                    if (!m.group(1).startsWith(PREFIJO_PRODUCTO)) {
+                        continue;
+                    }
+                    if (filaProductos >= 0 && filaProductos != fila.getRowNum()) {
+                        throw new IOException("Los campos ${" + PREFIJO_PRODUCTO + "...} de la plantilla deben estar "
+                                + "en una sola fila (filas " + (filaProductos + 1) + " y " + (fila.getRowNum() + 1) + ").");
+                    }
+                    filaProductos = fila.getRowNum();
+                }
+                if (tieneCampo) {
+                    textos.put(celda.getAddress().formatAsString(), texto);
+                }
+            }
+        }
+        if (filaProductos >= 0) {
+            for (Cell celda : hoja.getRow(filaProductos)) {
+                if (celda.getCellType() == CellType.FORMULA) {
+                    throw new IOException("La fila de productos de la plantilla no admite fórmulas (celda "
+                            + celda.getAddress().formatAsString() + "); use ${item.total}.");
+                }
+            }
+        }
+        return filaProductos;
+    }
+
+    private static Map<String, byte[]> leerPartes(byte[] paquete) throws IOException {
+        Map<String, byte[]> partes = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(paquete))) {
+            ZipEntry entrada;
+            while ((entrada = zip.getNextEntry()) != null) {
+                partes.put(entrada.getName(), zip.readAllBytes());
+            }
+        }
+        return partes;
+    }
+
+    // La cadena de cálculo es opcional y Excel la reconstruye; se quita para
+    // que no apunte a fórmulas de las filas que reemplazan los productos
+    private static void quitarCadenaCalculo(Map<String, byte[]> partes) {
+        if (partes.remove("xl/calcChain.xml") == null) {
+            return;
+        }
+        quitar(partes, "[Content_Types].xml", "<Override\\b[^>]*PartName=\"/xl/calcChain.xml\"[^>]*/>");
+        quitar(partes, "xl/_rels/workbook.xml.rels", "<Relationship\\b[^>]*Target=\"[^\"]*calcChain.xml\"[^>]*/>");
+    }
+
+    private static void quitar(Map<String, byte[]> partes, String parte, String patron) {
+        byte[] contenido = partes.get(parte);
+        if (contenido != null) {
+            String texto = new String(contenido, StandardCharsets.UTF_8).replaceAll(patron, "");
+            partes.put(parte, texto.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Fila de la hoja: trozos de XML fijos y celdas con campos. El número de
+     * fila se escribe al generar, para poder repetir la fila de productos.
+     */
+    private static final class Fila {
+
+        final int numero;
+        // String con XML fijo o Celda
+        final List<Object> trozos;
+
+        private Fila(int numero, List<Object> trozos) {
+            this.numero = numero;
+            this.trozos = trozos;
+        }
+
+        static Fila analizar(String xml, Map<String, String> textos, int numeroProductos) throws IOException {
+            Matcher mr = ATRIBUTO_R.matcher(xml);
+            if (!mr.find()) {
+                throw new IOException("Fila sin número en la plantilla: " + xml);
+            }
+            int numero = Integer.parseInt(mr.group(2));
+            boolean repetible = numero == numeroProductos;
+            List<Object> trozos = new ArrayList<>();
+            StringBuilder fijo = new StringBuilder();
+            int desde = 0;
+            if (repetible) {
+                fijo.append(xml, 0, mr.start()).append("r=\"");
+                trozos.add(fijo.toString());
+                trozos.add(NUMERO_FILA);
+                fijo.setLength(0);
+                desde = mr.end() - 1;
+            }
+            Matcher mc = CELDA.matcher(xml);
+            while (mc.find()) {
+                String celda = mc.group();
+                Matcher rc = ATRIBUTO_R.matcher(celda);
+                if (!rc.find()) {
+                    continue;
+                }
+                String texto = textos.get(rc.group(1) + rc.group(2));
+                if (texto == null && !repetible) {
+                    continue;
+                }
+                fijo.append(xml, desde, mc.start());
+                trozos.add(fijo.toString());
+                fijo.setLength(0);
+                if (texto != null) {
+                    Matcher ms = ATRIBUTO_S.matcher(celda);
+                    trozos.add(new Celda(rc.group(1), ms.find() ? " " + ms.group() : "", texto));
+                } else {
+                    // Celda fija de la fila de productos: solo cambia el número de fila
+                    trozos.add(celda.substring(0, rc.start()) + "r=\"" + rc.group(1));
+                    trozos.add(NUMERO_FILA);
+                    fijo.append(celda, rc.end() - 1, celda.length());
+                }
+                desde = mc.end();
+            }
+            fijo.append(xml, desde, xml.length());
+            trozos.add(fijo.toString());
+            trozos.removeIf(t -> t instanceof String && ((String) t).isEmpty());
+            return new Fila(numero, List.copyOf(trozos));
+        }
+
+        void escribir(StringBuilder xml, int numeroFila, Map<String, ?> valores) {
+            for (Object trozo : trozos) {
+                if (trozo == NUMERO_FILA) {
+                    xml.append(numeroFila);
+                } else if (trozo instanceof Celda) {
+                    ((Celda) trozo).escribir(xml, numeroFila, valores);
+                } else {
+                    xml.append((String) trozo);
+                }
+            }
+        }
+    }
+
+    // Marca el lugar del número de fila en los trozos de la fila de productos
+    private static final Object NUMERO_FILA = new Object();
+
+    /**
+     * Celda con campos: texto fijo intercalado con nombres de campo.
+     */
+    private static final class Celda {
+
+        final String columna;
+        final String estilo;
+        // Posiciones pares: texto fijo; impares: nombre del campo
+        final String[] partes;
+
+        Celda(String columna, String estilo, String texto) {
+            this.columna = columna;
+            this.estilo = estilo;
+            List<String> lista = new ArrayList<>();
+            Matcher m = CAMPO.matcher(texto);
+            int desde = 0;
+            while (m.find()) {
+                lista.add(texto.substring(desde, m.start()));
+                String nombre = m.group(1);
+                lista.add(nombre.startsWith(PREFIJO_PRODUCTO) ? nombre.substring(PREFIJO_PRODUCTO.length()) : nombre);
+                desde = m.end();
+            }
+            lista.add(texto.substring(desde));
+            this.partes = lista.toArray(new String[0]);
+        }
+
+        void escribir(StringBuilder xml, int numeroFila, Map<String, ?> valores) {
+            xml.append("<c r=\"").append(columna).append(numeroFila).append('"').append(estilo);
+            // Un campo solo en la celda conserva el tipo numérico
+            if (partes.length == 3 && partes[0].isEmpty() && partes[2].isEmpty()) {
+                Object valor = valores.get(partes[1]);
+                if (valor instanceof Number && Double.isFinite(((Number) valor).doubleValue())) {
+                    xml.append("><v>").append(numero((Number) valor)).append("</v></c>");
+                    return;
+                }
+            }
+            StringBuilder texto = new StringBuilder();
+            for (int i = 0; i < partes.length; i++) {
+                if (i % 2 == 0) {
+                    texto.append(partes[i]);
+                } else {
+                    Object valor = valores.get(partes[i]);
+                    if (valor != null) {
+                        texto.append(valor);
+                    }
+                }
+            }
+            if (texto.length() == 0) {
+                xml.append("/>");
+                return;
+            }
+            xml.append(" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+            escapar(xml, texto);
+            xml.append("</t></is></c>");
+        }
+
+        private static String numero(Number valor) {
+            double d = valor.doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) < 1e15) {
+                return Long.toString((long) d);
+            }
+            return BigDecimal.valueOf(d).toPlainString();
+        }
+
+        private static void escapar(StringBuilder xml, CharSequence texto) {
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                switch (c) {
+                    case '&':
+                        xml.append("&amp;");
+                        break;
+                    case '<':
+                        xml.append("&lt;");
+                        break;
+                    case '>':
+                        xml.append("&gt;");
+                        break;
+                    default:
+                        // Los caracteres de control no son válidos en XML
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            xml.append(c);
+                        }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,678 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.sqlite.SQLiteConfig;
+
+/**
+ * Pool de conexiones SQLite de larga duración compartido por toda la
+ * aplicación.
+ *
+ * SQLite admite un solo escritor a la vez, por lo que el pool mantiene una
+ * única conexión de escritura (protegida por un candado reentrante, de modo que
+ * un método que ya la tiene puede volver a pedirla sin bloquearse) y varias
+ * conexiones de solo lectura. Las conexiones entregadas son envoltorios: al
+ * llamar a `close()` (por ejemplo al salir de un try-with-resources) la
+ * conexión real no se cierra, sino que se devuelve al pool.
+ *
+ * Antes de prestar una conexión se verifica que siga siendo válida; si no lo
+ * es, se reemplaza por una nueva. El pool lleva métricas de uso que pueden
+ * consultarse con {@link #obtenerMetricas()}.
+ *
+ * Cada conexión se configura con un {@link PerfilSQLite}. Cuando el perfil usa
+ * WAL con checkpoints manuales, el pool abre una conexión adicional dedicada a
+ * ejecutar `wal_checkpoint(PASSIVE)` periódicamente, de modo que ni los
+ * lectores ni el escritor esperan por el checkpoint.
+ *
+ * Cada conexión real tiene además una {@link CacheSentencias}:
+ * `prepareStatement(sql)` sobre una conexión prestada reutiliza la sentencia
+ * ya preparada con el mismo texto, hasta `db.sentencias.cache` sentencias por
+ * conexión (0 la desactiva). Los aciertos y el tiempo de preparación ahorrado
+ * aparecen en las métricas.
+ *
+ * @author Dazac
+ */
+public class PoolConexiones {
+
+    private static final Logger logger = Logger.getLogger(PoolConexiones.class.getName());
+
+    // Instancia única, configurada al iniciar la aplicación
+    private static PoolConexiones instancia;
+
+    // Cadena JDBC de la base de datos
+    private final String cadena;
+    // PRAGMAs que se aplican a cada conexión
+    private final PerfilSQLite perfil;
+    // Tiempo máximo de espera para obtener una conexión
+    private final long tiempoEsperaMs;
+
+    // Conexión de escritura y su candado
+    private Connection escritor;
+    private final ReentrantLock candadoEscritor = new ReentrantLock(true);
+
+    // Conexiones de lectura disponibles y el total creado
+    private final BlockingQueue<Connection> lectoresLibres;
+    private final List<Connection> lectores = new ArrayList<>();
+    private volatile boolean cerrado = false;
+
+    // Sentencias preparadas por conexión real y su capacidad
+    private final int sentenciasPorConexion;
+    private final Map<Connection, CacheSentencias> cachesSentencias = new ConcurrentHashMap<>();
+    private final CacheSentencias.Contadores contadoresSentencias = new CacheSentencias.Contadores();
+
+    // Conexión y tarea periódica para los checkpoints del WAL
+    private Connection conexionCheckpoint;
+    private ScheduledExecutorService programadorCheckpoint;
+
+    // Métricas de utilización
+    private final AtomicLong prestamosEscritura = new AtomicLong();
+    private final AtomicLong prestamosLectura = new AtomicLong();
+    private final AtomicLong esperaTotalNanos = new AtomicLong();
+    private final AtomicLong tiemposAgotados = new AtomicLong();
+    private final AtomicLong conexionesReemplazadas = new AtomicLong();
+    private final AtomicLong checkpoints = new AtomicLong();
+    private final AtomicInteger lectoresEnUso = new AtomicInteger();
+    private final AtomicInteger picoLectoresEnUso = new AtomicInteger();
+
+    private PoolConexiones(String cadena, int numLectores, long tiempoEsperaMs, PerfilSQLite perfil) throws SQLException {
+        this.cadena = cadena;
+        this.perfil = perfil;
+        this.tiempoEsperaMs = tiempoEsperaMs;
+        this.lectoresLibres = new ArrayBlockingQueue<>(numLectores);
+        this.sentenciasPorConexion = Math.max(0, ConexionDB.sentenciasPorConexion());
+
+        try {
+            // Cargar el controlador JDBC de SQLite una sola vez
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("No se encontró el controlador JDBC de SQLite", e);
+        }
+
+        escritor = abrirConexion(false);
+        for (int i = 0; i < numLectores; i++) {
+            Connection lector = abrirConexion(true);
+            lectores.add(lector);
+            lectoresLibres.add(lector);
+        }
+        if (perfil.checkpointManual()) {
+            conexionCheckpoint = abrirConexion(false);
+            programadorCheckpoint = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "checkpoint-wal");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            int intervalo = perfil.getIntervaloCheckpointSeg();
+            programadorCheckpoint.scheduleWithFixedDelay(() -> ejecutarCheckpoint("PASSIVE"),
+                    intervalo, intervalo, TimeUnit.SECONDS);
+        }
+        logger.log(Level.INFO, "Pool de conexiones iniciado: 1 escritor, {0} lectores, {1} sentencias en caché por conexión, {2}",
+                new Object[]{numLectores, sentenciasPorConexion, perfil});
+    }
+
+    /**
+     * Configura el pool de conexiones. Debe llamarse una sola vez al iniciar la
+     * aplicación; si ya existía un pool, se cierra y se reemplaza.
+     *
+     * @param cadena Cadena JDBC de la base de datos.
+     * @param numLectores Número de conexiones de solo lectura.
+     * @param tiempoEsperaMs Tiempo máximo de espera al pedir una conexión.
+     * @param perfil PRAGMAs que se aplican a cada conexión.
+     * @throws SQLException Si no se pueden abrir las conexiones.
+     */
+    public static synchronized void inicializar(String cadena, int numLectores, long tiempoEsperaMs,
+            PerfilSQLite perfil) throws SQLException {
+        if (instancia != null) {
+            instancia.cerrar();
+        }
+        instancia = new PoolConexiones(cadena, Math.max(1, numLectores), tiempoEsperaMs, perfil);
+    }
+
+    /**
+     * Obtiene el pool compartido. Si aún no se ha configurado, se crea con los
+     * valores de {@link ConexionDB} y el perfil del archivo de configuración.
+     *
+     * @return El pool de conexiones de la aplicación.
+     * @throws SQLException Si el pool no puede crearse.
+     */
+    public static synchronized PoolConexiones getInstancia() throws SQLException {
+        if (instancia == null) {
+            instancia = new PoolConexiones(ConexionDB.CADENA, ConexionDB.numeroLectores(),
+                    ConexionDB.tiempoEsperaMs(), PerfilSQLite.desdeConfiguracion());
+        }
+        return instancia;
+    }
+
+    /**
+     * Presta la conexión de escritura. Solo un hilo puede tenerla a la vez; el
+     * mismo hilo puede pedirla varias veces (cada préstamo debe cerrarse, y
+     * desde el mismo hilo que lo pidió).
+     *
+     * @return Conexión de escritura envuelta.
+     * @throws SQLException Si se agota el tiempo de espera o la conexión falla.
+     */
+    public Connection obtenerEscritor() throws SQLException {
+        verificarAbierto();
+        long inicio = System.nanoTime();
+        try {
+            if (!candadoEscritor.tryLock(tiempoEsperaMs, TimeUnit.MILLISECONDS)) {
+                tiemposAgotados.incrementAndGet();
+                throw new SQLException("Tiempo de espera agotado al obtener la conexión de escritura");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba la conexión de escritura", e);
+        }
+        esperaTotalNanos.addAndGet(System.nanoTime() - inicio);
+        prestamosEscritura.incrementAndGet();
+
+        try {
+            // El pool pudo cerrarse mientras se esperaba el candado
+            verificarAbierto();
+            // Solo el primer préstamo del hilo valida la conexión
+            if (candadoEscritor.getHoldCount() == 1 && !esValida(escritor)) {
+                cerrarSilenciosamente(escritor);
+                escritor = abrirConexion(false);
+                conexionesReemplazadas.incrementAndGet();
+            }
+            return envolver(escritor, false);
+        } catch (SQLException | RuntimeException e) {
+            candadoEscritor.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Presta una conexión de solo lectura.
+     *
+     * @return Conexión de lectura envuelta.
+     * @throws SQLException Si se agota el tiempo de espera o la conexión falla.
+     */
+    public Connection obtenerLector() throws SQLException {
+        verificarAbierto();
+        long inicio = System.nanoTime();
+        Connection lector;
+        try {
+            lector = lectoresLibres.poll(tiempoEsperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión de lectura", e);
+        }
+        if (lector == null) {
+            tiemposAgotados.incrementAndGet();
+            throw new SQLException("Tiempo de espera agotado al obtener una conexión de lectura");
+        }
+        esperaTotalNanos.addAndGet(System.nanoTime() - inicio);
+        prestamosLectura.incrementAndGet();
+
+        try {
+            if (!esValida(lector)) {
+                Connection nuevo = abrirConexion(true);
+                synchronized (lectores) {
+                    lectores.remove(lector);
+                    lectores.add(nuevo);
+                }
+                cerrarSilenciosamente(lector);
+                lector = nuevo;
+                conexionesReemplazadas.incrementAndGet();
+            }
+        } catch (SQLException e) {
+            lectoresLibres.offer(lector);
+            throw e;
+        }
+
+        int enUso = lectoresEnUso.incrementAndGet();
+        picoLectoresEnUso.accumulateAndGet(enUso, Math::max);
+        return envolver(lector, true);
+    }
+
+    /**
+     * Revisa las conexiones de lectura libres ejecutando una consulta trivial y
+     * reemplaza las que no respondan.
+     *
+     * @return Número de conexiones reemplazadas.
+     */
+    public int verificarSalud() {
+        int reemplazadas = 0;
+        int libres = lectoresLibres.size();
+        for (int i = 0; i < libres; i++) {
+            Connection lector = lectoresLibres.poll();
+            if (lector == null) {
+                break;
+            }
+            try (Statement st = lector.createStatement()) {
+                st.execute("SELECT 1");
+                lectoresLibres.offer(lector);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Conexión de lectura defectuosa, se reemplaza", e);
+                try {
+                    Connection nuevo = abrirConexion(true);
+                    synchronized (lectores) {
+                        lectores.remove(lector);
+                        lectores.add(nuevo);
+                    }
+                    cerrarSilenciosamente(lector);
+                    lectoresLibres.offer(nuevo);
+                    conexionesReemplazadas.incrementAndGet();
+                    reemplazadas++;
+                } catch (SQLException ex) {
+                    logger.log(Level.SEVERE, "No se pudo reemplazar la conexión de lectura", ex);
+                    lectoresLibres.offer(lector);
+                }
+            }
+        }
+        return reemplazadas;
+    }
+
+    /**
+     * Ejecuta un checkpoint del WAL en la conexión dedicada.
+     *
+     * El modo `PASSIVE` copia al archivo principal todo lo que puede sin
+     * esperar a lectores ni escritores; `TRUNCATE` (usado al cerrar) además
+     * vacía el archivo WAL.
+     *
+     * @param modo `PASSIVE`, `FULL`, `RESTART` o `TRUNCATE`.
+     * @return Páginas del WAL copiadas, o -1 si no se pudo ejecutar.
+     */
+    public synchronized int ejecutarCheckpoint(String modo) {
+        if (conexionCheckpoint == null || !modo.matches("[A-Z]+")) {
+            return -1;
+        }
+        long inicio = System.nanoTime();
+        try (Statement st = conexionCheckpoint.createStatement();
+                ResultSet rs = st.executeQuery("PRAGMA wal_checkpoint(" + modo + ")")) {
+            int copiadas = rs.next() ? rs.getInt(3) : 0;
+            checkpoints.incrementAndGet();
+            logger.log(Level.FINE, "Checkpoint {0}: {1} páginas en {2} ms", new Object[]{
+                modo, copiadas, (System.nanoTime() - inicio) / 1_000_000});
+            return copiadas;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error al ejecutar el checkpoint del WAL", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Devuelve una instantánea de las métricas de utilización del pool.
+     *
+     * @return Métricas actuales.
+     */
+    public MetricasPool obtenerMetricas() {
+        long prestamos = prestamosEscritura.get() + prestamosLectura.get();
+        double esperaPromedioMs = prestamos == 0 ? 0 : esperaTotalNanos.get() / 1_000_000.0 / prestamos;
+        int totalLectores;
+        synchronized (lectores) {
+            totalLectores = lectores.size();
+        }
+        long fallos = contadoresSentencias.fallos.get();
+        double preparacionPromedioMs = fallos == 0 ? 0
+                : contadoresSentencias.nanosPreparacion.get() / 1_000_000.0 / fallos;
+        long muestraMinima = contadoresSentencias.nanosMuestraMinima.get();
+        double preparacionMuestreadaMs = muestraMinima == Long.MAX_VALUE ? 0 : muestraMinima / 1_000_000.0;
+        return new MetricasPool(totalLectores, lectoresEnUso.get(), picoLectoresEnUso.get(),
+                candadoEscritor.isLocked(), prestamosLectura.get(), prestamosEscritura.get(),
+                esperaPromedioMs, tiemposAgotados.get(), conexionesReemplazadas.get(), checkpoints.get(),
+                contadoresSentencias.aciertos.get(), fallos, contadoresSentencias.desalojadas.get(),
+                preparacionPromedioMs, preparacionMuestreadaMs);
+    }
+
+    /**
+     * Cierra todas las conexiones reales del pool. La conexión de escritura
+     * se cierra solo cuando nadie la tiene prestada; si su préstamo no
+     * termina en el tiempo de espera del pool, se deja abierta para no cortar
+     * una transacción a la mitad.
+     */
+    public synchronized void cerrar() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        logger.log(Level.INFO, "Cerrando pool de conexiones: {0}", obtenerMetricas());
+        if (programadorCheckpoint != null) {
+            programadorCheckpoint.shutdownNow();
+            ejecutarCheckpoint("TRUNCATE");
+            cerrarSilenciosamente(conexionCheckpoint);
+        }
+        cerrarEscritor();
+        synchronized (lectores) {
+            for (Connection lector : lectores) {
+                cerrarSilenciosamente(lector);
+            }
+            lectores.clear();
+        }
+        lectoresLibres.clear();
+    }
+
+    // Cierra la conexión de escritura después de que el último préstamo la devuelva
+    private void cerrarEscritor() {
+        boolean tomado = false;
+        try {
+            tomado = candadoEscritor.tryLock(tiempoEsperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!tomado) {
+            logger.log(Level.WARNING, "La conexión de escritura sigue prestada tras {0} ms; no se cierra",
+                    tiempoEsperaMs);
+            return;
+        }
+        try {
+            cerrarSilenciosamente(escritor);
+        } finally {
+            candadoEscritor.unlock();
+        }
+    }
+
+    // Abre una conexión real con la base de datos
+    private Connection abrirConexion(boolean soloLectura) throws SQLException {
+        SQLiteConfig configuracion = new SQLiteConfig();
+        configuracion.setReadOnly(soloLectura);
+        Connection conn = DriverManager.getConnection(cadena, configuracion.toProperties());
+        try {
+            perfil.aplicar(conn, soloLectura);
+        } catch (SQLException e) {
+            cerrarSilenciosamente(conn);
+            throw e;
+        }
+        return conn;
+    }
+
+    // Comprueba que una conexión siga abierta y respondiendo
+    private boolean esValida(Connection conn) {
+        try {
+            return conn != null && !conn.isClosed() && conn.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void verificarAbierto() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+    }
+
+    // Cierra una conexión real junto con sus sentencias en caché
+    private void cerrarSilenciosamente(Connection conn) {
+        CacheSentencias cache = conn != null ? cachesSentencias.remove(conn) : null;
+        if (cache != null) {
+            cache.cerrar();
+        }
+        try {
+            if (conn != null && !conn.isClosed()) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error al cerrar una conexión del pool", e);
+        }
+    }
+
+    // Devuelve una conexión al pool restaurando su estado
+    private void devolver(Connection real, boolean esLector) {
+        if (esLector) {
+            liberarSentencias(real);
+            restaurarEstado(real);
+            lectoresEnUso.decrementAndGet();
+            if (!cerrado) {
+                lectoresLibres.offer(real);
+            }
+        } else {
+            // Solo el último préstamo del hilo deja la conexión lista para otro
+            if (candadoEscritor.getHoldCount() == 1) {
+                liberarSentencias(real);
+                restaurarEstado(real);
+            }
+            candadoEscritor.unlock();
+        }
+    }
+
+    // Deshace una transacción abandonada y vuelve al modo auto-commit
+    private void restaurarEstado(Connection real) {
+        try {
+            if (!real.isClosed() && !real.getAutoCommit()) {
+                logger.warning("Conexión devuelta con una transacción abierta; se revierte");
+                real.rollback();
+                real.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "No se pudo restaurar el estado de la conexión", e);
+        }
+    }
+
+    // Libera las sentencias que el préstamo dejó sin cerrar
+    private void liberarSentencias(Connection real) {
+        CacheSentencias cache = cachesSentencias.get(real);
+        if (cache != null) {
+            cache.liberarPrestadas();
+        }
+    }
+
+    private Connection envolver(Connection real, boolean esLector) {
+        CacheSentencias cache = sentenciasPorConexion == 0 ? null : cachesSentencias.computeIfAbsent(real,
+                r -> new CacheSentencias(r, sentenciasPorConexion, contadoresSentencias));
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConexionPrestada(real, esLector, cache));
+    }
+
+    /**
+     * Envoltorio de una conexión prestada: `close()` la devuelve al pool en
+     * lugar de cerrarla, `prepareStatement` usa la caché de sentencias y
+     * cualquier uso posterior a la devolución falla.
+     */
+    private class ConexionPrestada implements InvocationHandler {
+
+        private final Connection real;
+        private final boolean esLector;
+        private final CacheSentencias cache;
+        private final AtomicBoolean devuelta = new AtomicBoolean(false);
+        // Hilo que pidió la conexión; el candado del escritor solo lo puede liberar él
+        private final Thread prestatario = Thread.currentThread();
+
+        ConexionPrestada(Connection real, boolean esLector, CacheSentencias cache) {
+            this.real = real;
+            this.esLector = esLector;
+            this.cache = cache;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!esLector && Thread.currentThread() != prestatario && !devuelta.get()) {
+                        throw new SQLException("La conexión de escritura la debe cerrar el hilo que la pidió ("
+                                + prestatario.getName() + "), no " + Thread.currentThread().getName());
+                    }
+                    if (devuelta.compareAndSet(false, true)) {
+                        devolver(real, esLector);
+                    }
+                    return null;
+                case "isClosed":
+                    return devuelta.get() || real.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPrestada[" + (esLector ? "lectura" : "escritura") + "]";
+                default:
+                    break;
+            }
+            if (devuelta.get()) {
+                throw new SQLException("La conexión ya fue devuelta al pool");
+            }
+            if (cache != null && method.getName().equals("prepareStatement")
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer))) {
+                return cache.preparar((Connection) proxy, (String) args[0],
+                        args.length == 1 ? Statement.NO_GENERATED_KEYS : (Integer) args[1]);
+            }
+            try {
+                return method.invoke(real, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Instantánea inmutable de las métricas del pool.
+     */
+    public static class MetricasPool {
+
+        private final int lectoresTotales;
+        private final int lectoresEnUso;
+        private final int picoLectoresEnUso;
+        private final boolean escritorEnUso;
+        private final long prestamosLectura;
+        private final long prestamosEscritura;
+        private final double esperaPromedioMs;
+        private final long tiemposAgotados;
+        private final long conexionesReemplazadas;
+        private final long checkpoints;
+        private final long sentenciasReutilizadas;
+        private final long sentenciasPreparadas;
+        private final long sentenciasDesalojadas;
+        private final double preparacionPromedioMs;
+        private final double preparacionMuestreadaMs;
+
+        MetricasPool(int lectoresTotales, int lectoresEnUso, int picoLectoresEnUso, boolean escritorEnUso,
+                long prestamosLectura, long prestamosEscritura, double esperaPromedioMs,
+                long tiemposAgotados, long conexionesReemplazadas, long checkpoints,
+                long sentenciasReutilizadas, long sentenciasPreparadas, long sentenciasDesalojadas,
+                double preparacionPromedioMs, double preparacionMuestreadaMs) {
+            this.lectoresTotales = lectoresTotales;
+            this.lectoresEnUso = lectoresEnUso;
+            this.picoLectoresEnUso = picoLectoresEnUso;
+            this.escritorEnUso = escritorEnUso;
+            this.prestamosLectura = prestamosLectura;
+            this.prestamosEscritura = prestamosEscritura;
+            this.esperaPromedioMs = esperaPromedioMs;
+            this.tiemposAgotados = tiemposAgotados;
+            this.conexionesReemplazadas = conexionesReemplazadas;
+            this.checkpoints = checkpoints;
+            this.sentenciasReutilizadas = sentenciasReutilizadas;
+            this.sentenciasPreparadas = sentenciasPreparadas;
+            this.sentenciasDesalojadas = sentenciasDesalojadas;
+            this.preparacionPromedioMs = preparacionPromedioMs;
+            this.preparacionMuestreadaMs = preparacionMuestreadaMs;
+        }
+
+        public int getLectoresTotales() {
+            return lectoresTotales;
+        }
+
+        public int getLectoresEnUso() {
+            return lectoresEnUso;
+        }
+
+        public int getPicoLectoresEnUso() {
+            return picoLectoresEnUso;
+        }
+
+        public boolean isEscritorEnUso() {
+            return escritorEnUso;
+        }
+
+        public long getPrestamosLectura() {
+            return prestamosLectura;
+        }
+
+        public long getPrestamosEscritura() {
+            return prestamosEscritura;
+        }
+
+        public double getEsperaPromedioMs() {
+            return esperaPromedioMs;
+        }
+
+        public long getTiemposAgotados() {
+            return tiemposAgotados;
+        }
+
+        public long getConexionesReemplazadas() {
+            return conexionesReemplazadas;
+        }
+
+        public long getCheckpoints() {
+            return checkpoints;
+        }
+
+        // Sentencias entregadas desde la caché sin volver a prepararlas
+        public long getSentenciasReutilizadas() {
+            return sentenciasReutilizadas;
+        }
+
+        // Sentencias que hubo que preparar (fallos de la caché)
+        public long getSentenciasPreparadas() {
+            return sentenciasPreparadas;
+        }
+
+        public long getSentenciasDesalojadas() {
+            return sentenciasDesalojadas;
+        }
+
+        public double getPreparacionPromedioMs() {
+            return preparacionPromedioMs;
+        }
+
+        // Porcentaje de prepareStatement atendidos por la caché
+        public double getAciertosSentencias() {
+            long total = sentenciasReutilizadas + sentenciasPreparadas;
+            return total == 0 ? 0 : 100.0 * sentenciasReutilizadas / total;
+        }
+
+        // Menor costo medido de preparar una sentencia que ya estaba en la caché
+        public double getPreparacionMuestreadaMs() {
+            return preparacionMuestreadaMs;
+        }
+
+        // Tiempo de preparación evitado por los aciertos (estimado)
+        public double getPreparacionAhorradaMs() {
+            return sentenciasReutilizadas * preparacionMuestreadaMs;
+        }
+
+        // Porcentaje de conexiones de lectura en uso
+        public double getUtilizacionLectores() {
+            return lectoresTotales == 0 ? 0 : 100.0 * lectoresEnUso / lectoresTotales;
+        }
+
+        @Override
+        public String toString() {
+            return "MetricasPool{" + "lectores=" + lectoresEnUso + "/" + lectoresTotales
+                    + ", picoLectores=" + picoLectoresEnUso
+                    + ", escritorEnUso=" + escritorEnUso
+                    + ", prestamosLectura=" + prestamosLectura
+                    + ", prestamosEscritura=" + prestamosEscritura
+                    + ", esperaPromedioMs=" + String.format("%.3f", esperaPromedioMs)
+                    + ", tiemposAgotados=" + tiemposAgotados
+                    + ", reemplazadas=" + conexionesReemplazadas
+                    + ", checkpoints=" + checkpoints
+                    + ", sentencias=" + sentenciasReutilizadas + "/" + (sentenciasReutilizadas + sentenciasPreparadas)
+                    + " (" + String.format("%.1f", getAciertosSentencias()) + "% aciertos)"
+                    + ", sentenciasDesalojadas=" + sentenciasDesalojadas
+                    + ", preparacionAhorradaMs=" + String.format("%.1f", getPreparacionAhorradaMs()) + '}';
+        }
+    }
+}
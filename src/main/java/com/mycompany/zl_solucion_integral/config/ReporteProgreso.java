@@ -0,0 +1,25 @@
+package com.mycompany.zl_solucion_integral.config;
+
+/**
+ * Recibe el avance de una tarea larga, como la importación de un archivo
+ * Excel. Lo implementa {@link PantallaCarga} para mostrarlo al usuario.
+ *
+ * @author Dazac
+ */
+@FunctionalInterface
+public interface ReporteProgreso {
+
+    /**
+     * Reporte que ignora el avance.
+     */
+    ReporteProgreso NINGUNO = (porcentaje, mensaje) -> {
+    };
+
+    /**
+     * Informa el avance de la tarea.
+     *
+     * @param porcentaje Porcentaje completado (0-100).
+     * @param mensaje Descripción del paso actual.
+     */
+    void actualizar(int porcentaje, String mensaje);
+}
@@ -0,0 +1,111 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Consecutivo diario de los números de cotización, en la tabla
+ * `secuencias_cotizacion`.
+ *
+ * Cada día tiene una fila con el último consecutivo entregado. El siguiente se
+ * obtiene con una sola sentencia `INSERT ... ON CONFLICT DO UPDATE ...
+ * RETURNING`: la fila del día se crea con 1 o se incrementa, y el valor nuevo
+ * se devuelve en la misma escritura. SQLite admite un solo escritor a la vez,
+ * así que dos llamadas (del mismo equipo o de otro que comparta la base) nunca
+ * reciben el mismo consecutivo, sin leer y escribir por separado.
+ *
+ * El número de cotización es la fecha `yyyyMMdd`, un guion y el consecutivo
+ * con al menos tres cifras; a partir de 1000 simplemente tiene más cifras.
+ *
+ * @author Dazac
+ */
+public final class SecuenciaCotizaciones {
+
+    private static final String SQL_SIGUIENTE = "INSERT INTO secuencias_cotizacion (dia, ultimo) VALUES (?, 1) "
+            + "ON CONFLICT (dia) DO UPDATE SET ultimo = ultimo + 1 RETURNING ultimo";
+
+    private SecuenciaCotizaciones() {
+    }
+
+    /**
+     * Reserva el siguiente consecutivo del día.
+     *
+     * @param conn Conexión de escritura; el consecutivo queda reservado al
+     * confirmar su transacción.
+     * @param dia Día de la cotización.
+     * @return Consecutivo reservado, desde 1.
+     * @throws SQLException Si falla la actualización.
+     */
+    public static long siguiente(Connection conn, LocalDate dia) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_SIGUIENTE)) {
+            pstmt.setLong(1, dia.toEpochDay());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("La secuencia de cotizaciones no devolvió ningún valor");
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * Reserva el siguiente número de cotización del día.
+     *
+     * @param conn Conexión de escritura.
+     * @param dia Día de la cotización.
+     * @return Número con el formato `yyyyMMdd-NNN`.
+     * @throws SQLException Si falla la actualización.
+     */
+    public static String siguienteNumero(Connection conn, LocalDate dia) throws SQLException {
+        return formatear(dia, siguiente(conn, dia));
+    }
+
+    /**
+     * @param dia Día de la cotización.
+     * @param consecutivo Consecutivo del día.
+     * @return Número con el formato `yyyyMMdd-NNN`.
+     */
+    public static String formatear(LocalDate dia, long consecutivo) {
+        return dia.format(DateTimeFormatter.BASIC_ISO_DATE) + "-" + String.format("%03d", consecutivo);
+    }
+
+    /**
+     * Guarda como último consecutivo del día el de un número con el formato
+     * anterior (`configuracion.ultimoNumeroCotizacion`), para que la secuencia
+     * continúe donde se quedó.
+     *
+     * @param conn Conexión de escritura.
+     * @param numero Número `yyyyMMdd-NNN`; se ignora si es nulo o no tiene ese
+     * formato.
+     * @throws SQLException Si falla la actualización.
+     */
+    static void continuarDesde(Connection conn, String numero) throws SQLException {
+        if (numero == null) {
+            return;
+        }
+        String[] partes = numero.trim().split("-");
+        if (partes.length != 2) {
+            return;
+        }
+        long dia;
+        long consecutivo;
+        try {
+            dia = LocalDate.parse(partes[0], DateTimeFormatter.BASIC_ISO_DATE).toEpochDay();
+            consecutivo = Long.parseLong(partes[1]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return;
+        }
+        String sql = "INSERT INTO secuencias_cotizacion (dia, ultimo) VALUES (?, ?) "
+                + "ON CONFLICT (dia) DO UPDATE SET ultimo = MAX(ultimo, excluded.ultimo)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, dia);
+            pstmt.setLong(2, consecutivo);
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Resumen diario de las ventas en la tabla `ventas_diarias`.
+ *
+ * Cada fila acumula, por día (epoch day), vendedor y método de pago, el número
+ * de ventas, las unidades vendidas y el total (precio por cantidad de los
+ * detalles). Los totales de un rango de fechas se obtienen sumando a lo sumo
+ * una fila por día y combinación, en lugar de recorrer todos los detalles de
+ * venta.
+ *
+ * El resumen se actualiza dentro de la misma transacción que registra o
+ * modifica la venta, de modo que nunca queda desfasado respecto de las ventas
+ * confirmadas. Si aun así se sospecha una diferencia (por ejemplo, tras editar
+ * la base de datos a mano), {@link #reconstruir(Connection)} lo recalcula por
+ * completo; desde la línea de comandos se ejecuta con
+ * `--reconstruir-resumen-ventas`.
+ *
+ * @author Dazac
+ */
+public final class VentasDiarias {
+
+    // Agregados por día, vendedor y método de pago a partir de las ventas y sus detalles
+    private static final String SQL_AGREGAR = "INSERT INTO ventas_diarias "
+            + "(dia, vendedor, metodo_pago, ventas, unidades, total) "
+            + "SELECT v.fecha_dia, v.vendedor, v.metodo_pago, COUNT(DISTINCT v.id), "
+            + "SUM(d.cantidad), SUM(d.precio * d.cantidad) "
+            + "FROM ventas v JOIN detalles_venta d ON v.id = d.venta_id";
+
+    private static final String SQL_AGRUPAR = " GROUP BY v.fecha_dia, v.vendedor, v.metodo_pago";
+
+    /**
+     * Totales de un rango de días.
+     */
+    public static final class Totales {
+
+        private final long ventas;
+        private final long unidades;
+        private final double total;
+
+        Totales(long ventas, long unidades, double total) {
+            this.ventas = ventas;
+            this.unidades = unidades;
+            this.total = total;
+        }
+
+        public long getVentas() {
+            return ventas;
+        }
+
+        public long getUnidades() {
+            return unidades;
+        }
+
+        public double getTotal() {
+            return total;
+        }
+    }
+
+    private VentasDiarias() {
+    }
+
+    /**
+     * Suma una venta nueva al resumen. Se debe llamar en la misma transacción
+     * que inserta la venta.
+     *
+     * @param conn Conexión de escritura con la transacción abierta.
+     * @param dia Día de la venta (epoch day).
+     * @param vendedor Vendedor de la venta.
+     * @param metodoPago Método de pago de la venta.
+     * @param unidades Unidades vendidas en todos los detalles.
+     * @param total Suma de precio por cantidad de los detalles.
+     * @throws SQLException Si falla la actualización.
+     */
+    public static void sumarVenta(Connection conn, long dia, String vendedor, String metodoPago,
+            long unidades, double total) throws SQLException {
+        String sql = "INSERT INTO ventas_diarias (dia, vendedor, metodo_pago, ventas, unidades, total) "
+                + "VALUES (?, ?, ?, 1, ?, ?) "
+                + "ON CONFLICT (dia, vendedor, metodo_pago) DO UPDATE SET "
+                + "ventas = ventas + 1, unidades = unidades + excluded.unidades, total = total + excluded.total";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, dia);
+            pstmt.setString(2, vendedor);
+            pstmt.setString(3, metodoPago);
+            pstmt.setLong(4, unidades);
+            pstmt.setDouble(5, total);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recalcula el resumen de los días indicados a partir de las ventas. Sirve
+     * cuando una venta cambia de día, vendedor o importe y no basta con sumar.
+     *
+     * @param conn Conexión de escritura con la transacción abierta.
+     * @param dias Días (epoch day) a recalcular; pueden repetirse.
+     * @throws SQLException Si falla la actualización.
+     */
+    public static void recalcularDias(Connection conn, long... dias) throws SQLException {
+        try (PreparedStatement borrar = conn.prepareStatement("DELETE FROM ventas_diarias WHERE dia = ?");
+                PreparedStatement agregar = conn.prepareStatement(SQL_AGREGAR + " WHERE v.fecha_dia = ?" + SQL_AGRUPAR)) {
+            for (long dia : dias) {
+                borrar.setLong(1, dia);
+                borrar.executeUpdate();
+                agregar.setLong(1, dia);
+                agregar.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Vacía el resumen y lo vuelve a calcular con todas las ventas.
+     *
+     * @param conn Conexión de escritura; conviene llamarlo dentro de una
+     * transacción para que los lectores no vean el resumen vacío.
+     * @return Número de filas del resumen.
+     * @throws SQLException Si falla la actualización.
+     */
+    public static int reconstruir(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM ventas_diarias");
+            return st.executeUpdate(SQL_AGREGAR + SQL_AGRUPAR);
+        }
+    }
+
+    /**
+     * Suma el resumen de un rango de días.
+     *
+     * @param conn Conexión de lectura.
+     * @param desde Primer día (epoch day) incluido, o `null` para no limitar.
+     * @param hasta Último día (epoch day) incluido, o `null` para no limitar.
+     * @return Totales del rango; en cero si no hay ventas.
+     * @throws SQLException Si falla la consulta.
+     */
+    public static Totales consultar(Connection conn, Long desde, Long hasta) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(ventas), 0), COALESCE(SUM(unidades), 0), COALESCE(SUM(total), 0) "
+                + "FROM ventas_diarias WHERE dia BETWEEN ? AND ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, desde != null ? desde : Long.MIN_VALUE);
+            pstmt.setLong(2, hasta != null ? hasta : Long.MAX_VALUE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return new Totales(rs.getLong(1), rs.getLong(2), rs.getDouble(3));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mycompany.zl_solucion_integral.controllers;
+
+import com.mycompany.zl_solucion_integral.models.Informe;
+import com.mycompany.zl_solucion_integral.servicios.Resultado;
+import com.mycompany.zl_solucion_integral.servicios.ServicioInformes;
+import com.mycompany.zl_solucion_integral.servicios.ServicioInformes.TipoInforme;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Clase encargada de mostrar los informes de análisis de ventas. El cálculo y
+ * la caché de informes están en {@link ServicioInformes}.
+ *
+ * @author Dazac
+ */
+public class InformeController {
+
+    private static final Logger logger = Logger.getLogger(InformeController.class.getName());
+
+    private final ServicioInformes servicio = new ServicioInformes();
+
+    /**
+     * Muestra un informe en la tabla calculándolo en segundo plano.
+     *
+     * @param tabla Tabla donde se muestra el informe.
+     * @param tipo Informe a generar.
+     * @param fechaInicio Primer día en formato "dd/MM/yyyy", o vacío para
+     * empezar desde la primera venta.
+     * @param fechaFin Último día en formato "dd/MM/yyyy", o vacío para llegar
+     * hasta la última venta.
+     * @param limite Máximo de filas de los informes de productos.
+     * @param alTerminar Acción a ejecutar en el hilo de eventos con el informe
+     * ya mostrado, o `null`.
+     */
+    public void mostrarInforme(JTable tabla, TipoInforme tipo, String fechaInicio, String fechaFin,
+            int limite, Runnable alTerminar) {
+        LocalDate desde = null;
+        LocalDate hasta = null;
+        if (fechaInicio != null && !fechaInicio.isBlank()) {
+            desde = VentasController.leerFecha(fechaInicio);
+            if (desde == null) {
+                JOptionPane.showMessageDialog(null, "La fecha de inicio ingresada no tiene un formato válido (dd/MM/yyyy).");
+                return;
+            }
+        }
+        if (fechaFin != null && !fechaFin.isBlank()) {
+            hasta = VentasController.leerFecha(fechaFin);
+            if (hasta == null) {
+                JOptionPane.showMessageDialog(null, "La fecha de finalización ingresada no tiene un formato válido (dd/MM/yyyy).");
+                return;
+            }
+        }
+        if (limite <= 0) {
+            JOptionPane.showMessageDialog(null, "La cantidad de productos debe ser mayor que cero.");
+            return;
+        }
+
+        final LocalDate inicio = desde;
+        final LocalDate fin = hasta;
+        new SwingWorker<Resultado<Informe>, Void>() {
+            @Override
+            protected Resultado<Informe> doInBackground() {
+                return servicio.generar(tipo, inicio, fin, limite);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    Resultado<Informe> resultado = get();
+                    if (!resultado.esExito()) {
+                        JOptionPane.showMessageDialog(null,
+                                resultado.getError().describir("Error al generar el informe"));
+                        return;
+                    }
+                    Informe informe = resultado.getValor();
+                    DefaultTableModel modelo = new DefaultTableModel(informe.getColumnas(), 0) {
+                        @Override
+                        public boolean isCellEditable(int row, int column) {
+                            return false;
+                        }
+                    };
+                    for (Object[] fila : informe.getFilas()) {
+                        modelo.addRow(fila);
+                    }
+                    tabla.setModel(modelo);
+                    if (alTerminar != null) {
+                        alTerminar.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    logger.log(Level.SEVERE, "Error al generar el informe", causa);
+                    JOptionPane.showMessageDialog(null, "Error al generar el informe: " + causa.getMessage());
+                }
+            }
+        }.execute();
+    }
+}
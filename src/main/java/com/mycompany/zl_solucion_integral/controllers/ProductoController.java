@@ -1,158 +1,82 @@
 package com.mycompany.zl_solucion_integral.controllers;
 
-import com.mycompany.zl_solucion_integral.config.ConexionDB;
+import com.mycompany.zl_solucion_integral.config.CacheProductos;
+import com.mycompany.zl_solucion_integral.config.CargadorTabla;
+import com.mycompany.zl_solucion_integral.config.ModeloTablaColumnar;
+import com.mycompany.zl_solucion_integral.config.ModeloTablaColumnar.TipoColumna;
 import com.mycompany.zl_solucion_integral.models.Producto;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import com.mycompany.zl_solucion_integral.servicios.ErrorServicio;
+import com.mycompany.zl_solucion_integral.servicios.Resultado;
+import com.mycompany.zl_solucion_integral.servicios.ServicioProductos;
+import java.util.List;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
 
 /**
- * Controlador para gestionar las operaciones con productos.
+ * Controlador para gestionar las operaciones con productos desde las
+ * ventanas.
  * <p>
- * Esta clase proporciona métodos para agregar, modificar, eliminar y mostrar
- * productos en la base de datos. También incluye métodos para manejar la
- * cantidad de productos y obtener detalles de productos específicos.
+ * Las operaciones las hace {@link ServicioProductos}; esta clase pide las
+ * confirmaciones, muestra los mensajes de cada resultado y actualiza las
+ * tablas. Para operaciones en lote o sin interfaz se usa el servicio
+ * directamente.
  * </p>
- * Utiliza una instancia de `ConexionDB` para interactuar con la base de datos.
+ * Las tablas se llenan desde {@link CacheProductos} si está cargada.
  *
  * @author Dazac
  */
 public class ProductoController {
 
-    private final ConexionDB conexion = new ConexionDB();
-    private final Logger logger = Logger.getLogger(ProductoController.class.getName());
+    // Columnas de la tabla de productos y cómo se guarda cada una
+    private static final String[] COLUMNAS_PRODUCTOS = {"Id", "Producto", "Precio", "Cantidad", "Código", "Categoría"};
+    private static final TipoColumna[] TIPOS_PRODUCTOS = {TipoColumna.ENTERO, TipoColumna.TEXTO,
+        TipoColumna.DECIMAL, TipoColumna.ENTERO, TipoColumna.TEXTO, TipoColumna.TEXTO_REPETIDO};
+    private static final int COLUMNA_CATEGORIA = 5;
+
+    private final ServicioProductos servicio = new ServicioProductos();
+    private final CacheProductos cache = CacheProductos.getInstancia();
 
     /**
      * Método para agregar un producto nuevo o actualizar su cantidad si ya
      * existe en la base de datos.
      *
-     * Este método primero verifica si un producto con el mismo código ya está
-     * presente en la base de datos. Si el producto ya existe, actualiza su
-     * cantidad sumando la cantidad actual con la cantidad nueva. Si el producto
-     * no existe, lo inserta como un nuevo registro.
+     * Si ya hay un producto con el mismo código, suma la cantidad nueva a su
+     * stock; si no, lo inserta como un nuevo registro.
      *
      * @param producto El objeto de tipo Producto que contiene la información
      * del producto a agregar o actualizar.
      */
     public void agregarOActualizarProductoSiExiste(Producto producto) {
-        // Consulta SQL para verificar si el producto ya existe en la base de datos
-        String sqlSelect = "SELECT cantidad FROM productos WHERE codigo = ?";
-
-        // Consulta SQL para actualizar la cantidad de un producto existente
-        String sqlUpdate = "UPDATE productos SET cantidad = ? WHERE codigo = ?";
-
-        // Consulta SQL para insertar un nuevo producto si no existe en la base de datos
-        String sqlInsert = "INSERT INTO productos (producto, precio, cantidad, codigo, categoria) VALUES (?, ?, ?, ?, ?)";
-
-        try (Connection conn = conexion.establecerConexion()) {
-            // Verificar si el producto ya existe en la base de datos mediante su código
-            try (PreparedStatement pstmtSelect = conn.prepareStatement(sqlSelect)) {
-                pstmtSelect.setString(1, producto.getCodigo());
-                ResultSet rs = pstmtSelect.executeQuery();
-
-                if (rs.next()) {
-                    // Si el producto ya existe, obtener la cantidad actual
-                    int cantidadActual = rs.getInt("cantidad");
-
-                    // Calcular la nueva cantidad
-                    int nuevaCantidad = cantidadActual + producto.getCantidad();
-
-                    // Actualizar la cantidad del producto existente
-                    try (PreparedStatement pstmtUpdate = conn.prepareStatement(sqlUpdate)) {
-                        pstmtUpdate.setInt(1, nuevaCantidad);
-                        pstmtUpdate.setString(2, producto.getCodigo());
-                        pstmtUpdate.executeUpdate();
-                        JOptionPane.showMessageDialog(null, "Stock actualizado exitosamente.");
-                    }
-                } else {
-                    // Insertar un nuevo producto
-                    try (PreparedStatement pstmtInsert = conn.prepareStatement(sqlInsert)) {
-                        pstmtInsert.setString(1, producto.getProducto());
-                        pstmtInsert.setDouble(2, producto.getPrecio());
-                        pstmtInsert.setInt(3, producto.getCantidad());
-                        pstmtInsert.setString(4, producto.getCodigo());
-                        pstmtInsert.setString(5, producto.getCategoria());
-                        pstmtInsert.executeUpdate();
-                        JOptionPane.showMessageDialog(null, "Producto guardado exitosamente.");
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al agregar o actualizar producto", e);
-            JOptionPane.showMessageDialog(null, "Error al procesar producto: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
+        Resultado<Boolean> resultado = servicio.agregarOActualizar(producto);
+        if (resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, resultado.getValor()
+                    ? "Stock actualizado exitosamente."
+                    : "Producto guardado exitosamente.");
+        } else {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al procesar producto"));
         }
     }
 
     /**
      * Método para modificar un producto existente en la base de datos.
      *
-     * Este método actualiza los datos de un producto existente en la base de
-     * datos. Antes de la actualización, valida que no haya otro producto con el
-     * mismo código, excepto el producto que se está modificando. Si no hay
-     * duplicados, procede con la actualización.
+     * No se guarda si otro producto ya tiene el mismo código.
      *
      * @param producto El objeto Producto que contiene los datos actualizados.
      */
     public void modificarProducto(Producto producto) {
-        // Consulta SQL para verificar si existe un producto con el mismo código pero distinto ID
-        String sqlCheck = "SELECT COUNT(*) FROM productos WHERE codigo = ? AND id != ?";
-
-        // Consulta SQL para actualizar los datos del producto en la base de datos
-        String sqlUpdate = "UPDATE productos SET producto = ?, precio = ?, cantidad = ?, codigo = ?, categoria = ? WHERE id = ?";
-
-        try (Connection conn = conexion.establecerConexion()) {
-
-            // Verificar si el código del producto ya está registrado en otro producto con diferente ID
-            try (PreparedStatement pstmtCheck = conn.prepareStatement(sqlCheck)) {
-                // Establece el código del producto en la consulta
-                pstmtCheck.setString(1, producto.getCodigo());
-                // Excluye el producto actual de la verificación
-                pstmtCheck.setInt(2, producto.getId());
-
-                ResultSet rs = pstmtCheck.executeQuery();
-                // Si se encuentra un duplicado, muestra un mensaje de advertencia y detiene la ejecución
-                if (rs.next() && rs.getInt(1) > 0) {
-                    JOptionPane.showMessageDialog(null, "El código del producto ya está registrado en otro producto.");
-                    return;  // Finaliza el método si se encuentra un duplicado
-                }
-            }
-
-            // Si no hay duplicados, procede a actualizar el producto
-            try (PreparedStatement pstmtUpdate = conn.prepareStatement(sqlUpdate)) {
-                pstmtUpdate.setString(1, producto.getProducto());  // Establece el nuevo nombre del producto
-                pstmtUpdate.setDouble(2, producto.getPrecio());  // Establece el nuevo precio del producto
-                pstmtUpdate.setInt(3, producto.getCantidad());  // Establece la nueva cantidad del producto
-                pstmtUpdate.setString(4, producto.getCodigo());  // Establece el nuevo código del producto
-                pstmtUpdate.setString(5, producto.getCategoria()); // Esatablecer la nueva categoria
-                pstmtUpdate.setInt(6, producto.getId());  // Establece el ID del producto que se va a actualizar
-
-                // Ejecutar la actualización
-                pstmtUpdate.executeUpdate();
-                JOptionPane.showMessageDialog(null, "Producto modificado exitosamente.");
-            }
-        } catch (Exception e) {
-            // Maneja cualquier excepción que ocurra durante el proceso de modificación
-            logger.log(Level.SEVERE, "Error al modificar producto", e);
-            JOptionPane.showMessageDialog(null, "Error al modificar producto: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
+        Resultado<Void> resultado = servicio.modificar(producto);
+        if (resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, "Producto modificado exitosamente.");
+        } else {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al modificar producto"));
         }
     }
 
     /**
      * Método para eliminar un producto de la base de datos.
      *
-     * Este método elimina un producto identificado por su ID de la base de
-     * datos. Antes de proceder con la eliminación, se asegura de que se haya
+     * Antes de proceder con la eliminación, se asegura de que se haya
      * seleccionado un producto y solicita una confirmación al usuario.
      *
      * @param idProducto ID del producto a eliminar.
@@ -175,31 +99,14 @@ public class ProductoController {
         if (confirmacion != JOptionPane.YES_OPTION) {
             return;
         }
-        // Consulta SQL para eliminar el producto
-        String sql = "DELETE FROM productos WHERE id = ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, idProducto);  // Asignar el ID del producto a eliminar en la consulta
 
-            // Ejecutar la consulta de eliminación
-            int rowsAffected = pstmt.executeUpdate();
-
-            // Verificar si la eliminación fue exitosa
-            if (rowsAffected > 0) {
-                JOptionPane.showMessageDialog(null, "Producto eliminado exitosamente");
-                mostrarProductos(tbProductos);  // Actualizar la tabla de productos
-            } else {
-                JOptionPane.showMessageDialog(null, "No se pudo eliminar el producto",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (Exception e) {
-            // Manejo de errores en caso de que ocurra un problema durante la eliminación
-            JOptionPane.showMessageDialog(null, "Error al eliminar el producto: " + e.getMessage(),
+        Resultado<Void> resultado = servicio.eliminar(idProducto);
+        if (resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, "Producto eliminado exitosamente");
+            mostrarProductos(tbProductos);  // Actualizar la tabla de productos
+        } else {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al eliminar el producto"),
                     "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            // Cerrar la conexión a la base de datos
-            conexion.cerrarConexion();
         }
     }
 
@@ -234,53 +141,16 @@ public class ProductoController {
             return;
         }
 
-        // Consultas SQL
-        String sqlSelect = "SELECT cantidad FROM productos WHERE id = ?";
-        String sqlUpdate = "UPDATE productos SET cantidad = ? WHERE id = ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmtSelect = conn.prepareStatement(sqlSelect)) {
-
-            // Buscar la cantidad actual del producto
-            pstmtSelect.setInt(1, idProducto);
-            ResultSet rs = pstmtSelect.executeQuery();
-
-            if (rs.next()) {
-                int cantidadActual = rs.getInt("cantidad");
-
-                // Verificar si la cantidad a eliminar es válida (no excede la cantidad en stock)
-                if (cantidadAEliminar <= cantidadActual) {
-                    int nuevaCantidad = cantidadActual - cantidadAEliminar;
-
-                    // Si la nueva cantidad es cero, eliminar el producto completo
-                    if (nuevaCantidad == 0) {
-                        // Usar método existente para eliminar el producto
-                        eliminarProducto(idProducto, tbProductos);
-                    } else {
-                        // Si la cantidad es mayor a cero, actualizar el stock
-                        try (PreparedStatement pstmtUpdate = conn.prepareStatement(sqlUpdate)) {
-                            pstmtUpdate.setInt(1, nuevaCantidad);  // Actualizar la cantidad
-                            pstmtUpdate.setInt(2, idProducto);
-
-                            pstmtUpdate.executeUpdate();
-                            JOptionPane.showMessageDialog(null, "Stock actualizado exitosamente.");
-
-                            // Actualizar la tabla de productos
-                            mostrarProductos(tbProductos);
-                        }
-                    }
-                } else {
-                    // Error si la cantidad a eliminar es mayor a la disponible en stock
-                    JOptionPane.showMessageDialog(null, "No se puede eliminar más cantidad de la disponible en stock.",
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        } catch (Exception e) {
-            // Manejo de errores en la eliminación parcial de stock
-            JOptionPane.showMessageDialog(null, "Error al eliminar cantidad del producto: "
-                    + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            // Cerrar la conexión a la base de datos
-            conexion.cerrarConexion();
+        Resultado<Integer> resultado = servicio.retirarUnidades(idProducto, cantidadAEliminar);
+        if (resultado.esExito()) {
+            // Sin unidades restantes el producto se eliminó
+            JOptionPane.showMessageDialog(null, resultado.getValor() == 0
+                    ? "Producto eliminado exitosamente"
+                    : "Stock actualizado exitosamente.");
+            mostrarProductos(tbProductos);
+        } else {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al eliminar cantidad del producto"),
+                    "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -307,16 +177,21 @@ public class ProductoController {
      * productos.
      */
     public void mostrarProductos(final JTable tablaProductos) {
-        // Crear un nuevo modelo de tabla
-        final DefaultTableModel modelo = new DefaultTableModel();
+        mostrarProductos(tablaProductos, null);
+    }
 
-        // Definir las columnas del modelo
-        modelo.addColumn("Id");
-        modelo.addColumn("Producto");
-        modelo.addColumn("Precio");
-        modelo.addColumn("Cantidad");
-        modelo.addColumn("Código");
-        modelo.addColumn("Categoría");
+    /**
+     * Muestra todos los productos; si no están en la caché, los consulta en
+     * segundo plano.
+     *
+     * @param tablaProductos La tabla (`JTable`) donde se mostrarán los
+     * productos.
+     * @param alTerminar Acción a ejecutar en el hilo de eventos cuando la tabla
+     * tenga todos los productos, o `null`.
+     */
+    public void mostrarProductos(final JTable tablaProductos, Runnable alTerminar) {
+        // Crear un nuevo modelo de tabla que guarda cada columna en un arreglo
+        final ModeloTablaColumnar modelo = new ModeloTablaColumnar(COLUMNAS_PRODUCTOS, TIPOS_PRODUCTOS);
 
         // Establecer el modelo de tabla vacío antes de cargar los datos
         tablaProductos.setModel(modelo);
@@ -342,97 +217,66 @@ public class ProductoController {
         tablaProductos.getColumnModel().getColumn(4).setPreferredWidth(100); // Tamaño predefinido
         tablaProductos.getColumnModel().getColumn(4).setMaxWidth(150); // Tamaño maximo
 
-        // Consulta SQL para obtener todos los productos
-        final String sql = "SELECT * FROM productos";
-
-        try (Connection conn = conexion.establecerConexion(); // Conexión a la base de datos
-                 Statement st = conn.createStatement(); // Crear un Statement
-                 ResultSet rs = st.executeQuery(sql)) {  // Ejecutar la consulta SQL y obtener el resultado
-
-            // Recorrer el ResultSet para agregar los productos al modelo de la tabla
-            while (rs.next()) {
-                double precio = rs.getDouble("precio");  // Obtener el precio del producto
-                int cantidad = rs.getInt("cantidad");  // Obtener la cantidad en stock
-
-                // Agregar una nueva fila al modelo con los datos del producto
-                modelo.addRow(new Object[]{
-                    rs.getInt("id"), // ID del producto
-                    rs.getString("producto"), // Nombre del producto
-                    precio, // Precio unitario
-                    cantidad, // Cantidad en stock
-                    rs.getString("codigo"), // Código del producto
-                    rs.getString("categoria"), // Categoría del producto
-                });
+        // Si la caché está cargada, los productos se toman de memoria
+        if (cache.estaCargada()) {
+            CargadorTabla.cancelar(tablaProductos);
+            for (Producto p : cache.listar(null)) {
+                modelo.agregarFila(filaProducto(p));
             }
-            // Asignar el modelo a la tabla para mostrar los productos
-            tablaProductos.setModel(modelo);
-        } catch (Exception e) {
-            // Manejo de errores si ocurre un problema al obtener los productos
-            logger.log(Level.SEVERE, "Error al mostrar productos", e);
-            JOptionPane.showMessageDialog(null, "Error al mostrar productos: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
+            modelo.fireTableDataChanged();
+            if (alTerminar != null) {
+                alTerminar.run();
+            }
+            return;
         }
+
+        // Consulta SQL para obtener todos los productos, en segundo plano
+        final String sql = "SELECT * FROM productos";
+        CargadorTabla.cargar(tablaProductos, modelo, conn -> conn.prepareStatement(sql), rs -> new Object[]{
+            rs.getInt("id"), // ID del producto
+            rs.getString("producto"), // Nombre del producto
+            rs.getDouble("precio"), // Precio unitario
+            rs.getInt("cantidad"), // Cantidad en stock
+            rs.getString("codigo"), // Código del producto
+            rs.getString("categoria") // Categoría del producto
+        }, "Error al mostrar productos", alTerminar);
     }
 
     // Metodo para filtar los productos por categorias
     public void mostrarProductosPorCategoria(javax.swing.JTable tabla, String categoria) {
-        DefaultTableModel modelo = (DefaultTableModel) tabla.getModel();
-        modelo.setRowCount(0); // Limpia la tabla antes de agregar los resultados
+        mostrarProductosPorCategoria(tabla, categoria, null);
+    }
 
-        String query = "SELECT * FROM productos";
-        if (!categoria.equals("Todas")) { // Si no es "Todas", filtra por la categoría
-            query += " WHERE categoria = ?";
+    /**
+     * Filtra los productos de la tabla por categoría. Si la tabla ya tiene los
+     * productos, el filtro se hace en memoria sin consultar la base de datos.
+     *
+     * @param tabla La tabla donde se mostrarán los productos.
+     * @param categoria Categoría a mostrar, o "Todas".
+     * @param alTerminar Acción a ejecutar en el hilo de eventos cuando la tabla
+     * muestre el resultado, o `null`.
+     */
+    public void mostrarProductosPorCategoria(JTable tabla, String categoria, Runnable alTerminar) {
+        if (!(tabla.getModel() instanceof ModeloTablaColumnar)) {
+            // La tabla aún no tiene los productos: cargarlos y luego filtrar
+            mostrarProductos(tabla, () -> mostrarProductosPorCategoria(tabla, categoria, alTerminar));
+            return;
         }
 
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            if (!categoria.equals("Todas")) {
-                stmt.setString(1, categoria);
-            }
-
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Object[] fila = {
-                    rs.getInt("Id"),
-                    rs.getString("producto"),
-                    rs.getDouble("precio"),
-                    rs.getInt("cantidad"),
-                    rs.getString("codigo"),
-                    rs.getString("categoria")
-                };
-                modelo.addRow(fila);
-            }
-        } catch (SQLException e) {
-            System.out.println("Error al filtrar productos por categoría: " + e.getMessage());
+        ModeloTablaColumnar modelo = (ModeloTablaColumnar) tabla.getModel();
+        if (categoria == null || categoria.equals("Todas")) {
+            modelo.quitarFiltro();
+        } else {
+            modelo.filtrarTexto(COLUMNA_CATEGORIA, categoria);
+        }
+        if (alTerminar != null) {
+            alTerminar.run();
         }
     }
 
 // Método para contar registros dependiendo de la categoría
     public int contarRegistros(String categoria) {
-        String query = "SELECT COUNT(*) AS total_registros FROM productos";
-        if (!categoria.equals("Todas")) { // Si no es "Todas", agrega el filtro de categoría
-            query += " WHERE categoria = ?";
-        }
-
-        int total = 0;
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            if (!categoria.equals("Todas")) {
-                pstmt.setString(1, categoria);
-            }
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    total = rs.getInt("total_registros");
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return total;
+        return servicio.contar(categoria).getValorO(0);
     }
 
     /**
@@ -464,129 +308,104 @@ public class ProductoController {
     /**
      * Método para obtener un producto desde la base de datos usando su ID.
      *
-     * Este método consulta la base de datos para obtener los detalles de un
-     * producto dado su ID. Si el producto se encuentra, se devuelve un objeto
-     * `Producto` con la información del producto. Si no se encuentra el
-     * producto o ocurre un error, se muestra un mensaje de error y se devuelve
-     * `null`.
+     * Si no se encuentra el producto o la consulta falla, se muestra un
+     * mensaje de error y se devuelve `null`.
      *
      * @param id El ID del producto que se desea obtener.
      * @return Un objeto `Producto` con los datos del producto si se encuentra,
      * o `null` si el producto no se encuentra o si ocurre un error.
      */
     public Producto obtenerProductoPorId(int id) {
-        // Consulta SQL para seleccionar el producto por su ID
-        String sql = "SELECT * FROM productos WHERE id = ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Establecer el ID del producto en la consulta
-            pstmt.setInt(1, id);
-
-            // Ejecutar la consulta y obtener el resultado
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                // Crear un nuevo objeto Producto con los datos obtenidos
-                return new Producto(
-                        rs.getInt("id"), // ID del producto
-                        rs.getString("producto"), // Nombre del producto
-                        rs.getDouble("precio"), // Precio del producto
-                        rs.getInt("cantidad"), // Cantidad disponible
-                        rs.getString("codigo"), // Código del producto
-                        rs.getDouble("precio") * rs.getInt("cantidad"), // Calcular el total (precio * cantidad)
-                        rs.getString("categoria")
-                );
-            } else {
-                // Si no se encuentra el producto, mostrar un mensaje de error
-                JOptionPane.showMessageDialog(null, "Producto no encontrado", "Error",
-                        JOptionPane.ERROR_MESSAGE);
-                return null;
-            }
-        } catch (Exception e) {
-            // Manejo de excepciones y registro del error
-            logger.log(Level.SEVERE, "Error al obtener producto por ID", e);
-            JOptionPane.showMessageDialog(null, "Error al obtener producto: " + e.getMessage(),
+        Resultado<Producto> resultado = servicio.obtenerPorId(id);
+        if (!resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al obtener producto"),
                     "Error", JOptionPane.ERROR_MESSAGE);
-            return null;
-        } finally {
-            conexion.cerrarConexion();
         }
+        return resultado.getValor();
     }
 
      /*
      Método para buscar por código
      */
     public Producto buscarProductoPorCodigo(String codigoProducto) {
-        Producto producto = null;
-        final String sql = "SELECT * FROM productos WHERE codigo = ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, codigoProducto);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    producto = new Producto(
-                            rs.getString("producto"),
-                            rs.getDouble("precio"),
-                            rs.getInt("cantidad"),
-                            rs.getString("codigo"),
-                            rs.getString("Categoria")
-                    );
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error al buscar producto por código", e);
-            JOptionPane.showMessageDialog(null, "Error al buscar el producto: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
-        }
-        return producto;
+        return productoBuscado(servicio.buscarPorCodigo(codigoProducto));
     }
 
     /*
-     Método para buscar por nombre
+     Método para buscar por nombre (en la caché no distingue mayúsculas ni tildes)
      */
     public Producto buscarProductoPorNombre(String nombreProducto) {
-        Producto producto = null;
-        final String sql = "SELECT * FROM productos WHERE producto = ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, nombreProducto);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    producto = new Producto(
-                            rs.getString("producto"),
-                            rs.getDouble("precio"),
-                            rs.getInt("cantidad"),
-                            rs.getString("codigo"),
-                            rs.getString("categoria")
-                    );
-                }
-            }
+        return productoBuscado(servicio.buscarPorNombre(nombreProducto));
+    }
 
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error al buscar producto por nombre", e);
-            JOptionPane.showMessageDialog(null, "Error al buscar el producto: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
+    // Un producto no encontrado es un resultado normal de la búsqueda; solo se avisan los errores
+    private static Producto productoBuscado(Resultado<Producto> resultado) {
+        if (!resultado.esExito() && !resultado.falloPor(ErrorServicio.Tipo.NO_ENCONTRADO)) {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al buscar el producto"));
         }
-        return producto;
+        return resultado.getValor();
+    }
+
+    /**
+     * Busca productos cuyo nombre o código contiene el texto escrito, para el
+     * autocompletado del registro de ventas.
+     *
+     * @param texto Texto parcial escrito por el usuario.
+     * @param limite Número máximo de sugerencias.
+     * @return Productos ordenados por relevancia (vacío si la caché no está
+     * disponible).
+     */
+    public List<Producto> buscarSugerencias(String texto, int limite) {
+        return servicio.sugerir(texto, limite);
+    }
+
+    /**
+     * Busca productos en el índice de texto completo (`productos_fts`) por
+     * nombre, código o categoría.
+     *
+     * La búsqueda no distingue mayúsculas ni tildes ("botiquin" encuentra
+     * "BOTIQUÍN"), cada palabra escrita se toma como prefijo y deben aparecer
+     * todas. Los resultados se ordenan por relevancia (BM25), dando más peso al
+     * código y al nombre que a la categoría. No requiere tener el catálogo en
+     * memoria.
+     *
+     * @param texto Texto a buscar.
+     * @param pagina Número de página, empezando en 0.
+     * @param porPagina Productos por página.
+     * @return Productos de la página solicitada; vacía si no hay resultados o
+     * si la búsqueda falla.
+     */
+    public List<Producto> buscarProductosTextoCompleto(String texto, int pagina, int porPagina) {
+        return servicio.buscarTextoCompleto(texto, pagina, porPagina).getValorO(List.of());
+    }
+
+    /**
+     * Cuenta los productos que coinciden con una búsqueda de texto completo,
+     * para calcular el número de páginas.
+     *
+     * @param texto Texto a buscar.
+     * @return Número total de coincidencias.
+     */
+    public int contarProductosTextoCompleto(String texto) {
+        return servicio.contarTextoCompleto(texto).getValorO(0);
     }
 
     public void actualizarCantidadProducto(String codigoProducto, int nuevaCantidad) {
-        // Actualiza la cantidad del producto en la base de datos
-        String query = "UPDATE productos SET cantidad = ? WHERE codigo = ?";
-        try (Connection conn = conexion.establecerConexion(); // Utiliza ConexionDB para obtener la conexión
-                 PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, nuevaCantidad);
-            stmt.setString(2, codigoProducto);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        Resultado<Integer> resultado = servicio.ajustarCantidad(codigoProducto, nuevaCantidad);
+        if (!resultado.esExito()) {
             throw new RuntimeException("Error al actualizar la cantidad del producto en inventario");
         }
     }
+
+    // Convierte un producto en una fila de la tabla de productos
+    private static Object[] filaProducto(Producto p) {
+        return new Object[]{
+            p.getId(),
+            p.getProducto(),
+            p.getPrecio(),
+            p.getCantidad(),
+            p.getCodigo(),
+            p.getCategoria()
+        };
+    }
 }
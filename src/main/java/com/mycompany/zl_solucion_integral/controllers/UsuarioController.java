@@ -1,77 +1,44 @@
 package com.mycompany.zl_solucion_integral.controllers;
 
-import com.mycompany.zl_solucion_integral.config.ConexionDB;
-import com.mycompany.zl_solucion_integral.config.Seguridad;
+import com.mycompany.zl_solucion_integral.config.CargadorTabla;
 import com.mycompany.zl_solucion_integral.models.Usuario;
-import java.sql.Connection;
+import com.mycompany.zl_solucion_integral.servicios.Resultado;
+import com.mycompany.zl_solucion_integral.servicios.ServicioUsuarios;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import javax.swing.table.DefaultTableModel;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
- * Clase encargada de manejar las operaciones relacionadas con los usuarios en
- * la base de datos.
+ * Clase encargada de manejar las operaciones relacionadas con los usuarios
+ * desde las ventanas.
  *
- * La clase `UsuarioController` proporciona métodos para agregar, modificar,
- * eliminar y mostrar usuarios, así como para validar credenciales y la
- * existencia de usuarios. Utiliza una instancia de `ConexionDB` para
- * interactuar con la base de datos.
+ * La clase `UsuarioController` agrega, modifica, elimina y muestra usuarios,
+ * y valida credenciales y la existencia de usuarios. Las operaciones las hace
+ * {@link ServicioUsuarios}; esta clase pide las confirmaciones, muestra los
+ * mensajes y llena las tablas.
  *
  * @author Dazac
  */
 public class UsuarioController {
 
-    private final ConexionDB conexion = new ConexionDB();
-    private final Logger logger = Logger.getLogger(UsuarioController.class.getName());
+    private final ServicioUsuarios servicio = new ServicioUsuarios();
 
     /**
      * Agrega un nuevo usuario a la base de datos.
      *
-     * Verifica si el usuario ya existe antes de intentar agregarlo. Muestra un
-     * mensaje de error si el usuario ya existe o si ocurre un problema durante
-     * el registro.
+     * La contraseña se guarda encriptada. Muestra un mensaje con el resultado
+     * del registro.
      *
      * @param usuario Un objeto `Usuario` que contiene la información del nuevo
      * usuario.
      */
     public void agregarUsuario(final Usuario usuario) {
-        // Validar existencia del usuario y correo (omitir por brevedad)
-
-        final String sql = "INSERT INTO usuarios (nombre, telefono, email, contraseña, rol) "
-                + "VALUES (?, ?, ?, ?, ?)";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Establecer los parámetros en la consulta SQL
-            pstmt.setString(1, usuario.getNombre());
-            pstmt.setString(2, usuario.getTelefono());
-            pstmt.setString(3, usuario.getEmail());
-
-            // Encriptar la contraseña antes de guardarla
-            String contraseñaEncriptada = Seguridad.encriptarContraseña(usuario.getContraseña());
-            pstmt.setString(4, contraseñaEncriptada);
-            pstmt.setString(5, usuario.getRol());
-
-            // Ejecutar la consulta SQL
-            int rowsAffected = pstmt.executeUpdate();
-
-            if (rowsAffected > 0) {
-                JOptionPane.showMessageDialog(null, "Usuario registrado exitosamente");
-            } else {
-                JOptionPane.showMessageDialog(null, "No se pudo registrar el usuario");
-            }
-
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al registrar el usuario", e);
-            JOptionPane.showMessageDialog(null, "Error al registrar el usuario: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
+        Resultado<Integer> resultado = servicio.registrar(usuario);
+        if (resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, "Usuario registrado exitosamente");
+        } else {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al registrar el usuario"));
         }
     }
 
@@ -90,36 +57,12 @@ public class UsuarioController {
      * @param idUsuario ID del usuario a modificar.
      */
     public void modificarUsuario(final String nombre, final String telefono, final String email, final String rol, final String contraseña, final int idUsuario) {
-        final String sql = "UPDATE usuarios SET nombre = ?, telefono = ?, email = ?, rol = ?, contraseña = ? WHERE id = ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Establecer los valores en la consulta
-            pstmt.setString(1, nombre);
-            pstmt.setString(2, telefono);
-            pstmt.setString(3, email);
-            pstmt.setString(4, rol);
-            // Encriptar la contraseña antes de guardarla
-            String contraseñaEncriptada = Seguridad.encriptarContraseña(contraseña);
-            pstmt.setString(5, contraseñaEncriptada);
-            pstmt.setInt(6, idUsuario);
-
-            // Ejecutar la actualización
-            int rowsAffected = pstmt.executeUpdate();
-
-            if (rowsAffected > 0) {
-                JOptionPane.showMessageDialog(null, "Usuario modificado exitosamente");
-            } else {
-                JOptionPane.showMessageDialog(null, "No se pudo modificar el usuario",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
-
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al modificar el usuario", e);
-            JOptionPane.showMessageDialog(null, "Error al modificar el usuario: "
-                    + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            conexion.cerrarConexion();
+        Resultado<Void> resultado = servicio.modificar(new Usuario(idUsuario, nombre, telefono, email, contraseña, rol));
+        if (resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, "Usuario modificado exitosamente");
+        } else {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al modificar el usuario"),
+                    "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -149,27 +92,13 @@ public class UsuarioController {
             return;
         }
 
-        String sql = "DELETE FROM usuarios WHERE id = ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, idUsuario);
-
-            // Ejecutar la consulta
-            int rowsAffected = pstmt.executeUpdate();
-
-            if (rowsAffected > 0) {
-                JOptionPane.showMessageDialog(null, "Usuario eliminado exitosamente");
-                mostrarUsuarios(tbUsuarios);  // Actualizar la tabla
-            } else {
-                JOptionPane.showMessageDialog(null, "No se pudo eliminar el usuario",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(null, "Error al eliminar el usuario: "
-                    + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            conexion.cerrarConexion();
+        Resultado<Void> resultado = servicio.eliminar(idUsuario);
+        if (resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, "Usuario eliminado exitosamente");
+            mostrarUsuarios(tbUsuarios);  // Actualizar la tabla
+        } else {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al eliminar el usuario"),
+                    "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -208,6 +137,17 @@ public class UsuarioController {
      * @param tablaUsuarios Tabla donde se mostrarán los usuarios.
      */
     public void mostrarUsuarios(final JTable tablaUsuarios) {
+        mostrarUsuarios(tablaUsuarios, null);
+    }
+
+    /**
+     * Muestra todos los usuarios consultándolos en segundo plano.
+     *
+     * @param tablaUsuarios Tabla donde se mostrarán los usuarios.
+     * @param alTerminar Acción a ejecutar en el hilo de eventos cuando la tabla
+     * tenga todos los usuarios, o `null`.
+     */
+    public void mostrarUsuarios(final JTable tablaUsuarios, Runnable alTerminar) {
         final DefaultTableModel modelo = new DefaultTableModel();
         final String sql = "SELECT * FROM usuarios";
         modelo.addColumn("Id");
@@ -217,7 +157,14 @@ public class UsuarioController {
         modelo.addColumn("Rol");
         modelo.addColumn("Contraseña");
 
-        tablaUsuarios.setModel(modelo);
+        CargadorTabla.cargar(tablaUsuarios, modelo, conn -> conn.prepareStatement(sql), rs -> new Object[]{
+            rs.getString("id"),
+            rs.getString("nombre"),
+            rs.getString("email"),
+            rs.getString("telefono"),
+            rs.getString("rol"),
+            rs.getString("contraseña")
+        }, "Error al mostrar usuarios", alTerminar);
 
         // Establecer el ancho de la columna "Id"
         tablaUsuarios.getColumnModel().getColumn(0).setMinWidth(45); // Tamaño mínimo
@@ -230,27 +177,7 @@ public class UsuarioController {
         // Establecer el ancho de la columna "Rol"
         tablaUsuarios.getColumnModel().getColumn(4).setMinWidth(45); // Tamaño mínimo
         tablaUsuarios.getColumnModel().getColumn(4).setPreferredWidth(50); // Tamaño preferido
-        tablaUsuarios.getColumnModel().getColumn(4).setMaxWidth(50); // Tamaño máximo        
-
-        try (Connection conn = conexion.establecerConexion(); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
-
-            while (rs.next()) {
-                modelo.addRow(new Object[]{
-                    rs.getString("id"),
-                    rs.getString("nombre"),
-                    rs.getString("email"),
-                    rs.getString("telefono"),
-                    rs.getString("rol"),
-                    rs.getString("contraseña")
-                });
-            }
-            tablaUsuarios.setModel(modelo);
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al mostrar usuarios", e);
-            JOptionPane.showMessageDialog(null, "Error al mostrar: " + e.toString());
-        } finally {
-            conexion.cerrarConexion();
-        }
+        tablaUsuarios.getColumnModel().getColumn(4).setMaxWidth(50); // Tamaño máximo
     }
 
     /**
@@ -262,7 +189,6 @@ public class UsuarioController {
      */
     public void mostrarUsuariosPorRol(JTable tablaUsuarios, String rolSeleccionado) {
         DefaultTableModel modelo = (DefaultTableModel) tablaUsuarios.getModel();
-        modelo.setRowCount(0); // Limpia la tabla antes de agregar los resultados
 
         String query = "SELECT * FROM usuarios";
         boolean filtrarPorRol = !"Todas".equals(rolSeleccionado);
@@ -271,76 +197,31 @@ public class UsuarioController {
             query += " WHERE rol = ?";
         }
 
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement stmt = conn.prepareStatement(query)) {
+        final String sql = query;
+        CargadorTabla.cargar(tablaUsuarios, modelo, conn -> {
+            PreparedStatement stmt = conn.prepareStatement(sql);
             if (filtrarPorRol) {
                 // Extrae el número del rol del texto seleccionado
                 int rolNumerico = Integer.parseInt(rolSeleccionado.split(":")[0].trim());
                 stmt.setInt(1, rolNumerico);
             }
-
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Object[] fila = {
-                    rs.getInt("id"),
-                    rs.getString("nombre"),
-                    rs.getString("email"),
-                    rs.getString("telefono"),
-                    rs.getInt("rol"), // Muestra directamente el número del rol
-                    rs.getString("contraseña")
-
-                };
-                modelo.addRow(fila);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error al filtrar usuarios por rol: " + e.getMessage());
-        }
+            return stmt;
+        }, rs -> new Object[]{
+            rs.getInt("id"),
+            rs.getString("nombre"),
+            rs.getString("email"),
+            rs.getString("telefono"),
+            rs.getInt("rol"), // Muestra directamente el número del rol
+            rs.getString("contraseña")
+        }, "Error al filtrar usuarios por rol", null);
     }
 
     public boolean validarCredencialesUsuarioRegular(final String usuario, final String contraseña) {
-        final String sql = "SELECT contraseña FROM usuarios WHERE nombre = ? AND rol != 1";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, usuario);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    // Obtén la contraseña encriptada de la base de datos
-                    String contraseñaEncriptada = rs.getString("contraseña");
-                    // Compara la contraseña ingresada con la almacenada
-                    return Seguridad.validarContraseña(contraseña, contraseñaEncriptada);
-                }
-            }
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al validar credenciales del usuario regular", e);
-            JOptionPane.showMessageDialog(null, "Error al validar credenciales: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
-        }
-        return false;
+        return validado(servicio.validarCredenciales(usuario, contraseña, false), "Error al validar credenciales");
     }
 
     public boolean validarCredencialesAdmin(final String usuario, final String contraseña) {
-        String usuarioEnMinusculas = usuario.toLowerCase();
-        final String sql = "SELECT contraseña FROM usuarios WHERE nombre = ? AND rol = 1";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, usuarioEnMinusculas);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    // Obtén la contraseña encriptada de la base de datos
-                    String contraseñaEncriptada = rs.getString("contraseña");
-                    // Compara la contraseña ingresada con la almacenada
-                    return Seguridad.validarContraseña(contraseña, contraseñaEncriptada);
-                }
-            }
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al validar credenciales del administrador", e);
-            JOptionPane.showMessageDialog(null, "Error al validar credenciales: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
-        }
-        return false;
+        return validado(servicio.validarCredenciales(usuario, contraseña, true), "Error al validar credenciales");
     }
 
     /**
@@ -350,39 +231,19 @@ public class UsuarioController {
      * @return `true` si el usuario existe, `false` en caso contrario.
      */
     public boolean validarExistenciaUsuario(final String nombreUsuario) {
-        final String sql = "SELECT COUNT(*) AS total FROM usuarios WHERE nombre = ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, nombreUsuario);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next() && rs.getInt("total") > 0;
-            }
-
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al validar existencia del usuario", e);
-            JOptionPane.showMessageDialog(null, "Error al validar existencia de usuario: "
-                    + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
-        }
-        return false;
+        return validado(servicio.existeNombre(nombreUsuario), "Error al validar existencia de usuario");
     }
 
     public boolean validarExistenciaPorCorreo(final String email) {
-        final String sql = "SELECT COUNT(*) AS total FROM usuarios WHERE email = ?";
+        return validado(servicio.existeCorreo(email), "Error al validar existencia de correo");
+    }
 
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next() && rs.getInt("total") > 0;
-            }
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al validar existencia del correo", e);
-            JOptionPane.showMessageDialog(null, "Error al validar existencia de correo: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
+    // Si la consulta falla se avisa y se toma como no válido
+    private static boolean validado(Resultado<Boolean> resultado, String accion) {
+        if (!resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir(accion));
+            return false;
         }
-        return false;
+        return resultado.getValor();
     }
 }
@@ -10,35 +10,38 @@ package com.mycompany.zl_solucion_integral.controllers;
  *
  * @author Dazac
  */
+import com.mycompany.zl_solucion_integral.config.ColaEscritura;
 import com.mycompany.zl_solucion_integral.config.ConexionDB;
+import com.mycompany.zl_solucion_integral.config.ExportadorExcel;
+import com.mycompany.zl_solucion_integral.config.ModeloTablaColumnar.TipoColumna;
+import com.mycompany.zl_solucion_integral.config.ModeloTablaPaginado;
+import com.mycompany.zl_solucion_integral.config.ReporteProgreso;
+import com.mycompany.zl_solucion_integral.config.VentasDiarias;
 import com.mycompany.zl_solucion_integral.models.Producto;
 import com.mycompany.zl_solucion_integral.models.Sesion;
 import com.mycompany.zl_solucion_integral.models.Usuario;
 import com.mycompany.zl_solucion_integral.models.Venta;
+import com.mycompany.zl_solucion_integral.servicios.Resultado;
+import com.mycompany.zl_solucion_integral.servicios.ServicioInformes;
+import com.mycompany.zl_solucion_integral.servicios.ServicioVentas;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 
-import java.util.logging.Level;
 import javax.swing.JTable;
 import java.util.logging.Logger;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
-import org.apache.poi.ss.usermodel.*;
 
 import java.util.List;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import java.io.FileOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.io.IOException;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.text.ParseException;
-import javax.swing.table.TableModel;
+import java.nio.file.Paths;
 
 /* Clase encargada de manejar las operaciones 
 relacionadas con las ventas en la base de datos*/
@@ -48,6 +51,18 @@ public class VentasController {
     private ConexionDB conexion; // Variable global para la conexión
     private Logger logger = Logger.getLogger(VentasController.class.getName());
     private Sesion sesion;
+    private final ServicioVentas servicio = new ServicioVentas();
+
+    // Formato de las fechas de la tabla; a diferencia de SimpleDateFormat, se puede compartir entre hilos
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Formato de las fechas que escribe el usuario; no acepta fechas como "31/02/2025"
+    private static final DateTimeFormatter FORMATO_ENTRADA = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    // Rango de días (epoch day, columna `fecha_dia`) de la última consulta mostrada; null si se mostraron todas
+    private Long filtroDesde;
+    private Long filtroHasta;
 
     // Constructor
     public VentasController(Usuario cliente, Sesion sesion) {
@@ -61,217 +76,57 @@ public class VentasController {
         this.conexion = new ConexionDB(); // Instancia de la clase de conexión
     }
 
-    public void guardarVenta(final Venta venta, List<Producto> productosVendidos, JTable tablaVentas) {
-        String sqlInsertVenta = "INSERT INTO ventas (cliente, cc_cliente, vendedor, fecha, total, metodo_pago, pago_confirmado) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        String sqlInsertDetalleVenta = "INSERT INTO detalles_venta (venta_id, producto, cantidad, codigo, precio, total) VALUES (?, ?, ?, ?, ?, ?)";
-        String sqlUpdateStock = "UPDATE productos SET cantidad = cantidad - ? WHERE codigo = ? AND cantidad >= ?";
-
-        Connection conn = null;
-        PreparedStatement psVenta = null;
-        PreparedStatement psDetalle = null;
-        PreparedStatement psStock = null;
-        ResultSet generatedKeys = null;
-
-        try {
-            // Establecer conexión y preparar transacción
-            conn = conexion.establecerConexion();
-            conn.setAutoCommit(false);
-
-            // Verificar stock de productos antes de comenzar
-            for (Producto producto : productosVendidos) {
-                if (producto.getCantidad() < producto.getCantidadSolicitada()) {
-                    throw new SQLException("Stock insuficiente para el producto: " + producto.getProducto()
-                            + ". Disponible: " + producto.getCantidad()
-                            + ", solicitado: " + producto.getCantidadSolicitada());
-                }
-            }
-
-            // Determinar el valor de la columna "pago_confirmado"
-            String pagoConfirmado = venta.getMetodoPago().equalsIgnoreCase("crédito") ? "deudor" : "";
-
-            // Insertar venta general
-            psVenta = conn.prepareStatement(sqlInsertVenta, Statement.RETURN_GENERATED_KEYS);
-            psVenta.setString(1, venta.getCliente().getNombre());
-            psVenta.setString(2, venta.getCliente().getNoCc());
-            psVenta.setString(3, venta.getVendedor());
-            psVenta.setDate(4, java.sql.Date.valueOf(venta.getFecha()));
-            psVenta.setDouble(5, venta.getTotal());
-            psVenta.setString(6, venta.getMetodoPago());
-            psVenta.setString(7, pagoConfirmado);
-
-            psVenta.executeUpdate();
-            generatedKeys = psVenta.getGeneratedKeys();
-            if (!generatedKeys.next()) {
-                throw new SQLException("No se pudo obtener el ID de la venta.");
-            }
-            int ventaId = generatedKeys.getInt(1);
-
-            // Insertar detalles de venta y actualizar stock
-            psDetalle = conn.prepareStatement(sqlInsertDetalleVenta);
-            psStock = conn.prepareStatement(sqlUpdateStock);
-
-            for (Producto producto : productosVendidos) {
-                // Insertar en detalles_venta
-                psDetalle.setInt(1, ventaId);
-                psDetalle.setString(2, producto.getProducto());
-                psDetalle.setInt(3, producto.getCantidadSolicitada());
-                psDetalle.setString(4, producto.getCodigo());
-                psDetalle.setDouble(5, producto.getPrecio());
-                psDetalle.setDouble(6, producto.getPrecio() * producto.getCantidadSolicitada());
-                psDetalle.executeUpdate();
-
-                // Actualizar stock del producto
-                psStock.setInt(1, producto.getCantidadSolicitada());
-                psStock.setString(2, producto.getCodigo());
-                psStock.setInt(3, producto.getCantidad());
-                if (psStock.executeUpdate() == 0) {
-                    throw new SQLException("Error al actualizar stock para el producto: " + producto.getProducto());
-                }
-            }
-
-            // Confirmar transacción
-            conn.commit();
-            JOptionPane.showMessageDialog(null, "Venta guardada y stock actualizado exitosamente.");
-            MostrarVentas(tablaVentas);
-
-        } catch (SQLException e) {
-            // Revertir transacción en caso de error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException rollbackEx) {
-                    logger.log(Level.SEVERE, "Error al revertir la transacción", rollbackEx);
-                }
-            }
-            logger.log(Level.SEVERE, "Error al procesar la venta", e);
-            JOptionPane.showMessageDialog(null, "Error al procesar venta: " + e.getMessage());
-        } finally {
-            // Cerrar recursos
-            try {
-                if (generatedKeys != null) {
-                    generatedKeys.close();
-                }
-                if (psVenta != null) {
-                    psVenta.close();
-                }
-                if (psDetalle != null) {
-                    psDetalle.close();
-                }
-                if (psStock != null) {
-                    psStock.close();
-                }
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conexion.cerrarConexion();
-                }
-            } catch (SQLException ex) {
-                logger.log(Level.SEVERE, "Error al cerrar conexiones", ex);
-            }
+    /**
+     * Registra una venta con {@link ServicioVentas} y muestra el resultado.
+     *
+     * @param venta Venta a registrar.
+     * @param productosVendidos Productos con la cantidad solicitada.
+     * @param tablaVentas Tabla de ventas a actualizar si la venta se guarda.
+     * @return `true` si la venta quedó guardada.
+     */
+    public boolean guardarVenta(final Venta venta, List<Producto> productosVendidos, JTable tablaVentas) {
+        // Espera a que el grupo que contiene la venta quede confirmado
+        Resultado<Integer> resultado = servicio.registrar(venta, productosVendidos);
+        if (!resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al procesar venta"));
+            return false;
         }
+        JOptionPane.showMessageDialog(null, "Venta guardada y stock actualizado exitosamente.");
+        MostrarVentas(tablaVentas);
+        return true;
     }
 
-    // Metodo para modificar una venta
-    public void modificarVenta(final Venta venta, int idVenta, JTable tablaVentas) {
-        String sqlUpdateVenta = "UPDATE ventas SET producto = ?, cantidad = ?, codigo = ?, precio = ?, cliente = ?, cc_cliente = ?, vendedor = ?, fecha = ?, total = ? WHERE id = ?";
-        String sqlUpdateStockRestaurar = "UPDATE productos SET cantidad = cantidad + ? WHERE codigo = ?";  // Para restaurar el stock antiguo
-        String sqlUpdateStockNuevo = "UPDATE productos SET cantidad = cantidad - ? WHERE codigo = ? AND cantidad >= ?";  // Para aplicar el nuevo stock
-
-        Connection conn = null;
-        PreparedStatement psVenta = null;
-        PreparedStatement psStockRestaurar = null;
-        PreparedStatement psStockNuevo = null;
-
-        try {
-            conn = conexion.establecerConexion();
-            conn.setAutoCommit(false);  // Iniciar una transacción
-
-            // Restaurar el stock del producto basado en la venta anterior
-            psStockRestaurar = conn.prepareStatement(sqlUpdateStockRestaurar);
-            psStockRestaurar.setInt(1, obtenerCantidadAnterior(idVenta));  // Cantidad anterior a restaurar
-            psStockRestaurar.setString(2, venta.getCodigo());  // Código del producto
-            psStockRestaurar.executeUpdate();
-
-            // Actualizar el stock del producto con la nueva cantidad
-            psStockNuevo = conn.prepareStatement(sqlUpdateStockNuevo);
-            psStockNuevo.setInt(1, venta.getCantidad());  // Cantidad a restar
-            psStockNuevo.setString(2, venta.getCodigo());  // Código del producto
-            psStockNuevo.setInt(3, venta.getCantidad());  // Verifica que el stock actual sea suficiente
-
-            int rowsAffected = psStockNuevo.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new SQLException("No hay suficiente stock disponible para la nueva cantidad.");
-            }
-
-            // Actualizar los datos de la venta
-            psVenta = conn.prepareStatement(sqlUpdateVenta);
-            psVenta.setString(1, venta.getProducto().getProducto());  // Producto
-            psVenta.setInt(2, venta.getCantidad());  // Nueva cantidad
-            psVenta.setString(3, venta.getCodigo());  // Código del producto
-            psVenta.setDouble(4, venta.getProducto().getPrecio());  // Precio
-            psVenta.setString(5, cliente.getNombre());  // Cliente
-            psVenta.setString(6, cliente.getNoCc());  // CC Cliente
-            psVenta.setString(7, sesion.getUsuarioLogueado());  // Vendedor
-            psVenta.setDate(8, java.sql.Date.valueOf(venta.getFecha()));  // Fecha
-            psVenta.setDouble(9, venta.getTotal());  // Total
-            psVenta.setInt(10, idVenta);  // ID de la venta a modificar
-
-            psVenta.executeUpdate();
-
-            // Confirmar la transacción
-            conn.commit();
-            JOptionPane.showMessageDialog(null, "Venta modificada y stock actualizado exitosamente.");
-
-            // Actualizar la tabla de ventas
-            MostrarVentas(tablaVentas);
-        } catch (SQLException e) {
-            // Revertir la transacción en caso de error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException rollbackEx) {
-                    logger.log(Level.SEVERE, "Error al revertir la transacción", rollbackEx);
-                }
-            }
-            logger.log(Level.SEVERE, "Error al modificar la venta", e);
-            JOptionPane.showMessageDialog(null, "Error al modificar venta: " + e.getMessage());
-        } finally {
-            // Cerrar las conexiones
-            try {
-                if (psVenta != null) {
-                    psVenta.close();
-                }
-                if (psStockRestaurar != null) {
-                    psStockRestaurar.close();
-                }
-                if (psStockNuevo != null) {
-                    psStockNuevo.close();
-                }
-                if (conn != null) {
-                    conn.setAutoCommit(true);  // Restaurar el auto-commit
-                }
-                conexion.cerrarConexion();
-            } catch (SQLException ex) {
-                logger.log(Level.SEVERE, "Error al cerrar conexiones", ex);
-            }
+    /**
+     * Modifica la cantidad de un producto de una venta y la fecha de la venta
+     * con {@link ServicioVentas}, y muestra el resultado.
+     *
+     * @param idVenta Id de la venta.
+     * @param codigo Código del producto dentro de la venta.
+     * @param cantidad Nueva cantidad.
+     * @param fecha Nueva fecha de la venta.
+     * @param tablaVentas Tabla de ventas a actualizar si el cambio se guarda.
+     * @return `true` si el cambio quedó guardado.
+     */
+    public boolean modificarVenta(int idVenta, String codigo, int cantidad, LocalDate fecha, JTable tablaVentas) {
+        Resultado<Void> resultado = servicio.modificarDetalle(idVenta, codigo, cantidad, fecha);
+        if (!resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir("Error al modificar venta"));
+            return false;
         }
+        JOptionPane.showMessageDialog(null, "Venta modificada y stock actualizado exitosamente.");
+        MostrarVentas(tablaVentas);
+        return true;
     }
 
-// Método para obtener la cantidad anterior de una venta
-    private int obtenerCantidadAnterior(int idVenta) {
-        String sql = "SELECT cantidad FROM ventas WHERE id = ?";
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setInt(1, idVenta);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("cantidad");
-            } else {
-                throw new SQLException("No se encontró la venta con ID: " + idVenta);
-            }
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error al obtener la cantidad anterior de la venta", e);
-            return 0;
-        }
+    /**
+     * Vuelve a calcular el resumen diario de ventas a partir de todas las
+     * ventas, en la cola de escritura.
+     *
+     * @return Futuro con el número de filas del resumen.
+     */
+    public static CompletableFuture<Integer> reconstruirResumenDiario() {
+        return ColaEscritura.getInstancia().enviar("reconstruir resumen diario", VentasDiarias::reconstruir)
+                .whenComplete((filas, error) -> ServicioInformes.invalidarCache());
     }
 
     // Metodo para obtener el id de la venta selecionada 
@@ -281,63 +136,25 @@ public class VentasController {
 
         // Verificar si hay una fila seleccionada
         if (filaSeleccionada != -1) {
-            // Obtener el valor de la primera columna (ID del producto) y convertirlo a entero
-            return Integer.parseInt(tabla.getValueAt(filaSeleccionada, 0).toString());
+            // Obtener el valor de la primera columna (ID de la venta); es null
+            // si la página de la fila todavía no se ha leído
+            Object id = tabla.getValueAt(filaSeleccionada, 0);
+            return id != null ? Integer.parseInt(id.toString()) : -1;
         } else {
             // No se ha seleccionado ninguna fila, devolver -1
             return -1;
         }
     }
 
-    public void guardarNumeroCotizacionEnBaseDeDatos(String numeroCotizacion) {
-        String sqlActualizar = "UPDATE configuracion SET ultimoNumeroCotizacion = ? WHERE id = 1";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pstmt = conn.prepareStatement(sqlActualizar)) {
-            pstmt.setString(1, numeroCotizacion);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error al guardar el número de cotización en la base de datos", e);
-        }
-    }
-
+    /**
+     * Reserva el siguiente número de cotización del día y espera a que quede
+     * confirmado.
+     *
+     * @return Número con el formato `yyyyMMdd-NNN`, o `null` si no se pudo
+     * reservar.
+     */
     public String obtenerYActualizarNumeroCotizacion() {
-        SimpleDateFormat formatoFecha = new SimpleDateFormat("yyyyMMdd");
-        String fecha = formatoFecha.format(new Date());
-        int siguienteNumero = 1; // Valor predeterminado si no hay registros previos
-
-        // Consultas SQL
-        String sqlConsulta = "SELECT ultimoNumeroCotizacion FROM configuracion WHERE id = 1";
-        String sqlActualizar = "UPDATE configuracion SET ultimoNumeroCotizacion = ? WHERE id = 1";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement psConsulta = conn.prepareStatement(sqlConsulta); PreparedStatement psActualizar = conn.prepareStatement(sqlActualizar)) {
-
-            // Consultar el último número de cotización
-            ResultSet rs = psConsulta.executeQuery();
-            if (rs.next()) {
-                String ultimoNumero = rs.getString("ultimoNumeroCotizacion");
-                if (ultimoNumero != null && ultimoNumero.startsWith(fecha)) {
-                    // Extraer el número actual después del guión y sumarle 1
-                    siguienteNumero = Integer.parseInt(ultimoNumero.split("-")[1]) + 1;
-                } else {
-                    // Si la fecha cambió, reinicia el conteo para la nueva fecha
-                    siguienteNumero = 1;
-                }
-            }
-
-            // Generar el nuevo número de cotización
-            String nuevoNumero = fecha + "-" + String.format("%03d", siguienteNumero);
-
-            // Actualizar en la base de datos
-            psActualizar.setString(1, nuevoNumero);
-            psActualizar.executeUpdate();
-
-            // Devolver el nuevo número generado
-            return nuevoNumero;
-
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error al obtener y actualizar el número de cotización", e);
-            return null; // Manejo en caso de error
-        }
+        return servicio.siguienteNumeroCotizacion().getValor();
     }
 
     /**
@@ -351,80 +168,21 @@ public class VentasController {
      * @param tablaVentas La tabla (`JTable`) donde se mostrarán los productos.
      */
     public void MostrarVentas(JTable tablaVentas) {
-        // Crear un nuevo modelo de tabla
-        final DefaultTableModel modelo = new DefaultTableModel();
-
-        // Definir las columnas del modelo
-        modelo.addColumn("Id");
-        modelo.addColumn("Producto");
-        modelo.addColumn("Cantidad");
-        modelo.addColumn("Código");
-        modelo.addColumn("Precio");
-        modelo.addColumn("Cliente");
-        modelo.addColumn("CC Cliente");
-        modelo.addColumn("Metodo pago");
-        modelo.addColumn("Pago confirmado");
-        modelo.addColumn("Vendedor");
-        modelo.addColumn("Fecha");
-        modelo.addColumn("Precio Total");
-        // Establecer el modelo de tabla vacío antes de cargar los datos
-        tablaVentas.setModel(modelo);
-
-        // Consulta SQL para obtener todas las ventas y sus detalles
-        final String sql = "SELECT v.id, d.producto, d.cantidad, d.codigo, d.precio, v.cliente, v.cc_cliente, v.vendedor, v.metodo_pago, v.fecha, v.pago_confirmado "
-                + "FROM ventas v "
-                + "JOIN detalles_venta d ON v.id = d.venta_id";
-
-        try (Connection conn = conexion.establecerConexion(); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
-
-            while (rs.next()) {
-                double precio = rs.getDouble("precio");
-                int cantidad = rs.getInt("cantidad");
-                double precioTotal = precio * cantidad;
-
-                Date fecha = rs.getDate("fecha");
-                String fechaFormateada = formatearFecha(fecha);
-
-                modelo.addRow(new Object[]{
-                    rs.getInt("id"),
-                    rs.getString("producto"),
-                    cantidad,
-                    rs.getString("codigo"),
-                    precio,
-                    rs.getString("cliente"),
-                    rs.getString("cc_cliente"),
-                    rs.getString("metodo_pago"),
-                    rs.getString("pago_confirmado"),
-                    rs.getString("vendedor"),
-                    fechaFormateada,
-                    precioTotal
-                });
-            }
+        MostrarVentas(tablaVentas, null);
+    }
 
-            tablaVentas.setModel(modelo);
-
-            // Ajustar el tamaño de las columnas
-            tablaVentas.getColumnModel().getColumn(0).setPreferredWidth(50);  // Id
-            tablaVentas.getColumnModel().getColumn(1).setPreferredWidth(250); // Producto
-            tablaVentas.getColumnModel().getColumn(2).setPreferredWidth(80);  // Cantidad
-            tablaVentas.getColumnModel().getColumn(3).setPreferredWidth(100); // Código
-            tablaVentas.getColumnModel().getColumn(4).setPreferredWidth(75);  // Precio
-            tablaVentas.getColumnModel().getColumn(5).setPreferredWidth(150); // Cliente
-            tablaVentas.getColumnModel().getColumn(6).setPreferredWidth(100); // CC Cliente
-            tablaVentas.getColumnModel().getColumn(7).setPreferredWidth(100); // metodo pago
-            tablaVentas.getColumnModel().getColumn(8).setPreferredWidth(100); // pago confirmado
-            tablaVentas.getColumnModel().getColumn(9).setPreferredWidth(100); // Vendedor
-            tablaVentas.getColumnModel().getColumn(10).setPreferredWidth(100); // Fecha
-            tablaVentas.getColumnModel().getColumn(11).setPreferredWidth(100); // Precio Total
-
-            // Opcional: ajustar automáticamente las alturas de las filas si el contenido lo requiere
-            //tablaVentas.setRowHeight(25);
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al mostrar ventas", e);
-            JOptionPane.showMessageDialog(null, "Error al mostrar ventas: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
-        }
+    /**
+     * Muestra todas las ventas cargándolas en segundo plano.
+     *
+     * @param tablaVentas La tabla (`JTable`) donde se mostrarán las ventas.
+     * @param alTerminar Acción a ejecutar en el hilo de eventos cuando la tabla
+     * tenga todas las filas, con los totales del filtro (`null` si su
+     * consulta falla), o `null`.
+     */
+    public void MostrarVentas(JTable tablaVentas, Consumer<VentasDiarias.Totales> alTerminar) {
+        filtroDesde = null;
+        filtroHasta = null;
+        cargarVentas(tablaVentas, null, 0, 0, "Error al mostrar ventas", alTerminar);
     }
 
     /**
@@ -440,6 +198,20 @@ public class VentasController {
      * @param fechaFin Fecha de fin del filtro en formato "dd/MM/yyyy".
      */
     public void mostrarFechasDefinidas(JTable tablaVentas, String fechaInicio, String fechaFin) {
+        mostrarFechasDefinidas(tablaVentas, fechaInicio, fechaFin, null);
+    }
+
+    /**
+     * Muestra las ventas de un rango de fechas cargándolas en segundo plano.
+     *
+     * @param tablaVentas La tabla (`JTable`) donde se mostrarán las ventas.
+     * @param fechaInicio Fecha de inicio del filtro en formato "dd/MM/yyyy".
+     * @param fechaFin Fecha de fin del filtro en formato "dd/MM/yyyy".
+     * @param alTerminar Acción a ejecutar en el hilo de eventos cuando la tabla
+     * tenga todas las filas, con los totales del filtro (`null` si su
+     * consulta falla), o `null`.
+     */
+    public void mostrarFechasDefinidas(JTable tablaVentas, String fechaInicio, String fechaFin, Consumer<VentasDiarias.Totales> alTerminar) {
         // Validar que las fechas tengan el formato correcto
         if (!esFormatoFechaValido(fechaInicio)) {
             JOptionPane.showMessageDialog(null, "La fecha de inicio ingresada no tiene un formato válido (dd/MM/yyyy).");
@@ -450,99 +222,14 @@ public class VentasController {
             return;
         }
 
-        // Convertir las fechas a timestamp
-        long timestampInicio = 0;
-        long timestampFin = 0;
-        try {
-            SimpleDateFormat formatoFecha = new SimpleDateFormat("dd/MM/yyyy");
-            formatoFecha.setLenient(false); // Para validar fechas estrictamente
-            Date inicio = formatoFecha.parse(fechaInicio);
-            Date fin = formatoFecha.parse(fechaFin);
-
-            timestampInicio = inicio.getTime();
-            timestampFin = fin.getTime();
-        } catch (ParseException e) {
-            JOptionPane.showMessageDialog(null, "Error al convertir las fechas: " + e.getMessage());
-            return;
-        }
-
-        // Crear un nuevo modelo de tabla
-        final DefaultTableModel modelo = new DefaultTableModel();
-
-        // Definir las columnas del modelo
-        modelo.addColumn("Id");
-        modelo.addColumn("Producto");
-        modelo.addColumn("Cantidad");
-        modelo.addColumn("Código");
-        modelo.addColumn("Precio");
-        modelo.addColumn("Cliente");
-        modelo.addColumn("CC Cliente");
-        modelo.addColumn("Metodo pago");
-        modelo.addColumn("Pago confirmado");
-        modelo.addColumn("Vendedor");
-        modelo.addColumn("Fecha");
-        modelo.addColumn("Precio Total");
-        tablaVentas.setModel(modelo);
-
-        // Consulta SQL con filtro por rango de fechas (timestamps)
-        final String sql = "SELECT v.id, d.producto, d.cantidad, d.codigo, d.precio, v.cliente, v.cc_cliente, v.vendedor, v.metodo_pago, v.fecha, v.pago_confirmado "
-                + "FROM ventas v "
-                + "JOIN detalles_venta d ON v.id = d.venta_id "
-                + "WHERE v.fecha BETWEEN ? AND ?";
-
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pst = conn.prepareStatement(sql)) {
-            // Establecer los valores del rango de fechas (timestamps) en la consulta
-            pst.setLong(1, timestampInicio);
-            pst.setLong(2, timestampFin);
+        // Convertir las fechas a días
+        long diaInicio = leerFecha(fechaInicio).toEpochDay();
+        long diaFin = leerFecha(fechaFin).toEpochDay();
 
-            try (ResultSet rs = pst.executeQuery()) {
-                while (rs.next()) {
-                    double precio = rs.getDouble("precio");
-                    int cantidad = rs.getInt("cantidad");
-                    double precioTotal = precio * cantidad;
-
-                    // Convertir el timestamp de la base de datos a una fecha legible
-                    long fechaTimestamp = rs.getLong("fecha");
-                    String fechaLegible = new SimpleDateFormat("dd/MM/yyyy").format(new Date(fechaTimestamp));
-
-                    modelo.addRow(new Object[]{
-                        rs.getInt("id"),
-                        rs.getString("producto"),
-                        cantidad,
-                        rs.getString("codigo"),
-                        precio,
-                        rs.getString("cliente"),
-                        rs.getString("cc_cliente"),
-                        rs.getString("metodo_pago"),
-                        rs.getString("pago_confirmado"),
-                        rs.getString("vendedor"),
-                        fechaLegible,
-                        precioTotal
-                    });
-                }
-            }
-
-            tablaVentas.setModel(modelo);
-
-            // Ajustar tamaños de columnas
-            tablaVentas.getColumnModel().getColumn(0).setPreferredWidth(50);  // Id
-            tablaVentas.getColumnModel().getColumn(1).setPreferredWidth(250); // Producto
-            tablaVentas.getColumnModel().getColumn(2).setPreferredWidth(50);  // Cantidad
-            tablaVentas.getColumnModel().getColumn(3).setPreferredWidth(100); // Código
-            tablaVentas.getColumnModel().getColumn(4).setPreferredWidth(75);  // Precio
-            tablaVentas.getColumnModel().getColumn(5).setPreferredWidth(150); // Cliente
-            tablaVentas.getColumnModel().getColumn(6).setPreferredWidth(100); // CC Cliente
-            tablaVentas.getColumnModel().getColumn(7).setPreferredWidth(100); // Vendedor
-            tablaVentas.getColumnModel().getColumn(8).setPreferredWidth(100); // metodo pago
-            tablaVentas.getColumnModel().getColumn(9).setPreferredWidth(100); // pago confirmado            
-            tablaVentas.getColumnModel().getColumn(10).setPreferredWidth(100); // Fecha
-            tablaVentas.getColumnModel().getColumn(11).setPreferredWidth(100); // Precio Total
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al mostrar ventas", e);
-            JOptionPane.showMessageDialog(null, "Error al mostrar ventas: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
-        }
+        filtroDesde = diaInicio;
+        filtroHasta = diaFin;
+        cargarVentas(tablaVentas, "v.fecha_dia BETWEEN ? AND ?", diaInicio, diaFin,
+                "Error al mostrar ventas", alTerminar);
     }
 
     /**
@@ -555,66 +242,60 @@ public class VentasController {
      * "dd/MM/yyyy").
      */
     public void mostrarVentasPorDia(JTable tablaVentas, String fecha) {
+        mostrarVentasPorDia(tablaVentas, fecha, null);
+    }
+
+    /**
+     * Muestra las ventas de un día cargándolas en segundo plano.
+     *
+     * @param tablaVentas La tabla (`JTable`) donde se mostrarán las ventas.
+     * @param fecha La fecha a mostrar (formato: "dd/MM/yyyy").
+     * @param alTerminar Acción a ejecutar en el hilo de eventos cuando la tabla
+     * tenga todas las filas, con los totales del filtro (`null` si su
+     * consulta falla), o `null`.
+     */
+    public void mostrarVentasPorDia(JTable tablaVentas, String fecha, Consumer<VentasDiarias.Totales> alTerminar) {
         // Validar que la fecha tenga el formato correcto
         if (!esFormatoFechaValido(fecha)) {
             JOptionPane.showMessageDialog(null, "La fecha ingresada no tiene un formato válido (dd/MM/yyyy).");
             return;
         }
 
-        // Convertir la fecha a un rango de timestamp
-        long inicioDia = 0;
-        long finDia = 0;
-        try {
-            SimpleDateFormat formatoFecha = new SimpleDateFormat("dd/MM/yyyy");
-            formatoFecha.setLenient(false); // Validación estricta
-            Date fechaInicio = formatoFecha.parse(fecha);
-
-            // Obtener el inicio y el fin del día
-            inicioDia = fechaInicio.getTime(); // 00:00:00
-            finDia = inicioDia + (24 * 60 * 60 * 1000) - 1; // 23:59:59
-        } catch (ParseException e) {
-            JOptionPane.showMessageDialog(null, "Error al convertir la fecha: " + e.getMessage());
-            return;
-        }
-
-        // Crear un modelo de tabla vacío
-        final DefaultTableModel modelo = new DefaultTableModel();
-        modelo.addColumn("Id");
-        modelo.addColumn("Producto");
-        modelo.addColumn("Cantidad");
-        modelo.addColumn("Código");
-        modelo.addColumn("Precio");
-        modelo.addColumn("Cliente");
-        modelo.addColumn("CC Cliente");
-        modelo.addColumn("Metodo pago");
-        modelo.addColumn("Pago confirmado");
-        modelo.addColumn("Vendedor");
-        modelo.addColumn("Fecha");
-        modelo.addColumn("Precio Total");
-        tablaVentas.setModel(modelo);
-
-        // Consulta SQL con filtro por rango de fechas (timestamps)
-        final String sql = "SELECT v.id, d.producto, d.cantidad, d.codigo, d.precio, v.cliente, v.cc_cliente, v.vendedor, v.metodo_pago, v.fecha, v.pago_confirmado  "
-                + "FROM ventas v "
-                + "JOIN detalles_venta d ON v.id = d.venta_id "
-                + "WHERE v.fecha BETWEEN ? AND ?";
+        // Un día es el rango [dia, dia] en la columna indexada `fecha_dia`
+        long dia = leerFecha(fecha).toEpochDay();
 
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement pst = conn.prepareStatement(sql)) {
-            // Establecer los valores del rango de fechas (timestamps) en la consulta
-            pst.setLong(1, inicioDia);
-            pst.setLong(2, finDia);
+        filtroDesde = dia;
+        filtroHasta = dia;
+        cargarVentas(tablaVentas, "v.fecha_dia BETWEEN ? AND ?", dia, dia,
+                "Error al mostrar ventas por día", alTerminar);
+    }
 
-            try (ResultSet rs = pst.executeQuery()) {
-                while (rs.next()) {
+    // Muestra las ventas con sus detalles en un modelo que lee las filas por páginas
+    private void cargarVentas(JTable tablaVentas, String filtro, long desde, long hasta,
+            String mensajeError, Consumer<VentasDiarias.Totales> alTerminar) {
+        // Columnas de la tabla
+        String[] columnas = {"Id", "Producto", "Cantidad", "Código", "Precio", "Cliente", "CC Cliente",
+            "Metodo pago", "Pago confirmado", "Vendedor", "Fecha", "Precio Total"};
+
+        // Cómo se guarda cada columna: casi todos los textos se repiten entre filas
+        TipoColumna[] tipos = {TipoColumna.ENTERO, TipoColumna.TEXTO_REPETIDO, TipoColumna.ENTERO,
+            TipoColumna.TEXTO_REPETIDO, TipoColumna.DECIMAL, TipoColumna.TEXTO_REPETIDO, TipoColumna.TEXTO_REPETIDO,
+            TipoColumna.TEXTO_REPETIDO, TipoColumna.TEXTO_REPETIDO, TipoColumna.TEXTO_REPETIDO,
+            TipoColumna.TEXTO_REPETIDO, TipoColumna.DECIMAL};
+
+        ModeloTablaPaginado modelo = new ModeloTablaPaginado(columnas, tipos,
+                "v.id, d.producto, d.cantidad, d.codigo, d.precio, v.cliente, v.cc_cliente, v.vendedor, v.metodo_pago, v.fecha_dia, v.pago_confirmado",
+                "ventas v JOIN detalles_venta d ON v.id = d.venta_id",
+                "d.venta_id", "d.id",
+                rs -> {
                     double precio = rs.getDouble("precio");
                     int cantidad = rs.getInt("cantidad");
                     double precioTotal = precio * cantidad;
 
-                    // Convertir el timestamp de la base de datos a una fecha legible
-                    long fechaTimestamp = rs.getLong("fecha");
-                    String fechaLegible = new SimpleDateFormat("dd/MM/yyyy").format(new Date(fechaTimestamp));
+                    // Convertir el día guardado a una fecha legible
+                    String fechaLegible = FORMATO_FECHA.format(LocalDate.ofEpochDay(rs.getLong("fecha_dia")));
 
-                    modelo.addRow(new Object[]{
+                    return new Object[]{
                         rs.getInt("id"),
                         rs.getString("producto"),
                         cantidad,
@@ -627,38 +308,33 @@ public class VentasController {
                         rs.getString("vendedor"),
                         fechaLegible,
                         precioTotal
-                    });
-                }
-            }
-
-            tablaVentas.setModel(modelo);
-
-            // Ajustar tamaños de columnas
-            tablaVentas.getColumnModel().getColumn(0).setPreferredWidth(50);  // Id
-            tablaVentas.getColumnModel().getColumn(1).setPreferredWidth(250); // Producto
-            tablaVentas.getColumnModel().getColumn(2).setPreferredWidth(50);  // Cantidad
-            tablaVentas.getColumnModel().getColumn(3).setPreferredWidth(100); // Código
-            tablaVentas.getColumnModel().getColumn(4).setPreferredWidth(75);  // Precio
-            tablaVentas.getColumnModel().getColumn(5).setPreferredWidth(150); // Cliente
-            tablaVentas.getColumnModel().getColumn(6).setPreferredWidth(100); // CC Cliente
-            tablaVentas.getColumnModel().getColumn(7).setPreferredWidth(100); // Vendedor
-            tablaVentas.getColumnModel().getColumn(8).setPreferredWidth(100); // metodo pago
-            tablaVentas.getColumnModel().getColumn(9).setPreferredWidth(100); // pago confirmado
-            tablaVentas.getColumnModel().getColumn(10).setPreferredWidth(100); // Fecha
-            tablaVentas.getColumnModel().getColumn(11).setPreferredWidth(100); // Precio Total
-
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error al mostrar ventas por día", e);
-            JOptionPane.showMessageDialog(null, "Error al mostrar ventas por día: " + e.getMessage());
-        } finally {
-            conexion.cerrarConexion();
+                    };
+                });
+        if (filtro != null) {
+            // Establecer los valores del rango de días en la consulta
+            modelo.filtrar(filtro, desde, hasta);
         }
-    }
-
-    // Método para formatear la fecha
-    private String formatearFecha(Date fecha) {
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");  // Formato de fecha deseado
-        return sdf.format(fecha);  // Retorna la fecha en formato legible
+        // Número de ventas y total del filtro, sumados del resumen diario en el
+        // mismo hilo de fondo en lugar de recorrer los detalles
+        Long totalesDesde = filtroDesde;
+        Long totalesHasta = filtroHasta;
+        modelo.cargar(tablaVentas, mensajeError,
+                alTerminar != null ? () -> servicio.totales(totalesDesde, totalesHasta).getValor() : null,
+                alTerminar);
+
+        // Ajustar el tamaño de las columnas
+        tablaVentas.getColumnModel().getColumn(0).setPreferredWidth(50);  // Id
+        tablaVentas.getColumnModel().getColumn(1).setPreferredWidth(250); // Producto
+        tablaVentas.getColumnModel().getColumn(2).setPreferredWidth(80);  // Cantidad
+        tablaVentas.getColumnModel().getColumn(3).setPreferredWidth(100); // Código
+        tablaVentas.getColumnModel().getColumn(4).setPreferredWidth(75);  // Precio
+        tablaVentas.getColumnModel().getColumn(5).setPreferredWidth(150); // Cliente
+        tablaVentas.getColumnModel().getColumn(6).setPreferredWidth(100); // CC Cliente
+        tablaVentas.getColumnModel().getColumn(7).setPreferredWidth(100); // metodo pago
+        tablaVentas.getColumnModel().getColumn(8).setPreferredWidth(100); // pago confirmado
+        tablaVentas.getColumnModel().getColumn(9).setPreferredWidth(100); // Vendedor
+        tablaVentas.getColumnModel().getColumn(10).setPreferredWidth(100); // Fecha
+        tablaVentas.getColumnModel().getColumn(11).setPreferredWidth(100); // Precio Total
     }
 
     /**
@@ -668,137 +344,112 @@ public class VentasController {
      * @return `true` si la fecha es válida, `false` en caso contrario.
      */
     public static boolean esFormatoFechaValido(String fecha) {
+        return leerFecha(fecha) != null;
+    }
+
+    // Convierte una fecha "dd/MM/yyyy" escrita por el usuario; null si no es válida
+    static LocalDate leerFecha(String fecha) {
         if (fecha == null || fecha.isEmpty()) {
-            return false; // Fecha vacía o nula no es válida
+            return null; // Fecha vacía o nula no es válida
         }
-
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-        sdf.setLenient(false); // No permitir fechas como "31/02/2025"
-
         try {
-            Date date = sdf.parse(fecha); // Intentar parsear la fecha
-            return true;
-        } catch (ParseException e) {
-            return false; // La fecha no es válida
+            return LocalDate.parse(fecha.trim(), FORMATO_ENTRADA);
+        } catch (DateTimeParseException e) {
+            return null; // La fecha no es válida
         }
     }
 
-    public void exportarDatosTablaAExcel(JTable tabla, String rutaExcel) throws IOException {
-        // Crear un libro de trabajo de Excel
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Datos Exportados");
-
-        // Obtener el modelo de la tabla
-        TableModel model = tabla.getModel();
-
-        // Escribir los encabezados de la tabla en la primera fila del archivo Excel
-        Row headerRow = sheet.createRow(0);
-        for (int col = 0; col < model.getColumnCount(); col++) {
-            Cell cell = headerRow.createCell(col);
-            cell.setCellValue(model.getColumnName(col));
-        }
-
-        // Escribir los datos visibles de la tabla en las filas siguientes
-        for (int row = 0; row < model.getRowCount(); row++) {
-            Row excelRow = sheet.createRow(row + 1);
-            for (int col = 0; col < model.getColumnCount(); col++) {
-                Cell cell = excelRow.createCell(col);
-                Object value = model.getValueAt(row, col);
-                cell.setCellValue(value != null ? value.toString() : "");
+    /**
+     * Exporta a Excel las ventas del filtro que se mostró por última vez
+     * (todas, un rango de fechas o un día), leyendo la consulta fila por fila
+     * sin armar el libro completo en memoria.
+     *
+     * Las columnas son las mismas de la tabla de ventas; el id, la cantidad,
+     * el precio y el precio total se escriben como números.
+     *
+     * @param rutaExcel Ruta del archivo a crear.
+     * @param progreso Recibe el avance y las filas por segundo.
+     * @throws SQLException Si falla la consulta.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public void exportarVentasAExcel(String rutaExcel, ReporteProgreso progreso) throws SQLException, IOException {
+        String filtro = filtroDesde != null ? " WHERE v.fecha_dia BETWEEN ? AND ?" : "";
+        String sqlConteo = "SELECT COUNT(*) FROM ventas v JOIN detalles_venta d ON v.id = d.venta_id" + filtro;
+        String sql = "SELECT v.id, d.producto, d.cantidad, d.codigo, d.precio, v.cliente, v.cc_cliente, v.vendedor, v.metodo_pago, v.fecha_dia, v.pago_confirmado "
+                + "FROM ventas v "
+                + "JOIN detalles_venta d ON v.id = d.venta_id" + filtro
+                + " ORDER BY v.id, d.id";
+        String[] encabezados = {"Id", "Producto", "Cantidad", "Código", "Precio", "Cliente", "CC Cliente",
+            "Metodo pago", "Pago confirmado", "Vendedor", "Fecha", "Precio Total"};
+        try (Connection conn = conexion.establecerConexionLectura();
+                PreparedStatement pstConteo = conn.prepareStatement(sqlConteo);
+                PreparedStatement pst = conn.prepareStatement(sql)) {
+            if (filtroDesde != null) {
+                pstConteo.setLong(1, filtroDesde);
+                pstConteo.setLong(2, filtroHasta);
+                pst.setLong(1, filtroDesde);
+                pst.setLong(2, filtroHasta);
+            }
+            long total;
+            try (ResultSet rs = pstConteo.executeQuery()) {
+                total = rs.next() ? rs.getLong(1) : 0;
+            }
+            try (ResultSet rs = pst.executeQuery()) {
+                ExportadorExcel.exportar(rs, "Datos Exportados", encabezados, (fila, valores) -> {
+                    double precio = fila.getDouble("precio");
+                    int cantidad = fila.getInt("cantidad");
+                    valores[0] = fila.getInt("id");
+                    valores[1] = fila.getString("producto");
+                    valores[2] = cantidad;
+                    valores[3] = fila.getString("codigo");
+                    valores[4] = precio;
+                    valores[5] = fila.getString("cliente");
+                    valores[6] = fila.getString("cc_cliente");
+                    valores[7] = fila.getString("metodo_pago");
+                    valores[8] = fila.getString("pago_confirmado");
+                    valores[9] = fila.getString("vendedor");
+                    valores[10] = FORMATO_FECHA.format(LocalDate.ofEpochDay(fila.getLong("fecha_dia")));
+                    valores[11] = precio * cantidad;
+                }, total, rutaExcel, progreso);
             }
         }
-
-        // Guardar el archivo Excel en la ruta especificada
-        try (FileOutputStream fileOut = new FileOutputStream(rutaExcel)) {
-            workbook.write(fileOut);
-        }
-
-        // Cerrar el libro de trabajo
-        workbook.close();
     }
 
     public boolean generarArchivoCotizacionConPlantilla(String rutaPlantilla, String rutaArchivo, String numeroCotizacion, List<Venta> ventasCotizadas) {
-        // Verificar si la plantilla es un archivo Excel válido
-        File archivoPlantilla = new File(rutaPlantilla);
-        if (!archivoPlantilla.exists() || !archivoPlantilla.getName().endsWith(".xlsx")) {
-            JOptionPane.showMessageDialog(null, "La plantilla seleccionada no es un archivo Excel válido.",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return false;  // Retorna false si el archivo no es válido
-        }
-
-        try (InputStream inputStream = new FileInputStream(archivoPlantilla); Workbook workbook = new XSSFWorkbook(inputStream)) {
-
-            // Procesar la hoja de Excel
-            Sheet sheet = workbook.getSheetAt(0); // Primera hoja
-
-            // Llenar la fecha (columna A a C)
-            String fecha = java.time.LocalDate.now().toString(); // Fecha actual
-            sheet.getRow(6).getCell(0).setCellValue("FECHA: " + fecha);
-
-            // Llenar el número de cotización (columnas D y E)            
-            sheet.getRow(6).getCell(3).setCellValue("COTIZACION N°: " + numeroCotizacion);
-
-            // Llenar el método de pago (columna F) usando la primera venta
-            if (!ventasCotizadas.isEmpty()) {
-                sheet.getRow(7).getCell(5).setCellValue(ventasCotizadas.get(0).getMetodoPago());  // Usar el método de pago de la primera venta
-            }
-
-            // Llenar los datos del cliente (filas 8 y 9)
-            sheet.getRow(7).getCell(0).setCellValue("CLIENTE: " + cliente.getNombre());
-            sheet.getRow(8).getCell(0).setCellValue("NIT: " + cliente.getNIT());
-            sheet.getRow(8).getCell(2).setCellValue("DIR: " + cliente.getDIR());
-            sheet.getRow(8).getCell(5).setCellValue("TELEFONO: " + cliente.getTelefono());
-
-            // Llenar los productos cotizados a partir de la fila 11
-            int rowNum = 11;
-            for (Venta venta : ventasCotizadas) {
-                Row row = sheet.createRow(rowNum++);
-
-                // Llenar la cantidad en la columna A
-                row.createCell(0).setCellValue(venta.getCantidad());
-
-                // Llenar el nombre del producto en las columnas B a D
-                row.createCell(1).setCellValue(venta.getProducto().getProducto());
-
-                // Llenar el valor unitario en la columna E
-                row.createCell(4).setCellValue(venta.getProducto().getPrecio());
+        return cotizacionGenerada(servicio.generarCotizacionExcel(Paths.get(rutaPlantilla), Paths.get(rutaArchivo),
+                cliente, numeroCotizacion, ventasCotizadas), "Archivo Excel", "Error al generar el archivo Excel");
+    }
 
-                // Calcular el valor total para esta venta
-                double totalProducto = venta.getCantidad() * venta.getProducto().getPrecio();
-                row.createCell(5).setCellValue(totalProducto);
-            }
+    /**
+     * Genera la cotización en PDF, sin plantilla.
+     *
+     * @param rutaArchivo Ruta del archivo .pdf.
+     * @param numeroCotizacion Número de la cotización.
+     * @param ventasCotizadas Productos cotizados.
+     * @return true si el archivo se generó.
+     */
+    public boolean generarArchivoCotizacionPdf(String rutaArchivo, String numeroCotizacion, List<Venta> ventasCotizadas) {
+        return cotizacionGenerada(servicio.generarCotizacionPdf(Paths.get(rutaArchivo), cliente,
+                numeroCotizacion, ventasCotizadas), "Archivo PDF", "Error al generar el archivo PDF");
+    }
 
-            // Guardar el archivo generado
-            try (FileOutputStream fileOut = new FileOutputStream(rutaArchivo)) {
-                workbook.write(fileOut);
-                JOptionPane.showMessageDialog(null, "Archivo Excel generado con éxito: " + rutaArchivo,
-                        "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                return true;  // Retorna true si la generación del archivo fue exitosa
-            }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error al generar el archivo Excel: " + e.getMessage(),
+    // Informa si se generó el archivo de la cotización
+    private static boolean cotizacionGenerada(Resultado<?> resultado, String archivo, String accion) {
+        if (!resultado.esExito()) {
+            JOptionPane.showMessageDialog(null, resultado.getError().describir(accion),
                     "Error", JOptionPane.ERROR_MESSAGE);
-            return false;  // Retorna false si ocurre un error durante la operación
+            return false;
         }
+        JOptionPane.showMessageDialog(null, archivo + " generado con éxito: " + resultado.getValor(),
+                "Éxito", JOptionPane.INFORMATION_MESSAGE);
+        return true;
     }
 
     public void actualizarPagoConfirmado(int ventaId, String pagoConfirmado) {
-        String sql = "UPDATE ventas SET pago_confirmado = ? WHERE id = ?";
-        try (Connection conn = conexion.establecerConexion(); PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, pagoConfirmado);
-            ps.setInt(2, ventaId);
-
-            int filasActualizadas = ps.executeUpdate();
-            if (filasActualizadas > 0) {
-                JOptionPane.showMessageDialog(null, "El estado de pago fue actualizado correctamente.");
-            } else {
-                JOptionPane.showMessageDialog(null, "No se encontró una venta con el ID especificado.");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Error al actualizar el estado de pago: " + e.getMessage());
-        }
+        Resultado<Void> resultado = servicio.actualizarPago(ventaId, pagoConfirmado);
+        JOptionPane.showMessageDialog(null, resultado.esExito()
+                ? "El estado de pago fue actualizado correctamente."
+                : resultado.getError().describir("Error al actualizar el estado de pago"));
     }
 
 }
@@ -1,9 +1,60 @@
 package com.mycompany.zl_solucion_integral.models;
 
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
 /**
+ * Resultado de un informe de ventas: títulos de las columnas y filas ya
+ * calculadas para un rango de fechas.
  *
  * @author Dazac
  */
 public class Informe {
 
+    private final String titulo;
+    private final LocalDate desde;
+    private final LocalDate hasta;
+    private final String[] columnas;
+    private final List<Object[]> filas;
+
+    public Informe(String titulo, LocalDate desde, LocalDate hasta, String[] columnas, List<Object[]> filas) {
+        this.titulo = titulo;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.columnas = columnas.clone();
+        this.filas = Collections.unmodifiableList(filas);
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    // Primer día incluido, o null si el informe no tiene límite inferior
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    // Último día incluido, o null si el informe no tiene límite superior
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    public String[] getColumnas() {
+        return columnas.clone();
+    }
+
+    public List<Object[]> getFilas() {
+        return filas;
+    }
+
+    @Override
+    public String toString() {
+        return "Informe{"
+                + "titulo=" + titulo
+                + ", desde=" + desde
+                + ", hasta=" + hasta
+                + ", filas=" + filas.size()
+                + '}';
+    }
 }
@@ -1,10 +1,7 @@
 package com.mycompany.zl_solucion_integral.models;
 
-import com.mycompany.zl_solucion_integral.config.ConexionDB;
-
 public class Producto {
 
-    private final ConexionDB conexion; // Variable global para la conexión
     // Atributos 
     private int id;
     private String producto;
@@ -17,12 +14,10 @@ public class Producto {
 
     // Constructor vacío (útil para instanciar sin datos iniciales)
     public Producto() {
-        this.conexion = new ConexionDB(); // Asegúrate de que ConexionDB esté bien definida.
     }
 
     // Constructor con parámetros (para inicializar con datos, incluyendo el total)
     public Producto(int id, String producto, double precio, int cantidad, String codigo, double total, String categoria) {
-        this();
         this.id = id;
         this.producto = producto;
         this.precio = precio;
@@ -34,7 +29,6 @@ public class Producto {
 
     // Constructor sin el parametro id 
     public Producto(String producto, double precio, int cantidad, String codigo, double total) {
-        this();
         this.producto = producto;
         this.precio = precio;
         this.cantidad = cantidad;
@@ -44,7 +38,6 @@ public class Producto {
 
     // Constructor sin el parametro de total 
     public Producto(String producto, Double precio, int cantidad, String codigo) {
-        this();
         this.producto = producto;
         this.precio = precio;
         this.cantidad = cantidad;
@@ -53,7 +46,6 @@ public class Producto {
 
     // Constructor con el parametro de categoria 
     public Producto(String producto, Double precio, int cantidad, String codigo, String categoria) {
-        this();
         this.producto = producto;
         this.precio = precio;
         this.cantidad = cantidad;
@@ -0,0 +1,116 @@
+package com.mycompany.zl_solucion_integral.servicios;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Error devuelto por un servicio: el tipo permite decidir qué hacer sin leer
+ * el texto, y el mensaje está listo para mostrarse al usuario.
+ *
+ * @author Dazac
+ */
+public final class ErrorServicio {
+
+    /**
+     * Clase de error.
+     */
+    public enum Tipo {
+        /** Los datos recibidos no son válidos. */
+        VALIDACION,
+        /** El registro a consultar o modificar no existe. */
+        NO_ENCONTRADO,
+        /** El registro choca con otro existente (por ejemplo, un código repetido). */
+        DUPLICADO,
+        /** No hay unidades suficientes para la venta o el retiro. */
+        STOCK_INSUFICIENTE,
+        /** No se pudo leer o escribir un archivo. */
+        ARCHIVO,
+        /** Falló la base de datos o la cola de escritura. */
+        BASE_DATOS
+    }
+
+    private final Tipo tipo;
+    private final String mensaje;
+    private final Throwable causa;
+
+    public ErrorServicio(Tipo tipo, String mensaje, Throwable causa) {
+        this.tipo = tipo;
+        this.mensaje = mensaje;
+        this.causa = causa;
+    }
+
+    public static ErrorServicio validacion(String mensaje) {
+        return new ErrorServicio(Tipo.VALIDACION, mensaje, null);
+    }
+
+    public static ErrorServicio noEncontrado(String mensaje) {
+        return new ErrorServicio(Tipo.NO_ENCONTRADO, mensaje, null);
+    }
+
+    public static ErrorServicio duplicado(String mensaje) {
+        return new ErrorServicio(Tipo.DUPLICADO, mensaje, null);
+    }
+
+    public static ErrorServicio stockInsuficiente(String mensaje) {
+        return new ErrorServicio(Tipo.STOCK_INSUFICIENTE, mensaje, null);
+    }
+
+    public static ErrorServicio archivo(Throwable causa) {
+        return new ErrorServicio(Tipo.ARCHIVO, causa.getMessage(), causa);
+    }
+
+    /**
+     * Convierte una excepción en error. Desenvuelve los errores de los
+     * futuros; una {@link ExcepcionServicio} conserva su error y cualquier
+     * otra se toma como error de la base de datos.
+     *
+     * @param error Excepción recibida.
+     * @return El error correspondiente.
+     */
+    public static ErrorServicio desde(Throwable error) {
+        Throwable causa = error;
+        while ((causa instanceof CompletionException || causa instanceof ExecutionException)
+                && causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        if (causa instanceof ExcepcionServicio) {
+            return ((ExcepcionServicio) causa).getError();
+        }
+        return new ErrorServicio(Tipo.BASE_DATOS, causa.getMessage(), causa);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * @return La excepción original, o `null` si es un error de validación.
+     */
+    public Throwable getCausa() {
+        return causa;
+    }
+
+    /**
+     * Texto para el usuario. Los errores de datos se explican solos; los de
+     * archivo y base de datos se anteponen con la acción que falló.
+     *
+     * @param accion Acción intentada, por ejemplo "Error al eliminar el
+     * producto".
+     * @return El mensaje a mostrar.
+     */
+    public String describir(String accion) {
+        if (tipo == Tipo.BASE_DATOS || tipo == Tipo.ARCHIVO) {
+            return accion + ": " + mensaje;
+        }
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return tipo + ": " + mensaje;
+    }
+}
@@ -0,0 +1,24 @@
+package com.mycompany.zl_solucion_integral.servicios;
+
+import java.sql.SQLException;
+
+/**
+ * Lleva un {@link ErrorServicio} fuera de una operación de la cola de
+ * escritura. Al lanzarla se deshacen los cambios de la operación (su
+ * SAVEPOINT), y el servicio devuelve el error con su tipo original.
+ *
+ * @author Dazac
+ */
+public class ExcepcionServicio extends SQLException {
+
+    private final transient ErrorServicio error;
+
+    public ExcepcionServicio(ErrorServicio error) {
+        super(error.getMensaje());
+        this.error = error;
+    }
+
+    public ErrorServicio getError() {
+        return error;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mycompany.zl_solucion_integral.servicios;
+
+import com.mycompany.zl_solucion_integral.config.ColaEscritura;
+import com.mycompany.zl_solucion_integral.config.ColaEscritura.OperacionEscritura;
+import com.mycompany.zl_solucion_integral.config.PoolConexiones;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ejecuta las lecturas y escrituras de los servicios y convierte sus
+ * excepciones en {@link Resultado}.
+ *
+ * @author Dazac
+ */
+final class Operaciones {
+
+    /**
+     * Consulta que se ejecuta con una conexión de lectura del pool.
+     *
+     * @param <T> Tipo del valor.
+     */
+    @FunctionalInterface
+    interface Lectura<T> {
+
+        Resultado<T> leer(Connection conn) throws SQLException;
+    }
+
+    private Operaciones() {
+    }
+
+    /**
+     * Envía una operación a la cola de escritura. El futuro devuelto nunca
+     * termina con excepción: los errores llegan como resultado fallido.
+     *
+     * @param descripcion Descripción de la operación, para el registro.
+     * @param logger Registro del servicio.
+     * @param operacion Cambios a ejecutar; puede devolver un resultado
+     * fallido sin escribir nada, o lanzar {@link ExcepcionServicio} para
+     * deshacer lo que ya escribió.
+     * @return Futuro con el resultado, completado tras confirmar el grupo.
+     */
+    static <T> CompletableFuture<Resultado<T>> escribir(String descripcion, Logger logger,
+            OperacionEscritura<Resultado<T>> operacion) {
+        return ColaEscritura.getInstancia().enviar(descripcion, operacion)
+                .exceptionally(e -> fallo(descripcion, logger, e));
+    }
+
+    /**
+     * Ejecuta una consulta con una conexión de lectura.
+     *
+     * @param descripcion Descripción de la consulta, para el registro.
+     * @param logger Registro del servicio.
+     * @param lectura Consulta a ejecutar.
+     * @return El resultado de la consulta, o un error de base de datos.
+     */
+    static <T> Resultado<T> leer(String descripcion, Logger logger, Lectura<T> lectura) {
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector()) {
+            return lectura.leer(conn);
+        } catch (SQLException e) {
+            return fallo(descripcion, logger, e);
+        }
+    }
+
+    // Solo los errores inesperados quedan en el registro; los de datos son parte del resultado
+    static <T> Resultado<T> fallo(String descripcion, Logger logger, Throwable e) {
+        ErrorServicio error = ErrorServicio.desde(e);
+        if (error.getTipo() == ErrorServicio.Tipo.BASE_DATOS || error.getTipo() == ErrorServicio.Tipo.ARCHIVO) {
+            logger.log(Level.SEVERE, "Error en " + descripcion, error.getCausa());
+        }
+        return Resultado.fallo(error);
+    }
+}
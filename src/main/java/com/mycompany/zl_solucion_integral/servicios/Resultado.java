@@ -0,0 +1,89 @@
+package com.mycompany.zl_solucion_integral.servicios;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resultado de una operación de servicio: un valor si salió bien o un
+ * {@link ErrorServicio} si no. Los servicios no lanzan excepciones ni muestran
+ * mensajes; quien los llama decide qué hacer con el error.
+ *
+ * @param <T> Tipo del valor.
+ * @author Dazac
+ */
+public final class Resultado<T> {
+
+    private final T valor;
+    private final ErrorServicio error;
+
+    private Resultado(T valor, ErrorServicio error) {
+        this.valor = valor;
+        this.error = error;
+    }
+
+    public static <T> Resultado<T> exito(T valor) {
+        return new Resultado<>(valor, null);
+    }
+
+    public static <T> Resultado<T> fallo(ErrorServicio error) {
+        return new Resultado<>(null, error);
+    }
+
+    public boolean esExito() {
+        return error == null;
+    }
+
+    /**
+     * @param tipo Tipo de error a comparar.
+     * @return `true` si la operación falló con ese tipo de error.
+     */
+    public boolean falloPor(ErrorServicio.Tipo tipo) {
+        return error != null && error.getTipo() == tipo;
+    }
+
+    /**
+     * @return El valor, o `null` si la operación falló.
+     */
+    public T getValor() {
+        return valor;
+    }
+
+    /**
+     * @param porDefecto Valor a devolver si la operación falló.
+     * @return El valor, o `porDefecto` si la operación falló.
+     */
+    public T getValorO(T porDefecto) {
+        return error == null ? valor : porDefecto;
+    }
+
+    /**
+     * @return El error, o `null` si la operación salió bien.
+     */
+    public ErrorServicio getError() {
+        return error;
+    }
+
+    /**
+     * Espera los resultados de varias operaciones asíncronas, por ejemplo un
+     * lote enviado a la cola de escritura. Los futuros de los servicios nunca
+     * terminan con excepción, así que siempre hay un resultado por operación.
+     *
+     * @param futuros Resultados pendientes.
+     * @return Futuro con los resultados en el mismo orden.
+     */
+    public static <T> CompletableFuture<List<Resultado<T>>> todos(List<CompletableFuture<Resultado<T>>> futuros) {
+        return CompletableFuture.allOf(futuros.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<Resultado<T>> resultados = new ArrayList<>(futuros.size());
+            for (CompletableFuture<Resultado<T>> futuro : futuros) {
+                resultados.add(futuro.join());
+            }
+            return resultados;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return error == null ? "Exito[" + valor + "]" : "Fallo[" + error + "]";
+    }
+}
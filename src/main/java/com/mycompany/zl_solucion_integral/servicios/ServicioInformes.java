@@ -0,0 +1,293 @@
+package com.mycompany.zl_solucion_integral.servicios;
+
+import com.mycompany.zl_solucion_integral.config.AnalisisVentas;
+import com.mycompany.zl_solucion_integral.config.CacheProductos;
+import com.mycompany.zl_solucion_integral.config.PoolConexiones;
+import com.mycompany.zl_solucion_integral.models.Informe;
+import com.mycompany.zl_solucion_integral.models.Producto;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Informes de análisis de ventas sin interfaz gráfica.
+ *
+ * Los informes de productos, categorías y cestas se calculan con una sola
+ * pasada sobre los detalles del rango, repartida en tramos paralelos cuando
+ * el equipo tiene varios núcleos ({@link AnalisisVentas}); el de
+ * vendedores suma el resumen diario (`ventas_diarias`). Los informes
+ * calculados se guardan por tipo, rango y cantidad de filas, y las pasadas
+ * por rango, de modo que cambiar de informe sobre el mismo rango no vuelve a
+ * leer los detalles. Todo se descarta con {@link #invalidarCache()} cada vez
+ * que se registra o modifica una venta.
+ *
+ * @author Dazac
+ */
+public class ServicioInformes {
+
+    private static final Logger logger = Logger.getLogger(ServicioInformes.class.getName());
+
+    // Informes y pasadas que se conservan; los menos usados se descartan
+    private static final int INFORMES_EN_CACHE = 32;
+    private static final int PASADAS_EN_CACHE = 4;
+
+    /**
+     * Informes disponibles.
+     */
+    public enum TipoInforme {
+        PRODUCTOS_POR_UNIDADES("Productos más vendidos por unidades"),
+        PRODUCTOS_POR_INGRESOS("Productos más vendidos por ingresos"),
+        INGRESOS_POR_CATEGORIA("Ingresos por categoría"),
+        TOTALES_POR_VENDEDOR("Totales por vendedor"),
+        TAMANO_DE_CESTA("Distribución del tamaño de cesta");
+
+        private final String titulo;
+
+        TipoInforme(String titulo) {
+            this.titulo = titulo;
+        }
+
+        public String getTitulo() {
+            return titulo;
+        }
+
+        @Override
+        public String toString() {
+            return titulo;
+        }
+    }
+
+    private static final Map<String, Informe> INFORMES = crearCache(INFORMES_EN_CACHE);
+    private static final Map<String, AnalisisVentas.Acumulado> PASADAS = crearCache(PASADAS_EN_CACHE);
+
+    // Aumenta con cada invalidación; un cálculo iniciado antes no se guarda
+    private static final AtomicLong GENERACION = new AtomicLong();
+
+    /**
+     * Descarta los informes guardados. Se llama cuando se registra o modifica
+     * una venta.
+     */
+    public static void invalidarCache() {
+        synchronized (INFORMES) {
+            GENERACION.incrementAndGet();
+            INFORMES.clear();
+            PASADAS.clear();
+        }
+    }
+
+    /**
+     * Genera un informe o lo devuelve de la caché.
+     *
+     * @param tipo Informe a generar.
+     * @param desde Primer día incluido, o `null` para no limitar.
+     * @param hasta Último día incluido, o `null` para no limitar.
+     * @param limite Máximo de filas de los informes de productos.
+     * @return El informe, o un error de base de datos.
+     */
+    public Resultado<Informe> generar(TipoInforme tipo, LocalDate desde, LocalDate hasta, int limite) {
+        try {
+            return Resultado.exito(calcular(tipo, desde, hasta, limite));
+        } catch (SQLException e) {
+            return Operaciones.fallo("informe " + tipo, logger, e);
+        }
+    }
+
+    // Busca el informe en la caché o lo calcula y lo guarda
+    private Informe calcular(TipoInforme tipo, LocalDate desde, LocalDate hasta, int limite) throws SQLException {
+        String clave = tipo + "|" + desde + "|" + hasta + "|" + limite;
+        long generacion;
+        synchronized (INFORMES) {
+            Informe guardado = INFORMES.get(clave);
+            if (guardado != null) {
+                return guardado;
+            }
+            generacion = GENERACION.get();
+        }
+
+        Long diaDesde = desde != null ? desde.toEpochDay() : null;
+        Long diaHasta = hasta != null ? hasta.toEpochDay() : null;
+        // La pasada se hace antes de tomar la conexión: en paralelo usa varios lectores
+        AnalisisVentas.Acumulado acumulado = tipo == TipoInforme.TOTALES_POR_VENDEDOR
+                ? null : obtenerPasada(diaDesde, diaHasta, generacion);
+        Informe informe;
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector()) {
+            if (tipo == TipoInforme.TOTALES_POR_VENDEDOR) {
+                informe = totalesPorVendedor(conn, desde, hasta);
+            } else {
+                switch (tipo) {
+                    case PRODUCTOS_POR_UNIDADES:
+                    case PRODUCTOS_POR_INGRESOS:
+                        informe = productosMasVendidos(conn, acumulado, tipo, desde, hasta, limite);
+                        break;
+                    case INGRESOS_POR_CATEGORIA:
+                        informe = ingresosPorCategoria(conn, acumulado, desde, hasta);
+                        break;
+                    default:
+                        informe = tamanoDeCesta(acumulado, desde, hasta);
+                        break;
+                }
+            }
+        }
+
+        synchronized (INFORMES) {
+            if (GENERACION.get() == generacion) {
+                INFORMES.put(clave, informe);
+            }
+        }
+        return informe;
+    }
+
+    // Pasada sobre los detalles del rango, reutilizada entre informes del mismo rango
+    private AnalisisVentas.Acumulado obtenerPasada(Long desde, Long hasta, long generacion) throws SQLException {
+        String clave = desde + "|" + hasta;
+        synchronized (INFORMES) {
+            AnalisisVentas.Acumulado guardado = PASADAS.get(clave);
+            if (guardado != null) {
+                return guardado;
+            }
+        }
+        AnalisisVentas.Acumulado acumulado = AnalisisVentas.acumularEnParalelo(desde, hasta);
+        synchronized (INFORMES) {
+            if (GENERACION.get() == generacion) {
+                PASADAS.put(clave, acumulado);
+            }
+        }
+        return acumulado;
+    }
+
+    // Los N productos con más unidades o más ingresos del rango
+    private Informe productosMasVendidos(Connection conn, AnalisisVentas.Acumulado acumulado, TipoInforme tipo,
+            LocalDate desde, LocalDate hasta, int limite) throws SQLException {
+        Comparator<Integer> orden = tipo == TipoInforme.PRODUCTOS_POR_UNIDADES
+                ? Comparator.comparingLong(acumulado::getUnidades)
+                : Comparator.comparingDouble(acumulado::getTotal);
+        Integer[] posiciones = new Integer[acumulado.getProductos()];
+        for (int i = 0; i < posiciones.length; i++) {
+            posiciones[i] = i;
+        }
+        Arrays.sort(posiciones, orden.reversed());
+
+        List<Object[]> filas = new ArrayList<>();
+        for (int i = 0; i < Math.min(limite, posiciones.length); i++) {
+            int posicion = posiciones[i];
+            String codigo = acumulado.getCodigo(posicion);
+            String[] datos = datosProducto(conn, codigo);
+            filas.add(new Object[]{i + 1, codigo, datos[0], datos[1],
+                acumulado.getUnidades(posicion), redondear(acumulado.getTotal(posicion))});
+        }
+        return new Informe(tipo.getTitulo(), desde, hasta,
+                new String[]{"Puesto", "Código", "Producto", "Categoría", "Unidades", "Ingresos"}, filas);
+    }
+
+    // Ingresos y unidades agrupados por la categoría actual de cada producto
+    private Informe ingresosPorCategoria(Connection conn, AnalisisVentas.Acumulado acumulado,
+            LocalDate desde, LocalDate hasta) throws SQLException {
+        Map<String, double[]> porCategoria = new HashMap<>();
+        double totalGeneral = 0;
+        for (int i = 0; i < acumulado.getProductos(); i++) {
+            String categoria = datosProducto(conn, acumulado.getCodigo(i))[1];
+            double[] suma = porCategoria.computeIfAbsent(categoria, c -> new double[2]);
+            suma[0] += acumulado.getUnidades(i);
+            suma[1] += acumulado.getTotal(i);
+            totalGeneral += acumulado.getTotal(i);
+        }
+
+        List<Map.Entry<String, double[]>> categorias = new ArrayList<>(porCategoria.entrySet());
+        categorias.sort((a, b) -> Double.compare(b.getValue()[1], a.getValue()[1]));
+        List<Object[]> filas = new ArrayList<>();
+        for (Map.Entry<String, double[]> categoria : categorias) {
+            double ingresos = categoria.getValue()[1];
+            filas.add(new Object[]{categoria.getKey(), (long) categoria.getValue()[0], redondear(ingresos),
+                redondear(totalGeneral > 0 ? ingresos * 100 / totalGeneral : 0)});
+        }
+        return new Informe(TipoInforme.INGRESOS_POR_CATEGORIA.getTitulo(), desde, hasta,
+                new String[]{"Categoría", "Unidades", "Ingresos", "% de ingresos"}, filas);
+    }
+
+    // Ventas, unidades, ingresos y ticket promedio de cada vendedor, desde el resumen diario
+    private Informe totalesPorVendedor(Connection conn, LocalDate desde, LocalDate hasta) throws SQLException {
+        String sql = "SELECT vendedor, SUM(ventas) AS ventas, SUM(unidades) AS unidades, SUM(total) AS total "
+                + "FROM ventas_diarias WHERE dia BETWEEN ? AND ? "
+                + "GROUP BY vendedor ORDER BY total DESC";
+        List<Object[]> filas = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, desde != null ? desde.toEpochDay() : Long.MIN_VALUE);
+            pstmt.setLong(2, hasta != null ? hasta.toEpochDay() : Long.MAX_VALUE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int puesto = 1;
+                while (rs.next()) {
+                    long ventas = rs.getLong("ventas");
+                    double total = rs.getDouble("total");
+                    filas.add(new Object[]{puesto++, rs.getString("vendedor"), ventas, rs.getLong("unidades"),
+                        redondear(total), redondear(ventas > 0 ? total / ventas : 0)});
+                }
+            }
+        }
+        return new Informe(TipoInforme.TOTALES_POR_VENDEDOR.getTitulo(), desde, hasta,
+                new String[]{"Puesto", "Vendedor", "Ventas", "Unidades", "Ingresos", "Ticket promedio"}, filas);
+    }
+
+    // Número de ventas según las unidades de la cesta
+    private Informe tamanoDeCesta(AnalisisVentas.Acumulado acumulado, LocalDate desde, LocalDate hasta) {
+        List<Object[]> filas = new ArrayList<>();
+        long ventas = acumulado.getVentas();
+        for (int unidades = 1; unidades <= AnalisisVentas.CESTA_MAXIMA; unidades++) {
+            long cantidad = acumulado.getCestas(unidades);
+            if (cantidad == 0) {
+                continue;
+            }
+            String etiqueta = unidades == AnalisisVentas.CESTA_MAXIMA ? unidades + " o más" : String.valueOf(unidades);
+            filas.add(new Object[]{etiqueta, cantidad, redondear(ventas > 0 ? cantidad * 100.0 / ventas : 0)});
+        }
+        return new Informe(TipoInforme.TAMANO_DE_CESTA.getTitulo(), desde, hasta,
+                new String[]{"Unidades por venta", "Ventas", "% de ventas"}, filas);
+    }
+
+    // Nombre y categoría actuales de un producto; la caché evita ir a la base de datos
+    private String[] datosProducto(Connection conn, String codigo) throws SQLException {
+        CacheProductos cache = CacheProductos.getInstancia();
+        if (cache.estaCargada()) {
+            Producto producto = cache.buscarPorCodigo(codigo);
+            return producto != null
+                    ? new String[]{producto.getProducto(), nombreCategoria(producto.getCategoria())}
+                    : new String[]{codigo, nombreCategoria(null)};
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT producto, categoria FROM productos WHERE codigo = ?")) {
+            pstmt.setString(1, codigo);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next()
+                        ? new String[]{rs.getString("producto"), nombreCategoria(rs.getString("categoria"))}
+                        : new String[]{codigo, nombreCategoria(null)};
+            }
+        }
+    }
+
+    private static String nombreCategoria(String categoria) {
+        return categoria == null || categoria.isBlank() ? "Sin categoría" : categoria;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+
+    // Mapa en orden de acceso que descarta la entrada menos usada al llenarse
+    private static <T> Map<String, T> crearCache(int maximo) {
+        return new LinkedHashMap<String, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> mayor) {
+                return size() > maximo;
+            }
+        };
+    }
+}
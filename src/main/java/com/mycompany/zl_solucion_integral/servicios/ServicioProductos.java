@@ -0,0 +1,414 @@
+package com.mycompany.zl_solucion_integral.servicios;
+
+import com.mycompany.zl_solucion_integral.config.CacheProductos;
+import com.mycompany.zl_solucion_integral.models.Producto;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * Operaciones con productos sin interfaz gráfica.
+ *
+ * Las modificaciones pasan por la cola de escritura: cada una tiene una
+ * versión asíncrona (`...Async`) que devuelve un futuro y otra que espera el
+ * resultado. Las verificaciones (código repetido, stock disponible) se hacen
+ * dentro de la misma operación que escribe, así que no pueden quedar
+ * desactualizadas. Las consultas usan {@link CacheProductos} si está cargada
+ * y, si no, una conexión de lectura.
+ *
+ * Las versiones que esperan no deben llamarse desde el hilo escritor ni
+ * teniendo prestada la conexión de escritura.
+ *
+ * @author Dazac
+ */
+public class ServicioProductos {
+
+    private static final Logger logger = Logger.getLogger(ServicioProductos.class.getName());
+
+    private final CacheProductos cache = CacheProductos.getInstancia();
+
+    /**
+     * Agrega un producto nuevo o, si su código ya existe, suma su cantidad al
+     * stock.
+     *
+     * @param producto Producto a agregar.
+     * @return Futuro con `true` si el producto ya existía y se sumó el stock,
+     * o `false` si se insertó como nuevo.
+     */
+    public CompletableFuture<Resultado<Boolean>> agregarOActualizarAsync(Producto producto) {
+        ErrorServicio invalido = validar(producto);
+        if (invalido != null) {
+            return CompletableFuture.completedFuture(Resultado.fallo(invalido));
+        }
+        // Sumar sobre el valor actual en la misma sentencia evita perder
+        // unidades si otra operación cambia el stock entre lectura y escritura
+        String sqlUpdate = "UPDATE productos SET cantidad = cantidad + ? WHERE codigo = ?";
+        String sqlInsert = "INSERT INTO productos (producto, precio, cantidad, codigo, categoria) VALUES (?, ?, ?, ?, ?)";
+
+        return Operaciones.escribir("alta del producto " + producto.getCodigo(), logger, conn -> {
+            boolean existia;
+            try (PreparedStatement pstmtUpdate = conn.prepareStatement(sqlUpdate)) {
+                pstmtUpdate.setInt(1, producto.getCantidad());
+                pstmtUpdate.setString(2, producto.getCodigo());
+                existia = pstmtUpdate.executeUpdate() > 0;
+            }
+            if (!existia) {
+                try (PreparedStatement pstmtInsert = conn.prepareStatement(sqlInsert)) {
+                    pstmtInsert.setString(1, producto.getProducto());
+                    pstmtInsert.setDouble(2, producto.getPrecio());
+                    pstmtInsert.setInt(3, producto.getCantidad());
+                    pstmtInsert.setString(4, producto.getCodigo());
+                    pstmtInsert.setString(5, producto.getCategoria());
+                    pstmtInsert.executeUpdate();
+                }
+            }
+            cache.recargarCodigo(conn, producto.getCodigo());
+            return Resultado.exito(existia);
+        });
+    }
+
+    public Resultado<Boolean> agregarOActualizar(Producto producto) {
+        return agregarOActualizarAsync(producto).join();
+    }
+
+    /**
+     * Reemplaza los datos de un producto. Falla con
+     * {@link ErrorServicio.Tipo#DUPLICADO} si otro producto ya tiene el mismo
+     * código.
+     *
+     * @param producto Producto con su id y los datos nuevos.
+     * @return Futuro con el resultado.
+     */
+    public CompletableFuture<Resultado<Void>> modificarAsync(Producto producto) {
+        ErrorServicio invalido = validar(producto);
+        if (invalido != null) {
+            return CompletableFuture.completedFuture(Resultado.fallo(invalido));
+        }
+        String sqlCheck = "SELECT 1 FROM productos WHERE codigo = ? AND id != ?";
+        String sqlUpdate = "UPDATE productos SET producto = ?, precio = ?, cantidad = ?, codigo = ?, categoria = ? WHERE id = ?";
+
+        return Operaciones.escribir("modificación del producto " + producto.getId(), logger, conn -> {
+            try (PreparedStatement pstmtCheck = conn.prepareStatement(sqlCheck)) {
+                pstmtCheck.setString(1, producto.getCodigo());
+                pstmtCheck.setInt(2, producto.getId());
+                try (ResultSet rs = pstmtCheck.executeQuery()) {
+                    if (rs.next()) {
+                        return Resultado.fallo(ErrorServicio.duplicado(
+                                "El código del producto ya está registrado en otro producto."));
+                    }
+                }
+            }
+            try (PreparedStatement pstmtUpdate = conn.prepareStatement(sqlUpdate)) {
+                pstmtUpdate.setString(1, producto.getProducto());
+                pstmtUpdate.setDouble(2, producto.getPrecio());
+                pstmtUpdate.setInt(3, producto.getCantidad());
+                pstmtUpdate.setString(4, producto.getCodigo());
+                pstmtUpdate.setString(5, producto.getCategoria());
+                pstmtUpdate.setInt(6, producto.getId());
+                if (pstmtUpdate.executeUpdate() == 0) {
+                    return Resultado.fallo(ErrorServicio.noEncontrado("Producto no encontrado"));
+                }
+            }
+            cache.recargarId(conn, producto.getId());
+            return Resultado.exito(null);
+        });
+    }
+
+    public Resultado<Void> modificar(Producto producto) {
+        return modificarAsync(producto).join();
+    }
+
+    /**
+     * Elimina un producto.
+     *
+     * @param idProducto Id del producto.
+     * @return Futuro con el resultado.
+     */
+    public CompletableFuture<Resultado<Void>> eliminarAsync(int idProducto) {
+        String sql = "DELETE FROM productos WHERE id = ?";
+        return Operaciones.escribir("eliminación del producto " + idProducto, logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, idProducto);
+                if (pstmt.executeUpdate() == 0) {
+                    return Resultado.fallo(ErrorServicio.noEncontrado("No se pudo eliminar el producto"));
+                }
+            }
+            cache.quitarId(idProducto);
+            return Resultado.exito(null);
+        });
+    }
+
+    public Resultado<Void> eliminar(int idProducto) {
+        return eliminarAsync(idProducto).join();
+    }
+
+    /**
+     * Retira unidades del stock de un producto; si no queda ninguna, elimina
+     * el producto.
+     *
+     * @param idProducto Id del producto.
+     * @param cantidad Unidades a retirar.
+     * @return Futuro con las unidades que quedan (0 si el producto se
+     * eliminó).
+     */
+    public CompletableFuture<Resultado<Integer>> retirarUnidadesAsync(int idProducto, int cantidad) {
+        if (cantidad <= 0) {
+            return CompletableFuture.completedFuture(Resultado.fallo(
+                    ErrorServicio.validacion("Debe ingresar una cantidad mayor a 0 para eliminar.")));
+        }
+        String sqlSelect = "SELECT cantidad FROM productos WHERE id = ?";
+        String sqlUpdate = "UPDATE productos SET cantidad = ? WHERE id = ?";
+        String sqlDelete = "DELETE FROM productos WHERE id = ?";
+
+        return Operaciones.escribir("retiro de stock del producto " + idProducto, logger, conn -> {
+            int cantidadActual;
+            try (PreparedStatement pstmtSelect = conn.prepareStatement(sqlSelect)) {
+                pstmtSelect.setInt(1, idProducto);
+                try (ResultSet rs = pstmtSelect.executeQuery()) {
+                    if (!rs.next()) {
+                        return Resultado.fallo(ErrorServicio.noEncontrado("Producto no encontrado"));
+                    }
+                    cantidadActual = rs.getInt(1);
+                }
+            }
+            if (cantidad > cantidadActual) {
+                return Resultado.fallo(ErrorServicio.stockInsuficiente(
+                        "No se puede eliminar más cantidad de la disponible en stock."));
+            }
+
+            int nuevaCantidad = cantidadActual - cantidad;
+            try (PreparedStatement pstmt = conn.prepareStatement(nuevaCantidad == 0 ? sqlDelete : sqlUpdate)) {
+                if (nuevaCantidad == 0) {
+                    pstmt.setInt(1, idProducto);
+                } else {
+                    pstmt.setInt(1, nuevaCantidad);
+                    pstmt.setInt(2, idProducto);
+                }
+                pstmt.executeUpdate();
+            }
+            if (nuevaCantidad == 0) {
+                cache.quitarId(idProducto);
+            } else {
+                cache.recargarId(conn, idProducto);
+            }
+            return Resultado.exito(nuevaCantidad);
+        });
+    }
+
+    public Resultado<Integer> retirarUnidades(int idProducto, int cantidad) {
+        return retirarUnidadesAsync(idProducto, cantidad).join();
+    }
+
+    /**
+     * Fija la cantidad en inventario de un producto.
+     *
+     * @param codigoProducto Código del producto.
+     * @param nuevaCantidad Cantidad final en inventario.
+     * @return Futuro con el número de filas actualizadas.
+     */
+    public CompletableFuture<Resultado<Integer>> ajustarCantidadAsync(String codigoProducto, int nuevaCantidad) {
+        String sql = "UPDATE productos SET cantidad = ? WHERE codigo = ?";
+        return Operaciones.escribir("ajuste de stock " + codigoProducto, logger, conn -> {
+            int filas;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, nuevaCantidad);
+                stmt.setString(2, codigoProducto);
+                filas = stmt.executeUpdate();
+            }
+            cache.recargarCodigo(conn, codigoProducto);
+            return Resultado.exito(filas);
+        });
+    }
+
+    public Resultado<Integer> ajustarCantidad(String codigoProducto, int nuevaCantidad) {
+        return ajustarCantidadAsync(codigoProducto, nuevaCantidad).join();
+    }
+
+    /**
+     * @param id Id del producto.
+     * @return El producto, o {@link ErrorServicio.Tipo#NO_ENCONTRADO}.
+     */
+    public Resultado<Producto> obtenerPorId(int id) {
+        if (cache.estaCargada()) {
+            return encontrado(cache.buscarPorId(id));
+        }
+        return buscarUno("consulta del producto " + id, "SELECT * FROM productos WHERE id = ?", id);
+    }
+
+    /**
+     * @param codigo Código exacto del producto.
+     * @return El producto, o {@link ErrorServicio.Tipo#NO_ENCONTRADO}.
+     */
+    public Resultado<Producto> buscarPorCodigo(String codigo) {
+        if (cache.estaCargada()) {
+            return encontrado(cache.buscarPorCodigo(codigo));
+        }
+        return buscarUno("búsqueda por código", "SELECT * FROM productos WHERE codigo = ?", codigo);
+    }
+
+    /**
+     * @param nombre Nombre del producto (en la caché no distingue mayúsculas
+     * ni tildes).
+     * @return El producto, o {@link ErrorServicio.Tipo#NO_ENCONTRADO}.
+     */
+    public Resultado<Producto> buscarPorNombre(String nombre) {
+        if (cache.estaCargada()) {
+            return encontrado(cache.buscarPorNombre(nombre));
+        }
+        return buscarUno("búsqueda por nombre", "SELECT * FROM productos WHERE producto = ?", nombre);
+    }
+
+    /**
+     * @param categoria Categoría a contar, o "Todas".
+     * @return Número de productos de la categoría.
+     */
+    public Resultado<Integer> contar(String categoria) {
+        if (cache.estaCargada()) {
+            return Resultado.exito(cache.contar(categoria));
+        }
+        boolean todas = categoria == null || categoria.equals("Todas");
+        String sql = "SELECT COUNT(*) FROM productos" + (todas ? "" : " WHERE categoria = ?");
+        return Operaciones.leer("conteo de productos", logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                if (!todas) {
+                    pstmt.setString(1, categoria);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return Resultado.exito(rs.next() ? rs.getInt(1) : 0);
+                }
+            }
+        });
+    }
+
+    /**
+     * Productos cuyo nombre o código contiene el texto, para el
+     * autocompletado.
+     *
+     * @param texto Texto parcial escrito por el usuario.
+     * @param limite Número máximo de sugerencias.
+     * @return Productos ordenados por relevancia (vacío si la caché no está
+     * disponible).
+     */
+    public List<Producto> sugerir(String texto, int limite) {
+        if (!cache.estaCargada()) {
+            return Collections.emptyList();
+        }
+        return cache.sugerir(texto, limite);
+    }
+
+    /**
+     * Busca productos en el índice de texto completo (`productos_fts`) por
+     * nombre, código o categoría, ordenados por relevancia (BM25). Cada
+     * palabra se toma como prefijo y deben aparecer todas.
+     *
+     * @param texto Texto a buscar.
+     * @param pagina Número de página, empezando en 0.
+     * @param porPagina Productos por página.
+     * @return Productos de la página solicitada; vacía si no hay resultados.
+     */
+    public Resultado<List<Producto>> buscarTextoCompleto(String texto, int pagina, int porPagina) {
+        String consulta = consultaTextoCompleto(texto);
+        if (consulta == null || porPagina <= 0) {
+            return Resultado.exito(new ArrayList<>());
+        }
+        String sql = "SELECT p.* FROM productos_fts f JOIN productos p ON p.id = f.rowid "
+                + "WHERE productos_fts MATCH ? "
+                + "ORDER BY bm25(productos_fts, 5.0, 10.0, 1.0), p.id LIMIT ? OFFSET ?";
+
+        return Operaciones.leer("búsqueda de texto completo", logger, conn -> {
+            List<Producto> productos = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, consulta);
+                pstmt.setInt(2, porPagina);
+                pstmt.setLong(3, (long) Math.max(0, pagina) * porPagina);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        productos.add(leerProducto(rs));
+                    }
+                }
+            }
+            return Resultado.exito(productos);
+        });
+    }
+
+    /**
+     * @param texto Texto a buscar.
+     * @return Número total de coincidencias de la búsqueda de texto completo.
+     */
+    public Resultado<Integer> contarTextoCompleto(String texto) {
+        String consulta = consultaTextoCompleto(texto);
+        if (consulta == null) {
+            return Resultado.exito(0);
+        }
+        String sql = "SELECT COUNT(*) FROM productos_fts WHERE productos_fts MATCH ?";
+        return Operaciones.leer("conteo de texto completo", logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, consulta);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return Resultado.exito(rs.next() ? rs.getInt(1) : 0);
+                }
+            }
+        });
+    }
+
+    // Convierte el texto del usuario en una consulta FTS5: cada palabra entre comillas y como prefijo
+    private static String consultaTextoCompleto(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        StringBuilder consulta = new StringBuilder();
+        for (String palabra : texto.split("[^\\p{L}\\p{N}]+")) {
+            if (!palabra.isEmpty()) {
+                if (consulta.length() > 0) {
+                    consulta.append(' ');
+                }
+                consulta.append('"').append(palabra).append("\"*");
+            }
+        }
+        return consulta.length() == 0 ? null : consulta.toString();
+    }
+
+    // Datos mínimos para guardar un producto
+    private static ErrorServicio validar(Producto producto) {
+        if (producto == null || producto.getCodigo() == null || producto.getCodigo().trim().isEmpty()) {
+            return ErrorServicio.validacion("El código del producto es obligatorio.");
+        }
+        if (producto.getProducto() == null || producto.getProducto().trim().isEmpty()) {
+            return ErrorServicio.validacion("El nombre del producto es obligatorio.");
+        }
+        if (producto.getPrecio() < 0 || producto.getCantidad() < 0) {
+            return ErrorServicio.validacion("El precio y la cantidad no pueden ser negativos.");
+        }
+        return null;
+    }
+
+    private static Resultado<Producto> encontrado(Producto producto) {
+        return producto != null
+                ? Resultado.exito(producto)
+                : Resultado.fallo(ErrorServicio.noEncontrado("Producto no encontrado"));
+    }
+
+    // Consulta un producto por un solo parámetro con una conexión de lectura
+    private Resultado<Producto> buscarUno(String descripcion, String sql, Object parametro) {
+        return Operaciones.leer(descripcion, logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setObject(1, parametro);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return encontrado(rs.next() ? leerProducto(rs) : null);
+                }
+            }
+        });
+    }
+
+    private static Producto leerProducto(ResultSet rs) throws SQLException {
+        double precio = rs.getDouble("precio");
+        int cantidad = rs.getInt("cantidad");
+        return new Producto(rs.getInt("id"), rs.getString("producto"), precio, cantidad,
+                rs.getString("codigo"), precio * cantidad, rs.getString("categoria"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.mycompany.zl_solucion_integral.servicios;
+
+import com.mycompany.zl_solucion_integral.config.Seguridad;
+import com.mycompany.zl_solucion_integral.models.Usuario;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * Operaciones con usuarios sin interfaz gráfica: registro, modificación,
+ * eliminación y validación de credenciales.
+ *
+ * Las modificaciones pasan por la cola de escritura, con una versión
+ * asíncrona (`...Async`) y otra que espera el resultado. Las contraseñas se
+ * encriptan antes de encolar, fuera del hilo escritor.
+ *
+ * @author Dazac
+ */
+public class ServicioUsuarios {
+
+    private static final Logger logger = Logger.getLogger(ServicioUsuarios.class.getName());
+
+    /**
+     * Registra un usuario nuevo.
+     *
+     * @param usuario Datos del usuario, con la contraseña sin encriptar.
+     * @return Futuro con el id asignado al usuario.
+     */
+    public CompletableFuture<Resultado<Integer>> registrarAsync(Usuario usuario) {
+        ErrorServicio invalido = validar(usuario);
+        if (invalido != null) {
+            return CompletableFuture.completedFuture(Resultado.fallo(invalido));
+        }
+        String contrasenaEncriptada = Seguridad.encriptarContraseña(usuario.getContraseña());
+        String sql = "INSERT INTO usuarios (nombre, telefono, email, contraseña, rol) VALUES (?, ?, ?, ?, ?)";
+
+        return Operaciones.escribir("registro del usuario " + usuario.getNombre(), logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, usuario.getNombre());
+                pstmt.setString(2, usuario.getTelefono());
+                pstmt.setString(3, usuario.getEmail());
+                pstmt.setString(4, contrasenaEncriptada);
+                pstmt.setString(5, usuario.getRol());
+                pstmt.executeUpdate();
+                try (ResultSet claves = pstmt.getGeneratedKeys()) {
+                    return Resultado.exito(claves.next() ? claves.getInt(1) : 0);
+                }
+            }
+        });
+    }
+
+    public Resultado<Integer> registrar(Usuario usuario) {
+        return registrarAsync(usuario).join();
+    }
+
+    /**
+     * Reemplaza los datos y la contraseña de un usuario.
+     *
+     * @param usuario Usuario con su id y los datos nuevos; la contraseña sin
+     * encriptar.
+     * @return Futuro con el resultado.
+     */
+    public CompletableFuture<Resultado<Void>> modificarAsync(Usuario usuario) {
+        ErrorServicio invalido = validar(usuario);
+        if (invalido != null) {
+            return CompletableFuture.completedFuture(Resultado.fallo(invalido));
+        }
+        String contrasenaEncriptada = Seguridad.encriptarContraseña(usuario.getContraseña());
+        String sql = "UPDATE usuarios SET nombre = ?, telefono = ?, email = ?, rol = ?, contraseña = ? WHERE id = ?";
+
+        return Operaciones.escribir("modificación del usuario " + usuario.getId(), logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, usuario.getNombre());
+                pstmt.setString(2, usuario.getTelefono());
+                pstmt.setString(3, usuario.getEmail());
+                pstmt.setString(4, usuario.getRol());
+                pstmt.setString(5, contrasenaEncriptada);
+                pstmt.setInt(6, usuario.getId());
+                if (pstmt.executeUpdate() == 0) {
+                    return Resultado.fallo(ErrorServicio.noEncontrado("No se pudo modificar el usuario"));
+                }
+            }
+            return Resultado.exito(null);
+        });
+    }
+
+    public Resultado<Void> modificar(Usuario usuario) {
+        return modificarAsync(usuario).join();
+    }
+
+    /**
+     * Elimina un usuario.
+     *
+     * @param idUsuario Id del usuario.
+     * @return Futuro con el resultado.
+     */
+    public CompletableFuture<Resultado<Void>> eliminarAsync(int idUsuario) {
+        String sql = "DELETE FROM usuarios WHERE id = ?";
+        return Operaciones.escribir("eliminación del usuario " + idUsuario, logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, idUsuario);
+                if (pstmt.executeUpdate() == 0) {
+                    return Resultado.fallo(ErrorServicio.noEncontrado("No se pudo eliminar el usuario"));
+                }
+            }
+            return Resultado.exito(null);
+        });
+    }
+
+    public Resultado<Void> eliminar(int idUsuario) {
+        return eliminarAsync(idUsuario).join();
+    }
+
+    /**
+     * Comprueba el usuario y la contraseña. Los administradores (rol 1) se
+     * buscan con el nombre en minúsculas.
+     *
+     * @param nombre Nombre del usuario.
+     * @param contrasena Contraseña sin encriptar.
+     * @param administrador `true` para validar contra los administradores,
+     * `false` para los demás roles.
+     * @return `true` si las credenciales son correctas.
+     */
+    public Resultado<Boolean> validarCredenciales(String nombre, String contrasena, boolean administrador) {
+        String sql = "SELECT contraseña FROM usuarios WHERE nombre = ? AND " + (administrador ? "rol = 1" : "rol != 1");
+        String nombreBuscado = administrador ? nombre.toLowerCase() : nombre;
+        return Operaciones.leer("validación de credenciales", logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, nombreBuscado);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return Resultado.exito(rs.next()
+                            && Seguridad.validarContraseña(contrasena, rs.getString(1)));
+                }
+            }
+        });
+    }
+
+    /**
+     * @param nombre Nombre del usuario.
+     * @return `true` si hay un usuario con ese nombre.
+     */
+    public Resultado<Boolean> existeNombre(String nombre) {
+        return existe("SELECT 1 FROM usuarios WHERE nombre = ? LIMIT 1", nombre);
+    }
+
+    /**
+     * @param email Correo del usuario.
+     * @return `true` si hay un usuario con ese correo.
+     */
+    public Resultado<Boolean> existeCorreo(String email) {
+        return existe("SELECT 1 FROM usuarios WHERE email = ? LIMIT 1", email);
+    }
+
+    private Resultado<Boolean> existe(String sql, String valor) {
+        return Operaciones.leer("validación de existencia de usuario", logger, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, valor);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return Resultado.exito(rs.next());
+                }
+            }
+        });
+    }
+
+    // La contraseña se encripta antes de guardar, así que no puede faltar
+    private static ErrorServicio validar(Usuario usuario) {
+        if (usuario == null || usuario.getNombre() == null || usuario.getNombre().trim().isEmpty()) {
+            return ErrorServicio.validacion("El nombre del usuario es obligatorio.");
+        }
+        if (usuario.getContraseña() == null || usuario.getContraseña().isEmpty()) {
+            return ErrorServicio.validacion("La contraseña del usuario es obligatoria.");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,426 @@
+package com.mycompany.zl_solucion_integral.servicios;
+
+import com.mycompany.zl_solucion_integral.config.CacheProductos;
+import com.mycompany.zl_solucion_integral.config.CotizacionPdf;
+import com.mycompany.zl_solucion_integral.config.PlantillaCotizacion;
+import com.mycompany.zl_solucion_integral.config.SecuenciaCotizaciones;
+import com.mycompany.zl_solucion_integral.config.VentasDiarias;
+import com.mycompany.zl_solucion_integral.models.Producto;
+import com.mycompany.zl_solucion_integral.models.Usuario;
+import com.mycompany.zl_solucion_integral.models.Venta;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Operaciones con ventas y cotizaciones sin interfaz gráfica.
+ *
+ * Registrar una venta inserta la venta, descuenta el stock, guarda los
+ * detalles y suma el resumen diario en una sola operación de la cola de
+ * escritura; si algún producto no tiene stock no queda nada guardado y el
+ * resultado falla con {@link ErrorServicio.Tipo#STOCK_INSUFICIENTE}, listando
+ * todos los productos sin stock.
+ *
+ * @author Dazac
+ */
+public class ServicioVentas {
+
+    private static final Logger logger = Logger.getLogger(ServicioVentas.class.getName());
+
+    /**
+     * Registra una venta.
+     *
+     * @param venta Venta con el cliente, el vendedor, la fecha, el total y el
+     * método de pago.
+     * @param lineas Productos vendidos, con la cantidad solicitada.
+     * @return Futuro con el id de la venta, completado cuando la venta ya está
+     * confirmada en disco.
+     */
+    public CompletableFuture<Resultado<Integer>> registrarAsync(Venta venta, List<Producto> lineas) {
+        ErrorServicio invalido = validar(venta, lineas);
+        if (invalido != null) {
+            return CompletableFuture.completedFuture(Resultado.fallo(invalido));
+        }
+        List<Producto> copia = List.copyOf(lineas);
+        return Operaciones.<Integer>escribir("venta de " + venta.getCliente().getNombre(), logger, conn -> {
+            int ventaId = insertarVenta(conn, venta, copia);
+            // Reflejar el nuevo stock en la caché de productos
+            for (Producto producto : copia) {
+                CacheProductos.getInstancia().recargarCodigo(conn, producto.getCodigo());
+            }
+            return Resultado.exito(ventaId);
+        }).thenApply(resultado -> {
+            // Los informes guardados ya no incluyen esta venta
+            if (resultado.esExito()) {
+                ServicioInformes.invalidarCache();
+            }
+            return resultado;
+        });
+    }
+
+    public Resultado<Integer> registrar(Venta venta, List<Producto> lineas) {
+        return registrarAsync(venta, lineas).join();
+    }
+
+    /**
+     * Modifica la cantidad de un producto de una venta y la fecha de la
+     * venta. El stock se ajusta por la diferencia de unidades, el total de la
+     * venta por la diferencia de importe, y el resumen diario se recalcula
+     * para el día anterior y el nuevo, todo en una sola operación de la cola
+     * de escritura.
+     *
+     * @param ventaId Id de la venta.
+     * @param codigo Código del producto a modificar dentro de la venta.
+     * @param cantidad Nueva cantidad; debe ser mayor que cero.
+     * @param fecha Nueva fecha de la venta.
+     * @return Futuro con el resultado, completado tras confirmar el cambio.
+     */
+    public CompletableFuture<Resultado<Void>> modificarDetalleAsync(int ventaId, String codigo, int cantidad,
+            LocalDate fecha) {
+        if (codigo == null || codigo.isBlank() || fecha == null) {
+            return CompletableFuture.completedFuture(Resultado.fallo(
+                    ErrorServicio.validacion("La venta a modificar no tiene código de producto o fecha.")));
+        }
+        if (cantidad <= 0) {
+            return CompletableFuture.completedFuture(Resultado.fallo(
+                    ErrorServicio.validacion("La cantidad debe ser mayor a 0.")));
+        }
+        String sqlDetalle = "SELECT d.id, d.producto, d.cantidad, d.precio, v.fecha_dia FROM detalles_venta d "
+                + "JOIN ventas v ON v.id = d.venta_id WHERE d.venta_id = ? AND d.codigo = ? ORDER BY d.id LIMIT 1";
+        String sqlDescontar = "UPDATE productos SET cantidad = cantidad - ? WHERE codigo = ? AND cantidad >= ?";
+        String sqlDevolver = "UPDATE productos SET cantidad = cantidad + ? WHERE codigo = ?";
+        String sqlUpdateDetalle = "UPDATE detalles_venta SET cantidad = ?, total = precio * ? WHERE id = ?";
+        String sqlUpdateVenta = "UPDATE ventas SET total = total + ?, fecha = ?, fecha_dia = ? WHERE id = ?";
+
+        return Operaciones.<Void>escribir("modificación de la venta " + ventaId, logger, conn -> {
+            int detalleId;
+            String producto;
+            int cantidadAnterior;
+            double precio;
+            long diaAnterior;
+            try (PreparedStatement ps = conn.prepareStatement(sqlDetalle)) {
+                ps.setInt(1, ventaId);
+                ps.setString(2, codigo);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return Resultado.fallo(ErrorServicio.noEncontrado(
+                                "No se encontró el producto " + codigo + " en la venta " + ventaId + "."));
+                    }
+                    detalleId = rs.getInt("id");
+                    producto = rs.getString("producto");
+                    cantidadAnterior = rs.getInt("cantidad");
+                    precio = rs.getDouble("precio");
+                    diaAnterior = rs.getLong("fecha_dia");
+                }
+            }
+
+            // Ajustar el stock solo por la diferencia; si se piden más unidades
+            // la condición `cantidad >= ?` comprueba que alcancen
+            int diferencia = cantidad - cantidadAnterior;
+            if (diferencia > 0) {
+                try (PreparedStatement ps = conn.prepareStatement(sqlDescontar)) {
+                    ps.setInt(1, diferencia);
+                    ps.setString(2, codigo);
+                    ps.setInt(3, diferencia);
+                    if (ps.executeUpdate() == 0) {
+                        throw new ExcepcionServicio(ErrorServicio.stockInsuficiente("Stock insuficiente para el producto: "
+                                + producto + ". Unidades adicionales solicitadas: " + diferencia));
+                    }
+                }
+            } else if (diferencia < 0) {
+                try (PreparedStatement ps = conn.prepareStatement(sqlDevolver)) {
+                    ps.setInt(1, -diferencia);
+                    ps.setString(2, codigo);
+                    ps.executeUpdate();
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(sqlUpdateDetalle)) {
+                ps.setInt(1, cantidad);
+                ps.setInt(2, cantidad);
+                ps.setInt(3, detalleId);
+                ps.executeUpdate();
+            }
+
+            long diaNuevo = fecha.toEpochDay();
+            try (PreparedStatement ps = conn.prepareStatement(sqlUpdateVenta)) {
+                ps.setDouble(1, precio * diferencia);
+                ps.setDate(2, java.sql.Date.valueOf(fecha));
+                ps.setLong(3, diaNuevo);
+                ps.setInt(4, ventaId);
+                ps.executeUpdate();
+            }
+
+            // El resumen diario se vuelve a sumar desde los detalles de los días afectados
+            if (diaNuevo == diaAnterior) {
+                VentasDiarias.recalcularDias(conn, diaAnterior);
+            } else {
+                VentasDiarias.recalcularDias(conn, diaAnterior, diaNuevo);
+            }
+            CacheProductos.getInstancia().recargarCodigo(conn, codigo);
+            return Resultado.exito(null);
+        }).thenApply(resultado -> {
+            if (resultado.esExito()) {
+                ServicioInformes.invalidarCache();
+            }
+            return resultado;
+        });
+    }
+
+    public Resultado<Void> modificarDetalle(int ventaId, String codigo, int cantidad, LocalDate fecha) {
+        return modificarDetalleAsync(ventaId, codigo, cantidad, fecha).join();
+    }
+
+    /**
+     * Cambia el estado de pago de una venta.
+     *
+     * @param ventaId Id de la venta.
+     * @param pagoConfirmado Nuevo estado de pago.
+     * @return Futuro con el resultado.
+     */
+    public CompletableFuture<Resultado<Void>> actualizarPagoAsync(int ventaId, String pagoConfirmado) {
+        String sql = "UPDATE ventas SET pago_confirmado = ? WHERE id = ?";
+        return Operaciones.escribir("pago de la venta " + ventaId, logger, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, pagoConfirmado);
+                ps.setInt(2, ventaId);
+                if (ps.executeUpdate() == 0) {
+                    return Resultado.fallo(ErrorServicio.noEncontrado(
+                            "No se encontró una venta con el ID especificado."));
+                }
+            }
+            return Resultado.exito(null);
+        });
+    }
+
+    public Resultado<Void> actualizarPago(int ventaId, String pagoConfirmado) {
+        return actualizarPagoAsync(ventaId, pagoConfirmado).join();
+    }
+
+    /**
+     * Reserva el siguiente número de cotización del día. El consecutivo se
+     * incrementa y se lee en una sola sentencia, así que dos cotizaciones
+     * simultáneas nunca reciben el mismo número.
+     *
+     * @return Futuro con el número (`yyyyMMdd-NNN`), completado tras
+     * confirmarlo.
+     */
+    public CompletableFuture<Resultado<String>> siguienteNumeroCotizacionAsync() {
+        LocalDate hoy = LocalDate.now();
+        return Operaciones.escribir("número de cotización", logger,
+                conn -> Resultado.exito(SecuenciaCotizaciones.siguienteNumero(conn, hoy)));
+    }
+
+    public Resultado<String> siguienteNumeroCotizacion() {
+        return siguienteNumeroCotizacionAsync().join();
+    }
+
+    /**
+     * Número de ventas, unidades y total de un rango de días, leídos del
+     * resumen diario.
+     *
+     * @param desde Primer día (epoch day), o `null` para no filtrar.
+     * @param hasta Último día (epoch day), o `null` para no filtrar.
+     * @return Los totales del rango.
+     */
+    public Resultado<VentasDiarias.Totales> totales(Long desde, Long hasta) {
+        return Operaciones.leer("totales de ventas", logger,
+                conn -> Resultado.exito(VentasDiarias.consultar(conn, desde, hasta)));
+    }
+
+    /**
+     * Genera la cotización en Excel a partir de una plantilla (ver
+     * {@link PlantillaCotizacion}).
+     *
+     * @param plantilla Archivo .xlsx de la plantilla.
+     * @param destino Archivo a crear.
+     * @param cliente Cliente de la cotización.
+     * @param numero Número de la cotización.
+     * @param ventas Productos cotizados.
+     * @return La ruta del archivo generado.
+     */
+    public Resultado<Path> generarCotizacionExcel(Path plantilla, Path destino, Usuario cliente,
+            String numero, List<Venta> ventas) {
+        if (!Files.isRegularFile(plantilla) || !plantilla.getFileName().toString().endsWith(".xlsx")) {
+            return Resultado.fallo(ErrorServicio.validacion("La plantilla seleccionada no es un archivo Excel válido."));
+        }
+        try {
+            PlantillaCotizacion.obtener(plantilla).generar(camposCotizacion(cliente, numero, ventas),
+                    productosCotizacion(ventas), destino);
+            return Resultado.exito(destino);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error al generar la cotización", e);
+            return Resultado.fallo(ErrorServicio.archivo(e));
+        }
+    }
+
+    /**
+     * Genera la cotización en PDF, sin plantilla (ver {@link CotizacionPdf}).
+     *
+     * @param destino Archivo a crear.
+     * @param cliente Cliente de la cotización.
+     * @param numero Número de la cotización.
+     * @param ventas Productos cotizados.
+     * @return La ruta del archivo generado.
+     */
+    public Resultado<Path> generarCotizacionPdf(Path destino, Usuario cliente, String numero, List<Venta> ventas) {
+        try {
+            CotizacionPdf.generar(camposCotizacion(cliente, numero, ventas), productosCotizacion(ventas), destino);
+            return Resultado.exito(destino);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error al generar la cotización en PDF", e);
+            return Resultado.fallo(ErrorServicio.archivo(e));
+        }
+    }
+
+    private static ErrorServicio validar(Venta venta, List<Producto> lineas) {
+        if (venta == null || venta.getCliente() == null || venta.getFecha() == null || venta.getMetodoPago() == null) {
+            return ErrorServicio.validacion("La venta no tiene cliente, fecha o método de pago.");
+        }
+        if (lineas == null || lineas.isEmpty()) {
+            return ErrorServicio.validacion("Debe agregar mínimo 1 producto al carrito antes de registrar la venta.");
+        }
+        // Primera verificación con el stock que el llamador leyó; la definitiva se hace al descontar
+        for (Producto producto : lineas) {
+            if (producto.getCantidadSolicitada() <= 0) {
+                return ErrorServicio.validacion("La cantidad de " + producto.getProducto() + " debe ser mayor a 0.");
+            }
+            if (producto.getCantidad() < producto.getCantidadSolicitada()) {
+                return ErrorServicio.stockInsuficiente("Stock insuficiente para el producto: "
+                        + producto.getProducto() + ". Disponible: " + producto.getCantidad()
+                        + ", solicitado: " + producto.getCantidadSolicitada());
+            }
+        }
+        return null;
+    }
+
+    // Inserta la venta, descuenta el stock y guarda los detalles dentro de la
+    // transacción del hilo escritor. Devuelve el id de la venta
+    private static int insertarVenta(Connection conn, Venta venta, List<Producto> productosVendidos) throws SQLException {
+        String sqlInsertVenta = "INSERT INTO ventas (cliente, cc_cliente, vendedor, fecha, fecha_dia, total, metodo_pago, pago_confirmado) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String sqlInsertDetalleVenta = "INSERT INTO detalles_venta (venta_id, producto, cantidad, codigo, precio, total) VALUES (?, ?, ?, ?, ?, ?)";
+        String sqlUpdateStock = "UPDATE productos SET cantidad = cantidad - ? WHERE codigo = ? AND cantidad >= ?";
+
+        // Determinar el valor de la columna "pago_confirmado"
+        String pagoConfirmado = venta.getMetodoPago().equalsIgnoreCase("crédito") ? "deudor" : "";
+
+        // Insertar venta general
+        int ventaId;
+        try (PreparedStatement psVenta = conn.prepareStatement(sqlInsertVenta, Statement.RETURN_GENERATED_KEYS)) {
+            psVenta.setString(1, venta.getCliente().getNombre());
+            psVenta.setString(2, venta.getCliente().getNoCc());
+            psVenta.setString(3, venta.getVendedor());
+            psVenta.setDate(4, java.sql.Date.valueOf(venta.getFecha()));
+            psVenta.setLong(5, venta.getFecha().toEpochDay()); // Día de la venta, usado por los filtros
+            psVenta.setDouble(6, venta.getTotal());
+            psVenta.setString(7, venta.getMetodoPago());
+            psVenta.setString(8, pagoConfirmado);
+
+            psVenta.executeUpdate();
+            try (ResultSet generatedKeys = psVenta.getGeneratedKeys()) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("No se pudo obtener el ID de la venta.");
+                }
+                ventaId = generatedKeys.getInt(1);
+            }
+        }
+
+        // Descontar el stock de todas las líneas en un solo lote. La condición
+        // `cantidad >= ?` hace que una línea sin stock suficiente no actualice nada
+        int[] actualizados;
+        try (PreparedStatement psStock = conn.prepareStatement(sqlUpdateStock)) {
+            for (Producto producto : productosVendidos) {
+                psStock.setInt(1, producto.getCantidadSolicitada());
+                psStock.setString(2, producto.getCodigo());
+                psStock.setInt(3, producto.getCantidadSolicitada());
+                psStock.addBatch();
+            }
+            actualizados = psStock.executeBatch();
+        }
+
+        // Reportar todas las líneas que no tenían stock, no solo la primera.
+        // La excepción deshace la venta ya insertada
+        StringBuilder sinStock = new StringBuilder();
+        for (int i = 0; i < actualizados.length; i++) {
+            if (actualizados[i] == 0) {
+                Producto producto = productosVendidos.get(i);
+                sinStock.append("\n- ").append(producto.getProducto())
+                        .append(" (").append(producto.getCodigo()).append("), solicitado: ")
+                        .append(producto.getCantidadSolicitada());
+            }
+        }
+        if (sinStock.length() > 0) {
+            throw new ExcepcionServicio(ErrorServicio.stockInsuficiente("Stock insuficiente para los productos:" + sinStock));
+        }
+
+        // Insertar los detalles de la venta en un solo lote
+        long unidades = 0;
+        double totalDetalles = 0;
+        try (PreparedStatement psDetalle = conn.prepareStatement(sqlInsertDetalleVenta)) {
+            for (Producto producto : productosVendidos) {
+                unidades += producto.getCantidadSolicitada();
+                totalDetalles += producto.getPrecio() * producto.getCantidadSolicitada();
+                psDetalle.setInt(1, ventaId);
+                psDetalle.setString(2, producto.getProducto());
+                psDetalle.setInt(3, producto.getCantidadSolicitada());
+                psDetalle.setString(4, producto.getCodigo());
+                psDetalle.setDouble(5, producto.getPrecio());
+                psDetalle.setDouble(6, producto.getPrecio() * producto.getCantidadSolicitada());
+                psDetalle.addBatch();
+            }
+            psDetalle.executeBatch();
+        }
+
+        // Sumar la venta al resumen diario en la misma transacción
+        VentasDiarias.sumarVenta(conn, venta.getFecha().toEpochDay(), venta.getVendedor(),
+                venta.getMetodoPago(), unidades, totalDetalles);
+        return ventaId;
+    }
+
+    // Campos generales de la cotización (ver PlantillaCotizacion y CotizacionPdf)
+    private static Map<String, Object> camposCotizacion(Usuario cliente, String numero, List<Venta> ventas) {
+        Map<String, Object> campos = new HashMap<>();
+        campos.put("fecha", LocalDate.now().toString());
+        campos.put("numero", numero);
+        // El método de pago es el de la primera venta
+        campos.put("metodoPago", ventas.isEmpty() ? "" : ventas.get(0).getMetodoPago());
+        campos.put("cliente", cliente.getNombre());
+        campos.put("nit", cliente.getNIT());
+        campos.put("direccion", cliente.getDIR());
+        campos.put("telefono", cliente.getTelefono());
+        double totalCotizacion = 0;
+        for (Venta venta : ventas) {
+            totalCotizacion += venta.getCantidad() * venta.getProducto().getPrecio();
+        }
+        campos.put("total", totalCotizacion);
+        return campos;
+    }
+
+    // Una fila de campos por producto cotizado
+    private static List<Map<String, Object>> productosCotizacion(List<Venta> ventas) {
+        List<Map<String, Object>> productos = new ArrayList<>(ventas.size());
+        for (Venta venta : ventas) {
+            Map<String, Object> fila = new HashMap<>();
+            fila.put("cantidad", venta.getCantidad());
+            fila.put("producto", venta.getProducto().getProducto());
+            fila.put("codigo", venta.getProducto().getCodigo());
+            fila.put("precio", venta.getProducto().getPrecio());
+            fila.put("total", venta.getCantidad() * venta.getProducto().getPrecio());
+            productos.add(fila);
+        }
+        return productos;
+    }
+}
@@ -0,0 +1,259 @@
+package com.mycompany.zl_solucion_integral.vistas;
+
+import com.mycompany.zl_solucion_integral.config.UtilVentanas;
+import com.mycompany.zl_solucion_integral.controllers.InformeController;
+import com.mycompany.zl_solucion_integral.servicios.ServicioInformes.TipoInforme;
+import javax.swing.SpinnerNumberModel;
+
+/**
+ * Ventana de informes de análisis de ventas: productos más vendidos, ingresos
+ * por categoría, totales por vendedor y tamaño de cesta en un rango de fechas.
+ *
+ * @author Dazac
+ */
+public class FormAnalisisVentas extends javax.swing.JFrame {
+
+    InformeController informeCtrl = new InformeController();
+
+    public FormAnalisisVentas() {
+        initComponents();
+        setTitle("Análisis de ventas");
+        UtilVentanas.aplicarPantallaCompleta(this);
+        // Llenar la lista de informes y la cantidad de productos por defecto
+        for (TipoInforme tipo : TipoInforme.values()) {
+            cbInforme.addItem(tipo);
+        }
+        spCantidad.setModel(new SpinnerNumberModel(10, 1, 1000, 1));
+        generarInforme();
+    }
+
+    @SuppressWarnings("unchecked")
+    // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
+    private void initComponents() {
+
+        jLabel1 = new javax.swing.JLabel();
+        jSeparator2 = new javax.swing.JSeparator();
+        jLabel2 = new javax.swing.JLabel();
+        cbInforme = new javax.swing.JComboBox<>();
+        jLabel3 = new javax.swing.JLabel();
+        txtFechaInicio = new javax.swing.JTextField();
+        jLabel4 = new javax.swing.JLabel();
+        txtFechaFinalizacion = new javax.swing.JTextField();
+        jLabel5 = new javax.swing.JLabel();
+        spCantidad = new javax.swing.JSpinner();
+        btnGenerar = new javax.swing.JButton();
+        lblResumen = new javax.swing.JLabel();
+        jScrollPane1 = new javax.swing.JScrollPane();
+        tbInforme = new javax.swing.JTable();
+        jSeparator1 = new javax.swing.JSeparator();
+        btnMenuInformes = new javax.swing.JButton();
+        btnSalir = new javax.swing.JButton();
+
+        setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
+
+        jLabel1.setFont(new java.awt.Font("Lucida Console", 0, 36)); // NOI18N
+        jLabel1.setText("Análisis de ventas");
+
+        jLabel2.setText("Informe:");
+
+        cbInforme.setCursor(new java.awt.Cursor(java.awt.Cursor.HAND_CURSOR));
+
+        jLabel3.setText("Fecha de Inicio:");
+
+        jLabel4.setText("Fecha Finalizacion:");
+
+        jLabel5.setText("Cantidad de productos:");
+
+        btnGenerar.setFont(new java.awt.Font("Segoe UI", 3, 12)); // NOI18N
+        btnGenerar.setText("Generar");
+        btnGenerar.setCursor(new java.awt.Cursor(java.awt.Cursor.HAND_CURSOR));
+        btnGenerar.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnGenerarActionPerformed(evt);
+            }
+        });
+
+        lblResumen.setFont(new java.awt.Font("Segoe UI", 1, 14)); // NOI18N
+
+        tbInforme.setModel(new javax.swing.table.DefaultTableModel(
+            new Object [][] {
+
+            },
+            new String [] {
+
+            }
+        ));
+        jScrollPane1.setViewportView(tbInforme);
+
+        btnMenuInformes.setFont(new java.awt.Font("Segoe UI", 3, 12)); // NOI18N
+        btnMenuInformes.setText("Menu Informes");
+        btnMenuInformes.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnMenuInformesActionPerformed(evt);
+            }
+        });
+
+        btnSalir.setFont(new java.awt.Font("Segoe UI", 3, 12)); // NOI18N
+        btnSalir.setText("Salir");
+        btnSalir.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnSalirActionPerformed(evt);
+            }
+        });
+
+        javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
+        getContentPane().setLayout(layout);
+        layout.setHorizontalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addComponent(jSeparator1)
+            .addComponent(jSeparator2)
+            .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(jScrollPane1)
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(btnMenuInformes)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                        .addComponent(btnSalir))
+                    .addGroup(layout.createSequentialGroup()
+                        .addComponent(jLabel2)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(cbInforme, javax.swing.GroupLayout.PREFERRED_SIZE, 280, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addGap(18, 18, 18)
+                        .addComponent(jLabel3)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(txtFechaInicio, javax.swing.GroupLayout.PREFERRED_SIZE, 100, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addGap(18, 18, 18)
+                        .addComponent(jLabel4)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(txtFechaFinalizacion, javax.swing.GroupLayout.PREFERRED_SIZE, 100, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addGap(18, 18, 18)
+                        .addComponent(jLabel5)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(spCantidad, javax.swing.GroupLayout.PREFERRED_SIZE, 70, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addGap(18, 18, 18)
+                        .addComponent(btnGenerar)
+                        .addGap(0, 0, Short.MAX_VALUE))
+                    .addComponent(lblResumen, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+                .addContainerGap())
+            .addGroup(layout.createSequentialGroup()
+                .addGap(392, 392, 392)
+                .addComponent(jLabel1)
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+        layout.setVerticalGroup(
+            layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(layout.createSequentialGroup()
+                .addGap(8, 8, 8)
+                .addComponent(jLabel1)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(jSeparator2, javax.swing.GroupLayout.PREFERRED_SIZE, 10, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addGap(18, 18, 18)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel2)
+                    .addComponent(cbInforme, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(jLabel3)
+                    .addComponent(txtFechaInicio, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(jLabel4)
+                    .addComponent(txtFechaFinalizacion, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(jLabel5)
+                    .addComponent(spCantidad, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(btnGenerar))
+                .addGap(18, 18, 18)
+                .addComponent(lblResumen)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(jScrollPane1, javax.swing.GroupLayout.DEFAULT_SIZE, 420, Short.MAX_VALUE)
+                .addGap(18, 18, 18)
+                .addComponent(jSeparator1, javax.swing.GroupLayout.PREFERRED_SIZE, 10, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(btnMenuInformes)
+                    .addComponent(btnSalir))
+                .addContainerGap())
+        );
+
+        pack();
+    }// </editor-fold>//GEN-END:initComponents
+
+    private void btnGenerarActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnGenerarActionPerformed
+        generarInforme();
+    }//GEN-LAST:event_btnGenerarActionPerformed
+
+    // Genera el informe seleccionado con las fechas escritas; sin fechas usa todas las ventas
+    private void generarInforme() {
+        TipoInforme tipo = (TipoInforme) cbInforme.getSelectedItem();
+        String fechaInicio = txtFechaInicio.getText().trim();
+        String fechaFinalizacion = txtFechaFinalizacion.getText().trim();
+        int cantidad = (Integer) spCantidad.getValue();
+
+        lblResumen.setText("Generando " + tipo.getTitulo().toLowerCase() + "...");
+        informeCtrl.mostrarInforme(tbInforme, tipo, fechaInicio, fechaFinalizacion, cantidad, () -> {
+            String rango = fechaInicio.isEmpty() && fechaFinalizacion.isEmpty()
+                    ? "todas las ventas"
+                    : (fechaInicio.isEmpty() ? "la primera venta" : fechaInicio) + " - "
+                    + (fechaFinalizacion.isEmpty() ? "la última venta" : fechaFinalizacion);
+            lblResumen.setText(tipo.getTitulo() + " (" + rango + ")");
+        });
+    }
+
+    private void btnMenuInformesActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnMenuInformesActionPerformed
+        this.setVisible(false);
+        FormMenuInformes menuInformes = new FormMenuInformes();
+        menuInformes.setVisible(true);
+    }//GEN-LAST:event_btnMenuInformesActionPerformed
+
+    private void btnSalirActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnSalirActionPerformed
+        System.exit(0);// Cierra la aplicacion
+    }//GEN-LAST:event_btnSalirActionPerformed
+
+    public static void main(String args[]) {
+        /* Set the Nimbus look and feel */
+        //<editor-fold defaultstate="collapsed" desc=" Look and feel setting code (optional) ">
+        /* If Nimbus (introduced in Java SE 6) is not available, stay with the default look and feel.
+         * For details see http://download.oracle.com/javase/tutorial/uiswing/lookandfeel/plaf.html
+         */
+        try {
+            for (javax.swing.UIManager.LookAndFeelInfo info : javax.swing.UIManager.getInstalledLookAndFeels()) {
+                if ("Nimbus".equals(info.getName())) {
+                    javax.swing.UIManager.setLookAndFeel(info.getClassName());
+                    break;
+                }
+            }
+        } catch (ClassNotFoundException ex) {
+            java.util.logging.Logger.getLogger(FormAnalisisVentas.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
+        } catch (InstantiationException ex) {
+            java.util.logging.Logger.getLogger(FormAnalisisVentas.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
+        } catch (IllegalAccessException ex) {
+            java.util.logging.Logger.getLogger(FormAnalisisVentas.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
+        } catch (javax.swing.UnsupportedLookAndFeelException ex) {
+            java.util.logging.Logger.getLogger(FormAnalisisVentas.class.getName()).log(java.util.logging.Level.SEVERE, null, ex);
+        }
+        //</editor-fold>
+
+        java.awt.EventQueue.invokeLater(new Runnable() {
+            public void run() {
+                new FormAnalisisVentas().setVisible(true);
+            }
+        });
+    }
+
+    // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JButton btnGenerar;
+    private javax.swing.JButton btnMenuInformes;
+    private javax.swing.JButton btnSalir;
+    private javax.swing.JComboBox<TipoInforme> cbInforme;
+    private javax.swing.JLabel jLabel1;
+    private javax.swing.JLabel jLabel2;
+    private javax.swing.JLabel jLabel3;
+    private javax.swing.JLabel jLabel4;
+    private javax.swing.JLabel jLabel5;
+    private javax.swing.JScrollPane jScrollPane1;
+    private javax.swing.JSeparator jSeparator1;
+    private javax.swing.JSeparator jSeparator2;
+    private javax.swing.JLabel lblResumen;
+    private javax.swing.JSpinner spCantidad;
+    private javax.swing.JTable tbInforme;
+    private javax.swing.JTextField txtFechaFinalizacion;
+    private javax.swing.JTextField txtFechaInicio;
+    // End of variables declaration//GEN-END:variables
+}
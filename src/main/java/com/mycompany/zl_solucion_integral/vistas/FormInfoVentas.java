@@ -5,6 +5,7 @@ import com.mycompany.zl_solucion_integral.config.PantallaCarga;
 import com.mycompany.zl_solucion_integral.config.SelecionRuta;
 
 import com.mycompany.zl_solucion_integral.config.UtilVentanas;
+import com.mycompany.zl_solucion_integral.config.VentasDiarias;
 import com.mycompany.zl_solucion_integral.controllers.VentasController;
 
 import java.time.LocalDateTime;
@@ -31,9 +32,7 @@ public class FormInfoVentas extends javax.swing.JFrame {
         initComponents();
         setTitle("Informe Ventas");
         UtilVentanas.aplicarPantallaCompleta(this);
-        ventasCtrl.MostrarVentas(tbVentasInformes);
-        contarVentasUnicas();
-        calcularPrecioTotalVentas();
+        ventasCtrl.MostrarVentas(tbVentasInformes, this::actualizarTotales);
         // Crear los campos de texto a llenar con los datos de la fila seleccionada
         JTextField[] camposTexto = {txtFechaInicio, txtFecha, txtPagoConfirmado};
 
@@ -397,77 +396,47 @@ public class FormInfoVentas extends javax.swing.JFrame {
             txtFechaFinalizacion.setText(fechaActual);
             return;
         }
-        ventasCtrl.mostrarFechasDefinidas(tbVentasInformes, fechaInicio, fechaFinalizacion);
-        contarVentasUnicas();
-        calcularPrecioTotalVentas();
+        ventasCtrl.mostrarFechasDefinidas(tbVentasInformes, fechaInicio, fechaFinalizacion, this::actualizarTotales);
 
     }//GEN-LAST:event_btnFiltrar01ActionPerformed
 
-    public void contarVentasUnicas() {
-        // Obtiene el modelo de la tabla
-        javax.swing.table.TableModel modelo = tbVentasInformes.getModel();
-
-        // Usamos un Set para almacenar los Id únicos
-        java.util.Set<String> ventasUnicas = new java.util.HashSet<>();
-
-        // Recorremos todas las filas de la tabla y agregamos los Id únicos al Set
-        for (int i = 0; i < modelo.getRowCount(); i++) {
-            String idVenta = modelo.getValueAt(i, 0).toString(); // Supongamos que el Id está en la columna 0
-            ventasUnicas.add(idVenta);
-        }
+    // Muestra el número de ventas y el total cuando la tabla termina de cargarse; los
+    // totales se leen del resumen diario en el hilo de fondo de la carga
+    private void actualizarTotales(VentasDiarias.Totales totales) {
+        contarVentasUnicas(totales);
+        calcularPrecioTotalVentas(totales);
+    }
 
-        // El tamaño del Set representa el número de ventas únicas
-        int totalVentasUnicas = ventasUnicas.size();
+    public void contarVentasUnicas(VentasDiarias.Totales totales) {
+        long totalVentasUnicas = totales != null ? totales.getVentas() : 0;
 
         // Muestra el número total de ventas únicas en el campo correspondiente
-        textNumVentas.setText("Nª Total de ventas: " + String.valueOf(totalVentasUnicas));
+        textNumVentas.setText("Nª Total de ventas: " + totalVentasUnicas);
     }
 
-    // Metodo para sumar la columna 9 precio total para mostrarlo
-    private void calcularPrecioTotalVentas() {
-        // Obtiene el modelo de la tabla
-        javax.swing.table.TableModel modelo = tbVentasInformes.getModel();
-
-        // Variable para almacenar la suma total
-        double sumaTotal = 0.0;
-
-        // Recorremos todas las filas de la tabla
-        for (int i = 0; i < modelo.getRowCount(); i++) {
-            // Obtenemos el valor de la columna 12 (índice 11 porque las columnas empiezan en 0)
-            String valorColumna = modelo.getValueAt(i, 11).toString();
-
-            // Convertimos el valor a double y lo sumamos (manejo de excepciones por seguridad)
-            try {
-                double precio = Double.parseDouble(valorColumna);
-                sumaTotal += precio;
-            } catch (NumberFormatException e) {
-                System.out.println("Error al convertir a número: " + valorColumna);
-            }
-        }
+    // Metodo para mostrar la suma de la columna precio total
+    private void calcularPrecioTotalVentas(VentasDiarias.Totales totales) {
+        double total = totales != null ? totales.getTotal() : 0.0;
 
         // Muestra la suma total en el campo correspondiente
-        textPrecioTotalVentas.setText("Precio total de ventas: " +String.format("%.2f", sumaTotal));
+        textPrecioTotalVentas.setText("Precio total de ventas: " + String.format("%.2f", total));
     }
 
 
     private void btnFiltrar02ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnFiltrar02ActionPerformed
         String fecha = txtFecha.getText();
 
-        ventasCtrl.mostrarVentasPorDia(tbVentasInformes, fecha);
-        contarVentasUnicas();
-        calcularPrecioTotalVentas();
+        ventasCtrl.mostrarVentasPorDia(tbVentasInformes, fecha, this::actualizarTotales);
     }//GEN-LAST:event_btnFiltrar02ActionPerformed
 
     private void btnReiniciarFiltrosActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnReiniciarFiltrosActionPerformed
-        ventasCtrl.MostrarVentas(tbVentasInformes);
+        // Mostrar todas las ventas y luego contar la ventas y el total de las ventas
+        ventasCtrl.MostrarVentas(tbVentasInformes, this::actualizarTotales);
         // Limpiando los campos de texto
         txtFechaInicio.setText("");
         txtFechaFinalizacion.setText("");
         txtFecha.setText("");
         txtPagoConfirmado.setText("");
-        // Contar la ventas y el total de las ventas
-        contarVentasUnicas();
-        calcularPrecioTotalVentas();
 
     }//GEN-LAST:event_btnReiniciarFiltrosActionPerformed
 
@@ -484,10 +453,10 @@ public class FormInfoVentas extends javax.swing.JFrame {
                 @Override
                 protected Void doInBackground() throws Exception {
                     pantallaCarga.mostrar(); // Mostrar la pantalla de carga
-                    pantallaCarga.setMensaje("Exportando datos visibles de la tabla...");
+                    pantallaCarga.setMensaje("Exportando las ventas del filtro actual...");
 
-                    // Exportar los datos visibles de la tabla a un archivo Excel
-                    ventasCtrl.exportarDatosTablaAExcel(tbVentasInformes, rutaExcel);
+                    // Exportar las ventas del filtro mostrado directamente desde la base de datos
+                    ventasCtrl.exportarVentasAExcel(rutaExcel, pantallaCarga);
 
                     return null;
                 }
@@ -495,7 +464,12 @@ public class FormInfoVentas extends javax.swing.JFrame {
                 @Override
                 protected void done() {
                     pantallaCarga.cerrar(); // Cerrar la pantalla de carga
-                    JOptionPane.showMessageDialog(null, "Exportación completada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                    try {
+                        get(); // Verifica si ocurrió alguna excepción
+                        JOptionPane.showMessageDialog(null, "Exportación completada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                    } catch (Exception e) {
+                        JOptionPane.showMessageDialog(null, "Error al exportar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    }
                 }
             };
 
@@ -506,6 +480,10 @@ public class FormInfoVentas extends javax.swing.JFrame {
     private void btnCambiarValorActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnCambiarValorActionPerformed
         String pagoConfirmado = txtPagoConfirmado.getText();
         int idSelecionado = ventasCtrl.obtenerIdVentaSeleccionado(tbVentasInformes);
+        if (idSelecionado == -1) {
+            JOptionPane.showMessageDialog(this, "Seleccione una venta cargada en la tabla.");
+            return;
+        }
         ventasCtrl.actualizarPagoConfirmado(idSelecionado, pagoConfirmado);
         ventasCtrl.MostrarVentas(tbVentasInformes);
     }//GEN-LAST:event_btnCambiarValorActionPerformed
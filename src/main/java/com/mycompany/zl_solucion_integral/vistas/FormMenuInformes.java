@@ -22,6 +22,7 @@ public class FormMenuInformes extends javax.swing.JFrame {
         jSeparator2 = new javax.swing.JSeparator();
         jPanel1 = new javax.swing.JPanel();
         btnInfoVentasDiario = new javax.swing.JButton();
+        btnAnalisisVentas = new javax.swing.JButton();
         jButton2 = new javax.swing.JButton();
         jButton3 = new javax.swing.JButton();
 
@@ -56,6 +57,14 @@ public class FormMenuInformes extends javax.swing.JFrame {
             }
         });
 
+        btnAnalisisVentas.setFont(new java.awt.Font("Segoe UI", 3, 14)); // NOI18N
+        btnAnalisisVentas.setText("Análisis de ventas");
+        btnAnalisisVentas.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnAnalisisVentasActionPerformed(evt);
+            }
+        });
+
         jButton2.setFont(new java.awt.Font("Segoe UI", 3, 14)); // NOI18N
         jButton2.setText("Informes de inventario");
 
@@ -71,7 +80,8 @@ public class FormMenuInformes extends javax.swing.JFrame {
                 .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING, false)
                     .addComponent(jButton3, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(jButton2, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-                    .addComponent(btnInfoVentasDiario, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.PREFERRED_SIZE, 175, javax.swing.GroupLayout.PREFERRED_SIZE))
+                    .addComponent(btnInfoVentasDiario, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.PREFERRED_SIZE, 175, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(btnAnalisisVentas, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
                 .addContainerGap(112, Short.MAX_VALUE))
         );
         jPanel1Layout.setVerticalGroup(
@@ -83,7 +93,9 @@ public class FormMenuInformes extends javax.swing.JFrame {
                 .addComponent(jButton3)
                 .addGap(28, 28, 28)
                 .addComponent(btnInfoVentasDiario)
-                .addContainerGap(238, Short.MAX_VALUE))
+                .addGap(28, 28, 28)
+                .addComponent(btnAnalisisVentas)
+                .addContainerGap(183, Short.MAX_VALUE))
         );
 
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
@@ -149,6 +161,12 @@ public class FormMenuInformes extends javax.swing.JFrame {
         formInfoDiarioVentas.setVisible(true);
     }//GEN-LAST:event_btnInfoVentasDiarioActionPerformed
 
+    private void btnAnalisisVentasActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnAnalisisVentasActionPerformed
+        this.setVisible(false);
+        FormAnalisisVentas formAnalisisVentas = new FormAnalisisVentas();
+        formAnalisisVentas.setVisible(true);
+    }//GEN-LAST:event_btnAnalisisVentasActionPerformed
+
     public static void main(String args[]) {
         /* Set the Nimbus look and feel */
         //<editor-fold defaultstate="collapsed" desc=" Look and feel setting code (optional) ">
@@ -179,6 +197,7 @@ public class FormMenuInformes extends javax.swing.JFrame {
     }
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
+    private javax.swing.JButton btnAnalisisVentas;
     private javax.swing.JButton btnInfoVentasDiario;
     private javax.swing.JButton btnMenuPrincipal;
     private javax.swing.JButton btnSalir;
@@ -2,6 +2,7 @@ package com.mycompany.zl_solucion_integral.vistas;
 
 import com.mycompany.zl_solucion_integral.config.ExcelSQLiteManager;
 import com.mycompany.zl_solucion_integral.config.Listener;
+import com.mycompany.zl_solucion_integral.config.ModeloTablaColumnar;
 import com.mycompany.zl_solucion_integral.config.PantallaCarga;
 import com.mycompany.zl_solucion_integral.config.SelecionRuta;
 import com.mycompany.zl_solucion_integral.config.UtilVentanas;
@@ -34,10 +35,12 @@ public class FormRegistroProductos extends javax.swing.JFrame {
         setTitle("Registro de productos");
         UtilVentanas.aplicarPantallaCompleta(this);
 
+        // Ordenar los productos al hacer clic en el encabezado de una columna
+        ModeloTablaColumnar.ordenarAlHacerClic(tbProductos);
+
         // Mostrar los datos de la tabla productos
-        productoCtrl.mostrarProductos(tbProductos);
-        String totalRegistros = String.valueOf(productoCtrl.contarRegistros("Todas"));
-        textTotalRegistros.setText("Total registros:  " + totalRegistros);
+        productoCtrl.mostrarProductos(tbProductos,
+                () -> textTotalRegistros.setText("Total registros:  " + tbProductos.getRowCount()));
 
         // Rellenar el JComboBox de categorias
         initComboBoxCategorias();
@@ -525,7 +528,7 @@ public class FormRegistroProductos extends javax.swing.JFrame {
                 protected Void doInBackground() throws Exception {
                     try {
                         // Llamar al método de importar Excel
-                        ExcelSQLiteManager.importarExcel(rutaExcel, nombreTabla);
+                        ExcelSQLiteManager.importarExcel(rutaExcel, nombreTabla, pantalla);
                     } catch (Exception e) {
                         throw new Exception("Error durante la importación: " + e.getMessage());
                     }
@@ -570,7 +573,7 @@ public class FormRegistroProductos extends javax.swing.JFrame {
                     pantallaCarga.setMensaje("Exportando datos...");
 
                     // Aquí llamamos al método de exportación
-                    ExcelSQLiteManager.exportarDatosAExcel("productos", rutaExcel);
+                    ExcelSQLiteManager.exportarDatosAExcel("productos", rutaExcel, pantallaCarga);
 
                     return null;
                 }
@@ -578,7 +581,12 @@ public class FormRegistroProductos extends javax.swing.JFrame {
                 @Override
                 protected void done() {
                     pantallaCarga.cerrar(); // Cerrar la pantalla de carga
-                    JOptionPane.showMessageDialog(null, "Exportación completada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                    try {
+                        get(); // Verifica si ocurrió alguna excepción
+                        JOptionPane.showMessageDialog(null, "Exportación completada exitosamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                    } catch (Exception e) {
+                        JOptionPane.showMessageDialog(null, "Error al exportar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    }
                 }
             };
 
@@ -591,11 +599,9 @@ public class FormRegistroProductos extends javax.swing.JFrame {
         String categoriaSeleccionada = (String) ListCategoria.getSelectedItem();
 
         // Mostrar los productos filtrados por la categoría seleccionada
-        productoCtrl.mostrarProductosPorCategoria(tbProductos, categoriaSeleccionada);
-
-        // Actualizar el total de registros
-        String totalRegistros = String.valueOf(productoCtrl.contarRegistros(categoriaSeleccionada));
-        textTotalRegistros.setText("Total registros: " + totalRegistros);
+        // y actualizar el total de registros cuando termine la carga
+        productoCtrl.mostrarProductosPorCategoria(tbProductos, categoriaSeleccionada,
+                () -> textTotalRegistros.setText("Total registros: " + tbProductos.getRowCount()));
     }//GEN-LAST:event_ListCategoriaActionPerformed
     // Metodo para Limpiar el formulario  
     private void limpiarFormulario() {
@@ -1,5 +1,6 @@
 package com.mycompany.zl_solucion_integral.vistas;
 
+import com.mycompany.zl_solucion_integral.config.Autocompletado;
 import com.mycompany.zl_solucion_integral.config.EnvioCotizacion;
 import com.mycompany.zl_solucion_integral.config.PantallaCarga;
 import com.mycompany.zl_solucion_integral.config.SelecionRuta;
@@ -15,6 +16,8 @@ import com.mycompany.zl_solucion_integral.models.Venta;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import javax.swing.DefaultListModel;
 
 import javax.swing.JOptionPane;
@@ -53,6 +56,10 @@ public class FormRegistroVentas extends javax.swing.JFrame {
     // Inicialización del modelo
     private DefaultListModel<String> modeloLista = new DefaultListModel<>();
 
+    // Autocompletado de los campos de producto y código
+    private Autocompletado<Producto> autocompletadoProducto;
+    private Autocompletado<Producto> autocompletadoCodigo;
+
     // Obtener el usuario logueado
     String vendedor = sesion.getUsuarioLogueado();
 
@@ -76,6 +83,21 @@ public class FormRegistroVentas extends javax.swing.JFrame {
         btnMenuPrincipal.setVisible(esAdmin); // Ocultar el boton inicalmente
         tbVentas.setVisible(esAdmin); // Ocultar la tabla inicalmente
         textVendedor.setText("Vendedor: " + vendedor);               
+        instalarAutocompletado();
+    }
+
+    // Configura la búsqueda de productos mientras se escribe el nombre o el código
+    private void instalarAutocompletado() {
+        Function<String, List<Producto>> proveedor = texto -> productoCtrl.buscarSugerencias(texto, 10);
+        Function<Producto, String> descripcion = p -> p.getCodigo() + " - " + p.getProducto()
+                + " (" + p.getCantidad() + " disponibles)";
+        Consumer<Producto> alElegir = p -> {
+            autocompletadoCodigo.establecerTexto(p.getCodigo());
+            autocompletadoProducto.establecerTexto(p.getProducto());
+            txtCantidad.requestFocusInWindow();
+        };
+        autocompletadoProducto = Autocompletado.instalar(txtProducto, proveedor, descripcion, alElegir);
+        autocompletadoCodigo = Autocompletado.instalar(txtCodigo, proveedor, descripcion, alElegir);
     }
 
     // Método para obtener los datos del formulario
@@ -825,10 +847,20 @@ public class FormRegistroVentas extends javax.swing.JFrame {
 
         String telefono = cliente.getTelefono();
         String correo = cliente.getEmail();
-        String numeroCotizacion = ventasCtrl.obtenerYActualizarNumeroCotizacion();
 
-        // Guardar el número de cotización en la base de datos
-        ventasCtrl.guardarNumeroCotizacionEnBaseDeDatos(numeroCotizacion);
+        // Formato de la cotización: Excel con plantilla o PDF directo. Se pregunta
+        // aquí, en el hilo de eventos, antes de pasar al hilo de fondo
+        String[] opcionesFormato = {"Excel (plantilla)", "PDF"};
+        int formato = JOptionPane.showOptionDialog(this,
+                "Seleccione el formato de la cotización:",
+                "Formato de la Cotización",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+                null, opcionesFormato, opcionesFormato[0]);
+        if (formato < 0) {
+            JOptionPane.showMessageDialog(this, "No se seleccionó ningún formato. Operación cancelada.", "Información", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        boolean pdf = formato == 1;
 
         // Crear la pantalla de carga
         final PantallaCarga pantallaCarga = new PantallaCarga(this);  // Hacerla final
@@ -841,23 +873,39 @@ public class FormRegistroVentas extends javax.swing.JFrame {
         new Thread(() -> {
             try {// Paso 1: Abrir la plantilla
                 SwingUtilities.invokeLater(() -> pantallaCarga.setProgreso(15)); // Progreso: 15%
-                // Aquí iría la lógica para abrir la plantilla (si es necesario)
+
                 // Seleccionar plantilla y ruta de guardado
-                String rutaPlantilla = SelecionRuta.obtenerRuta("Seleccionar Plantilla de Cotización", "Plantilla_Cotizacion.xlsx", ".xlsx");
-                if (rutaPlantilla == null) {
-                    JOptionPane.showMessageDialog(this, "No se seleccionó ninguna plantilla. Operación cancelada.", "Información", JOptionPane.INFORMATION_MESSAGE);
-                    return;
+                String rutaPlantilla = null;
+                if (!pdf) {
+                    rutaPlantilla = SelecionRuta.obtenerRuta("Seleccionar Plantilla de Cotización", "Plantilla_Cotizacion.xlsx", ".xlsx");
+                    if (rutaPlantilla == null) {
+                        JOptionPane.showMessageDialog(this, "No se seleccionó ninguna plantilla. Operación cancelada.", "Información", JOptionPane.INFORMATION_MESSAGE);
+                        return;
+                    }
                 }
-                String rutaArchivo = SelecionRuta.obtenerRuta("Guardar Cotización", "cotizacion_cliente_" + cliente.getNoCc() + ".xlsx", ".xlsx");
+                String extension = pdf ? ".pdf" : ".xlsx";
+                String rutaArchivo = SelecionRuta.obtenerRuta("Guardar Cotización", "cotizacion_cliente_" + cliente.getNoCc() + extension, extension);
                 if (rutaArchivo == null) {
                     JOptionPane.showMessageDialog(this, "No se seleccionó ninguna ubicación para guardar el archivo. Operación cancelada.", "Información", JOptionPane.INFORMATION_MESSAGE);
                     return;
                 }
 
+                // Reserva el número en este hilo: espera a que la cola de escritura lo
+                // confirme. Se hace después de elegir las rutas para no gastar números
+                // en cotizaciones canceladas
+                String numeroCotizacion = ventasCtrl.obtenerYActualizarNumeroCotizacion();
+                if (numeroCotizacion == null) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                            "No se pudo obtener el número de cotización.", "Error", JOptionPane.ERROR_MESSAGE));
+                    return;
+                }
+
                 // Paso 2: Iniciar el proceso de generación (por ejemplo, insertar datos en la plantilla)
                 SwingUtilities.invokeLater(() -> pantallaCarga.setProgreso(30)); // Progreso: 30%                
                 // Llamada real para generar el archivo de cotización
-                boolean resultado = ventasCtrl.generarArchivoCotizacionConPlantilla(rutaPlantilla, rutaArchivo, numeroCotizacion, ventasCotizadas);
+                boolean resultado = pdf
+                        ? ventasCtrl.generarArchivoCotizacionPdf(rutaArchivo, numeroCotizacion, ventasCotizadas)
+                        : ventasCtrl.generarArchivoCotizacionConPlantilla(rutaPlantilla, rutaArchivo, numeroCotizacion, ventasCotizadas);
                 if (!resultado) {
                     JOptionPane.showMessageDialog(this, "Error al generar la cotización.", "Error", JOptionPane.ERROR_MESSAGE);
                     return;
@@ -886,7 +934,9 @@ public class FormRegistroVentas extends javax.swing.JFrame {
                 } else if (opcionSeleccionada == 1) {
                     // Enviar por Correo
                     if (correo != null && !correo.isEmpty()) {
+                        // Queda en la bandeja de salida; el resultado se avisa al terminar el envío
                         envioCotizacion.enviarPorCorreo(correo, rutaArchivo);
+                        JOptionPane.showMessageDialog(this, "La cotización se enviará por correo en segundo plano.", "Correo", JOptionPane.INFORMATION_MESSAGE);
                     } else {
                         JOptionPane.showMessageDialog(this, "El correo electrónico del cliente no está disponible.", "Error", JOptionPane.ERROR_MESSAGE);
                     }
@@ -934,8 +984,10 @@ public class FormRegistroVentas extends javax.swing.JFrame {
 
         // Intentar guardar la venta
         try {
-            // Invocar el método del controlador para guardar la venta
-            ventasCtrl.guardarVenta(venta, productosVendidos, tbVentas);
+            // Invocar el método del controlador para guardar la venta; si falla ya mostró el error
+            if (!ventasCtrl.guardarVenta(venta, productosVendidos, tbVentas)) {
+                return;
+            }
             usuarioCtrl.agregarUsuario(cliente);
             // Mostrar mensaje de éxito
             JOptionPane.showMessageDialog(this, "Venta registrada con éxito.",
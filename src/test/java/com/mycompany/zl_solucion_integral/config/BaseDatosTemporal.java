@@ -0,0 +1,68 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Base de datos SQLite en un archivo temporal, con el esquema actual, para
+ * las pruebas de carga y comparativas de este directorio. Al abrirla se
+ * inicializa el pool de conexiones compartido contra ella; al cerrarla se
+ * detiene la cola de escritura, se cierra el pool y se borran los archivos.
+ *
+ * @author Dazac
+ */
+final class BaseDatosTemporal implements AutoCloseable {
+
+    private final Path archivo;
+    private final String url;
+
+    private BaseDatosTemporal(Path archivo) {
+        this.archivo = archivo;
+        this.url = "jdbc:sqlite:" + archivo;
+    }
+
+    /**
+     * Crea la base de datos, aplica las migraciones e inicializa el pool.
+     *
+     * @param lectores Conexiones de lectura del pool.
+     * @return La base de datos abierta.
+     * @throws IOException Si no se puede crear el archivo temporal.
+     * @throws SQLException Si falla la migración o el pool.
+     */
+    static BaseDatosTemporal abrir(int lectores) throws IOException, SQLException {
+        BaseDatosTemporal base = new BaseDatosTemporal(Files.createTempFile("simplifybiz-prueba", ".db"));
+        try (Connection conn = base.conectar()) {
+            new MigradorEsquema().migrar(conn);
+        }
+        PoolConexiones.inicializar(base.url, lectores, 60_000, PerfilSQLite.predefinido("rendimiento"));
+        return base;
+    }
+
+    /**
+     * Abre una conexión propia, fuera del pool, como la de otro equipo que
+     * comparte la base de datos.
+     *
+     * @return Conexión nueva.
+     * @throws SQLException Si no se puede abrir.
+     */
+    Connection conectar() throws SQLException {
+        return DriverManager.getConnection(url);
+    }
+
+    Path getArchivo() {
+        return archivo;
+    }
+
+    @Override
+    public void close() throws IOException, SQLException {
+        ColaEscritura.cerrar(10_000);
+        PoolConexiones.getInstancia().cerrar();
+        for (String sufijo : new String[]{"", "-wal", "-shm"}) {
+            Files.deleteIfExists(Path.of(archivo + sufijo));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Comparativa de {@link AnalisisVentas}: mide las consultas `GROUP BY` de un
+ * solo hilo que calculan los informes de productos y de tamaño de cesta,
+ * la pasada secuencial y la pasada en paralelo con distintos números de
+ * tramos, sobre una base de datos temporal con ventas generadas. Comprueba
+ * además que todas las variantes dan las mismas unidades, ingresos y cestas.
+ *
+ * Se ejecuta con
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.mycompany.zl_solucion_integral.config.ComparativaAnalisisVentas [ventas] [días] [repeticiones]
+ * </pre>
+ *
+ * Por defecto genera 300.000 ventas (de 1 a 5 líneas cada una) repartidas en
+ * 1.095 días y toma el mejor de 3 tiempos. El paralelismo real está limitado
+ * por {@link AnalisisVentas#hilos()} (`analisis.hilos`, o los núcleos del
+ * equipo sin pasar de `db.lectores`), así que la aceleración solo se ve en un
+ * equipo con varios núcleos. La salida muestra ese límite junto a la
+ * aceleración medida. Termina con código 1 si algún resultado no coincide.
+ *
+ * @author Dazac
+ */
+public final class ComparativaAnalisisVentas {
+
+    private static final String SQL_PRODUCTOS = "SELECT d.codigo, SUM(d.cantidad), SUM(d.cantidad * d.precio) "
+            + "FROM ventas v JOIN detalles_venta d ON v.id = d.venta_id "
+            + "WHERE v.fecha_dia BETWEEN ? AND ? GROUP BY d.codigo";
+
+    private static final String SQL_CESTAS = "SELECT MIN(unidades, " + AnalisisVentas.CESTA_MAXIMA + "), COUNT(*) "
+            + "FROM (SELECT SUM(d.cantidad) AS unidades FROM ventas v JOIN detalles_venta d ON v.id = d.venta_id "
+            + "WHERE v.fecha_dia BETWEEN ? AND ? GROUP BY d.venta_id) GROUP BY 1";
+
+    private ComparativaAnalisisVentas() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int ventas = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        int dias = args.length > 1 ? Integer.parseInt(args[1]) : 1_095;
+        int repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        TreeSet<Integer> particiones = new TreeSet<>();
+        for (int p = 1; p <= Math.max(4, AnalisisVentas.hilos()); p *= 2) {
+            particiones.add(p);
+        }
+        particiones.add(AnalisisVentas.hilos());
+
+        boolean correcto = true;
+        try (BaseDatosTemporal base = BaseDatosTemporal.abrir(particiones.last())) {
+            long lineas = generar(base, ventas, dias);
+            System.out.printf("%d ventas, %d líneas, %d días; %d núcleos, AnalisisVentas.hilos() = %d%n",
+                    ventas, lineas, dias, Runtime.getRuntime().availableProcessors(), AnalisisVentas.hilos());
+
+            Resumen[] referencia = new Resumen[1];
+            double msGroupBy = mejorTiempo(repeticiones, () -> referencia[0] = consultarGroupBy());
+            System.out.printf("%-36s %8.0f ms%n", "SQL GROUP BY (un hilo)", msGroupBy);
+
+            Resumen[] secuencial = new Resumen[1];
+            double msSecuencial = mejorTiempo(repeticiones, () -> {
+                try (Connection conn = PoolConexiones.getInstancia().obtenerLector()) {
+                    secuencial[0] = Resumen.de(AnalisisVentas.acumular(conn, null, null));
+                }
+            });
+            correcto &= informar("pasada secuencial", msSecuencial, msGroupBy, msSecuencial,
+                    secuencial[0].igualA(referencia[0]));
+
+            for (int p : particiones) {
+                Resumen[] paralelo = new Resumen[1];
+                double ms = mejorTiempo(repeticiones,
+                        () -> paralelo[0] = Resumen.de(AnalisisVentas.acumularEnParalelo(null, null, p)));
+                correcto &= informar("pasada en paralelo, " + p + " tramo(s)", ms, msGroupBy, msSecuencial,
+                        paralelo[0].igualA(referencia[0]));
+            }
+        }
+        System.out.println(correcto ? "OK" : "FALLÓ: los resultados no coinciden");
+        System.exit(correcto ? 0 : 1);
+    }
+
+    @FunctionalInterface
+    private interface Medicion {
+
+        void ejecutar() throws SQLException;
+    }
+
+    // Mejor tiempo en ms de `repeticiones` ejecuciones, tras una de calentamiento
+    private static double mejorTiempo(int repeticiones, Medicion medicion) throws SQLException {
+        medicion.ejecutar();
+        double mejor = Double.MAX_VALUE;
+        for (int i = 0; i < repeticiones; i++) {
+            long inicio = System.nanoTime();
+            medicion.ejecutar();
+            mejor = Math.min(mejor, (System.nanoTime() - inicio) / 1e6);
+        }
+        return mejor;
+    }
+
+    private static boolean informar(String variante, double ms, double msGroupBy, double msSecuencial,
+            boolean coincide) {
+        System.out.printf("%-36s %8.0f ms  x%.2f frente a GROUP BY, x%.2f frente a la pasada secuencial  %s%n",
+                variante, ms, msGroupBy / ms, msSecuencial / ms, coincide ? "[ok]" : "[NO COINCIDE]");
+        return coincide;
+    }
+
+    // Productos y cestas con las consultas GROUP BY equivalentes a la pasada
+    private static Resumen consultarGroupBy() throws SQLException {
+        Resumen resumen = new Resumen();
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_PRODUCTOS)) {
+                pstmt.setLong(1, Long.MIN_VALUE);
+                pstmt.setLong(2, Long.MAX_VALUE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        resumen.unidades.put(rs.getString(1), rs.getLong(2));
+                        resumen.totales.put(rs.getString(1), rs.getDouble(3));
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_CESTAS)) {
+                pstmt.setLong(1, Long.MIN_VALUE);
+                pstmt.setLong(2, Long.MAX_VALUE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        resumen.cestas[rs.getInt(1)] = rs.getLong(2);
+                    }
+                }
+            }
+        }
+        return resumen;
+    }
+
+    // Inserta ventas aleatorias (siempre las mismas) y reconstruye el resumen diario
+    private static long generar(BaseDatosTemporal base, int ventas, int dias) throws SQLException {
+        Random azar = new Random(42);
+        long primerDia = LocalDate.of(2022, 1, 1).toEpochDay();
+        int productos = 3_000;
+        long lineas = 0;
+        try (Connection conn = base.conectar()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement psVenta = conn.prepareStatement("INSERT INTO ventas (id, cliente, cc_cliente, "
+                    + "vendedor, fecha, fecha_dia, total, metodo_pago, pago_confirmado) VALUES (?, ?, ?, ?, ?, ?, ?, ?, '')");
+                    PreparedStatement psDetalle = conn.prepareStatement("INSERT INTO detalles_venta (venta_id, "
+                            + "producto, cantidad, codigo, precio, total) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int id = 1; id <= ventas; id++) {
+                    long dia = primerDia + (long) id * dias / (ventas + 1);
+                    double total = 0;
+                    int lineasVenta = 1 + azar.nextInt(5);
+                    for (int l = 0; l < lineasVenta; l++) {
+                        int producto = azar.nextInt(productos);
+                        int cantidad = 1 + azar.nextInt(4);
+                        double precio = 1 + producto % 500;
+                        psDetalle.setInt(1, id);
+                        psDetalle.setString(2, "Producto " + producto);
+                        psDetalle.setInt(3, cantidad);
+                        psDetalle.setString(4, "COD-" + producto);
+                        psDetalle.setDouble(5, precio);
+                        psDetalle.setDouble(6, precio * cantidad);
+                        psDetalle.addBatch();
+                        total += precio * cantidad;
+                        lineas++;
+                    }
+                    psVenta.setInt(1, id);
+                    psVenta.setString(2, "Cliente " + id % 5_000);
+                    psVenta.setString(3, String.valueOf(id % 5_000));
+                    psVenta.setString(4, "Vendedor " + id % 7);
+                    psVenta.setDate(5, Date.valueOf(LocalDate.ofEpochDay(dia)));
+                    psVenta.setLong(6, dia);
+                    psVenta.setDouble(7, total);
+                    psVenta.setString(8, id % 3 == 0 ? "crédito" : "efectivo");
+                    psVenta.addBatch();
+                    if (id % 10_000 == 0) {
+                        psVenta.executeBatch();
+                        psDetalle.executeBatch();
+                    }
+                }
+                psVenta.executeBatch();
+                psDetalle.executeBatch();
+            }
+            VentasDiarias.reconstruir(conn);
+            conn.commit();
+            try (Statement st = conn.createStatement()) {
+                st.execute("ANALYZE");
+            }
+        }
+        return lineas;
+    }
+
+    /**
+     * Unidades e ingresos por código y ventas por tamaño de cesta, para
+     * comparar las variantes entre sí.
+     */
+    private static final class Resumen {
+
+        final Map<String, Long> unidades = new HashMap<>();
+        final Map<String, Double> totales = new HashMap<>();
+        final long[] cestas = new long[AnalisisVentas.CESTA_MAXIMA + 1];
+
+        static Resumen de(AnalisisVentas.Acumulado acumulado) {
+            Resumen resumen = new Resumen();
+            for (int i = 0; i < acumulado.getProductos(); i++) {
+                resumen.unidades.put(acumulado.getCodigo(i), acumulado.getUnidades(i));
+                resumen.totales.put(acumulado.getCodigo(i), acumulado.getTotal(i));
+            }
+            for (int i = 0; i <= AnalisisVentas.CESTA_MAXIMA; i++) {
+                resumen.cestas[i] = acumulado.getCestas(i);
+            }
+            return resumen;
+        }
+
+        // Los ingresos se comparan con tolerancia: el orden de las sumas cambia entre variantes
+        boolean igualA(Resumen otro) {
+            if (!unidades.equals(otro.unidades) || !Arrays.equals(cestas, otro.cestas)) {
+                return false;
+            }
+            for (Map.Entry<String, Double> total : totales.entrySet()) {
+                if (Math.abs(total.getValue() - otro.totales.get(total.getKey())) > 1e-6 * Math.abs(total.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import com.mycompany.zl_solucion_integral.models.Producto;
+import com.mycompany.zl_solucion_integral.models.Usuario;
+import com.mycompany.zl_solucion_integral.models.Venta;
+import com.mycompany.zl_solucion_integral.servicios.Resultado;
+import com.mycompany.zl_solucion_integral.servicios.ServicioVentas;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Comparativa del guardado de una venta: el ciclo anterior, con un
+ * `executeUpdate` por línea para el detalle y otro para el stock, frente a
+ * {@link ServicioVentas#registrar}, que descuenta el stock y guarda los
+ * detalles con `addBatch`/`executeBatch`.
+ *
+ * Las dos variantes guardan los mismos carritos sobre la misma base de datos
+ * temporal, por la {@link ColaEscritura} y esperando la confirmación de cada
+ * venta como la aplicación. El ciclo anterior hace además lo que hoy hace el
+ * servicio (resumen diario y caché de productos), así que la única diferencia
+ * es el lote. Al final se comprueba que el stock descontado coincide con las
+ * unidades guardadas en los detalles.
+ *
+ * Se ejecuta con
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.mycompany.zl_solucion_integral.config.ComparativaGuardadoVenta [productos] [líneas por tamaño]
+ * </pre>
+ *
+ * Por defecto usa 2.000 productos y carritos de 10, 100, 500 y 2.000 líneas,
+ * con unas 20.000 líneas por tamaño y variante. Muestra líneas por segundo de
+ * cada variante y termina con código 1 si alguna venta falla o el stock no
+ * cuadra.
+ *
+ * @author Dazac
+ */
+public final class ComparativaGuardadoVenta {
+
+    private static final int[] LINEAS_POR_VENTA = {10, 100, 500, 2_000};
+
+    private static final int STOCK_INICIAL = 1_000_000_000;
+
+    private ComparativaGuardadoVenta() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int productos = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int lineasPorTamano = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        boolean correcto = true;
+        try (BaseDatosTemporal base = BaseDatosTemporal.abrir(2)) {
+            List<Producto> catalogo = crearProductos(productos);
+            Random azar = new Random(42);
+            ServicioVentas servicio = new ServicioVentas();
+            System.out.printf("%d productos, ~%d líneas por tamaño de venta%n", productos, lineasPorTamano);
+            System.out.printf("%-16s %22s %22s %10s%n", "líneas/venta", "executeUpdate/línea", "addBatch", "mejora");
+
+            for (int tamano : LINEAS_POR_VENTA) {
+                if (tamano > productos) {
+                    continue;
+                }
+                int ventas = Math.max(5, lineasPorTamano / tamano);
+                List<List<Producto>> carritos = new ArrayList<>(ventas);
+                for (int i = 0; i < ventas; i++) {
+                    carritos.add(carrito(catalogo, tamano, azar));
+                }
+
+                // Calentamiento de ambas variantes con el primer carrito
+                guardarPorLinea(venta(carritos.get(0)), carritos.get(0));
+                correcto &= servicio.registrar(venta(carritos.get(0)), carritos.get(0)).esExito();
+
+                long inicio = System.nanoTime();
+                for (List<Producto> carrito : carritos) {
+                    guardarPorLinea(venta(carrito), carrito);
+                }
+                double porLinea = (double) ventas * tamano / ((System.nanoTime() - inicio) / 1e9);
+
+                inicio = System.nanoTime();
+                for (List<Producto> carrito : carritos) {
+                    Resultado<Integer> resultado = servicio.registrar(venta(carrito), carrito);
+                    if (!resultado.esExito()) {
+                        System.out.println("  venta fallida: " + resultado.getError().getMensaje());
+                        correcto = false;
+                    }
+                }
+                double porLotes = (double) ventas * tamano / ((System.nanoTime() - inicio) / 1e9);
+
+                System.out.printf("%-16d %16.1fk lín/s %16.1fk lín/s %9.2fx%n",
+                        tamano, porLinea / 1000, porLotes / 1000, porLotes / porLinea);
+            }
+            correcto &= comprobarStock();
+        }
+        System.out.println(correcto ? "OK" : "FALLÓ");
+        System.exit(correcto ? 0 : 1);
+    }
+
+    /**
+     * El guardado anterior a los lotes: por cada línea, un `executeUpdate`
+     * para el detalle y otro para descontar el stock.
+     */
+    private static void guardarPorLinea(Venta venta, List<Producto> productosVendidos) {
+        ColaEscritura.getInstancia().enviar("venta por línea", conn -> {
+            int ventaId;
+            try (PreparedStatement psVenta = conn.prepareStatement("INSERT INTO ventas (cliente, cc_cliente, "
+                    + "vendedor, fecha, fecha_dia, total, metodo_pago, pago_confirmado) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                psVenta.setString(1, venta.getCliente().getNombre());
+                psVenta.setString(2, venta.getCliente().getNoCc());
+                psVenta.setString(3, venta.getVendedor());
+                psVenta.setDate(4, Date.valueOf(venta.getFecha()));
+                psVenta.setLong(5, venta.getFecha().toEpochDay());
+                psVenta.setDouble(6, venta.getTotal());
+                psVenta.setString(7, venta.getMetodoPago());
+                psVenta.setString(8, "");
+                psVenta.executeUpdate();
+                try (ResultSet generatedKeys = psVenta.getGeneratedKeys()) {
+                    generatedKeys.next();
+                    ventaId = generatedKeys.getInt(1);
+                }
+            }
+            long unidades = 0;
+            double total = 0;
+            try (PreparedStatement psDetalle = conn.prepareStatement("INSERT INTO detalles_venta (venta_id, "
+                    + "producto, cantidad, codigo, precio, total) VALUES (?, ?, ?, ?, ?, ?)");
+                    PreparedStatement psStock = conn.prepareStatement(
+                            "UPDATE productos SET cantidad = cantidad - ? WHERE codigo = ? AND cantidad >= ?")) {
+                for (Producto producto : productosVendidos) {
+                    psDetalle.setInt(1, ventaId);
+                    psDetalle.setString(2, producto.getProducto());
+                    psDetalle.setInt(3, producto.getCantidadSolicitada());
+                    psDetalle.setString(4, producto.getCodigo());
+                    psDetalle.setDouble(5, producto.getPrecio());
+                    psDetalle.setDouble(6, producto.getPrecio() * producto.getCantidadSolicitada());
+                    psDetalle.executeUpdate();
+
+                    psStock.setInt(1, producto.getCantidadSolicitada());
+                    psStock.setString(2, producto.getCodigo());
+                    psStock.setInt(3, producto.getCantidadSolicitada());
+                    if (psStock.executeUpdate() == 0) {
+                        throw new SQLException("Error al actualizar stock para el producto: " + producto.getProducto());
+                    }
+                    unidades += producto.getCantidadSolicitada();
+                    total += producto.getPrecio() * producto.getCantidadSolicitada();
+                }
+            }
+            VentasDiarias.sumarVenta(conn, venta.getFecha().toEpochDay(), venta.getVendedor(),
+                    venta.getMetodoPago(), unidades, total);
+            for (Producto producto : productosVendidos) {
+                CacheProductos.getInstancia().recargarCodigo(conn, producto.getCodigo());
+            }
+            return ventaId;
+        }).join();
+    }
+
+    private static List<Producto> crearProductos(int productos) {
+        List<Producto> catalogo = new ArrayList<>(productos);
+        for (int i = 0; i < productos; i++) {
+            catalogo.add(new Producto("Producto " + i, 1.0 + i % 500, STOCK_INICIAL, "COD-" + i, "Categoría " + i % 40));
+        }
+        ColaEscritura.getInstancia().enviar("productos", conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO productos (producto, precio, cantidad, codigo, categoria) VALUES (?, ?, ?, ?, ?)")) {
+                for (Producto producto : catalogo) {
+                    pstmt.setString(1, producto.getProducto());
+                    pstmt.setDouble(2, producto.getPrecio());
+                    pstmt.setInt(3, producto.getCantidad());
+                    pstmt.setString(4, producto.getCodigo());
+                    pstmt.setString(5, producto.getCategoria());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            return null;
+        }).join();
+        return catalogo;
+    }
+
+    // Carrito de `tamano` productos distintos, de 1 a 3 unidades cada uno
+    private static List<Producto> carrito(List<Producto> catalogo, int tamano, Random azar) {
+        List<Producto> mezclados = new ArrayList<>(catalogo);
+        Collections.shuffle(mezclados, azar);
+        List<Producto> carrito = new ArrayList<>(tamano);
+        for (Producto producto : mezclados.subList(0, tamano)) {
+            Producto linea = new Producto(producto.getProducto(), producto.getPrecio(), producto.getCantidad(),
+                    producto.getCodigo(), producto.getCategoria());
+            linea.setCantidadSolicitada(1 + azar.nextInt(3));
+            carrito.add(linea);
+        }
+        return carrito;
+    }
+
+    private static Venta venta(List<Producto> carrito) {
+        Usuario cliente = new Usuario();
+        cliente.setNombre("Cliente mayorista");
+        cliente.setNoCc("900123456");
+        double total = 0;
+        for (Producto producto : carrito) {
+            total += producto.getPrecio() * producto.getCantidadSolicitada();
+        }
+        return new Venta(null, null, carrito.size(), LocalDate.of(2025, 3, 1), "Vendedor", cliente, total, 0, 0,
+                "efectivo");
+    }
+
+    // Todo el stock descontado debe estar en los detalles guardados
+    private static boolean comprobarStock() throws SQLException {
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector();
+                Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT (SELECT COUNT(*) * " + STOCK_INICIAL + " - SUM(cantidad) "
+                        + "FROM productos), (SELECT SUM(cantidad) FROM detalles_venta)")) {
+            rs.next();
+            boolean cuadra = rs.getLong(1) == rs.getLong(2);
+            System.out.printf("  [%s] stock descontado %d, unidades en detalles %d%n",
+                    cuadra ? "ok" : "FALLO", rs.getLong(1), rs.getLong(2));
+            return cuadra;
+        }
+    }
+}
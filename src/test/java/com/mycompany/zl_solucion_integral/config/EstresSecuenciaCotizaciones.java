@@ -0,0 +1,140 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga de {@link SecuenciaCotizaciones}: varios hilos piden
+ * números de cotización a la vez y se comprueba que todos son distintos y que
+ * el consecutivo del día no tiene huecos.
+ *
+ * Se hace en dos rondas sobre una base de datos temporal:
+ *
+ * 1. Por la {@link ColaEscritura}, como la aplicación: cada hilo envía
+ * `siguienteNumero` a la cola y espera a que se confirme.
+ * 2. Con una conexión propia por hilo, en modo autocommit, como varios equipos
+ * que comparten el archivo de la base de datos.
+ *
+ * No es una prueba de JUnit (el proyecto no tiene dependencias de prueba): se
+ * ejecuta con
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.mycompany.zl_solucion_integral.config.EstresSecuenciaCotizaciones [hilos] [llamadas]
+ * </pre>
+ *
+ * Por defecto usa 16 hilos con 200 llamadas cada uno. Termina con código 0 si
+ * todas las comprobaciones pasan y con 1 si alguna falla.
+ *
+ * @author Dazac
+ */
+public final class EstresSecuenciaCotizaciones {
+
+    private EstresSecuenciaCotizaciones() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int llamadas = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        boolean correcto;
+        try (BaseDatosTemporal base = BaseDatosTemporal.abrir(2)) {
+            LocalDate dia = LocalDate.of(2025, 1, 15);
+            correcto = comprobar("cola de escritura", base, dia, hilos, llamadas, false);
+            correcto &= comprobar("conexiones propias", base, dia.plusDays(1), hilos, llamadas, true);
+        }
+        System.out.println(correcto ? "OK" : "FALLÓ");
+        System.exit(correcto ? 0 : 1);
+    }
+
+    // Una ronda de `hilos` x `llamadas` números del mismo día
+    private static boolean comprobar(String ronda, BaseDatosTemporal base, LocalDate dia, int hilos, int llamadas,
+            boolean conexionesPropias) throws Exception {
+        Queue<String> numeros = new ConcurrentLinkedQueue<>();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                if (conexionesPropias) {
+                    try (Connection conn = base.conectar()) {
+                        try (Statement st = conn.createStatement()) {
+                            st.execute("PRAGMA busy_timeout = 30000");
+                        }
+                        for (int i = 0; i < llamadas; i++) {
+                            numeros.add(SecuenciaCotizaciones.siguienteNumero(conn, dia));
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < llamadas; i++) {
+                        numeros.add(ColaEscritura.getInstancia()
+                                .enviar("número de cotización", conn -> SecuenciaCotizaciones.siguienteNumero(conn, dia))
+                                .join());
+                    }
+                }
+                return null;
+            }));
+        }
+        long inicio = System.nanoTime();
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        double ms = (System.nanoTime() - inicio) / 1e6;
+        ejecutor.shutdown();
+
+        int esperados = hilos * llamadas;
+        String prefijo = dia.format(DateTimeFormatter.BASIC_ISO_DATE) + "-";
+        TreeSet<Long> consecutivos = new TreeSet<>();
+        boolean formatoCorrecto = true;
+        for (String numero : numeros) {
+            formatoCorrecto &= numero.startsWith(prefijo);
+            consecutivos.add(Long.parseLong(numero.substring(prefijo.length())));
+        }
+        long ultimo = leerUltimo(dia);
+
+        boolean completos = numeros.size() == esperados;
+        boolean distintos = consecutivos.size() == numeros.size();
+        boolean sinHuecos = !consecutivos.isEmpty() && consecutivos.first() == 1
+                && consecutivos.last() == esperados;
+        boolean guardado = ultimo == esperados;
+        System.out.printf("%s: %d hilos x %d llamadas en %.0f ms (%.0f números/s)%n",
+                ronda, hilos, llamadas, ms, esperados / (ms / 1000));
+        informar("números recibidos: " + numeros.size() + " de " + esperados, completos);
+        informar("números distintos: " + consecutivos.size(), distintos);
+        informar("consecutivos de 1 a " + esperados + " sin huecos", sinHuecos);
+        informar("formato " + prefijo + "NNN", formatoCorrecto);
+        informar("último consecutivo guardado: " + ultimo, guardado);
+        return completos && distintos && sinHuecos && formatoCorrecto && guardado;
+    }
+
+    private static long leerUltimo(LocalDate dia) throws SQLException {
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector();
+                PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT ultimo FROM secuencias_cotizacion WHERE dia = ?")) {
+            pstmt.setLong(1, dia.toEpochDay());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static void informar(String comprobacion, boolean correcto) {
+        System.out.println("  [" + (correcto ? "ok" : "FALLO") + "] " + comprobacion);
+    }
+}
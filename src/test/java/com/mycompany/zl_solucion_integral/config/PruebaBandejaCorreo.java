@@ -0,0 +1,276 @@
+package com.mycompany.zl_solucion_integral.config;
+
+import com.mycompany.zl_solucion_integral.config.BandejaCorreo.EstadoCorreo;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.Session;
+
+/**
+ * Prueba de {@link BandejaCorreo} contra un servidor SMTP mínimo dentro del
+ * mismo proceso, sin red ni cuenta de correo.
+ *
+ * Comprueba tres casos, en este orden y con la misma bandeja:
+ *
+ * 1. Una ráfaga de correos se entrega completa por una sola conexión SMTP.
+ * 2. Si el servidor cierra la conexión inactiva, el siguiente correo se envía
+ * por una conexión nueva sin gastar un intento.
+ * 3. Durante una caída del servidor el correo queda pendiente y se entrega al
+ * reintentar cuando el servidor vuelve.
+ *
+ * Se ejecuta con
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     com.mycompany.zl_solucion_integral.config.PruebaBandejaCorreo [correos]
+ * </pre>
+ *
+ * Por defecto la ráfaga es de 50 correos. El tercer caso espera el primer
+ * reintento (`correo.reintentos.espera_ms`, 5 s por defecto). Termina con
+ * código 0 si todas las comprobaciones pasan y con 1 si alguna falla.
+ *
+ * @author Dazac
+ */
+public final class PruebaBandejaCorreo {
+
+    private static final long ESPERA_MAXIMA_S = 60;
+
+    private PruebaBandejaCorreo() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int correos = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        boolean correcto = true;
+        try (BaseDatosTemporal base = BaseDatosTemporal.abrir(2);
+                ServidorSmtp servidor = new ServidorSmtp()) {
+            Properties propiedades = new Properties();
+            propiedades.put("mail.smtp.host", "127.0.0.1");
+            propiedades.put("mail.smtp.port", String.valueOf(servidor.getPuerto()));
+            propiedades.put("mail.smtp.connectiontimeout", "5000");
+            propiedades.put("mail.smtp.timeout", "5000");
+            BandejaCorreo.inicializar(Session.getInstance(propiedades), "ventas@prueba.local");
+            BandejaCorreo bandeja = BandejaCorreo.getInstancia();
+            try {
+                correcto = rafaga(bandeja, servidor, correos);
+                correcto &= reconexion(bandeja, servidor);
+                correcto &= caida(bandeja, servidor);
+                System.out.println(bandeja.obtenerMetricas());
+            } finally {
+                BandejaCorreo.cerrar(5000);
+            }
+        }
+        System.out.println(correcto ? "OK" : "FALLÓ");
+        System.exit(correcto ? 0 : 1);
+    }
+
+    // Caso 1: todos los correos de la ráfaga por una sola conexión
+    private static boolean rafaga(BandejaCorreo bandeja, ServidorSmtp servidor, int correos) throws Exception {
+        long inicio = System.nanoTime();
+        List<CompletableFuture<EstadoCorreo>> futuros = new ArrayList<>();
+        for (int i = 0; i < correos; i++) {
+            futuros.add(bandeja.encolar("cliente" + i + "@prueba.local", "Cotización " + i, "Adjunta la cotización.", null));
+        }
+        boolean enviados = true;
+        for (CompletableFuture<EstadoCorreo> futuro : futuros) {
+            enviados &= futuro.get(ESPERA_MAXIMA_S, TimeUnit.SECONDS) == EstadoCorreo.ENVIADO;
+        }
+        double ms = (System.nanoTime() - inicio) / 1e6;
+        System.out.printf("ráfaga: %d correos en %.0f ms (%.0f correos/s)%n", correos, ms, correos / (ms / 1000));
+        informar("todos los futuros terminan en ENVIADO", enviados);
+        informar("mensajes recibidos por el servidor: " + servidor.getMensajes(), servidor.getMensajes() == correos);
+        informar("conexiones SMTP abiertas: " + servidor.getConexiones(), servidor.getConexiones() == 1);
+        return enviados && servidor.getMensajes() == correos && servidor.getConexiones() == 1;
+    }
+
+    // Caso 2: el servidor corta la conexión inactiva y la bandeja reconecta
+    private static boolean reconexion(BandejaCorreo bandeja, ServidorSmtp servidor) throws Exception {
+        System.out.println("conexión cortada por el servidor:");
+        int mensajesAntes = servidor.getMensajes();
+        int conexionesAntes = servidor.getConexiones();
+        servidor.cortarConexiones();
+        CompletableFuture<EstadoCorreo> futuro = bandeja.encolar("tras-corte@prueba.local", "Tras el corte", "Hola.", null);
+        boolean enviado = futuro.get(ESPERA_MAXIMA_S, TimeUnit.SECONDS) == EstadoCorreo.ENVIADO;
+        int intentos = intentos("tras-corte@prueba.local");
+        informar("el correo termina en ENVIADO", enviado);
+        informar("el servidor lo recibió", servidor.getMensajes() == mensajesAntes + 1);
+        informar("se abrió una conexión nueva", servidor.getConexiones() == conexionesAntes + 1);
+        informar("intentos gastados: " + intentos, intentos == 1);
+        return enviado && servidor.getMensajes() == mensajesAntes + 1
+                && servidor.getConexiones() == conexionesAntes + 1 && intentos == 1;
+    }
+
+    // Caso 3: con el servidor caído el correo queda pendiente y sale al volver
+    private static boolean caida(BandejaCorreo bandeja, ServidorSmtp servidor) throws Exception {
+        System.out.println("caída del servidor:");
+        int mensajesAntes = servidor.getMensajes();
+        servidor.setDisponible(false);
+        servidor.cortarConexiones();
+        long inicio = System.nanoTime();
+        CompletableFuture<EstadoCorreo> futuro = bandeja.encolar("en-caida@prueba.local", "Durante la caída", "Hola.", null);
+        Thread.sleep(1500);
+        String estado = estado("en-caida@prueba.local");
+        boolean pendiente = !futuro.isDone() && EstadoCorreo.PENDIENTE.name().equals(estado);
+        informar("durante la caída queda " + estado + " y sin terminar", pendiente);
+
+        servidor.setDisponible(true);
+        boolean enviado = futuro.get(ESPERA_MAXIMA_S, TimeUnit.SECONDS) == EstadoCorreo.ENVIADO;
+        informar(String.format("al volver el servidor se envía (%.1f s después de encolarlo)",
+                (System.nanoTime() - inicio) / 1e9), enviado);
+        informar("el servidor lo recibió", servidor.getMensajes() == mensajesAntes + 1);
+        return pendiente && enviado && servidor.getMensajes() == mensajesAntes + 1;
+    }
+
+    private static String estado(String destinatario) throws SQLException {
+        return consultar("SELECT estado FROM correos_salientes WHERE destinatario = ?", destinatario);
+    }
+
+    private static int intentos(String destinatario) throws SQLException {
+        String intentos = consultar("SELECT intentos FROM correos_salientes WHERE destinatario = ?", destinatario);
+        return intentos == null ? -1 : Integer.parseInt(intentos);
+    }
+
+    private static String consultar(String sql, String destinatario) throws SQLException {
+        try (Connection conn = PoolConexiones.getInstancia().obtenerLector();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, destinatario);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static void informar(String comprobacion, boolean correcto) {
+        System.out.println("  [" + (correcto ? "ok" : "FALLO") + "] " + comprobacion);
+    }
+
+    /**
+     * Servidor SMTP mínimo: acepta cualquier remitente y destinatario, sin
+     * autenticación ni TLS, y cuenta las conexiones y los mensajes recibidos.
+     * Mientras no está disponible cierra cada conexión nada más aceptarla.
+     */
+    private static final class ServidorSmtp implements AutoCloseable {
+
+        private final ServerSocket socket;
+        private final Thread aceptador;
+        private final Set<Socket> abiertas = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger conexiones = new AtomicInteger();
+        private final AtomicInteger mensajes = new AtomicInteger();
+        private volatile boolean disponible = true;
+
+        ServidorSmtp() throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            aceptador = new Thread(this::aceptar, "smtp-prueba");
+            aceptador.setDaemon(true);
+            aceptador.start();
+        }
+
+        int getPuerto() {
+            return socket.getLocalPort();
+        }
+
+        int getConexiones() {
+            return conexiones.get();
+        }
+
+        int getMensajes() {
+            return mensajes.get();
+        }
+
+        void setDisponible(boolean disponible) {
+            this.disponible = disponible;
+        }
+
+        // Cierra las conexiones abiertas sin avisar al cliente, como un servidor que las da por inactivas
+        void cortarConexiones() throws IOException {
+            for (Socket cliente : abiertas) {
+                cliente.close();
+            }
+        }
+
+        private void aceptar() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket cliente = socket.accept();
+                    if (!disponible) {
+                        cliente.close();
+                        continue;
+                    }
+                    conexiones.incrementAndGet();
+                    abiertas.add(cliente);
+                    Thread sesion = new Thread(() -> atender(cliente), "smtp-prueba-sesion");
+                    sesion.setDaemon(true);
+                    sesion.start();
+                } catch (IOException e) {
+                    // Servidor cerrado
+                }
+            }
+        }
+
+        private void atender(Socket cliente) {
+            try (cliente;
+                    BufferedReader entrada = new BufferedReader(
+                            new InputStreamReader(cliente.getInputStream(), StandardCharsets.US_ASCII))) {
+                OutputStream salida = cliente.getOutputStream();
+                responder(salida, "220 prueba.local ESMTP");
+                String linea;
+                while ((linea = entrada.readLine()) != null) {
+                    String comando = linea.length() >= 4 ? linea.substring(0, 4).toUpperCase() : linea.toUpperCase();
+                    switch (comando) {
+                        case "EHLO":
+                        case "HELO":
+                            responder(salida, "250 prueba.local");
+                            break;
+                        case "DATA":
+                            responder(salida, "354 Termine con <CRLF>.<CRLF>");
+                            while ((linea = entrada.readLine()) != null && !linea.equals(".")) {
+                                // Se descarta el contenido
+                            }
+                            mensajes.incrementAndGet();
+                            responder(salida, "250 Aceptado");
+                            break;
+                        case "QUIT":
+                            responder(salida, "221 Hasta luego");
+                            return;
+                        default:
+                            // MAIL, RCPT, RSET, NOOP
+                            responder(salida, "250 OK");
+                            break;
+                    }
+                }
+            } catch (IOException e) {
+                // Conexión cortada
+            } finally {
+                abiertas.remove(cliente);
+            }
+        }
+
+        private static void responder(OutputStream salida, String linea) throws IOException {
+            salida.write((linea + "\r\n").getBytes(StandardCharsets.UTF_8));
+            salida.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+            cortarConexiones();
+        }
+    }
+}